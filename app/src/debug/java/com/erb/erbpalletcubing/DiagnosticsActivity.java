@@ -0,0 +1,59 @@
+package com.erb.erbpalletcubing;
+
+import android.app.Activity;
+import android.content.Context;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.widget.Toast;
+
+import java.io.File;
+
+/**
+ * DiagnosticsActivity - Starts the performance self-check, debug builds only
+ *   adb shell am start -a com.erb.erbpalletcubing.DIAGNOSTICS
+ * Declared in the debug manifest, so a release build has no exported entry
+ * point that makes the app copy its database and write reports. Shows no UI:
+ * it finishes straight away and the result comes back as a toast.
+ */
+public class DiagnosticsActivity extends Activity {
+
+    private static final String TAG = "DiagnosticsActivity";
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        if (PerfDiagnostics.ACTION_RUN.equals(getIntent().getAction())) {
+            run(getApplicationContext());
+        }
+        finish();
+    }
+
+    private static void run(final Context context) {
+        final Handler mainHandler = new Handler(Looper.getMainLooper());
+        Toast.makeText(context, "Running diagnostics...", Toast.LENGTH_SHORT).show();
+        final PerfDiagnostics diagnostics = new PerfDiagnostics(context);
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                String message;
+                try {
+                    File report = diagnostics.writeReport(diagnostics.run());
+                    message = "Diagnostics saved to " + report.getPath();
+                } catch (Exception e) {
+                    Log.e(TAG, "Error running diagnostics: " + e.getMessage(), e);
+                    message = "Diagnostics failed: " + e.getMessage();
+                }
+                final String result = message;
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        Toast.makeText(context, result, Toast.LENGTH_LONG).show();
+                    }
+                });
+            }
+        }, "Diagnostics");
+        thread.start();
+    }
+}
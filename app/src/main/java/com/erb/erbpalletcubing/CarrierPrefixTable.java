@@ -0,0 +1,271 @@
+package com.erb.erbpalletcubing;
+
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+
+/**
+ * CarrierPrefixTable - Known carrier PRO prefixes and their check-digit rules
+ * Membership is a 1000-bit bitset indexed by the numeric 3-digit prefix, so
+ * ValidationHelper.checkProNumber pays O(1) with no allocation. Tables are
+ * immutable; reload() builds a new one and swaps it in through a volatile
+ * reference, so validators never wait on a reload.
+ *
+ * File format, one prefix per line, '#' starts a comment:
+ *   123            known carrier, no check digit
+ *   456,MOD7       last digit = preceding digits mod 7
+ *   789,LUHN       Luhn (mod 10) over all digits
+ */
+public final class CarrierPrefixTable {
+
+    private static final String TAG = "CarrierPrefixTable";
+
+    // Terminal-specific table, in the app's files dir
+    public static final String CONFIG_FILE_NAME = "carrier_prefixes.txt";
+
+    private static final int PREFIX_COUNT = 1000;
+
+    // Check-digit schemes
+    public static final byte CHECK_NONE = 0;
+    public static final byte CHECK_MOD7 = 1;
+    public static final byte CHECK_LUHN = 2;
+
+    /**
+     * Accepts every prefix with no check digit (used until a table is loaded)
+     */
+    public static final CarrierPrefixTable ALLOW_ALL = new CarrierPrefixTable(null, null);
+
+    private static volatile CarrierPrefixTable current = ALLOW_ALL;
+    private static long loadedModified;
+
+    private final long[] knownBits;     // null means every prefix is known
+    private final byte[] checkSchemes;  // null means no check digits
+
+    private CarrierPrefixTable(long[] knownBits, byte[] checkSchemes) {
+        this.knownBits = knownBits;
+        this.checkSchemes = checkSchemes;
+    }
+
+    // ==================== Published Table ====================
+
+    /**
+     * Get the table validators currently use
+     */
+    public static CarrierPrefixTable current() {
+        return current;
+    }
+
+    /**
+     * Publish a table to validators
+     */
+    public static void setCurrent(CarrierPrefixTable table) {
+        current = table != null ? table : ALLOW_ALL;
+    }
+
+    /**
+     * Load a table file and publish it; on error the current table is kept
+     * @return true if the new table was published
+     */
+    public static boolean reload(File file) {
+        try {
+            long modified = file.lastModified();
+            CarrierPrefixTable table = load(file);
+            synchronized (CarrierPrefixTable.class) {
+                current = table;
+                loadedModified = modified;
+            }
+            Log.d(TAG, "Carrier prefix table loaded: " + table.size() + " prefixes from " + file);
+            return true;
+        } catch (IOException e) {
+            Log.e(TAG, "Error loading carrier prefix table: " + e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Reload only if the file changed since the last successful reload
+     * Cheap enough to call on a timer or on resume
+     */
+    public static boolean reloadIfModified(File file) {
+        synchronized (CarrierPrefixTable.class) {
+            if (!file.exists() || file.lastModified() == loadedModified) {
+                return false;
+            }
+        }
+        return reload(file);
+    }
+
+    // ==================== Loading ====================
+
+    /**
+     * Parse a table file without publishing it
+     */
+    public static CarrierPrefixTable load(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            return parse(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Parse a table from a stream without publishing it
+     */
+    public static CarrierPrefixTable parse(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, Charset.forName("UTF-8")));
+        long[] bits = new long[(PREFIX_COUNT + 63) / 64];
+        byte[] schemes = new byte[PREFIX_COUNT];
+        int lineNumber = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+
+            String prefixPart = line;
+            String schemePart = null;
+            int comma = line.indexOf(',');
+            if (comma >= 0) {
+                prefixPart = line.substring(0, comma).trim();
+                schemePart = line.substring(comma + 1).trim();
+            }
+
+            int prefix = parsePrefix(prefixPart);
+            if (prefix < 0) {
+                throw new IOException("Invalid carrier prefix on line " + lineNumber + ": " + prefixPart);
+            }
+
+            bits[prefix >>> 6] |= 1L << prefix;
+            schemes[prefix] = parseScheme(schemePart, lineNumber);
+        }
+
+        return new CarrierPrefixTable(bits, schemes);
+    }
+
+    /**
+     * @return Prefix 0-999 from exactly 3 digits, or -1
+     */
+    private static int parsePrefix(String text) {
+        if (text.length() != ProNumber.PREFIX_LENGTH) {
+            return -1;
+        }
+        int prefix = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            prefix = prefix * 10 + (c - '0');
+        }
+        return prefix;
+    }
+
+    private static byte parseScheme(String scheme, int lineNumber) throws IOException {
+        if (scheme == null || scheme.isEmpty() || scheme.equalsIgnoreCase("NONE")) {
+            return CHECK_NONE;
+        }
+        if (scheme.equalsIgnoreCase("MOD7")) {
+            return CHECK_MOD7;
+        }
+        if (scheme.equalsIgnoreCase("LUHN")) {
+            return CHECK_LUHN;
+        }
+        throw new IOException("Unknown check-digit scheme on line " + lineNumber + ": " + scheme);
+    }
+
+    // ==================== Lookups ====================
+
+    /**
+     * Check if a 3-digit prefix (0-999) belongs to a known carrier
+     */
+    public boolean isKnown(int prefix) {
+        if (prefix < 0 || prefix >= PREFIX_COUNT) {
+            return false;
+        }
+        return knownBits == null || (knownBits[prefix >>> 6] & (1L << prefix)) != 0;
+    }
+
+    /**
+     * Get the check-digit scheme for a prefix
+     */
+    public byte checkScheme(int prefix) {
+        if (checkSchemes == null || prefix < 0 || prefix >= PREFIX_COUNT) {
+            return CHECK_NONE;
+        }
+        return checkSchemes[prefix];
+    }
+
+    /**
+     * Verify the check digit of the 10 ASCII digits starting at start
+     */
+    public boolean isCheckDigitValid(int prefix, CharSequence digits, int start) {
+        return isCheckDigitValid(prefix, digits, start, start + ProNumber.LENGTH);
+    }
+
+    /**
+     * Verify the check digit of the ASCII digits in [start, end); the last digit is the check digit
+     */
+    public boolean isCheckDigitValid(int prefix, CharSequence digits, int start, int end) {
+        switch (checkScheme(prefix)) {
+            case CHECK_MOD7:
+                return isMod7Valid(digits, start, end);
+            case CHECK_LUHN:
+                return isLuhnValid(digits, start, end);
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Get the number of known prefixes (PREFIX_COUNT when allowing all)
+     */
+    public int size() {
+        if (knownBits == null) {
+            return PREFIX_COUNT;
+        }
+        int count = 0;
+        for (long word : knownBits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    private static boolean isMod7Valid(CharSequence digits, int start, int end) {
+        int remainder = 0;
+        for (int i = start; i < end - 1; i++) {
+            remainder = (remainder * 10 + (digits.charAt(i) - '0')) % 7;
+        }
+        return digits.charAt(end - 1) - '0' == remainder;
+    }
+
+    private static boolean isLuhnValid(CharSequence digits, int start, int end) {
+        int sum = 0;
+        boolean doubleIt = false;
+        for (int i = end - 1; i >= start; i--) {
+            int digit = digits.charAt(i) - '0';
+            if (doubleIt) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubleIt = !doubleIt;
+        }
+        return sum % 10 == 0;
+    }
+}
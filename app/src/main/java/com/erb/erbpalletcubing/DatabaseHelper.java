@@ -5,6 +5,7 @@ import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 import android.util.Log;
 
 import java.text.SimpleDateFormat;
@@ -22,8 +23,8 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     private static final String TAG = "DatabaseHelper";
 
     // Database Info
-    private static final String DATABASE_NAME = "ErbCubingDB.db";
-    private static final int DATABASE_VERSION = 1;
+    static final String DATABASE_NAME = "ErbCubingDB.db";
+    private static final int DATABASE_VERSION = 3;
 
     // Table Name
     public static final String TABLE_CUBING_DATA = "CubingData";
@@ -48,6 +49,10 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     public static final String COLUMN_OSD_QUANTITY_TYPE = "OSD_QuantityType";
     public static final String COLUMN_STATUS = "Status";
 
+    // Compact copy of PRO_Number_Incoming as a packed INTEGER (see ProNumber), added in version 2
+    public static final String COLUMN_PRO_NUMBER_PACKED = "PRO_Number_Packed";
+    static final String INDEX_PRO_NUMBER_PACKED = "idx_" + TABLE_CUBING_DATA + "_" + COLUMN_PRO_NUMBER_PACKED;
+
     // SQL Create Table Statement
     private static final String SQL_CREATE_TABLE =
             "CREATE TABLE " + TABLE_CUBING_DATA + " (" +
@@ -59,8 +64,8 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                     COLUMN_PRO_PREFIX + " TEXT NOT NULL, " +
                     COLUMN_PRO_NUMBER_ERB + " TEXT NOT NULL, " +
                     COLUMN_FREIGHT_TYPE + " TEXT NOT NULL, " +
-                    COLUMN_TEMP1 + " TEXT NOT NULL, " +
-                    COLUMN_TEMP2 + " TEXT, " +  // Nullable
+                    COLUMN_TEMP1 + " INTEGER NOT NULL, " +  // Tenths of a degree F (see Temperature)
+                    COLUMN_TEMP2 + " INTEGER, " +  // Nullable, tenths of a degree F
                     COLUMN_EXPECTED_PALLETS_PRO + " INTEGER NOT NULL, " +
                     COLUMN_PALLET_SEQUENCE + " INTEGER NOT NULL, " +
                     COLUMN_PALLET_HEIGHT + " INTEGER NOT NULL, " +
@@ -68,7 +73,85 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                     COLUMN_OSD_REASON + " TEXT, " +  // Nullable
                     COLUMN_OSD_QUANTITY + " INTEGER, " +  // Nullable
                     COLUMN_OSD_QUANTITY_TYPE + " TEXT, " +  // Nullable
-                    COLUMN_STATUS + " TEXT NOT NULL)";
+                    COLUMN_STATUS + " TEXT NOT NULL, " +
+                    COLUMN_PRO_NUMBER_PACKED + " INTEGER)";  // Nullable
+
+    private static final String SQL_CREATE_PRO_PACKED_INDEX =
+            "CREATE INDEX IF NOT EXISTS " + INDEX_PRO_NUMBER_PACKED +
+                    " ON " + TABLE_CUBING_DATA + " (" + COLUMN_PRO_NUMBER_PACKED + ")";
+
+    // Version 1 -> 2: add the packed PRO column and fill it from the TEXT column
+    private static final String SQL_ADD_PRO_PACKED_COLUMN =
+            "ALTER TABLE " + TABLE_CUBING_DATA + " ADD COLUMN " + COLUMN_PRO_NUMBER_PACKED + " INTEGER";
+
+    private static final String SQL_BACKFILL_PRO_PACKED =
+            "UPDATE " + TABLE_CUBING_DATA + " SET " + COLUMN_PRO_NUMBER_PACKED +
+                    " = CAST(" + COLUMN_PRO_NUMBER_INCOMING + " AS INTEGER)" +
+                    " WHERE length(" + COLUMN_PRO_NUMBER_INCOMING + ") = " + ProNumber.LENGTH +
+                    " AND " + COLUMN_PRO_NUMBER_INCOMING + " NOT GLOB '*[^0-9]*'";
+
+    // Version 2 -> 3: Temp1/Temp2 become INTEGER tenths of a degree, which needs a table rebuild
+    private static final String TABLE_CUBING_DATA_V2 = TABLE_CUBING_DATA + "_v2";
+
+    private static final String SQL_RENAME_TABLE_V2 =
+            "ALTER TABLE " + TABLE_CUBING_DATA + " RENAME TO " + TABLE_CUBING_DATA_V2;
+
+    // Version 2 stored temperatures as entered; only values that read as a number convert.
+    // A Temp2 that doesn't becomes NULL, and a row whose Temp1 doesn't is kept aside in
+    // TABLE_CUBING_DATA_UNCONVERTED instead of being given an invented reading.
+    private static final String TEMP1_CONVERTIBLE = convertibleTemperature(COLUMN_TEMP1);
+    private static final String TEMP2_CONVERTIBLE = convertibleTemperature(COLUMN_TEMP2);
+
+    static final String TABLE_CUBING_DATA_UNCONVERTED = TABLE_CUBING_DATA + "_v2_unconverted";
+
+    private static final String SQL_COPY_FROM_V2 =
+            "INSERT INTO " + TABLE_CUBING_DATA + " SELECT " +
+                    COLUMN_TIMESTAMP + ", " + COLUMN_TERMINAL + ", " + COLUMN_RECEIVER + ", " +
+                    COLUMN_TRAILER_NUMBER + ", " + COLUMN_PRO_NUMBER_INCOMING + ", " +
+                    COLUMN_PRO_PREFIX + ", " + COLUMN_PRO_NUMBER_ERB + ", " + COLUMN_FREIGHT_TYPE + ", " +
+                    temperatureTenths(COLUMN_TEMP1) + ", " +
+                    "CASE WHEN " + TEMP2_CONVERTIBLE + " THEN " + temperatureTenths(COLUMN_TEMP2) +
+                    " ELSE NULL END, " +
+                    COLUMN_EXPECTED_PALLETS_PRO + ", " + COLUMN_PALLET_SEQUENCE + ", " +
+                    COLUMN_PALLET_HEIGHT + ", " + COLUMN_CONDITION + ", " + COLUMN_OSD_REASON + ", " +
+                    COLUMN_OSD_QUANTITY + ", " + COLUMN_OSD_QUANTITY_TYPE + ", " + COLUMN_STATUS + ", " +
+                    COLUMN_PRO_NUMBER_PACKED +
+                    " FROM " + TABLE_CUBING_DATA_V2 + " WHERE " + TEMP1_CONVERTIBLE;
+
+    private static final String SQL_COUNT_TEMP2_NULLED_V2 =
+            "SELECT COUNT(*) FROM " + TABLE_CUBING_DATA_V2 + " WHERE " + TEMP1_CONVERTIBLE +
+                    " AND " + COLUMN_TEMP2 + " IS NOT NULL AND NOT " + TEMP2_CONVERTIBLE;
+
+    private static final String SQL_COUNT_UNCONVERTED_V2 =
+            "SELECT COUNT(*) FROM " + TABLE_CUBING_DATA_V2 + " WHERE NOT " + TEMP1_CONVERTIBLE;
+
+    private static final String SQL_KEEP_UNCONVERTED_V2 =
+            "CREATE TABLE IF NOT EXISTS " + TABLE_CUBING_DATA_UNCONVERTED + " AS SELECT * FROM " +
+                    TABLE_CUBING_DATA_V2 + " WHERE NOT " + TEMP1_CONVERTIBLE;
+
+    private static final String SQL_DROP_TABLE_V2 = "DROP TABLE IF EXISTS " + TABLE_CUBING_DATA_V2;
+
+    // Bulk insert (insertRecords): every column, in table order
+    private static final String SQL_INSERT_RECORD =
+            "INSERT INTO " + TABLE_CUBING_DATA + " (" +
+                    COLUMN_TIMESTAMP + ", " + COLUMN_TERMINAL + ", " + COLUMN_RECEIVER + ", " +
+                    COLUMN_TRAILER_NUMBER + ", " + COLUMN_PRO_NUMBER_INCOMING + ", " +
+                    COLUMN_PRO_PREFIX + ", " + COLUMN_PRO_NUMBER_ERB + ", " + COLUMN_FREIGHT_TYPE + ", " +
+                    COLUMN_TEMP1 + ", " + COLUMN_TEMP2 + ", " + COLUMN_EXPECTED_PALLETS_PRO + ", " +
+                    COLUMN_PALLET_SEQUENCE + ", " + COLUMN_PALLET_HEIGHT + ", " + COLUMN_CONDITION + ", " +
+                    COLUMN_OSD_REASON + ", " + COLUMN_OSD_QUANTITY + ", " + COLUMN_OSD_QUANTITY_TYPE + ", " +
+                    COLUMN_STATUS + ", " + COLUMN_PRO_NUMBER_PACKED +
+                    ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Pallet counts for one PRO; the packed form is served by INDEX_PRO_NUMBER_PACKED
+    static final String SQL_COUNT_BY_PRO_PACKED =
+            "SELECT COUNT(*) FROM " + TABLE_CUBING_DATA + " WHERE " + COLUMN_PRO_NUMBER_PACKED + " = ?";
+
+    private static final String SQL_COUNT_BY_PRO_INCOMING =
+            "SELECT COUNT(*) FROM " + TABLE_CUBING_DATA + " WHERE " + COLUMN_PRO_NUMBER_INCOMING + " = ?";
+
+    // Rows per transaction in insertRecords
+    static final int BULK_BATCH_SIZE = 5000;
 
     // SQL Drop Table Statement
     private static final String SQL_DROP_TABLE = "DROP TABLE IF EXISTS " + TABLE_CUBING_DATA;
@@ -77,30 +160,94 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         super(context, DATABASE_NAME, null, DATABASE_VERSION);
     }
 
+    /**
+     * Open a database other than the live one (e.g. PerfDiagnostics' scratch copy)
+     */
+    DatabaseHelper(Context context, String databaseName) {
+        super(context, databaseName, null, DATABASE_VERSION);
+    }
+
     @Override
     public void onCreate(SQLiteDatabase db) {
         try {
             db.execSQL(SQL_CREATE_TABLE);
+            db.execSQL(SQL_CREATE_PRO_PACKED_INDEX);
             Log.d(TAG, "Database table created successfully");
         } catch (Exception e) {
             Log.e(TAG, "Error creating database table: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Exceptions are left to propagate so SQLiteOpenHelper rolls the whole upgrade
+     * back and the next open retries it from oldVersion
+     */
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2) {
+            db.execSQL(SQL_ADD_PRO_PACKED_COLUMN);
+            db.execSQL(SQL_BACKFILL_PRO_PACKED);
+            db.execSQL(SQL_CREATE_PRO_PACKED_INDEX);
+        }
+        if (oldVersion < 3) {
+            // The packed PRO index moves with the renamed table and is dropped with it
+            db.execSQL(SQL_RENAME_TABLE_V2);
+            db.execSQL(SQL_CREATE_TABLE);
+            db.execSQL(SQL_COPY_FROM_V2);
+
+            long nulled = longForQuery(db, SQL_COUNT_TEMP2_NULLED_V2);
+            if (nulled > 0) {
+                Log.w(TAG, nulled + " non-numeric Temp2 value(s) stored as NULL during upgrade");
+            }
+            long unconverted = longForQuery(db, SQL_COUNT_UNCONVERTED_V2);
+            if (unconverted > 0) {
+                db.execSQL(SQL_KEEP_UNCONVERTED_V2);
+                Log.w(TAG, unconverted + " row(s) with a non-numeric Temp1 kept in " +
+                        TABLE_CUBING_DATA_UNCONVERTED + " during upgrade");
+            }
+
+            db.execSQL(SQL_DROP_TABLE_V2);
+            db.execSQL(SQL_CREATE_PRO_PACKED_INDEX);
+        }
+        Log.d(TAG, "Database upgraded from version " + oldVersion + " to " + newVersion);
+    }
+
+    /**
+     * SQL condition that is true when a version 2 temperature column reads as a number,
+     * ignoring surrounding spaces and a degree sign or F suffix ("35", " -10.5 ", "35F")
+     */
+    private static String convertibleTemperature(String column) {
+        String value = normalizedTemperature(column);
+        return "(" + column + " IS NOT NULL AND " + value + " <> ''" +
+                " AND " + value + " NOT GLOB '*[^0-9.+-]*' AND " + value + " GLOB '*[0-9]*')";
+    }
+
+    private static String temperatureTenths(String column) {
+        return "CAST(ROUND(CAST(" + normalizedTemperature(column) + " AS REAL) * 10) AS INTEGER)";
+    }
+
+    private static String normalizedTemperature(String column) {
+        return "trim(replace(replace(upper(" + column + "), '°', ''), 'F', ''))";
+    }
+
+    private static long longForQuery(SQLiteDatabase db, String sql) {
+        Cursor cursor = db.rawQuery(sql, null);
         try {
-            db.execSQL(SQL_DROP_TABLE);
-            onCreate(db);
-            Log.d(TAG, "Database upgraded from version " + oldVersion + " to " + newVersion);
-        } catch (Exception e) {
-            Log.e(TAG, "Error upgrading database: " + e.getMessage(), e);
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        } finally {
+            cursor.close();
         }
     }
 
     @Override
     public void onDowngrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        onUpgrade(db, oldVersion, newVersion);
+        try {
+            db.execSQL(SQL_DROP_TABLE);
+            onCreate(db);
+            Log.d(TAG, "Database downgraded from version " + oldVersion + " to " + newVersion);
+        } catch (Exception e) {
+            Log.e(TAG, "Error downgrading database: " + e.getMessage(), e);
+        }
     }
 
     /**
@@ -125,54 +272,17 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             Integer osdQuantity,
             String osdQuantityType) {
 
-        SQLiteDatabase db = null;
         long result = -1;
 
         try {
-            db = this.getWritableDatabase();
-            ContentValues values = new ContentValues();
-
-            // Required fields
-            values.put(COLUMN_TIMESTAMP, getCurrentTimestamp());
-            values.put(COLUMN_TERMINAL, terminal);
-            values.put(COLUMN_RECEIVER, receiver);
-            values.put(COLUMN_TRAILER_NUMBER, trailerNumber);
-            values.put(COLUMN_PRO_NUMBER_INCOMING, proNumberIncoming);
-            values.put(COLUMN_PRO_PREFIX, proPrefix);
-            values.put(COLUMN_PRO_NUMBER_ERB, proNumberErb);
-            values.put(COLUMN_FREIGHT_TYPE, freightType);
-            values.put(COLUMN_TEMP1, temp1);
-            values.put(COLUMN_EXPECTED_PALLETS_PRO, expectedPalletsPro);
-            values.put(COLUMN_PALLET_SEQUENCE, palletSequence);
-            values.put(COLUMN_PALLET_HEIGHT, palletHeight);
-            values.put(COLUMN_CONDITION, condition);
-            values.put(COLUMN_STATUS, "NEW");
-
-            // Nullable fields
-            if (temp2 != null && !temp2.trim().isEmpty()) {
-                values.put(COLUMN_TEMP2, temp2);
-            } else {
-                values.putNull(COLUMN_TEMP2);
-            }
-
-            if (osdReason != null && !osdReason.trim().isEmpty()) {
-                values.put(COLUMN_OSD_REASON, osdReason);
-            } else {
-                values.putNull(COLUMN_OSD_REASON);
-            }
-
-            if (osdQuantity != null) {
-                values.put(COLUMN_OSD_QUANTITY, osdQuantity);
-            } else {
-                values.putNull(COLUMN_OSD_QUANTITY);
-            }
-
-            if (osdQuantityType != null && !osdQuantityType.trim().isEmpty()) {
-                values.put(COLUMN_OSD_QUANTITY_TYPE, osdQuantityType);
-            } else {
-                values.putNull(COLUMN_OSD_QUANTITY_TYPE);
+            ContentValues values = buildPalletValues(terminal, receiver, trailerNumber, proNumberIncoming,
+                    proPrefix, proNumberErb, freightType, temp1, temp2, expectedPalletsPro, palletSequence,
+                    palletHeight, condition, osdReason, osdQuantity, osdQuantityType);
+            if (values == null) {
+                return -1;
             }
 
+            SQLiteDatabase db = this.getWritableDatabase();
             result = db.insert(TABLE_CUBING_DATA, null, values);
 
             if (result != -1) {
@@ -189,6 +299,305 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         return result;
     }
 
+    /**
+     * Insert the next pallet of the PRO tracked by progress
+     * The sequence number is assigned and the row inserted in one transaction,
+     * and progress only advances once it commits. If the table already holds
+     * more rows for the PRO than progress knew of, the sequence follows the table.
+     * @return Sequence number of the inserted pallet, or PalletProgress.FAILED
+     */
+    public int insertNextPalletRecord(
+            PalletProgress progress,
+            final String terminal,
+            final String receiver,
+            final String trailerNumber,
+            final String proPrefix,
+            final String proNumberErb,
+            final String freightType,
+            final String temp1,
+            final String temp2,
+            final int expectedPalletsPro,
+            final int palletHeight,
+            final String condition,
+            final String osdReason,
+            final Integer osdQuantity,
+            final String osdQuantityType) {
+
+        return progress.saveNext(new PalletProgress.PalletWriter() {
+            @Override
+            public int write(String proNumberIncoming, int sequence) {
+                try {
+                    SQLiteDatabase db = getWritableDatabase();
+                    db.beginTransaction();
+                    try {
+                        int palletSequence = Math.max(sequence, countRecordsByPro(db, proNumberIncoming) + 1);
+                        ContentValues values = buildPalletValues(terminal, receiver, trailerNumber,
+                                proNumberIncoming, proPrefix, proNumberErb, freightType, temp1, temp2,
+                                expectedPalletsPro, palletSequence, palletHeight, condition,
+                                osdReason, osdQuantity, osdQuantityType);
+                        if (values == null || db.insert(TABLE_CUBING_DATA, null, values) == -1) {
+                            Log.e(TAG, "Failed to insert pallet " + palletSequence + " for PRO " + proNumberIncoming);
+                            return PalletProgress.FAILED;
+                        }
+
+                        db.setTransactionSuccessful();
+                        Log.d(TAG, "Pallet " + palletSequence + " inserted for PRO " + proNumberIncoming);
+                        return palletSequence;
+                    } finally {
+                        db.endTransaction();
+                    }
+                } catch (Exception e) {
+                    Log.e(TAG, "Error inserting next pallet record: " + e.getMessage(), e);
+                    return PalletProgress.FAILED;
+                }
+            }
+        });
+    }
+
+    /**
+     * Insert records in bulk (imports, load tests), keeping each record's timestamp and status
+     * One compiled statement is rebound for every row and committed every
+     * BULK_BATCH_SIZE rows, so records can be streamed in without being held
+     * in memory. Stops at the first record with an invalid temperature or
+     * a missing required field; the records before it stay committed.
+     * @return Number of records committed
+     */
+    public long insertRecords(Iterable<CubingRecord> records) {
+        long committed = 0;
+        SQLiteStatement statement = null;
+
+        try {
+            SQLiteDatabase db = getWritableDatabase();
+            statement = db.compileStatement(SQL_INSERT_RECORD);
+            int inBatch = 0;
+            db.beginTransaction();
+            try {
+                for (CubingRecord record : records) {
+                    if (!bindRecord(statement, record)) {
+                        Log.e(TAG, "Bulk insert stopped at invalid record " + (committed + inBatch));
+                        break;
+                    }
+                    statement.executeInsert();
+                    if (++inBatch == BULK_BATCH_SIZE) {
+                        db.setTransactionSuccessful();
+                        db.endTransaction();
+                        committed += inBatch;
+                        inBatch = 0;
+                        db.beginTransaction();
+                    }
+                }
+                db.setTransactionSuccessful();
+                committed += inBatch;
+            } finally {
+                db.endTransaction();
+            }
+
+            Log.d(TAG, "Bulk inserted " + committed + " records");
+
+        } catch (Exception e) {
+            Log.e(TAG, "Error bulk inserting records: " + e.getMessage(), e);
+        } finally {
+            if (statement != null) {
+                statement.close();
+            }
+        }
+
+        return committed;
+    }
+
+    /**
+     * Bind one record to SQL_INSERT_RECORD
+     * A blank Temp2 is stored as NULL, as buildPalletValues does.
+     * @return false if a temperature is invalid or a required field is missing
+     */
+    private static boolean bindRecord(SQLiteStatement statement, CubingRecord record) {
+        String missing = findMissingColumn(record);
+        if (missing != null) {
+            Log.e(TAG, "Invalid record, missing " + missing);
+            return false;
+        }
+
+        int temp1Tenths = Temperature.parseTenthsIgnoringUnit(record.temp1);
+        if (temp1Tenths == Temperature.INVALID) {
+            Log.e(TAG, "Invalid record, Temp1: " + record.temp1);
+            return false;
+        }
+        int temp2Tenths = Temperature.INVALID;
+        if (record.temp2 != null && !record.temp2.trim().isEmpty()) {
+            temp2Tenths = Temperature.parseTenthsIgnoringUnit(record.temp2);
+            if (temp2Tenths == Temperature.INVALID) {
+                Log.e(TAG, "Invalid record, Temp2: " + record.temp2);
+                return false;
+            }
+        }
+
+        statement.clearBindings();
+        statement.bindString(1, record.timestamp != null ? record.timestamp : getCurrentTimestamp());
+        statement.bindString(2, record.terminal);
+        statement.bindString(3, record.receiver);
+        statement.bindString(4, record.trailerNumber);
+        statement.bindString(5, record.proNumberIncoming);
+        statement.bindString(6, record.proPrefix);
+        statement.bindString(7, record.proNumberErb);
+        statement.bindString(8, record.freightType);
+        statement.bindLong(9, temp1Tenths);
+        if (temp2Tenths != Temperature.INVALID) {
+            statement.bindLong(10, temp2Tenths);
+        }
+        statement.bindLong(11, record.expectedPalletsPro);
+        statement.bindLong(12, record.palletSequence);
+        statement.bindLong(13, record.palletHeight);
+        statement.bindString(14, record.condition);
+        if (record.osdReason != null) {
+            statement.bindString(15, record.osdReason);
+        }
+        if (record.osdQuantity != null) {
+            statement.bindLong(16, record.osdQuantity);
+        }
+        if (record.osdQuantityType != null) {
+            statement.bindString(17, record.osdQuantityType);
+        }
+        statement.bindString(18, record.status != null ? record.status : "NEW");
+        long proPacked = ProNumber.isValidValue(record.proNumberPacked)
+                ? record.proNumberPacked : ProNumber.parseValue(record.proNumberIncoming);
+        if (proPacked != ProNumber.INVALID) {
+            statement.bindLong(19, proPacked);
+        }
+        return true;
+    }
+
+    /**
+     * Check the NOT NULL text columns a record must supply (timestamp and status have defaults)
+     * @return Name of the first missing column, or null if none
+     */
+    private static String findMissingColumn(CubingRecord record) {
+        // Checked in turn rather than through an array: this runs once per bulk row
+        if (record.terminal == null) {
+            return COLUMN_TERMINAL;
+        }
+        if (record.receiver == null) {
+            return COLUMN_RECEIVER;
+        }
+        if (record.trailerNumber == null) {
+            return COLUMN_TRAILER_NUMBER;
+        }
+        if (record.proNumberIncoming == null) {
+            return COLUMN_PRO_NUMBER_INCOMING;
+        }
+        if (record.proPrefix == null) {
+            return COLUMN_PRO_PREFIX;
+        }
+        if (record.proNumberErb == null) {
+            return COLUMN_PRO_NUMBER_ERB;
+        }
+        if (record.freightType == null) {
+            return COLUMN_FREIGHT_TYPE;
+        }
+        if (record.condition == null) {
+            return COLUMN_CONDITION;
+        }
+        return null;
+    }
+
+    /**
+     * Start progress for a PRO from the rows already saved for it
+     * Call on startup (and when a PRO is opened) so the pallet index is
+     * reconciled with the table rather than trusted from the session
+     */
+    public void recoverPalletProgress(PalletProgress progress, String proNumberIncoming, int expectedPallets) {
+        progress.start(proNumberIncoming, expectedPallets, getRecordCountByPro(proNumberIncoming));
+    }
+
+    /**
+     * Build the column values for one pallet row
+     * @return Values, or null if a temperature is invalid
+     */
+    private static ContentValues buildPalletValues(
+            String terminal,
+            String receiver,
+            String trailerNumber,
+            String proNumberIncoming,
+            String proPrefix,
+            String proNumberErb,
+            String freightType,
+            String temp1,
+            String temp2,
+            int expectedPalletsPro,
+            int palletSequence,
+            int palletHeight,
+            String condition,
+            String osdReason,
+            Integer osdQuantity,
+            String osdQuantityType) {
+
+        int temp1Tenths = Temperature.parseTenthsIgnoringUnit(temp1);
+        if (temp1Tenths == Temperature.INVALID) {
+            Log.e(TAG, "Failed to insert pallet record, invalid Temp1: " + temp1);
+            return null;
+        }
+
+        int temp2Tenths = Temperature.INVALID;
+        if (temp2 != null && !temp2.trim().isEmpty()) {
+            temp2Tenths = Temperature.parseTenthsIgnoringUnit(temp2);
+            if (temp2Tenths == Temperature.INVALID) {
+                Log.e(TAG, "Failed to insert pallet record, invalid Temp2: " + temp2);
+                return null;
+            }
+        }
+
+        ContentValues values = new ContentValues();
+
+        // Required fields
+        values.put(COLUMN_TIMESTAMP, getCurrentTimestamp());
+        values.put(COLUMN_TERMINAL, terminal);
+        values.put(COLUMN_RECEIVER, receiver);
+        values.put(COLUMN_TRAILER_NUMBER, trailerNumber);
+        values.put(COLUMN_PRO_NUMBER_INCOMING, proNumberIncoming);
+        values.put(COLUMN_PRO_PREFIX, proPrefix);
+        values.put(COLUMN_PRO_NUMBER_ERB, proNumberErb);
+        values.put(COLUMN_FREIGHT_TYPE, freightType);
+        values.put(COLUMN_TEMP1, temp1Tenths);
+        values.put(COLUMN_EXPECTED_PALLETS_PRO, expectedPalletsPro);
+        values.put(COLUMN_PALLET_SEQUENCE, palletSequence);
+        values.put(COLUMN_PALLET_HEIGHT, palletHeight);
+        values.put(COLUMN_CONDITION, condition);
+        values.put(COLUMN_STATUS, "NEW");
+
+        long proPacked = ProNumber.parseValue(proNumberIncoming);
+        if (proPacked != ProNumber.INVALID) {
+            values.put(COLUMN_PRO_NUMBER_PACKED, proPacked);
+        } else {
+            values.putNull(COLUMN_PRO_NUMBER_PACKED);
+        }
+
+        // Nullable fields
+        if (temp2Tenths != Temperature.INVALID) {
+            values.put(COLUMN_TEMP2, temp2Tenths);
+        } else {
+            values.putNull(COLUMN_TEMP2);
+        }
+
+        if (osdReason != null && !osdReason.trim().isEmpty()) {
+            values.put(COLUMN_OSD_REASON, osdReason);
+        } else {
+            values.putNull(COLUMN_OSD_REASON);
+        }
+
+        if (osdQuantity != null) {
+            values.put(COLUMN_OSD_QUANTITY, osdQuantity);
+        } else {
+            values.putNull(COLUMN_OSD_QUANTITY);
+        }
+
+        if (osdQuantityType != null && !osdQuantityType.trim().isEmpty()) {
+            values.put(COLUMN_OSD_QUANTITY_TYPE, osdQuantityType);
+        } else {
+            values.putNull(COLUMN_OSD_QUANTITY_TYPE);
+        }
+
+        return values;
+    }
+
     /**
      * Get all records for a specific trailer
      */
@@ -310,31 +719,49 @@ public class DatabaseHelper extends SQLiteOpenHelper {
      * Get count of records for a specific PRO
      */
     public int getRecordCountByPro(String proNumberIncoming) {
-        SQLiteDatabase db = null;
-        Cursor cursor = null;
-        int count = 0;
-
         try {
-            db = this.getReadableDatabase();
-            cursor = db.rawQuery(
-                    "SELECT COUNT(*) FROM " + TABLE_CUBING_DATA + 
-                    " WHERE " + COLUMN_PRO_NUMBER_INCOMING + " = ?",
-                    new String[]{proNumberIncoming}
-            );
-
-            if (cursor != null && cursor.moveToFirst()) {
-                count = cursor.getInt(0);
-            }
-
+            return countRecordsByPro(this.getReadableDatabase(), proNumberIncoming);
         } catch (Exception e) {
             Log.e(TAG, "Error getting PRO record count: " + e.getMessage(), e);
+            return 0;
+        }
+    }
+
+    /**
+     * Count on the indexed packed column when the PRO packs; a PRO of another
+     * length (see ValidationLimits pro.length) only has the TEXT column
+     */
+    private static int countRecordsByPro(SQLiteDatabase db, String proNumberIncoming) {
+        long packed = ProNumber.parseValue(proNumberIncoming);
+        if (packed != ProNumber.INVALID) {
+            return countRecords(db, SQL_COUNT_BY_PRO_PACKED, String.valueOf(packed));
+        }
+        return countRecords(db, SQL_COUNT_BY_PRO_INCOMING, proNumberIncoming);
+    }
+
+    private static int countRecords(SQLiteDatabase db, String sql, String arg) {
+        Cursor cursor = null;
+        try {
+            cursor = db.rawQuery(sql, new String[]{arg});
+            return cursor != null && cursor.moveToFirst() ? cursor.getInt(0) : 0;
         } finally {
             if (cursor != null) {
                 cursor.close();
             }
         }
+    }
 
-        return count;
+    /**
+     * Get count of records for a specific PRO using the packed INTEGER column
+     */
+    public int getRecordCountByPro(ProNumber proNumber) {
+        try {
+            return countRecords(this.getReadableDatabase(), SQL_COUNT_BY_PRO_PACKED,
+                    String.valueOf(proNumber.longValue()));
+        } catch (Exception e) {
+            Log.e(TAG, "Error getting packed PRO record count: " + e.getMessage(), e);
+            return 0;
+        }
     }
 
     /**
@@ -352,10 +779,10 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             record.proPrefix = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_PRO_PREFIX));
             record.proNumberErb = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_PRO_NUMBER_ERB));
             record.freightType = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_FREIGHT_TYPE));
-            record.temp1 = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_TEMP1));
+            record.temp1 = Temperature.toPlainString(cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_TEMP1)));
             
             int temp2Index = cursor.getColumnIndexOrThrow(COLUMN_TEMP2);
-            record.temp2 = cursor.isNull(temp2Index) ? null : cursor.getString(temp2Index);
+            record.temp2 = cursor.isNull(temp2Index) ? null : Temperature.toPlainString(cursor.getInt(temp2Index));
             
             record.expectedPalletsPro = cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_EXPECTED_PALLETS_PRO));
             record.palletSequence = cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_PALLET_SEQUENCE));
@@ -372,6 +799,9 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             record.osdQuantityType = cursor.isNull(osdQuantityTypeIndex) ? null : cursor.getString(osdQuantityTypeIndex);
             
             record.status = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_STATUS));
+
+            int proPackedIndex = cursor.getColumnIndexOrThrow(COLUMN_PRO_NUMBER_PACKED);
+            record.proNumberPacked = cursor.isNull(proPackedIndex) ? ProNumber.INVALID : cursor.getLong(proPackedIndex);
             
             return record;
             
@@ -384,7 +814,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     /**
      * Get current timestamp in the required format
      */
-    private String getCurrentTimestamp() {
+    private static String getCurrentTimestamp() {
         SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
         return sdf.format(new Date());
     }
@@ -411,5 +841,16 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         public Integer osdQuantity;
         public String osdQuantityType;
         public String status;
+        public long proNumberPacked = ProNumber.INVALID;
+
+        /**
+         * Get the PRO as a ProNumber, or null if it is not a valid 10-digit PRO
+         */
+        public ProNumber getProNumber() {
+            if (ProNumber.isValidValue(proNumberPacked)) {
+                return ProNumber.of(proNumberPacked);
+            }
+            return ProNumber.parse(proNumberIncoming);
+        }
     }
 }
@@ -0,0 +1,429 @@
+package com.erb.erbpalletcubing;
+
+/**
+ * FieldInput - As-you-type validation state machine for one keypad field
+ * NumericKeypadView feeds it one key at a time; each key and backspace is
+ * O(1), keys that can never lead to a valid value are refused before they
+ * reach the text, and getStatus() is always current, so nothing has to be
+ * re-parsed on Done. Status codes are ValidationHelper's (VALID, ERROR_*),
+ * and match what the ValidationHelper check for the same text returns.
+ * Keys are '0'-'9', '.' and '-' (a sign toggle), as on the keypad.
+ */
+public abstract class FieldInput {
+
+    // Field types (app:fieldType)
+    public static final int TYPE_NONE = 0;
+    public static final int TYPE_TEMPERATURE = 1;
+    public static final int TYPE_PRO_NUMBER = 2;
+    public static final int TYPE_PALLET_HEIGHT = 3;
+    public static final int TYPE_QUANTITY = 4;
+
+    /**
+     * Create the state machine for a field type
+     * @return FieldInput, or null for TYPE_NONE
+     */
+    public static FieldInput forType(int type) {
+        switch (type) {
+            case TYPE_TEMPERATURE:
+                return temperature();
+            case TYPE_PRO_NUMBER:
+                return proNumber();
+            case TYPE_PALLET_HEIGHT:
+                return palletHeight();
+            case TYPE_QUANTITY:
+                return quantity();
+            default:
+                return null;
+        }
+    }
+
+    public static FieldInput temperature() {
+        return new TemperatureInput();
+    }
+
+    public static FieldInput proNumber() {
+        return new ProNumberInput();
+    }
+
+    public static FieldInput palletHeight() {
+        return new PositiveIntInput(true);
+    }
+
+    public static FieldInput quantity() {
+        return new PositiveIntInput(false);
+    }
+
+    /**
+     * Advance by one key
+     * @return false if the key was refused (the text must not change)
+     */
+    public abstract boolean accept(char key);
+
+    /**
+     * Undo the last character
+     * @return false if there was nothing to delete
+     */
+    public abstract boolean backspace();
+
+    public abstract void reset();
+
+    /**
+     * Get the validation status of the text so far
+     * @return ValidationHelper.VALID or an ERROR_* code
+     */
+    public abstract int getStatus();
+
+    /**
+     * Whether the keypad should show the minus key for this field
+     */
+    public abstract boolean allowsNegative();
+
+    /**
+     * Whether the keypad should show the decimal key for this field
+     */
+    public abstract boolean allowsDecimal();
+
+    public boolean isValid() {
+        return getStatus() == ValidationHelper.VALID;
+    }
+
+    /**
+     * Replace the state with existing text, one key per character
+     * @return false if some character was refused (the state is reset)
+     */
+    public boolean load(CharSequence text) {
+        reset();
+        if (text == null) {
+            return true;
+        }
+        boolean negative = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '-' && i == 0) {
+                negative = true;  // The keypad's sign is a toggle; apply it after the digits
+            } else if (!accept(c)) {
+                reset();
+                return false;
+            }
+        }
+        if (negative && !accept('-')) {
+            reset();
+            return false;
+        }
+        return true;
+    }
+
+    private static int digitOf(char key) {
+        return key >= '0' && key <= '9' ? key - '0' : -1;
+    }
+
+    // ==================== Temperature ====================
+
+    /**
+     * Signed, at most one decimal place, within ValidationLimits' temperature range
+     */
+    private static final class TemperatureInput extends FieldInput {
+        private boolean negative;
+        private int whole;
+        private int integerDigits;
+        private boolean decimal;
+        private int tenth;
+        private int fractionDigits;
+
+        @Override
+        public boolean accept(char key) {
+            if (key == '-') {
+                // Refuse a minus that no value in range could use
+                if (!negative && ValidationLimits.current().tempMinTenths >= 0) {
+                    return false;
+                }
+                negative = !negative;
+                return true;
+            }
+            if (key == '.') {
+                if (decimal) {
+                    return false;
+                }
+                if (integerDigits == 0) {
+                    integerDigits = 1;  // The keypad types "0."
+                }
+                decimal = true;
+                return true;
+            }
+
+            int digit = digitOf(key);
+            if (digit < 0) {
+                return false;
+            }
+            if (decimal) {
+                if (fractionDigits > 0) {
+                    return false;  // Tenths only
+                }
+                tenth = digit;
+                fractionDigits = 1;
+                return true;
+            }
+            if (integerDigits == 1 && whole == 0) {
+                return false;  // No leading zeros
+            }
+            int candidate = whole * 10 + digit;
+            if (candidate * 10 > maxMagnitudeTenths()) {
+                return false;
+            }
+            whole = candidate;
+            integerDigits++;
+            return true;
+        }
+
+        @Override
+        public boolean backspace() {
+            if (fractionDigits > 0) {
+                fractionDigits = 0;
+                tenth = 0;
+            } else if (decimal) {
+                decimal = false;
+            } else if (integerDigits > 0) {
+                whole /= 10;
+                integerDigits--;
+            } else if (negative) {
+                negative = false;
+            } else {
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public void reset() {
+            negative = false;
+            whole = 0;
+            integerDigits = 0;
+            decimal = false;
+            tenth = 0;
+            fractionDigits = 0;
+        }
+
+        @Override
+        public int getStatus() {
+            if (!negative && integerDigits == 0) {
+                return ValidationHelper.ERROR_EMPTY;
+            }
+            if (integerDigits == 0) {
+                return ValidationHelper.ERROR_NOT_NUMERIC;  // A lone "-"
+            }
+            return Temperature.isInRange(getTenths())
+                    ? ValidationHelper.VALID
+                    : ValidationHelper.ERROR_OUT_OF_RANGE;
+        }
+
+        /**
+         * Get the value in tenths of a degree, or Temperature.INVALID
+         */
+        int getTenths() {
+            if (integerDigits == 0) {
+                return Temperature.INVALID;
+            }
+            int tenths = whole * 10 + tenth;
+            return negative ? -tenths : tenths;
+        }
+
+        private static int maxMagnitudeTenths() {
+            ValidationLimits limits = ValidationLimits.current();
+            return Math.max(Math.abs(limits.tempMinTenths), Math.abs(limits.tempMaxTenths));
+        }
+
+        @Override
+        public boolean allowsNegative() {
+            return true;  // Whether a minus can be used is decided per key against the live limits
+        }
+
+        @Override
+        public boolean allowsDecimal() {
+            return true;
+        }
+    }
+
+    // ==================== PRO Number ====================
+
+    /**
+     * Digits only, up to the configured PRO length; the carrier checks run
+     * once the last digit is in and are cached until the text or table changes
+     */
+    private static final class ProNumberInput extends FieldInput {
+        private static final int PREFIX_LENGTH = 3;
+
+        private final char[] digits = new char[ValidationLimits.PRO_LENGTH_MAX];
+        private int length;
+        private int prefix;
+
+        private int cachedStatus = -1;
+        private CarrierPrefixTable cachedTable;
+        private int cachedProLength;
+
+        @Override
+        public boolean accept(char key) {
+            int digit = digitOf(key);
+            if (digit < 0 || length >= ValidationLimits.current().proLength) {
+                return false;
+            }
+            digits[length++] = key;
+            if (length <= PREFIX_LENGTH) {
+                prefix = prefix * 10 + digit;
+            }
+            cachedStatus = -1;
+            return true;
+        }
+
+        @Override
+        public boolean backspace() {
+            if (length == 0) {
+                return false;
+            }
+            if (length <= PREFIX_LENGTH) {
+                prefix /= 10;
+            }
+            length--;
+            cachedStatus = -1;
+            return true;
+        }
+
+        @Override
+        public void reset() {
+            length = 0;
+            prefix = 0;
+            cachedStatus = -1;
+        }
+
+        @Override
+        public int getStatus() {
+            if (length == 0) {
+                return ValidationHelper.ERROR_EMPTY;
+            }
+            int proLength = ValidationLimits.current().proLength;
+            if (length != proLength) {
+                return ValidationHelper.ERROR_WRONG_LENGTH;
+            }
+
+            CarrierPrefixTable carriers = CarrierPrefixTable.current();
+            if (cachedStatus < 0 || cachedTable != carriers || cachedProLength != proLength) {
+                if (!carriers.isKnown(prefix)) {
+                    cachedStatus = ValidationHelper.ERROR_UNKNOWN_CARRIER;
+                } else if (!carriers.isCheckDigitValid(prefix, new DigitsView(), 0, length)) {
+                    cachedStatus = ValidationHelper.ERROR_CHECK_DIGIT;
+                } else {
+                    cachedStatus = ValidationHelper.VALID;
+                }
+                cachedTable = carriers;
+                cachedProLength = proLength;
+            }
+            return cachedStatus;
+        }
+
+        @Override
+        public boolean allowsNegative() {
+            return false;
+        }
+
+        @Override
+        public boolean allowsDecimal() {
+            return false;
+        }
+
+        /**
+         * The typed digits as a CharSequence, for the check digit rules
+         */
+        private final class DigitsView implements CharSequence {
+            @Override
+            public int length() {
+                return length;
+            }
+
+            @Override
+            public char charAt(int index) {
+                return digits[index];
+            }
+
+            @Override
+            public CharSequence subSequence(int start, int end) {
+                return new String(digits, start, end - start);
+            }
+
+            @Override
+            public String toString() {
+                return new String(digits, 0, length);
+            }
+        }
+    }
+
+    // ==================== Pallet Height / Quantity ====================
+
+    /**
+     * Positive integer up to the configured maximum, no leading zeros
+     */
+    private static final class PositiveIntInput extends FieldInput {
+        private static final int MAX_DIGITS = 9;  // Keeps value * 10 within an int
+
+        private final boolean palletHeight;
+        private int value;
+        private int digitCount;
+
+        PositiveIntInput(boolean palletHeight) {
+            this.palletHeight = palletHeight;
+        }
+
+        @Override
+        public boolean accept(char key) {
+            int digit = digitOf(key);
+            if (digit < 0 || digitCount >= MAX_DIGITS || (digitCount == 0 && digit == 0)) {
+                return false;
+            }
+            int candidate = value * 10 + digit;
+            if (candidate > max()) {
+                return false;
+            }
+            value = candidate;
+            digitCount++;
+            return true;
+        }
+
+        @Override
+        public boolean backspace() {
+            if (digitCount == 0) {
+                return false;
+            }
+            value /= 10;
+            digitCount--;
+            return true;
+        }
+
+        @Override
+        public void reset() {
+            value = 0;
+            digitCount = 0;
+        }
+
+        @Override
+        public int getStatus() {
+            if (digitCount == 0) {
+                return ValidationHelper.ERROR_EMPTY;
+            }
+            // The limit can be lowered by a config reload after the digits were typed
+            return value <= max() ? ValidationHelper.VALID : ValidationHelper.ERROR_OUT_OF_RANGE;
+        }
+
+        private int max() {
+            ValidationLimits limits = ValidationLimits.current();
+            return palletHeight ? limits.maxPalletHeight : limits.maxQuantity;
+        }
+
+        @Override
+        public boolean allowsNegative() {
+            return false;
+        }
+
+        @Override
+        public boolean allowsDecimal() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.erb.erbpalletcubing;
+
+/**
+ * KeyTypeAhead - Orders hardware and keyboard-wedge keys into the keypad
+ * A key that arrives after a quiet gap is a person on the hardware keypad
+ * and is delivered at once. Keys that follow it closer than the burst gap
+ * are a wedge scanner: they are queued and delivered together, in order,
+ * when the input goes quiet, a DONE key arrives or the queue fills, so a
+ * 100-character scan becomes one model update instead of 100 UI edits.
+ * Timestamps are the events' own (KeyEvent.getEventTime()), not arrival
+ * time, so a busy UI thread can't split or merge bursts.
+ * Not thread-safe; key events and flushes both run on the UI thread.
+ */
+public final class KeyTypeAhead {
+
+    /**
+     * Receives keys in arrival order
+     */
+    public interface Sink {
+        /**
+         * @param keys Keys (see NumericKeypadView.KEY_*); only [0, count) is valid,
+         *             and the array is reused after the call returns
+         * @param burst true for queued wedge input, false for a single typed key
+         */
+        void onKeys(char[] keys, int count, boolean burst);
+    }
+
+    // Wedge scanners send a character every 2-20 ms; people on a gloved
+    // hardware keypad manage no better than ~80 ms between keys
+    public static final long DEFAULT_BURST_GAP_MS = 40;
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final Sink sink;
+    private final long burstGapMs;
+    private final char[] queue;
+    private int count;
+    private long lastKeyTime = Long.MIN_VALUE / 2;
+    private int burstCount;
+
+    public KeyTypeAhead(Sink sink) {
+        this(sink, DEFAULT_BURST_GAP_MS, DEFAULT_CAPACITY);
+    }
+
+    public KeyTypeAhead(Sink sink, long burstGapMs, int capacity) {
+        if (burstGapMs <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("burstGapMs and capacity must be positive");
+        }
+        this.sink = sink;
+        this.burstGapMs = burstGapMs;
+        this.queue = new char[capacity];
+    }
+
+    /**
+     * Take one key
+     * @param eventTimeMs The key event's time (uptime millis)
+     * @return true if the key was queued and a flush should be scheduled
+     *         (see getFlushDelay()); false if it was delivered already
+     */
+    public boolean offer(char key, long eventTimeMs) {
+        boolean inBurst = eventTimeMs - lastKeyTime < burstGapMs;
+        lastKeyTime = eventTimeMs;
+
+        if (!inBurst && count == 0) {
+            queue[0] = key;
+            sink.onKeys(queue, 1, false);
+            return false;
+        }
+
+        if (count == queue.length) {
+            flush();
+        }
+        queue[count++] = key;
+        if (key == NumericKeypadView.KEY_DONE) {
+            flush();  // The scan is complete; don't wait out the gap
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Deliver the queue if the input has been quiet for the burst gap
+     * @param nowMs Current uptime millis
+     * @return true if nothing is left queued
+     */
+    public boolean flushIfIdle(long nowMs) {
+        if (count > 0 && nowMs - lastKeyTime >= burstGapMs) {
+            flush();
+        }
+        return count == 0;
+    }
+
+    /**
+     * Deliver whatever is queued now (e.g. before a touch key, to keep order)
+     */
+    public void flush() {
+        if (count == 0) {
+            return;
+        }
+        int delivered = count;
+        count = 0;
+        burstCount++;
+        sink.onKeys(queue, delivered, true);
+    }
+
+    /**
+     * Get how long to wait before calling flushIfIdle() again
+     */
+    public long getFlushDelay(long nowMs) {
+        return Math.max(1, burstGapMs - (nowMs - lastKeyTime));
+    }
+
+    public boolean hasQueuedKeys() {
+        return count > 0;
+    }
+
+    /**
+     * Get number of bursts delivered
+     */
+    public int getBurstCount() {
+        return burstCount;
+    }
+}
@@ -0,0 +1,236 @@
+package com.erb.erbpalletcubing;
+
+/**
+ * KeypadBuffer - Editable text model behind NumericKeypadView
+ * Applies one key at a time and reports each change as a single small
+ * replace (append a digit, delete the last char, insert/remove the leading
+ * minus), so the target EditText is edited in place instead of rebuilt with
+ * setText(). Decimal and sign state are tracked as fields, never re-scanned.
+ * Implements CharSequence so the allocation-free validators can read it directly.
+ */
+public final class KeypadBuffer implements CharSequence {
+
+    /**
+     * Receives every change as a replace of [start, end) with text
+     */
+    public interface Listener {
+        void onReplace(int start, int end, CharSequence text);
+    }
+
+    // Longer than any field we take (PROs go up to 18 digits); keys past it are ignored
+    public static final int MAX_LENGTH = 20;
+
+    private static final String[] DIGITS = {"0", "1", "2", "3", "4", "5", "6", "7", "8", "9"};
+    private static final String MINUS = "-";
+    private static final String DECIMAL = ".";
+    private static final String ZERO_DECIMAL = "0.";
+    private static final String EMPTY = "";
+
+    private final char[] chars = new char[MAX_LENGTH];
+    private int length;
+    private boolean negative;
+    private int decimalIndex = -1;
+
+    private boolean allowNegative;
+    private boolean allowDecimal;
+    private Listener listener;
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void setAllowNegative(boolean allow) {
+        this.allowNegative = allow;
+    }
+
+    public void setAllowDecimal(boolean allow) {
+        this.allowDecimal = allow;
+    }
+
+    // ==================== Keys ====================
+
+    /**
+     * Apply a typing key: '0'-'9', '.' or '-' (sign toggle)
+     * @return true if the text changed
+     */
+    public boolean press(char key) {
+        if (key == '.') {
+            return appendDecimal();
+        }
+        if (key == '-') {
+            return toggleNegative();
+        }
+        return appendDigit(key - '0');
+    }
+
+    /**
+     * Append a digit 0-9
+     * @return true if the text changed
+     */
+    public boolean appendDigit(int digit) {
+        if (digit < 0 || digit > 9 || length >= MAX_LENGTH) {
+            return false;
+        }
+        chars[length] = (char) ('0' + digit);
+        length++;
+        notifyReplace(length - 1, length - 1, DIGITS[digit]);
+        return true;
+    }
+
+    /**
+     * Append a decimal point ("0." when empty); only one is allowed
+     */
+    public boolean appendDecimal() {
+        if (!allowDecimal || decimalIndex >= 0) {
+            return false;
+        }
+        int start = length;
+        boolean leadingZero = length == 0 || (negative && length == 1);
+        if (length + (leadingZero ? 2 : 1) > MAX_LENGTH) {
+            return false;
+        }
+        if (leadingZero) {
+            chars[length++] = '0';
+        }
+        decimalIndex = length;
+        chars[length++] = '.';
+        notifyReplace(start, start, leadingZero ? ZERO_DECIMAL : DECIMAL);
+        return true;
+    }
+
+    /**
+     * Add or remove the leading minus sign
+     */
+    public boolean toggleNegative() {
+        if (!allowNegative) {
+            return false;
+        }
+        if (negative) {
+            System.arraycopy(chars, 1, chars, 0, length - 1);
+            length--;
+            negative = false;
+            if (decimalIndex >= 0) {
+                decimalIndex--;
+            }
+            notifyReplace(0, 1, EMPTY);
+        } else {
+            if (length >= MAX_LENGTH) {
+                return false;
+            }
+            System.arraycopy(chars, 0, chars, 1, length);
+            chars[0] = '-';
+            length++;
+            negative = true;
+            if (decimalIndex >= 0) {
+                decimalIndex++;
+            }
+            notifyReplace(0, 0, MINUS);
+        }
+        return true;
+    }
+
+    /**
+     * Delete the last character
+     */
+    public boolean backspace() {
+        if (length == 0) {
+            return false;
+        }
+        length--;
+        if (length == decimalIndex) {
+            decimalIndex = -1;
+        } else if (length == 0 && negative) {
+            negative = false;
+        }
+        notifyReplace(length, length + 1, EMPTY);
+        return true;
+    }
+
+    /**
+     * Delete everything
+     */
+    public boolean clear() {
+        if (length == 0) {
+            return false;
+        }
+        int oldLength = length;
+        reset();
+        notifyReplace(0, oldLength, EMPTY);
+        return true;
+    }
+
+    /**
+     * Replace the whole text without notifying (the caller already shows it)
+     * Characters the keypad couldn't have typed are dropped
+     */
+    public void setValue(CharSequence value) {
+        reset();
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length() && length < MAX_LENGTH; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                chars[length++] = c;
+            } else if (c == '-' && length == 0) {
+                chars[length++] = c;
+                negative = true;
+            } else if (c == '.' && decimalIndex < 0) {
+                decimalIndex = length;
+                chars[length++] = c;
+            }
+        }
+    }
+
+    private void reset() {
+        length = 0;
+        negative = false;
+        decimalIndex = -1;
+    }
+
+    private void notifyReplace(int start, int end, CharSequence text) {
+        if (listener != null) {
+            listener.onReplace(start, end, text);
+        }
+    }
+
+    // ==================== State ====================
+
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    public boolean isNegative() {
+        return negative;
+    }
+
+    public boolean hasDecimal() {
+        return decimalIndex >= 0;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        return chars[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("[" + start + ", " + end + "), length " + length);
+        }
+        return new String(chars, start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, 0, length);
+    }
+}
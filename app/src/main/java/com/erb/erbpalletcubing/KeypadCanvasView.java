@@ -0,0 +1,198 @@
+package com.erb.erbpalletcubing;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.view.MotionEvent;
+import android.view.View;
+
+/**
+ * KeypadCanvasView - All keypad keys drawn by one View
+ * Replaces the GridLayout/LinearLayout of 15 Buttons in NumericKeypadView's
+ * drawn mode: one measure/layout pass, no child views, Paints created once,
+ * and a touch maps to its key arithmetically instead of through view dispatch.
+ * Layout matches the button keypad: 1-9, then . 0 -, then CLEAR ⌫ DONE.
+ */
+public class KeypadCanvasView extends View {
+
+    /**
+     * Receives a key (see NumericKeypadView.KEY_*) when a press is released on it
+     */
+    public interface OnKeyListener {
+        void onKey(char key);
+    }
+
+    static final int COLUMNS = 3;
+    static final int ROWS = 5;
+
+    static final char[] KEYS = {
+            '1', '2', '3',
+            '4', '5', '6',
+            '7', '8', '9',
+            NumericKeypadView.KEY_DECIMAL, '0', NumericKeypadView.KEY_NEGATIVE,
+            NumericKeypadView.KEY_CLEAR, NumericKeypadView.KEY_BACKSPACE, NumericKeypadView.KEY_DONE
+    };
+
+    private static final String[] LABELS = {
+            "1", "2", "3", "4", "5", "6", "7", "8", "9", ".", "0", "-", "CLEAR", "⌫", "DONE"
+    };
+
+    private static final int FIRST_ACTION_INDEX = 12;
+    private static final int DECIMAL_INDEX = 9;
+    private static final int NEGATIVE_INDEX = 11;
+
+    private static final int KEY_COLOR = 0xFFE0E0E0;
+    private static final int KEY_PRESSED_COLOR = 0xFFB0B0B0;
+    private static final int TEXT_COLOR = 0xFF000000;
+
+    private final Paint keyPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint pressedPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint digitPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint actionPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF keyRect = new RectF();
+
+    private final int keyHeightPx;
+    private final float marginPx;
+    private final float cornerPx;
+
+    // Cached in onSizeChanged
+    private float cellWidth;
+    private float cellHeight;
+    private float digitBaseline;
+    private float actionBaseline;
+
+    private boolean allowNegative;
+    private boolean allowDecimal;
+    private int pressedIndex = -1;
+    private OnKeyListener onKeyListener;
+
+    public KeypadCanvasView(Context context, int keyHeightPx) {
+        super(context);
+        float density = context.getResources().getDisplayMetrics().density;
+        float scaledDensity = context.getResources().getDisplayMetrics().scaledDensity;
+        this.keyHeightPx = keyHeightPx;
+        this.marginPx = 4;
+        this.cornerPx = 6 * density;
+
+        keyPaint.setColor(KEY_COLOR);
+        pressedPaint.setColor(KEY_PRESSED_COLOR);
+
+        digitPaint.setColor(TEXT_COLOR);
+        digitPaint.setTextAlign(Paint.Align.CENTER);
+        digitPaint.setTextSize(24 * scaledDensity);
+
+        actionPaint.setColor(TEXT_COLOR);
+        actionPaint.setTextAlign(Paint.Align.CENTER);
+        actionPaint.setTextSize(18 * scaledDensity);
+    }
+
+    public void setOnKeyListener(OnKeyListener listener) {
+        this.onKeyListener = listener;
+    }
+
+    public void setAllowNegative(boolean allow) {
+        if (allowNegative != allow) {
+            allowNegative = allow;
+            invalidate();
+        }
+    }
+
+    public void setAllowDecimal(boolean allow) {
+        if (allowDecimal != allow) {
+            allowDecimal = allow;
+            invalidate();
+        }
+    }
+
+    // ==================== Layout and Drawing ====================
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        int height = resolveSize(keyHeightPx * ROWS, heightMeasureSpec);
+        setMeasuredDimension(width, height);
+    }
+
+    @Override
+    protected void onSizeChanged(int width, int height, int oldWidth, int oldHeight) {
+        cellWidth = width / (float) COLUMNS;
+        cellHeight = height / (float) ROWS;
+        // Baseline that centres the text vertically in a cell
+        digitBaseline = cellHeight / 2 - (digitPaint.descent() + digitPaint.ascent()) / 2;
+        actionBaseline = cellHeight / 2 - (actionPaint.descent() + actionPaint.ascent()) / 2;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        for (int index = 0; index < KEYS.length; index++) {
+            if (!isKeyEnabled(index)) {
+                continue;
+            }
+            float left = (index % COLUMNS) * cellWidth;
+            float top = (index / COLUMNS) * cellHeight;
+            keyRect.set(left + marginPx, top + marginPx, left + cellWidth - marginPx, top + cellHeight - marginPx);
+            canvas.drawRoundRect(keyRect, cornerPx, cornerPx, index == pressedIndex ? pressedPaint : keyPaint);
+
+            boolean action = index >= FIRST_ACTION_INDEX;
+            canvas.drawText(LABELS[index], left + cellWidth / 2, top + (action ? actionBaseline : digitBaseline),
+                    action ? actionPaint : digitPaint);
+        }
+    }
+
+    // ==================== Touch ====================
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        int index = keyIndexAt(event.getX(), event.getY(), getWidth(), getHeight());
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                setPressedIndex(isKeyEnabled(index) ? index : -1);
+                return true;
+            case MotionEvent.ACTION_UP:
+                int released = pressedIndex;
+                setPressedIndex(-1);
+                if (released >= 0 && released == index && onKeyListener != null) {
+                    onKeyListener.onKey(KEYS[released]);
+                }
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                setPressedIndex(-1);
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    private void setPressedIndex(int index) {
+        if (pressedIndex != index) {
+            pressedIndex = index;
+            invalidate();
+        }
+    }
+
+    private boolean isKeyEnabled(int index) {
+        if (index < 0) {
+            return false;
+        }
+        if (index == DECIMAL_INDEX) {
+            return allowDecimal;
+        }
+        if (index == NEGATIVE_INDEX) {
+            return allowNegative;
+        }
+        return true;
+    }
+
+    /**
+     * Map a touch point to a key index (KEYS order), or -1 outside the keypad
+     */
+    static int keyIndexAt(float x, float y, int width, int height) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return -1;
+        }
+        int column = (int) (x * COLUMNS / width);
+        int row = (int) (y * ROWS / height);
+        return row * COLUMNS + column;
+    }
+}
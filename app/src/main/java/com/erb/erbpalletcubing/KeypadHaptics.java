@@ -0,0 +1,88 @@
+package com.erb.erbpalletcubing;
+
+import android.util.Log;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * KeypadHaptics - Runs keypad vibration off the UI thread
+ * Vibrator.vibrate() is a binder call that can take several milliseconds on
+ * our scanners; doing it before every key delayed the key itself. perform()
+ * only queues the buzz. If one is still waiting when the next key arrives
+ * the two share it, so fast typing never builds a backlog.
+ */
+public final class KeypadHaptics {
+
+    private static final String TAG = "KeypadHaptics";
+
+    // One thread for every keypad in the process
+    private static final ExecutorService SHARED_EXECUTOR = Executors.newSingleThreadExecutor(
+            new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "KeypadHaptics");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    private final Runnable buzz;
+    private final Executor executor;
+    private final AtomicBoolean queued = new AtomicBoolean();
+    private volatile int performed;
+    private volatile int coalesced;
+
+    private final Runnable task = new Runnable() {
+        @Override
+        public void run() {
+            queued.set(false);
+            try {
+                buzz.run();
+                performed++;
+            } catch (Exception e) {
+                Log.e(TAG, "Error vibrating: " + e.getMessage(), e);
+            }
+        }
+    };
+
+    /**
+     * @param buzz The actual vibration, run on the haptics thread
+     */
+    public KeypadHaptics(Runnable buzz) {
+        this(buzz, SHARED_EXECUTOR);
+    }
+
+    KeypadHaptics(Runnable buzz, Executor executor) {
+        this.buzz = buzz;
+        this.executor = executor;
+    }
+
+    /**
+     * Queue one buzz and return immediately
+     */
+    public void perform() {
+        if (queued.compareAndSet(false, true)) {
+            executor.execute(task);
+        } else {
+            coalesced++;
+        }
+    }
+
+    /**
+     * Get number of buzzes actually run
+     */
+    public int getPerformedCount() {
+        return performed;
+    }
+
+    /**
+     * Get number of key presses that shared an already queued buzz
+     */
+    public int getCoalescedCount() {
+        return coalesced;
+    }
+}
@@ -0,0 +1,148 @@
+package com.erb.erbpalletcubing;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * LatencyStats - Per-operation latencies of one timed workload
+ * Samples are kept in a growable long[] (no boxing), sorted once when a
+ * percentile is first asked for. Percentiles use the nearest-rank method,
+ * so they are always a latency that was actually measured.
+ */
+public final class LatencyStats {
+
+    private long[] samples;
+    private int count;
+    private boolean sorted = true;
+    private long wallNanos;
+
+    public LatencyStats() {
+        this(64);
+    }
+
+    public LatencyStats(int expectedCount) {
+        samples = new long[Math.max(1, expectedCount)];
+    }
+
+    /**
+     * Record one operation
+     */
+    public void add(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+        sorted = false;
+    }
+
+    /**
+     * Set the elapsed time of the whole workload (for throughput)
+     */
+    public void setWallNanos(long wallNanos) {
+        this.wallNanos = wallNanos;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    /**
+     * Get a percentile by nearest rank
+     * @param percentile 0-100
+     * @return Latency in nanoseconds, or 0 with no samples
+     */
+    public long percentileNanos(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be 0-100: " + percentile);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        sort();
+        int rank = (int) Math.ceil(percentile / 100.0 * count);
+        return samples[Math.max(0, rank - 1)];
+    }
+
+    public long maxNanos() {
+        return percentileNanos(100);
+    }
+
+    public long meanNanos() {
+        if (count == 0) {
+            return 0;
+        }
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            total += samples[i];
+        }
+        return total / count;
+    }
+
+    /**
+     * Get operations per second over the wall time, or over the summed
+     * latencies if no wall time was set
+     */
+    public double opsPerSecond() {
+        long nanos = wallNanos > 0 ? wallNanos : meanNanos() * count;
+        return nanos > 0 ? count * 1e9 / nanos : 0;
+    }
+
+    /**
+     * Count samples per power-of-two microsecond bucket
+     * Bucket i holds latencies under 2^i us (bucket 0: under 1 us); the last
+     * bucket also holds everything slower.
+     */
+    public int[] histogram(int buckets) {
+        if (buckets < 1) {
+            throw new IllegalArgumentException("Need at least one bucket: " + buckets);
+        }
+        int[] counts = new int[buckets];
+        for (int i = 0; i < count; i++) {
+            long micros = samples[i] / 1000;
+            int bucket = micros <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(micros);
+            counts[Math.min(bucket, buckets - 1)]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Format the histogram from the fastest to the slowest non-empty bucket,
+     * one "< N us" line each with a bar scaled to the fullest bucket
+     */
+    public String formatHistogram() {
+        int[] counts = histogram(40);
+        int first = -1;
+        int last = -1;
+        int fullest = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                if (first < 0) {
+                    first = i;
+                }
+                last = i;
+                fullest = Math.max(fullest, counts[i]);
+            }
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = first; i >= 0 && i <= last; i++) {
+            int width = (int) Math.ceil(counts[i] * 40.0 / fullest);
+            text.append(String.format(Locale.US, "  < %9d us %8d ", 1L << i, counts[i]));
+            for (int j = 0; j < width; j++) {
+                text.append('#');
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+
+    private void sort() {
+        if (!sorted) {
+            Arrays.sort(samples, 0, count);
+            sorted = true;
+        }
+    }
+}
@@ -1,136 +1,164 @@
 package com.erb.erbpalletcubing;
 
+import android.content.Intent;
 import android.os.Bundle;
 import android.util.Log;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
-import java.util.HashMap;
+import androidx.core.content.ContextCompat;
 import java.util.List;
+import java.util.Map;
 
 public class MainActivity extends AppCompatActivity {
 
-    private static final String TAG = "Phase1Test";
+    private static final String TAG = "MainActivity";
+
+    // Phases recorded on the main thread (StartupTrace)
+    static final String PHASE_INFLATE = "activity.inflate";
+    static final String PHASE_SCANNER = "scanner.start";
+    static final String PHASE_ON_CREATE = "activity.onCreate";
+
+    private StartupTrace startupTrace;
+    private StartupPipeline startup;
+
+    // Null until startup completes (see onStartupComplete)
     private DatabaseHelper dbHelper;
     private SessionManager sessionManager;
+    private PalletProgress palletProgress;
+    private PalletDraftStore palletDraftStore;
+
+    private ScanPipeline scanPipeline;
+    private ScanReceiver scanReceiver;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        startupTrace = new StartupTrace();
+        long onCreateBegin = startupTrace.begin();
         super.onCreate(savedInstanceState);
+
+        long begin = startupTrace.begin();
         setContentView(R.layout.activity_main);
+        startupTrace.end(PHASE_INFLATE, begin);
+
+        // Session, database and config are loaded on the startup thread; nothing
+        // here touches storage, so the first frame doesn't wait on flash
+        startup = new StartupPipeline(this, ContextCompat.getMainExecutor(this), startupTrace);
+        startup.start(new StartupPipeline.Listener() {
+            @Override
+            public void onStartupComplete(StartupPipeline startup) {
+                MainActivity.this.onStartupComplete(startup);
+            }
+
+            @Override
+            public void onStartupFailed(StartupPipeline startup, Exception error) {
+                MainActivity.this.onStartupFailed(error);
+            }
+        });
+
+        // Scanner input: broadcasts are queued, classified off the main thread,
+        // and delivered back here in batches
+        begin = startupTrace.begin();
+        scanPipeline = new ScanPipeline(ContextCompat.getMainExecutor(this),
+                new ScanPipeline.Listener() {
+                    @Override
+                    public void onScans(List<ScanPipeline.ScanResult> batch) {
+                        onScanBatch(batch);
+                    }
+                });
+        scanReceiver = new ScanReceiver(scanPipeline);
+        scanPipeline.start();
+        ScanReceiver.handleScanIntent(scanPipeline, getIntent());
+        startupTrace.end(PHASE_SCANNER, begin);
+
+        startupTrace.end(PHASE_ON_CREATE, onCreateBegin);
+    }
 
-        // Initialize helpers
-        dbHelper = new DatabaseHelper(this);
-        sessionManager = new SessionManager(this);
+    private void onStartupComplete(StartupPipeline startup) {
+        if (isDestroyed()) {
+            return;
+        }
+        dbHelper = startup.getDatabaseHelper();
+        sessionManager = startup.getSessionManager();
+        palletProgress = startup.getPalletProgress();
+        palletDraftStore = startup.getPalletDraftStore();
+
+        Map<String, String> draft = startup.getRestoredDraft();
+        if (!draft.isEmpty()) {
+            Log.d(TAG, "Restored pallet draft: " + draft);
+        }
+    }
 
-        // Run tests immediately on launch
-        runPhase1Tests();
+    private void onStartupFailed(Exception error) {
+        if (isDestroyed()) {
+            return;
+        }
+        // Components stay null, so nothing can be saved against a half-open database
+        Log.e(TAG, "Startup failed: " + error.getMessage(), error);
+        Toast.makeText(this, "Storage failed to load: " + error.getMessage(), Toast.LENGTH_LONG).show();
+    }
 
-        // Show quick feedback
-        Toast.makeText(this, "Phase 1 components loaded successfully!",
-                Toast.LENGTH_SHORT).show();
+    StartupTrace getStartupTrace() {
+        return startupTrace;
     }
 
-    private void runPhase1Tests() {
-        testDatabase();
-        testSessionManager();
-        testValidation();
+    StartupPipeline getStartup() {
+        return startup;
+    }
 
-        Toast.makeText(this, "Phase 1 tests complete! Check Logcat",
-                Toast.LENGTH_LONG).show();
+    @Override
+    protected void onNewIntent(Intent intent) {
+        super.onNewIntent(intent);
+        ScanReceiver.handleScanIntent(scanPipeline, intent);
     }
 
-    private void testDatabase() {
-        Log.d(TAG, "=== DATABASE TESTS ===");
-
-        // Test 1: Insert
-        long rowId = dbHelper.insertPalletRecord(
-                "001", "23146", "401252", "1234567890",
-                "123", "4567890", "Fresh", "35", null,
-                5, 1, 72, "OK", null, null, null
-        );
-        Log.d(TAG, "✓ Inserted row ID: " + rowId);
-
-        // Test 2: Query
-        List<DatabaseHelper.CubingRecord> records =
-                dbHelper.getRecordsByTrailer("401252");
-        Log.d(TAG, "✓ Retrieved " + records.size() + " records");
-
-        // Test 3: Count
-        int count = dbHelper.getRecordCountByTrailer("401252");
-        Log.d(TAG, "✓ Total count: " + count);
-
-        // Test 4: Delete
-        int deleted = dbHelper.deleteByTrailerNumber("401252");
-        Log.d(TAG, "✓ Deleted " + deleted + " rows");
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // Pick up terminal-specific limits and carrier tables dropped in since the last resume
+        startup.reloadConfig();
+        scanReceiver.register(this);
+    }
+
+    @Override
+    protected void onPause() {
+        scanReceiver.unregister(this);
+        // Write out session changes still waiting on the write-behind delay
+        if (sessionManager != null) {
+            sessionManager.flush();
+        }
+        super.onPause();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        // The process may be killed next; don't lose a pallet draft still in memory
+        if (sessionManager != null) {
+            sessionManager.flush();
+        }
     }
 
-    private void testSessionManager() {
-        Log.d(TAG, "=== SESSION MANAGER TESTS ===");
-
-        // Test login
-        sessionManager.loginUser("001", "23146");
-        Log.d(TAG, "✓ Logged in: " + sessionManager.isLoggedIn());
-        Log.d(TAG, "✓ Terminal: " + sessionManager.getTerminalId());
-        Log.d(TAG, "✓ Receiver: " + sessionManager.getReceiverId());
-
-        // Test work context
-        sessionManager.setCurrentTrailer("401252");
-        sessionManager.setCurrentPro("1234567890");
-        Log.d(TAG, "✓ Trailer: " + sessionManager.getCurrentTrailer());
-        Log.d(TAG, "✓ PRO: " + sessionManager.getCurrentPro());
-
-        // Test resume state
-        HashMap<String, String> data = new HashMap<>();
-        data.put("test", "value");
-        sessionManager.saveResumeState("test_screen", data);
-        Log.d(TAG, "✓ Resume screen: " + sessionManager.getResumeScreen());
-
-        // Cleanup
-        sessionManager.logout();
-        Log.d(TAG, "✓ Logged out: " + !sessionManager.isLoggedIn());
+    @Override
+    public void onLowMemory() {
+        super.onLowMemory();
+        if (sessionManager != null) {
+            sessionManager.flush();
+        }
     }
 
-    private void testValidation() {
-        Log.d(TAG, "=== VALIDATION TESTS ===");
-
-        // Terminal ID
-        Log.d(TAG, "✓ Valid terminal: " +
-                ValidationHelper.isValidTerminalId("001"));
-        Log.d(TAG, "✓ Invalid terminal: " +
-                !ValidationHelper.isValidTerminalId("ABC"));
-
-        // PRO Number
-        Log.d(TAG, "✓ Valid PRO: " +
-                ValidationHelper.isValidProNumber("1234567890"));
-        Log.d(TAG, "✓ Invalid PRO: " +
-                !ValidationHelper.isValidProNumber("123"));
-
-        // PRO Extraction
-        String prefix = ValidationHelper.extractProPrefix("1234567890");
-        String erb = ValidationHelper.extractProErb("1234567890");
-        Log.d(TAG, "✓ PRO Prefix: " + prefix + " (should be 123)");
-        Log.d(TAG, "✓ PRO Erb: " + erb + " (should be 4567890)");
-
-        // Temperature
-        Log.d(TAG, "✓ Valid temp 35: " +
-                ValidationHelper.isValidTemperature("35"));
-        Log.d(TAG, "✓ Valid temp -15: " +
-                ValidationHelper.isValidTemperature("-15"));
-        Log.d(TAG, "✓ Invalid temp 50: " +
-                !ValidationHelper.isValidTemperature("50"));
-
-        // Temperature formatting
-        String display = ValidationHelper.formatTemperatureForDisplay("35");
-        String export = ValidationHelper.formatTemperatureForExport("-10");
-        Log.d(TAG, "✓ Display format: " + display + " (should be 35°F)");
-        Log.d(TAG, "✓ Export format: " + export + " (should be -10F)");
+    private void onScanBatch(List<ScanPipeline.ScanResult> batch) {
+        for (ScanPipeline.ScanResult scan : batch) {
+            Log.d(TAG, "Scan received: " + scan);
+        }
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (dbHelper != null) {
-            dbHelper.close();
+        if (scanPipeline != null) {
+            scanPipeline.stop();
         }
+        // Closes the database after startup, even if it hasn't finished yet
+        startup.close();
     }
 }
\ No newline at end of file
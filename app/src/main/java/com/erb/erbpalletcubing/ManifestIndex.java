@@ -0,0 +1,209 @@
+package com.erb.erbpalletcubing;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * ManifestIndex - Read-only, memory-mapped carrier advance manifest
+ * Looks up ExpectedPalletsPRO, freight type and receiver by PRO number with a
+ * binary search over fixed-size entries sorted by PRO; the entries stay in the
+ * page cache, not on the Java heap. Files are written by ManifestIndexBuilder.
+ *
+ * File layout (little-endian):
+ *   Header  (32 bytes): magic, version, entry count, freight table offset, reserved
+ *   Entries (16 bytes each, sorted by PRO):
+ *       long  PRO (packed, see ProNumber)
+ *       short expected pallets (unsigned)
+ *       byte  freight type index
+ *       byte  reserved
+ *       int   receiver ID
+ *   Freight table: int count, then per type: short byte length + UTF-8 bytes
+ */
+public class ManifestIndex {
+
+    static final int MAGIC = 0x45524D49;  // "ERMI"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int ENTRY_SIZE = 16;
+
+    static final int OFFSET_MAGIC = 0;
+    static final int OFFSET_VERSION = 4;
+    static final int OFFSET_ENTRY_COUNT = 8;
+    static final int OFFSET_FREIGHT_TABLE = 16;
+
+    static final int ENTRY_PRO = 0;
+    static final int ENTRY_EXPECTED_PALLETS = 8;
+    static final int ENTRY_FREIGHT_TYPE = 10;
+    static final int ENTRY_RECEIVER = 12;
+
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // Returned by indexOf() when the PRO is not in the manifest
+    public static final int NOT_FOUND = -1;
+
+    /**
+     * Manifest data for one PRO
+     */
+    public static class Entry {
+        public final ProNumber proNumber;
+        public final int expectedPallets;
+        public final String freightType;
+        public final int receiverId;
+
+        Entry(ProNumber proNumber, int expectedPallets, String freightType, int receiverId) {
+            this.proNumber = proNumber;
+            this.expectedPallets = expectedPallets;
+            this.freightType = freightType;
+            this.receiverId = receiverId;
+        }
+    }
+
+    private final ByteBuffer buffer;
+    private final int entryCount;
+    private final String[] freightTypes;
+
+    private ManifestIndex(ByteBuffer buffer, int entryCount, String[] freightTypes) {
+        this.buffer = buffer;
+        this.entryCount = entryCount;
+        this.freightTypes = freightTypes;
+    }
+
+    /**
+     * Map a manifest index file read-only
+     * The mapping stays valid after the file channel is closed
+     */
+    public static ManifestIndex open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a manifest index (size " + size + "): " + file);
+            }
+
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (mapped.getInt(OFFSET_MAGIC) != MAGIC) {
+                throw new IOException("Not a manifest index (bad magic): " + file);
+            }
+            if (mapped.getInt(OFFSET_VERSION) != VERSION) {
+                throw new IOException("Unsupported manifest index version "
+                        + mapped.getInt(OFFSET_VERSION) + ": " + file);
+            }
+
+            long count = mapped.getLong(OFFSET_ENTRY_COUNT);
+            long tableOffset = mapped.getLong(OFFSET_FREIGHT_TABLE);
+            if (count < 0 || tableOffset != HEADER_SIZE + count * ENTRY_SIZE || tableOffset + 4 > size) {
+                throw new IOException("Corrupt manifest index header: " + file);
+            }
+
+            return new ManifestIndex(mapped, (int) count, readFreightTable(mapped, (int) tableOffset));
+        } finally {
+            raf.close();
+        }
+    }
+
+    private static String[] readFreightTable(ByteBuffer buffer, int offset) throws IOException {
+        ByteBuffer table = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        table.position(offset);
+
+        int count = table.getInt();
+        if (count < 0 || count > 256) {
+            throw new IOException("Corrupt manifest freight table");
+        }
+
+        String[] types = new String[count];
+        for (int i = 0; i < count; i++) {
+            byte[] bytes = new byte[table.getShort() & 0xFFFF];
+            table.get(bytes);
+            types[i] = new String(bytes, UTF_8);
+        }
+        return types;
+    }
+
+    /**
+     * Get the number of PROs in the manifest
+     */
+    public int size() {
+        return entryCount;
+    }
+
+    /**
+     * Find the entry index for a packed PRO; allocation-free
+     * @return Entry index, or NOT_FOUND
+     */
+    public int indexOf(long proNumber) {
+        int low = 0;
+        int high = entryCount - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midPro = buffer.getLong(entryOffset(mid) + ENTRY_PRO);
+            if (midPro < proNumber) {
+                low = mid + 1;
+            } else if (midPro > proNumber) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+
+        return NOT_FOUND;
+    }
+
+    /**
+     * Get the PRO stored at an entry index
+     */
+    public long proNumberAt(int index) {
+        return buffer.getLong(entryOffset(index) + ENTRY_PRO);
+    }
+
+    /**
+     * Get ExpectedPalletsPRO at an entry index
+     */
+    public int expectedPalletsAt(int index) {
+        return buffer.getShort(entryOffset(index) + ENTRY_EXPECTED_PALLETS) & 0xFFFF;
+    }
+
+    /**
+     * Get the freight type at an entry index (shared String, no allocation)
+     */
+    public String freightTypeAt(int index) {
+        return freightTypes[buffer.get(entryOffset(index) + ENTRY_FREIGHT_TYPE) & 0xFF];
+    }
+
+    /**
+     * Get the receiver ID at an entry index
+     */
+    public int receiverIdAt(int index) {
+        return buffer.getInt(entryOffset(index) + ENTRY_RECEIVER);
+    }
+
+    /**
+     * Look up a PRO
+     * @return Manifest entry, or null if the PRO is not in the manifest
+     */
+    public Entry lookup(ProNumber proNumber) {
+        if (proNumber == null) {
+            return null;
+        }
+
+        int index = indexOf(proNumber.longValue());
+        if (index == NOT_FOUND) {
+            return null;
+        }
+
+        return new Entry(proNumber, expectedPalletsAt(index), freightTypeAt(index), receiverIdAt(index));
+    }
+
+    private static int entryOffset(int index) {
+        return HEADER_SIZE + index * ENTRY_SIZE;
+    }
+}
@@ -0,0 +1,302 @@
+package com.erb.erbpalletcubing;
+
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ManifestIndexBuilder - Converts a carrier CSV manifest into a ManifestIndex file
+ * Rows are streamed straight to disk and then sorted in place through a
+ * memory mapping, so building millions of PROs needs no heap beyond one line.
+ *
+ * CSV columns: PRO,ExpectedPallets,FreightType,Receiver
+ * A header row and rows that do not parse are skipped. A PRO listed more
+ * than once is collapsed to one entry when the rows agree and rejected
+ * when they don't.
+ */
+public class ManifestIndexBuilder {
+
+    private static final String TAG = "ManifestIndexBuilder";
+
+    private static final int WRITE_BUFFER_ENTRIES = 4096;
+    private static final int MAX_FREIGHT_TYPES = 256;
+    private static final int MAX_EXPECTED_PALLETS = 0xFFFF;
+
+    // Ranges at or below this size are finished with insertion sort
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    /**
+     * Build an index from a CSV stream
+     * Written to a temp file and renamed, so readers never see a partial index
+     * @return Number of PROs written
+     */
+    public static int build(InputStream csv, File output) throws IOException {
+        File temp = new File(output.getPath() + ".tmp");
+        RandomAccessFile raf = new RandomAccessFile(temp, "rw");
+        int entryCount;
+
+        try {
+            raf.setLength(0);
+            FileChannel channel = raf.getChannel();
+
+            List<String> freightTypes = new ArrayList<>();
+            entryCount = writeEntries(csv, channel, freightTypes);
+
+            int written = entryCount;
+            if (entryCount > 0) {
+                MappedByteBuffer entries = channel.map(FileChannel.MapMode.READ_WRITE,
+                        ManifestIndex.HEADER_SIZE, (long) entryCount * ManifestIndex.ENTRY_SIZE);
+                entries.order(ByteOrder.LITTLE_ENDIAN);
+                sortEntries(entries, 0, entryCount - 1);
+                entryCount = collapseDuplicates(entries, entryCount);
+                entries.force();
+            }
+
+            long tableOffset = ManifestIndex.HEADER_SIZE + (long) entryCount * ManifestIndex.ENTRY_SIZE;
+            long end = writeFreightTable(channel, tableOffset, freightTypes);
+            writeHeader(channel, entryCount, tableOffset);
+            if (entryCount < written) {
+                Log.w(TAG, "Collapsed " + (written - entryCount) + " repeated manifest rows");
+                channel.truncate(end);
+            }
+            channel.force(true);
+        } finally {
+            raf.close();
+        }
+
+        if (!temp.renameTo(output)) {
+            // renameTo won't replace on every platform
+            if (!output.delete() || !temp.renameTo(output)) {
+                throw new IOException("Could not move manifest index into place: " + output);
+            }
+        }
+
+        Log.d(TAG, "Manifest index built: " + entryCount + " PROs -> " + output);
+        return entryCount;
+    }
+
+    private static int writeEntries(InputStream csv, FileChannel channel, List<String> freightTypes)
+            throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(csv, ManifestIndex.UTF_8));
+        ByteBuffer out = ByteBuffer.allocate(WRITE_BUFFER_ENTRIES * ManifestIndex.ENTRY_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        Map<String, Integer> freightIndex = new HashMap<>();
+
+        long position = ManifestIndex.HEADER_SIZE;
+        long maxEntries = (Integer.MAX_VALUE - ManifestIndex.HEADER_SIZE) / ManifestIndex.ENTRY_SIZE;
+        int count = 0;
+        int skipped = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            String[] fields = splitCsvLine(line);
+            long pro = fields.length >= 4 ? ProNumber.parseValue(fields[0]) : ProNumber.INVALID;
+            int expected = fields.length >= 4 ? ValidationHelper.parseIntSafely(fields[1], -1) : -1;
+            int receiver = fields.length >= 4 ? ValidationHelper.parseIntSafely(fields[3], -1) : -1;
+
+            if (pro == ProNumber.INVALID || expected < 0 || expected > MAX_EXPECTED_PALLETS || receiver < 0) {
+                skipped++;
+                continue;
+            }
+
+            String freightType = fields[2].trim();
+            Integer typeIndex = freightIndex.get(freightType);
+            if (typeIndex == null) {
+                if (freightTypes.size() == MAX_FREIGHT_TYPES) {
+                    throw new IOException("Too many freight types in manifest (max " + MAX_FREIGHT_TYPES + ")");
+                }
+                typeIndex = freightTypes.size();
+                freightTypes.add(freightType);
+                freightIndex.put(freightType, typeIndex);
+            }
+
+            if (count == maxEntries) {
+                throw new IOException("Manifest too large (max " + maxEntries + " PROs)");
+            }
+
+            out.putLong(pro);
+            out.putShort((short) expected);
+            out.put((byte) (int) typeIndex);
+            out.put((byte) 0);
+            out.putInt(receiver);
+            count++;
+
+            if (!out.hasRemaining()) {
+                position = flush(channel, out, position);
+            }
+        }
+        flush(channel, out, position);
+
+        if (skipped > 0) {
+            Log.w(TAG, "Skipped " + skipped + " manifest rows that did not parse");
+        }
+        return count;
+    }
+
+    private static long flush(FileChannel channel, ByteBuffer out, long position) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            position += channel.write(out, position);
+        }
+        out.clear();
+        return position;
+    }
+
+    /**
+     * @return File position just past the table
+     */
+    private static long writeFreightTable(FileChannel channel, long offset, List<String> freightTypes)
+            throws IOException {
+        int size = 4;
+        List<byte[]> encoded = new ArrayList<>(freightTypes.size());
+        for (String type : freightTypes) {
+            byte[] bytes = type.getBytes(ManifestIndex.UTF_8);
+            encoded.add(bytes);
+            size += 2 + bytes.length;
+        }
+
+        ByteBuffer table = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        table.putInt(encoded.size());
+        for (byte[] bytes : encoded) {
+            table.putShort((short) bytes.length);
+            table.put(bytes);
+        }
+        return flush(channel, table, offset);
+    }
+
+    private static void writeHeader(FileChannel channel, int entryCount, long tableOffset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(ManifestIndex.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(ManifestIndex.OFFSET_MAGIC, ManifestIndex.MAGIC);
+        header.putInt(ManifestIndex.OFFSET_VERSION, ManifestIndex.VERSION);
+        header.putLong(ManifestIndex.OFFSET_ENTRY_COUNT, entryCount);
+        header.putLong(ManifestIndex.OFFSET_FREIGHT_TABLE, tableOffset);
+        header.position(ManifestIndex.HEADER_SIZE);
+        flush(channel, header, 0);
+    }
+
+    private static String[] splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>(4);
+        int start = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == ',') {
+                fields.add(line.substring(start, i));
+                start = i + 1;
+            }
+        }
+        fields.add(line.substring(start));
+        return fields.toArray(new String[0]);
+    }
+
+    // ==================== In-place Sort ====================
+
+    /**
+     * Quicksort 16-byte entries by their leading PRO, directly in the mapping
+     * Three-way partitioning keeps runs of one PRO out of further recursion, so
+     * repeated keys don't degrade it to O(n^2). Recurses into the smaller side
+     * only, so stack depth stays O(log n).
+     */
+    static void sortEntries(ByteBuffer entries, int low, int high) {
+        while (high - low > INSERTION_SORT_THRESHOLD) {
+            int mid = (low + high) >>> 1;
+            // Median of three as the pivot
+            if (keyAt(entries, mid) < keyAt(entries, low)) {
+                swap(entries, mid, low);
+            }
+            if (keyAt(entries, high) < keyAt(entries, low)) {
+                swap(entries, high, low);
+            }
+            if (keyAt(entries, high) < keyAt(entries, mid)) {
+                swap(entries, high, mid);
+            }
+            long pivot = keyAt(entries, mid);
+
+            // [low, lt) < pivot, [lt, i) == pivot, (gt, high] > pivot
+            int lt = low;
+            int gt = high;
+            int i = low;
+            while (i <= gt) {
+                long key = keyAt(entries, i);
+                if (key < pivot) {
+                    swap(entries, lt++, i++);
+                } else if (key > pivot) {
+                    swap(entries, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+
+            if (lt - low < high - gt) {
+                sortEntries(entries, low, lt - 1);
+                low = gt + 1;
+            } else {
+                sortEntries(entries, gt + 1, high);
+                high = lt - 1;
+            }
+        }
+
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && keyAt(entries, j) < keyAt(entries, j - 1); j--) {
+                swap(entries, j, j - 1);
+            }
+        }
+    }
+
+    /**
+     * Drop repeats of a PRO from sorted entries, packing the rest to the front
+     * @return Number of entries kept
+     * @throws IOException If two rows for one PRO disagree
+     */
+    static int collapseDuplicates(ByteBuffer entries, int count) throws IOException {
+        int kept = count > 0 ? 1 : 0;
+        for (int i = 1; i < count; i++) {
+            int last = (kept - 1) * ManifestIndex.ENTRY_SIZE;
+            int offset = i * ManifestIndex.ENTRY_SIZE;
+            long key = entries.getLong(offset);
+            long data = entries.getLong(offset + 8);
+            if (key == entries.getLong(last)) {
+                if (data != entries.getLong(last + 8)) {
+                    throw new IOException("Manifest lists PRO " + ProNumber.of(key) + " with different details");
+                }
+                continue;
+            }
+            if (kept != i) {
+                int target = kept * ManifestIndex.ENTRY_SIZE;
+                entries.putLong(target, key);
+                entries.putLong(target + 8, data);
+            }
+            kept++;
+        }
+        return kept;
+    }
+
+    private static long keyAt(ByteBuffer entries, int index) {
+        return entries.getLong(index * ManifestIndex.ENTRY_SIZE);
+    }
+
+    private static void swap(ByteBuffer entries, int a, int b) {
+        if (a == b) {
+            return;
+        }
+        int offsetA = a * ManifestIndex.ENTRY_SIZE;
+        int offsetB = b * ManifestIndex.ENTRY_SIZE;
+        long keyA = entries.getLong(offsetA);
+        long dataA = entries.getLong(offsetA + 8);
+        entries.putLong(offsetA, entries.getLong(offsetB));
+        entries.putLong(offsetA + 8, entries.getLong(offsetB + 8));
+        entries.putLong(offsetB, keyA);
+        entries.putLong(offsetB + 8, dataA);
+    }
+}
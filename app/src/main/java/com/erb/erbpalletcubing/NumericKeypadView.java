@@ -2,11 +2,16 @@ package com.erb.erbpalletcubing;
 
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.os.Vibrator;
+import android.text.Editable;
 import android.text.InputType;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.view.Gravity;
+import android.view.KeyEvent;
 import android.view.View;
 import android.widget.Button;
 import android.widget.EditText;
@@ -16,6 +21,16 @@ import android.widget.LinearLayout;
 /**
  * NumericKeypadView - Custom glove-friendly numeric keypad
  * Supports digits, negative numbers, decimals, and backspace
+ * Keys go through a KeypadBuffer that edits the target EditText in place,
+ * and vibration is queued to KeypadHaptics, so a key press costs the UI
+ * thread one small text change.
+ * MODE_DRAWN (app:keypadMode="drawn") renders every key in one
+ * KeypadCanvasView instead of 15 Buttons in two layouts.
+ * With a FieldInput (app:fieldType) keys are validated as they are typed:
+ * impossible keys are refused and getFieldStatus() is always current.
+ * Hardware keypad and keyboard-wedge keys sent to the target EditText go
+ * through a KeyTypeAhead into the same model, in order; a wedge burst is
+ * applied as one edit of the target.
  */
 public class NumericKeypadView extends LinearLayout {
 
@@ -23,11 +38,49 @@ public class NumericKeypadView extends LinearLayout {
     private static final int BUTTON_HEIGHT_DP = 70;  // Glove-friendly height
     private static final int VIBRATE_DURATION_MS = 50;
 
+    // Keypad modes (app:keypadMode)
+    public static final int MODE_BUTTONS = 0;
+    public static final int MODE_DRAWN = 1;
+
+    // Keys other than the digits '0'-'9'
+    public static final char KEY_DECIMAL = '.';
+    public static final char KEY_NEGATIVE = '-';
+    public static final char KEY_CLEAR = 'C';
+    public static final char KEY_BACKSPACE = '\b';
+    public static final char KEY_DONE = '\n';
+
     private EditText targetEditText;
     private boolean allowNegative = false;
     private boolean allowDecimal = false;
     private Vibrator vibrator;
+    private final KeypadBuffer buffer = new KeypadBuffer();
+    private KeypadHaptics haptics;
     private OnDoneListener onDoneListener;
+    private OnValueChangeListener onValueChangeListener;
+    private int keypadMode = MODE_BUTTONS;
+    private FieldInput fieldInput;
+
+    // Hardware / wedge keys
+    private KeyTypeAhead typeAhead;
+    private boolean flushPosted;
+    // Not View.postDelayed: that queue only runs while attached, and typed keys must land regardless
+    private final Handler flushHandler = new Handler(Looper.getMainLooper());
+    private boolean batchingEdits;
+    private boolean batchChanged;
+    private final Runnable flushTypeAhead = new Runnable() {
+        @Override
+        public void run() {
+            long now = SystemClock.uptimeMillis();
+            if (typeAhead.flushIfIdle(now)) {
+                flushPosted = false;
+            } else {
+                flushHandler.postDelayed(this, typeAhead.getFlushDelay(now));
+            }
+        }
+    };
+
+    // Drawn mode
+    private KeypadCanvasView canvasKeypad;
 
     // Buttons
     private Button btn1, btn2, btn3, btn4, btn5, btn6, btn7, btn8, btn9, btn0;
@@ -37,11 +90,27 @@ public class NumericKeypadView extends LinearLayout {
         void onDone(String value);
     }
 
+    /**
+     * Called after every key that changes the value (for draft persistence)
+     */
+    public interface OnValueChangeListener {
+        void onValueChanged(String value);
+    }
+
     public NumericKeypadView(Context context) {
         super(context);
         init(context, null);
     }
 
+    /**
+     * @param keypadMode MODE_BUTTONS or MODE_DRAWN
+     */
+    public NumericKeypadView(Context context, int keypadMode) {
+        super(context);
+        this.keypadMode = keypadMode;
+        init(context, null);
+    }
+
     public NumericKeypadView(Context context, AttributeSet attrs) {
         super(context, attrs);
         init(context, attrs);
@@ -55,19 +124,50 @@ public class NumericKeypadView extends LinearLayout {
     private void init(Context context, AttributeSet attrs) {
         setOrientation(VERTICAL);
         vibrator = (Vibrator) context.getSystemService(Context.VIBRATOR_SERVICE);
+        haptics = new KeypadHaptics(new Runnable() {
+            @Override
+            public void run() {
+                vibrate();
+            }
+        });
+        buffer.setListener(new KeypadBuffer.Listener() {
+            @Override
+            public void onReplace(int start, int end, CharSequence text) {
+                applyEdit(start, end, text);
+            }
+        });
+        typeAhead = new KeyTypeAhead(new KeyTypeAhead.Sink() {
+            @Override
+            public void onKeys(char[] keys, int count, boolean burst) {
+                applyHardwareKeys(keys, count, burst);
+            }
+        });
 
         // Read custom attributes if provided
         if (attrs != null) {
             TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.NumericKeypadView);
             allowNegative = a.getBoolean(R.styleable.NumericKeypadView_allowNegative, false);
             allowDecimal = a.getBoolean(R.styleable.NumericKeypadView_allowDecimal, false);
+            keypadMode = a.getInt(R.styleable.NumericKeypadView_keypadMode, MODE_BUTTONS);
+            fieldInput = FieldInput.forType(a.getInt(R.styleable.NumericKeypadView_fieldType, FieldInput.TYPE_NONE));
             a.recycle();
         }
+        if (fieldInput != null) {
+            allowNegative = fieldInput.allowsNegative();
+            allowDecimal = fieldInput.allowsDecimal();
+        }
 
+        buffer.setAllowNegative(allowNegative);
+        buffer.setAllowDecimal(allowDecimal);
         createKeypad();
     }
 
     private void createKeypad() {
+        if (keypadMode == MODE_DRAWN) {
+            createDrawnKeypad();
+            return;
+        }
+
         Context context = getContext();
         int buttonHeightPx = dpToPx(BUTTON_HEIGHT_DP);
 
@@ -130,6 +230,21 @@ public class NumericKeypadView extends LinearLayout {
         }
     }
 
+    private void createDrawnKeypad() {
+        canvasKeypad = new KeypadCanvasView(getContext(), dpToPx(BUTTON_HEIGHT_DP));
+        canvasKeypad.setAllowNegative(allowNegative);
+        canvasKeypad.setAllowDecimal(allowDecimal);
+        canvasKeypad.setLayoutParams(new LinearLayout.LayoutParams(
+                LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT));
+        canvasKeypad.setOnKeyListener(new KeypadCanvasView.OnKeyListener() {
+            @Override
+            public void onKey(char key) {
+                onKeyPressed(key);
+            }
+        });
+        addView(canvasKeypad);
+    }
+
     private Button createNumberButton(final String digit, int heightPx) {
         Button button = new Button(getContext());
         button.setText(digit);
@@ -146,7 +261,7 @@ public class NumericKeypadView extends LinearLayout {
         button.setOnClickListener(new OnClickListener() {
             @Override
             public void onClick(View v) {
-                onNumberButtonClick(digit);
+                onKeyPressed(digit.charAt(0));
             }
         });
 
@@ -168,21 +283,21 @@ public class NumericKeypadView extends LinearLayout {
             button.setOnClickListener(new OnClickListener() {
                 @Override
                 public void onClick(View v) {
-                    onClearClick();
+                    onKeyPressed(KEY_CLEAR);
                 }
             });
         } else if (label.equals("⌫")) {
             button.setOnClickListener(new OnClickListener() {
                 @Override
                 public void onClick(View v) {
-                    onBackspaceClick();
+                    onKeyPressed(KEY_BACKSPACE);
                 }
             });
         } else if (label.equals("DONE")) {
             button.setOnClickListener(new OnClickListener() {
                 @Override
                 public void onClick(View v) {
-                    onDoneClick();
+                    onKeyPressed(KEY_DONE);
                 }
             });
         }
@@ -200,89 +315,261 @@ public class NumericKeypadView extends LinearLayout {
         return space;
     }
 
-    private void onNumberButtonClick(String digit) {
-        vibrate();
-        
+    /**
+     * Handle one key touched on either keypad mode
+     */
+    private void onKeyPressed(char key) {
+        typeAhead.flush();  // Hardware keys typed before the touch go first
+        haptics.perform();
+        syncFromTarget();
+        applyKey(key);
+    }
+
+    private void applyKey(char key) {
+        switch (key) {
+            case KEY_CLEAR:
+                onClearClick();
+                break;
+            case KEY_BACKSPACE:
+                onBackspaceClick();
+                break;
+            case KEY_DONE:
+                onDoneClick();
+                break;
+            default:
+                onNumberButtonClick(key);
+                break;
+        }
+    }
+
+    private void onNumberButtonClick(char key) {
         if (targetEditText == null) {
             Log.w(TAG, "No target EditText set");
             return;
         }
 
-        String currentText = targetEditText.getText().toString();
-        
-        // Handle decimal point
-        if (digit.equals(".")) {
-            if (!allowDecimal) {
-                return;
-            }
-            // Only allow one decimal point
-            if (currentText.contains(".")) {
-                return;
-            }
-            // If empty, prepend with 0
-            if (currentText.isEmpty()) {
-                targetEditText.append("0.");
-                return;
-            }
-        }
-        
-        // Handle negative sign
-        if (digit.equals("-")) {
-            if (!allowNegative) {
-                return;
-            }
-            // Toggle negative sign at the beginning
-            if (currentText.startsWith("-")) {
-                targetEditText.setText(currentText.substring(1));
-            } else {
-                targetEditText.setText("-" + currentText);
-            }
-            targetEditText.setSelection(targetEditText.getText().length());
+        // A key that can't lead to a valid value never reaches the text
+        if (fieldInput != null && !fieldInput.accept(key)) {
             return;
         }
-        
-        // Append digit
-        targetEditText.append(digit);
+
+        // Each key is one small in-place edit of the target (see KeypadBuffer)
+        buffer.press(key);
     }
 
     private void onClearClick() {
-        vibrate();
-        
         if (targetEditText != null) {
-            targetEditText.setText("");
+            buffer.clear();
+            if (fieldInput != null) {
+                fieldInput.reset();
+            }
         }
     }
 
     private void onBackspaceClick() {
-        vibrate();
-        
+        if (targetEditText != null && buffer.backspace() && fieldInput != null) {
+            fieldInput.backspace();
+        }
+    }
+
+    private void onDoneClick() {
+        if (onDoneListener != null && targetEditText != null) {
+            onDoneListener.onDone(buffer.toString());
+        }
+    }
+
+    /**
+     * Apply one buffer change to the target in place (no setText, no selection reset)
+     */
+    private void applyEdit(int start, int end, CharSequence text) {
         if (targetEditText == null) {
             return;
         }
+        if (batchingEdits) {
+            batchChanged = true;  // Written once when the burst ends
+            return;
+        }
+        targetEditText.getText().replace(start, end, text);
+        if (onValueChangeListener != null) {
+            onValueChangeListener.onValueChanged(buffer.toString());
+        }
+    }
+
+    // ==================== Hardware Keys ====================
 
-        String currentText = targetEditText.getText().toString();
-        if (!currentText.isEmpty()) {
-            targetEditText.setText(currentText.substring(0, currentText.length() - 1));
-            targetEditText.setSelection(targetEditText.getText().length());
+    /**
+     * Take a key event meant for the target EditText
+     * Keys the keypad doesn't use are left for the normal key handling.
+     * @return true if the event was consumed
+     */
+    public boolean handleKeyEvent(KeyEvent event) {
+        if (targetEditText == null) {
+            return false;
         }
+
+        // Some wedges send a whole scan as one ACTION_MULTIPLE with characters
+        if (event.getAction() == KeyEvent.ACTION_MULTIPLE && event.getKeyCode() == KeyEvent.KEYCODE_UNKNOWN) {
+            String characters = event.getCharacters();
+            if (characters == null) {
+                return false;
+            }
+            boolean consumed = false;
+            for (int i = 0; i < characters.length(); i++) {
+                char key = keyForChar(characters.charAt(i));
+                if (key != 0) {
+                    offerHardwareKey(key, event.getEventTime());
+                    consumed = true;
+                }
+            }
+            return consumed;
+        }
+
+        char key = keyForKeyCode(event);
+        if (key == 0) {
+            return false;
+        }
+        if (event.getAction() == KeyEvent.ACTION_DOWN) {
+            offerHardwareKey(key, event.getEventTime());
+        }
+        return true;  // Consume the up as well, so the EditText never sees the key
     }
 
-    private void onDoneClick() {
-        vibrate();
-        
-        if (onDoneListener != null && targetEditText != null) {
-            String value = targetEditText.getText().toString();
-            onDoneListener.onDone(value);
+    private void offerHardwareKey(char key, long eventTime) {
+        if (typeAhead.offer(key, eventTime) && !flushPosted) {
+            flushPosted = true;
+            flushHandler.postDelayed(flushTypeAhead, typeAhead.getFlushDelay(SystemClock.uptimeMillis()));
         }
     }
 
-    private void vibrate() {
+    /**
+     * Apply hardware keys in order; a burst updates the target once at the end
+     * (or before a DONE inside it, so the listener sees the scanned value)
+     */
+    private void applyHardwareKeys(char[] keys, int count, boolean burst) {
+        syncFromTarget();
+        if (!burst) {
+            applyKey(keys[0]);
+            return;
+        }
+        batchingEdits = true;
         try {
-            if (vibrator != null && vibrator.hasVibrator()) {
-                vibrator.vibrate(VIBRATE_DURATION_MS);
+            for (int i = 0; i < count; i++) {
+                if (keys[i] == KEY_DONE) {
+                    endBatch();
+                    onDoneClick();
+                    batchingEdits = true;
+                } else {
+                    applyKey(keys[i]);
+                }
+            }
+        } finally {
+            endBatch();
+        }
+    }
+
+    private void endBatch() {
+        batchingEdits = false;
+        if (!batchChanged || targetEditText == null) {
+            return;
+        }
+        batchChanged = false;
+        Editable text = targetEditText.getText();
+        text.replace(0, text.length(), buffer);
+        if (onValueChangeListener != null) {
+            onValueChangeListener.onValueChanged(buffer.toString());
+        }
+    }
+
+    /**
+     * Map a key event to a keypad key, or 0 if the keypad doesn't use it
+     */
+    static char keyForKeyCode(KeyEvent event) {
+        int keyCode = event.getKeyCode();
+        if (keyCode >= KeyEvent.KEYCODE_0 && keyCode <= KeyEvent.KEYCODE_9) {
+            return (char) ('0' + keyCode - KeyEvent.KEYCODE_0);
+        }
+        if (keyCode >= KeyEvent.KEYCODE_NUMPAD_0 && keyCode <= KeyEvent.KEYCODE_NUMPAD_9) {
+            return (char) ('0' + keyCode - KeyEvent.KEYCODE_NUMPAD_0);
+        }
+        switch (keyCode) {
+            case KeyEvent.KEYCODE_PERIOD:
+            case KeyEvent.KEYCODE_NUMPAD_DOT:
+                return KEY_DECIMAL;
+            case KeyEvent.KEYCODE_MINUS:
+            case KeyEvent.KEYCODE_NUMPAD_SUBTRACT:
+                return KEY_NEGATIVE;
+            case KeyEvent.KEYCODE_DEL:
+                return KEY_BACKSPACE;
+            case KeyEvent.KEYCODE_CLEAR:
+            case KeyEvent.KEYCODE_ESCAPE:
+                return KEY_CLEAR;
+            case KeyEvent.KEYCODE_ENTER:
+            case KeyEvent.KEYCODE_NUMPAD_ENTER:
+            case KeyEvent.KEYCODE_TAB:  // Wedges are often set to end a scan with TAB
+                return KEY_DONE;
+            default:
+                // Wedges with a foreign key map may still produce the right character
+                return keyForChar((char) event.getUnicodeChar());
+        }
+    }
+
+    static char keyForChar(char c) {
+        if ((c >= '0' && c <= '9') || c == KEY_DECIMAL || c == KEY_NEGATIVE) {
+            return c;
+        }
+        if (c == '\r' || c == '\n' || c == '\t') {
+            return KEY_DONE;
+        }
+        return 0;
+    }
+
+    /**
+     * Reload the buffer if app code changed the target's text (setText) since
+     * the keypad last wrote it, so the next in-place edit lands on what is shown
+     * Skipped mid-burst, where the target is stale on purpose until endBatch.
+     */
+    private void syncFromTarget() {
+        if (targetEditText == null || batchingEdits || bufferMatches(targetEditText.getText())) {
+            return;
+        }
+        buffer.setValue(targetEditText.getText());
+        syncFieldInput();
+        Editable text = targetEditText.getText();
+        if (!bufferMatches(text)) {
+            text.replace(0, text.length(), buffer);  // Drop what the keypad couldn't have typed
+        }
+    }
+
+    private boolean bufferMatches(CharSequence text) {
+        if (text == null || text.length() != buffer.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) != buffer.charAt(i)) {
+                return false;
             }
-        } catch (Exception e) {
-            Log.e(TAG, "Error vibrating: " + e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * Bring the field state machine in line with text set from outside the keypad
+     * Text it would have refused is cleared, so the two never disagree
+     */
+    private void syncFieldInput() {
+        if (fieldInput == null || fieldInput.load(buffer)) {
+            return;
+        }
+        Log.w(TAG, "Discarding value the field doesn't accept: " + buffer);
+        buffer.setValue(null);
+        if (targetEditText != null) {
+            targetEditText.setText("");
+        }
+    }
+
+    private void vibrate() {
+        if (vibrator != null && vibrator.hasVibrator()) {
+            vibrator.vibrate(VIBRATE_DURATION_MS);
         }
     }
 
@@ -297,13 +584,26 @@ public class NumericKeypadView extends LinearLayout {
      * Set the target EditText that this keypad will input to
      */
     public void setTargetEditText(EditText editText) {
+        typeAhead.flush();  // Keys already typed belong to the old target
+        if (targetEditText != null && targetEditText != editText) {
+            targetEditText.setOnKeyListener(null);
+        }
         this.targetEditText = editText;
+        buffer.setValue(editText != null ? editText.getText() : null);
+        syncFieldInput();
         
         if (editText != null) {
             // Disable system keyboard
             editText.setInputType(InputType.TYPE_NULL);
             editText.setFocusable(true);
             editText.setFocusableInTouchMode(true);
+            // Hardware keypad and wedge keys go through the keypad model too
+            editText.setOnKeyListener(new OnKeyListener() {
+                @Override
+                public boolean onKey(View v, int keyCode, KeyEvent event) {
+                    return handleKeyEvent(event);
+                }
+            });
         }
     }
 
@@ -312,10 +612,14 @@ public class NumericKeypadView extends LinearLayout {
      */
     public void setAllowNegative(boolean allow) {
         this.allowNegative = allow;
+        buffer.setAllowNegative(allow);
         
         if (btnNegative != null) {
             btnNegative.setVisibility(allow ? VISIBLE : GONE);
         }
+        if (canvasKeypad != null) {
+            canvasKeypad.setAllowNegative(allow);
+        }
     }
 
     /**
@@ -323,10 +627,39 @@ public class NumericKeypadView extends LinearLayout {
      */
     public void setAllowDecimal(boolean allow) {
         this.allowDecimal = allow;
+        buffer.setAllowDecimal(allow);
         
         if (btnDecimal != null) {
             btnDecimal.setVisibility(allow ? VISIBLE : GONE);
         }
+        if (canvasKeypad != null) {
+            canvasKeypad.setAllowDecimal(allow);
+        }
+    }
+
+    /**
+     * Validate keys as they are typed (null for no validation)
+     * Also shows or hides the minus and decimal keys to suit the field.
+     */
+    public void setFieldInput(FieldInput input) {
+        this.fieldInput = input;
+        if (input != null) {
+            setAllowNegative(input.allowsNegative());
+            setAllowDecimal(input.allowsDecimal());
+            syncFieldInput();
+        }
+    }
+
+    public FieldInput getFieldInput() {
+        return fieldInput;
+    }
+
+    /**
+     * Get the validation status of the current value without re-parsing it
+     * @return ValidationHelper.VALID or an ERROR_* code; VALID when no FieldInput is set
+     */
+    public int getFieldStatus() {
+        return fieldInput != null ? fieldInput.getStatus() : ValidationHelper.VALID;
     }
 
     /**
@@ -336,12 +669,21 @@ public class NumericKeypadView extends LinearLayout {
         this.onDoneListener = listener;
     }
 
+    /**
+     * Set the listener told about every value change made from the keypad
+     * (not about setValue(), so restoring a draft doesn't record it again)
+     */
+    public void setOnValueChangeListener(OnValueChangeListener listener) {
+        this.onValueChangeListener = listener;
+    }
+
     /**
      * Get the current value from the target EditText
      */
     public String getValue() {
         if (targetEditText != null) {
-            return targetEditText.getText().toString();
+            syncFromTarget();
+            return buffer.toString();
         }
         return "";
     }
@@ -350,8 +692,13 @@ public class NumericKeypadView extends LinearLayout {
      * Clear the target EditText
      */
     public void clear() {
+        typeAhead.flush();
         if (targetEditText != null) {
+            buffer.setValue(null);
             targetEditText.setText("");
+            if (fieldInput != null) {
+                fieldInput.reset();
+            }
         }
     }
 
@@ -359,9 +706,12 @@ public class NumericKeypadView extends LinearLayout {
      * Set a value in the target EditText
      */
     public void setValue(String value) {
+        typeAhead.flush();
         if (targetEditText != null) {
-            targetEditText.setText(value);
-            targetEditText.setSelection(targetEditText.getText().length());
+            buffer.setValue(value);
+            syncFieldInput();
+            targetEditText.setText(buffer);
+            targetEditText.setSelection(buffer.length());
         }
     }
 }
@@ -0,0 +1,118 @@
+package com.erb.erbpalletcubing;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * PalletDraftStore - Keystroke-level persistence of the pallet being entered
+ * Every field change from NumericKeypadView goes into the session's resume
+ * state in memory; SessionManager's write-behind coalesces them, so rapid
+ * typing costs at most one journal write per write delay rather than one per
+ * key. Flush on onPause/onTrimMemory, and call restore() on relaunch to
+ * refill the fields after the process was killed mid-entry.
+ */
+public final class PalletDraftStore {
+
+    // Field names (keys in ResumeState extras)
+    public static final String FIELD_PALLET_HEIGHT = "palletHeight";
+    public static final String FIELD_OSD_QUANTITY = "osdQuantity";
+    public static final String FIELD_TEMP1 = "temp1";
+    public static final String FIELD_TEMP2 = "temp2";
+
+    private final SessionManager session;
+    private final Object lock = new Object();
+
+    public PalletDraftStore(SessionManager session) {
+        if (session == null) {
+            throw new IllegalArgumentException("Session cannot be null");
+        }
+        this.session = session;
+    }
+
+    /**
+     * Record the current text of a field (called on every keystroke)
+     * Empty text removes the field from the draft
+     */
+    public void onFieldChanged(String field, String text) {
+        synchronized (lock) {
+            ResumeState current = session.getResume();
+            String previous = current != null ? current.getExtras().get(field) : null;
+            String value = text != null && !text.isEmpty() ? text : null;
+            if (value == null ? previous == null : value.equals(previous)) {
+                return;
+            }
+
+            ResumeState.Builder builder = current != null
+                    ? current.toBuilder()
+                    : ResumeState.builder(ResumeState.SCREEN_PALLET_DETAIL);
+            if (value != null) {
+                builder.extra(field, value);
+            } else {
+                builder.removeExtra(field);
+            }
+            session.edit().resume(builder.build()).commitAsync();
+        }
+    }
+
+    /**
+     * Get a listener that records one keypad's field
+     */
+    public NumericKeypadView.OnValueChangeListener listenerFor(final String field) {
+        return new NumericKeypadView.OnValueChangeListener() {
+            @Override
+            public void onValueChanged(String value) {
+                onFieldChanged(field, value);
+            }
+        };
+    }
+
+    /**
+     * Get the draft text of one field, or null if none was typed
+     */
+    public String getField(String field) {
+        ResumeState current = session.getResume();
+        return current != null ? current.getExtras().get(field) : null;
+    }
+
+    /**
+     * Get every drafted field, for refilling the screen on relaunch
+     */
+    public Map<String, String> restore() {
+        ResumeState current = session.getResume();
+        if (current == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (Map.Entry<String, String> entry : current.getExtras().entrySet()) {
+            if (entry.getValue() != null) {
+                fields.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Drop the drafted fields once the pallet is saved, keeping the resume screen
+     */
+    public void clear() {
+        synchronized (lock) {
+            ResumeState current = session.getResume();
+            if (current == null || current.getExtras().isEmpty()) {
+                return;
+            }
+            ResumeState.Builder builder = ResumeState.builder(current.getScreen())
+                    .palletHeight(current.getPalletHeight())
+                    .condition(current.getCondition())
+                    .osd(current.getOsdReason(), current.getOsdQuantity(), current.getOsdQuantityType());
+            session.edit().resume(builder.build()).commitAsync();
+        }
+    }
+
+    /**
+     * Write the draft out now (onPause, onTrimMemory)
+     */
+    public boolean flush() {
+        return session.flush();
+    }
+}
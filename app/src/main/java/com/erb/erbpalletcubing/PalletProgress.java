@@ -0,0 +1,130 @@
+package com.erb.erbpalletcubing;
+
+import android.util.Log;
+
+/**
+ * PalletProgress - Atomic pallet counter for the current PRO
+ * The next sequence number is handed out and written under one lock, and the
+ * counter only moves once the pallet's insert has committed, so a double-tap or
+ * a concurrent scan callback can neither skip nor repeat a pallet. The database
+ * is the record of truth: start() takes the count of rows already saved, and
+ * each insert may move the counter up to what its transaction found.
+ */
+public final class PalletProgress {
+
+    private static final String TAG = "PalletProgress";
+
+    // Returned when the pallet was not saved
+    public static final int FAILED = -1;
+
+    /**
+     * Writes one pallet row, in a single transaction
+     */
+    public interface PalletWriter {
+        /**
+         * @param proNumber PRO the pallet belongs to
+         * @param sequence Next sequence by this counter
+         * @return Sequence committed (never below sequence), or FAILED
+         */
+        int write(String proNumber, int sequence);
+    }
+
+    private final SessionManager session;
+    private final Object lock = new Object();
+
+    // Guarded by lock
+    private String proNumber;
+    private int expected;
+    private int saved;
+
+    /**
+     * @param session Session to mirror the pallet index into, or null
+     */
+    public PalletProgress(SessionManager session) {
+        this.session = session;
+    }
+
+    /**
+     * Start (or recover) progress for a PRO
+     * On startup pass the current PRO and getRecordCountByPro(), so the index
+     * matches the rows actually written even if the session lagged behind
+     * @param savedCount Pallets already saved for this PRO
+     */
+    public void start(String proNumber, int expected, int savedCount) {
+        if (proNumber == null || proNumber.isEmpty()) {
+            throw new IllegalArgumentException("PRO number cannot be empty");
+        }
+        synchronized (lock) {
+            this.proNumber = proNumber;
+            this.expected = expected;
+            this.saved = Math.max(0, savedCount);
+            publish();
+        }
+        Log.d(TAG, "Progress for PRO " + proNumber + ": " + savedCount + " of " + expected);
+    }
+
+    /**
+     * Save the next pallet; concurrent callers are serialized
+     * @return Sequence number the pallet was saved under, or FAILED
+     */
+    public int saveNext(PalletWriter writer) {
+        synchronized (lock) {
+            if (proNumber == null) {
+                Log.e(TAG, "Cannot save pallet, no PRO started");
+                return FAILED;
+            }
+
+            int sequence = writer.write(proNumber, saved + 1);
+            if (sequence == FAILED) {
+                return FAILED;
+            }
+            if (sequence <= saved) {
+                Log.e(TAG, "Pallet writer went backwards: " + sequence + " after " + saved);
+                return FAILED;
+            }
+
+            saved = sequence;
+            publish();
+            return sequence;
+        }
+    }
+
+    private void publish() {
+        if (session != null) {
+            session.edit().palletIndex(saved).expected(expected).commitAsync();
+        }
+    }
+
+    /**
+     * Get current PRO, or null before start()
+     */
+    public String getProNumber() {
+        synchronized (lock) {
+            return proNumber;
+        }
+    }
+
+    /**
+     * Get number of pallets saved for the current PRO
+     */
+    public int getSavedCount() {
+        synchronized (lock) {
+            return saved;
+        }
+    }
+
+    public int getExpected() {
+        synchronized (lock) {
+            return expected;
+        }
+    }
+
+    /**
+     * Check if there are more pallets to save for the current PRO
+     */
+    public boolean hasMorePallets() {
+        synchronized (lock) {
+            return saved < expected;
+        }
+    }
+}
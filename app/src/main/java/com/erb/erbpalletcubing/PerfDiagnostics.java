@@ -0,0 +1,456 @@
+package com.erb.erbpalletcubing;
+
+import android.content.Context;
+import android.content.pm.PackageInfo;
+import android.database.Cursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Build;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * PerfDiagnostics - On-device performance self-check
+ * Runs timed workloads the way the app uses storage: bulk inserts, trailer
+ * queries, counts and deletes against a scratch copy of the live database,
+ * synchronous session writes to a scratch journal, and validator loops.
+ * Each workload reports p50/p95/p99/max and throughput, and the report is
+ * written as CSV (with a device/app header) to the external files dir, so
+ * runs can be pulled and compared across handhelds and app versions.
+ * The live database and session are only read (copied), never written.
+ * Runs for a few seconds; call run() off the main thread.
+ */
+public class PerfDiagnostics {
+
+    private static final String TAG = "PerfDiagnostics";
+
+    // Start with: adb shell am start -a com.erb.erbpalletcubing.DIAGNOSTICS (debug builds, DiagnosticsActivity)
+    public static final String ACTION_RUN = "com.erb.erbpalletcubing.DIAGNOSTICS";
+
+    public static final String SCRATCH_DATABASE_NAME = "diagnostics_scratch.db";
+    public static final String SCRATCH_JOURNAL_NAME = "diagnostics_scratch.journal";
+    public static final String REPORT_DIRECTORY = "diagnostics";
+
+    // Scratch copy of the live database (copyDatabase)
+    private static final String SQL_VACUUM_INTO = "VACUUM INTO ?";
+
+    private static final String SQL_LIVE_SCHEMA =
+            "SELECT type, name, sql FROM live.sqlite_master " +
+                    "WHERE sql IS NOT NULL AND name NOT LIKE 'sqlite_%' " +
+                    "AND name <> 'android_metadata' " +
+                    "ORDER BY CASE type WHEN 'table' THEN 0 ELSE 1 END";
+
+    // Workload sizes
+    static final int DEFAULT_ROWS = 500;
+    static final int DEFAULT_SESSION_WRITES = 200;
+    static final int DEFAULT_VALIDATOR_OPS = 200;
+    static final int PALLETS_PER_TRAILER = 5;
+    static final int VALIDATIONS_PER_OP = 1000;
+    private static final int WARMUP_OPS = 20;
+
+    static final String CSV_HEADER = "workload,ops,p50_us,p95_us,p99_us,max_us,mean_us,ops_per_sec";
+
+    /**
+     * One timed operation
+     */
+    interface Operation {
+        void run(int index) throws Exception;
+    }
+
+    /**
+     * Latencies of one workload
+     */
+    public static final class Result {
+        public final String name;
+        public final LatencyStats stats;
+
+        Result(String name, LatencyStats stats) {
+            this.name = name;
+            this.stats = stats;
+        }
+
+        String toCsvRow() {
+            return String.format(Locale.US, "%s,%d,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f",
+                    name, stats.getCount(),
+                    stats.percentileNanos(50) / 1000.0, stats.percentileNanos(95) / 1000.0,
+                    stats.percentileNanos(99) / 1000.0, stats.maxNanos() / 1000.0,
+                    stats.meanNanos() / 1000.0, stats.opsPerSecond());
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%-20s n=%-5d p50 %8.1f us  p95 %8.1f us  p99 %8.1f us  %10.1f ops/s",
+                    name, stats.getCount(), stats.percentileNanos(50) / 1000.0,
+                    stats.percentileNanos(95) / 1000.0, stats.percentileNanos(99) / 1000.0,
+                    stats.opsPerSecond());
+        }
+    }
+
+    private final Context context;
+    private final int rows;
+    private final int sessionWrites;
+    private final int validatorOps;
+
+    public PerfDiagnostics(Context context) {
+        this(context, DEFAULT_ROWS, DEFAULT_SESSION_WRITES, DEFAULT_VALIDATOR_OPS);
+    }
+
+    PerfDiagnostics(Context context, int rows, int sessionWrites, int validatorOps) {
+        this.context = context;
+        this.rows = rows;
+        this.sessionWrites = sessionWrites;
+        this.validatorOps = validatorOps;
+    }
+
+    /**
+     * Run every workload; scratch files are removed afterwards
+     */
+    public List<Result> run() throws Exception {
+        List<Result> results = new ArrayList<>();
+
+        File scratchDatabase = context.getDatabasePath(SCRATCH_DATABASE_NAME);
+        copyDatabase(context.getDatabasePath(DatabaseHelper.DATABASE_NAME), scratchDatabase);
+        DatabaseHelper db = new DatabaseHelper(context, SCRATCH_DATABASE_NAME);
+        try {
+            results.addAll(runDatabaseWorkloads(db, rows));
+        } finally {
+            db.close();
+            deleteDatabaseFiles(scratchDatabase);
+        }
+
+        File scratchJournal = new File(context.getCacheDir(), SCRATCH_JOURNAL_NAME);
+        try {
+            results.addAll(runSessionWorkloads(scratchJournal, sessionWrites));
+        } finally {
+            if (scratchJournal.exists() && !scratchJournal.delete()) {
+                Log.w(TAG, "Could not delete " + scratchJournal);
+            }
+        }
+
+        results.addAll(runValidatorWorkloads(validatorOps));
+
+        for (Result result : results) {
+            Log.d(TAG, result.toString());
+        }
+        return results;
+    }
+
+    /**
+     * Write the results as CSV to the external files dir (internal if unavailable)
+     * @return The report file
+     */
+    public File writeReport(List<Result> results) throws IOException {
+        File directory = context.getExternalFilesDir(REPORT_DIRECTORY);
+        if (directory == null) {
+            directory = new File(context.getFilesDir(), REPORT_DIRECTORY);
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+
+        Map<String, String> header = describeRun();
+        String stamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date());
+        File file = new File(directory, "diagnostics_" + stamp + "_" + header.get("device").replaceAll("[^A-Za-z0-9]+", "_") + ".csv");
+
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writer.write(formatReport(header, results));
+        } finally {
+            writer.close();
+        }
+        Log.d(TAG, "Diagnostics report written to " + file);
+        return file;
+    }
+
+    private Map<String, String> describeRun() {
+        Map<String, String> header = new LinkedHashMap<>();
+        header.put("device", Build.MANUFACTURER + " " + Build.MODEL);
+        header.put("sdk", String.valueOf(Build.VERSION.SDK_INT));
+        String appVersion = "unknown";
+        try {
+            PackageInfo info = context.getPackageManager().getPackageInfo(context.getPackageName(), 0);
+            appVersion = info.versionName + " (" + info.versionCode + ")";
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading app version: " + e.getMessage(), e);
+        }
+        header.put("app", appVersion);
+        header.put("time", new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US).format(new Date()));
+        header.put("rows", String.valueOf(rows));
+        return header;
+    }
+
+    /**
+     * Format results as CSV, header values as leading "# key=value" lines
+     */
+    static String formatReport(Map<String, String> header, List<Result> results) {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, String> entry : header.entrySet()) {
+            text.append("# ").append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+        }
+        text.append(CSV_HEADER).append('\n');
+        for (Result result : results) {
+            text.append(result.toCsvRow()).append('\n');
+        }
+        return text.toString();
+    }
+
+    // ==================== Workloads ====================
+
+    /**
+     * Time ops calls of operation, after warmupOps untimed calls
+     */
+    static Result measure(String name, int warmupOps, int ops, Operation operation) throws Exception {
+        for (int i = 0; i < warmupOps; i++) {
+            operation.run(i % Math.max(1, ops));
+        }
+        LatencyStats stats = new LatencyStats(ops);
+        long wallStart = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            long start = System.nanoTime();
+            operation.run(i);
+            stats.add(System.nanoTime() - start);
+        }
+        stats.setWallNanos(System.nanoTime() - wallStart);
+        return new Result(name, stats);
+    }
+
+    /**
+     * Insert rows pallets over rows / PALLETS_PER_TRAILER trailers, query and
+     * count each trailer, then delete them one trailer at a time
+     */
+    static List<Result> runDatabaseWorkloads(final DatabaseHelper db, final int rows) throws Exception {
+        final int trailers = Math.max(1, rows / PALLETS_PER_TRAILER);
+        List<Result> results = new ArrayList<>();
+
+        results.add(measure("db.insert", 0, rows, new Operation() {
+            @Override
+            public void run(int index) throws IOException {
+                int trailer = index % trailers;
+                String pro = proFor(trailer);
+                long rowId = db.insertPalletRecord("001", "23146", trailerFor(trailer), pro,
+                        ValidationHelper.extractProPrefix(pro), ValidationHelper.extractProErb(pro),
+                        "Fresh", "35", null, PALLETS_PER_TRAILER, index / trailers + 1, 72, "OK",
+                        null, null, null);
+                if (rowId == -1) {
+                    throw new IOException("Insert failed at row " + index);
+                }
+            }
+        }));
+
+        results.add(measure("db.queryTrailer", WARMUP_OPS, trailers, new Operation() {
+            @Override
+            public void run(int index) {
+                db.getRecordsByTrailer(trailerFor(index));
+            }
+        }));
+
+        results.add(measure("db.countTrailer", WARMUP_OPS, trailers, new Operation() {
+            @Override
+            public void run(int index) {
+                db.getRecordCountByTrailer(trailerFor(index));
+            }
+        }));
+
+        results.add(measure("db.deleteTrailer", 0, trailers, new Operation() {
+            @Override
+            public void run(int index) throws IOException {
+                if (db.deleteByTrailerNumber(trailerFor(index)) < 0) {
+                    throw new IOException("Delete failed for trailer " + index);
+                }
+            }
+        }));
+        return results;
+    }
+
+    /**
+     * Synchronous (fsync'd) session commits, as on login or PRO start
+     */
+    static List<Result> runSessionWorkloads(File journalFile, int writes) throws Exception {
+        final SessionManager session = new SessionManager(SessionJournal.open(journalFile),
+                SessionManager.DEFAULT_WRITE_DELAY_MS);
+        List<Result> results = new ArrayList<>();
+        try {
+            results.add(measure("session.commit", WARMUP_OPS, writes, new Operation() {
+                @Override
+                public void run(int index) throws IOException {
+                    boolean written = session.edit()
+                            .pro(proFor(index))
+                            .palletIndex(index % PALLETS_PER_TRAILER + 1)
+                            .expected(PALLETS_PER_TRAILER)
+                            .commit();
+                    if (!written) {
+                        throw new IOException("Session commit failed at " + index);
+                    }
+                }
+            }));
+        } finally {
+            session.close();
+        }
+        return results;
+    }
+
+    /**
+     * VALIDATIONS_PER_OP checks per timed operation (single checks are below timer resolution)
+     */
+    static List<Result> runValidatorWorkloads(int ops) throws Exception {
+        final String[] pros = new String[VALIDATIONS_PER_OP];
+        final String[] temperatures = new String[VALIDATIONS_PER_OP];
+        for (int i = 0; i < VALIDATIONS_PER_OP; i++) {
+            pros[i] = proFor(i);
+            temperatures[i] = Temperature.toPlainString(i % 500 - 150);
+        }
+        final int[] sink = new int[1];
+        List<Result> results = new ArrayList<>();
+
+        results.add(measure("validate.pro1000", WARMUP_OPS, ops, new Operation() {
+            @Override
+            public void run(int index) {
+                for (String pro : pros) {
+                    sink[0] += ValidationHelper.checkProNumber(pro);
+                }
+            }
+        }));
+
+        results.add(measure("validate.temp1000", WARMUP_OPS, ops, new Operation() {
+            @Override
+            public void run(int index) {
+                for (String temperature : temperatures) {
+                    sink[0] += ValidationHelper.checkTemperature(temperature);
+                }
+            }
+        }));
+
+        if (sink[0] < 0) {
+            Log.w(TAG, "Unexpected validator result");  // Keeps the loops from being optimized away
+        }
+        return results;
+    }
+
+    static String trailerFor(int index) {
+        return "DIAG" + index;
+    }
+
+    static String proFor(int index) {
+        return String.format(Locale.US, "999%07d", index);
+    }
+
+    // ==================== Scratch Files ====================
+
+    /**
+     * Copy the live database over the scratch copy as one consistent snapshot
+     * The app may be writing to it meanwhile, so the files aren't copied
+     * byte for byte; SQLite writes the copy (VACUUM INTO, or table by table
+     * before SQLite 3.27). A missing live database leaves an empty scratch
+     * one, created on open.
+     */
+    static void copyDatabase(File source, File target) throws IOException {
+        deleteDatabaseFiles(target);
+        if (!source.exists()) {
+            return;
+        }
+        File parent = target.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        SQLiteDatabase live = SQLiteDatabase.openDatabase(source.getPath(), null, SQLiteDatabase.OPEN_READONLY);
+        try {
+            if (supportsVacuumInto(live)) {
+                // Reads committed data only, WAL included, in a single read transaction
+                live.execSQL(SQL_VACUUM_INTO, new Object[]{target.getPath()});
+            } else {
+                copyTables(source, target);
+            }
+        } catch (SQLException e) {
+            deleteDatabaseFiles(target);
+            throw new IOException("Error copying " + source + ": " + e.getMessage(), e);
+        } finally {
+            live.close();
+        }
+    }
+
+    static boolean supportsVacuumInto(SQLiteDatabase db) {
+        Cursor cursor = db.rawQuery("SELECT sqlite_version()", null);
+        try {
+            if (!cursor.moveToFirst()) {
+                return false;
+            }
+            String[] parts = cursor.getString(0).split("\\.");
+            int major = Integer.parseInt(parts[0]);
+            int minor = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+            return major > 3 || (major == 3 && minor >= 27);
+        } catch (NumberFormatException e) {
+            return false;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Rebuild source's schema in target and copy each table with one
+     * INSERT ... SELECT, a single read snapshot per table. The live database
+     * is attached to the scratch connection and only read; its schema version
+     * comes along too.
+     */
+    static void copyTables(File source, File target) {
+        SQLiteDatabase scratch = SQLiteDatabase.openOrCreateDatabase(target, null);
+        try {
+            scratch.execSQL("ATTACH DATABASE ? AS live", new Object[]{source.getPath()});
+            try {
+                List<String> indexes = new ArrayList<>();
+                Cursor schema = scratch.rawQuery(SQL_LIVE_SCHEMA, null);
+                try {
+                    while (schema.moveToNext()) {
+                        String sql = schema.getString(2);
+                        if (!"table".equals(schema.getString(0))) {
+                            indexes.add(sql);  // Built after the rows are in
+                            continue;
+                        }
+                        String table = "\"" + schema.getString(1).replace("\"", "\"\"") + "\"";
+                        scratch.execSQL(sql);
+                        scratch.execSQL("INSERT INTO main." + table + " SELECT * FROM live." + table);
+                    }
+                } finally {
+                    schema.close();
+                }
+                for (String sql : indexes) {
+                    scratch.execSQL(sql);
+                }
+                // So DatabaseHelper opens the copy without running onCreate or onUpgrade
+                Cursor version = scratch.rawQuery("PRAGMA live.user_version", null);
+                try {
+                    if (version.moveToFirst()) {
+                        scratch.setVersion(version.getInt(0));
+                    }
+                } finally {
+                    version.close();
+                }
+            } finally {
+                scratch.execSQL("DETACH DATABASE live");
+            }
+        } finally {
+            scratch.close();
+        }
+    }
+
+    private static void deleteDatabaseFiles(File database) {
+        String[] suffixes = {"", "-journal", "-wal", "-shm"};
+        for (String suffix : suffixes) {
+            File file = new File(database.getPath() + suffix);
+            if (file.exists() && !file.delete()) {
+                Log.w(TAG, "Could not delete " + file);
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.erb.erbpalletcubing;
+
+/**
+ * ProNumber - Immutable 10-digit PRO number packed into a single long
+ * Prefix (first 3 digits) and Erb number (last 7 digits) are computed
+ * arithmetically, so no substring or trim is needed after parsing
+ */
+public final class ProNumber implements Comparable<ProNumber> {
+
+    // Returned by parseValue() for anything that is not a 10-digit PRO
+    public static final long INVALID = -1L;
+
+    public static final int LENGTH = 10;
+    public static final int PREFIX_LENGTH = 3;
+    public static final int ERB_LENGTH = 7;
+
+    private static final long MAX_VALUE = 9999999999L;
+    private static final long ERB_DIVISOR = 10000000L;  // 10^7
+
+    private final long value;
+
+    private ProNumber(long value) {
+        this.value = value;
+    }
+
+    /**
+     * Parse a PRO number without allocating
+     * Surrounding whitespace is ignored, like ValidationHelper.isValidProNumber
+     * @return Packed value (0 to 9999999999), or INVALID
+     */
+    public static long parseValue(CharSequence input) {
+        if (input == null) {
+            return INVALID;
+        }
+
+        int start = 0;
+        int end = input.length();
+        while (start < end && input.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && input.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        if (end - start != LENGTH) {
+            return INVALID;
+        }
+
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            if (c < '0' || c > '9') {
+                return INVALID;
+            }
+            result = result * 10 + (c - '0');
+        }
+
+        return result;
+    }
+
+    /**
+     * Parse a PRO number
+     * @return ProNumber, or null if input is not a 10-digit PRO
+     */
+    public static ProNumber parse(CharSequence input) {
+        long parsed = parseValue(input);
+        return parsed == INVALID ? null : new ProNumber(parsed);
+    }
+
+    /**
+     * Wrap an already packed value (e.g. read from the PRO_Number_Packed column)
+     */
+    public static ProNumber of(long value) {
+        if (!isValidValue(value)) {
+            throw new IllegalArgumentException("Not a packed PRO number: " + value);
+        }
+        return new ProNumber(value);
+    }
+
+    /**
+     * Check if a packed value is in the 10-digit range
+     */
+    public static boolean isValidValue(long value) {
+        return value >= 0 && value <= MAX_VALUE;
+    }
+
+    /**
+     * Carrier prefix of a packed value (first 3 digits, 0-999)
+     */
+    public static int prefixOf(long value) {
+        return (int) (value / ERB_DIVISOR);
+    }
+
+    /**
+     * Erb number of a packed value (last 7 digits, 0-9999999)
+     */
+    public static int erbOf(long value) {
+        return (int) (value % ERB_DIVISOR);
+    }
+
+    /**
+     * Get the packed value
+     */
+    public long longValue() {
+        return value;
+    }
+
+    /**
+     * Get the carrier prefix (first 3 digits)
+     */
+    public int prefix() {
+        return prefixOf(value);
+    }
+
+    /**
+     * Get the Erb number (last 7 digits)
+     */
+    public int erb() {
+        return erbOf(value);
+    }
+
+    /**
+     * Get the prefix as stored in PRO_Prefix, e.g. "012"
+     */
+    public String prefixString() {
+        return pad(prefix(), PREFIX_LENGTH);
+    }
+
+    /**
+     * Get the Erb number as stored in PRO_Number_Erb, e.g. "0004567"
+     */
+    public String erbString() {
+        return pad(erb(), ERB_LENGTH);
+    }
+
+    /**
+     * Get the full 10-digit PRO as stored in PRO_Number_Incoming
+     */
+    @Override
+    public String toString() {
+        return pad(value, LENGTH);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof ProNumber && ((ProNumber) other).value == value;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (value ^ (value >>> 32));
+    }
+
+    @Override
+    public int compareTo(ProNumber other) {
+        return value < other.value ? -1 : (value == other.value ? 0 : 1);
+    }
+
+    private static String pad(long number, int width) {
+        char[] digits = new char[width];
+        for (int i = width - 1; i >= 0; i--) {
+            digits[i] = (char) ('0' + (number % 10));
+            number /= 10;
+        }
+        return new String(digits);
+    }
+}
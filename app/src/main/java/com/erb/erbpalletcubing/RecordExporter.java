@@ -0,0 +1,104 @@
+package com.erb.erbpalletcubing;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * RecordExporter - Formats CubingRecords as CSV rows for export
+ * Columns follow the CubingData table; temperatures use the export form
+ * ("35F"). Rows are appended to a caller-owned StringBuilder so a large
+ * export reuses one buffer instead of building a String per field.
+ */
+public final class RecordExporter {
+
+    public static final String HEADER = "timestamp,terminal,receiver,trailer_number,pro_number_incoming,"
+            + "pro_prefix,pro_number_erb,freight_type,temp1,temp2,expected_pallets_pro,pallet_sequence,"
+            + "pallet_height,condition,osd_reason,osd_quantity,osd_quantity_type,status";
+
+    private RecordExporter() {
+    }
+
+    /**
+     * Append one record as a CSV row, including the trailing newline
+     */
+    public static void appendRow(StringBuilder out, DatabaseHelper.CubingRecord record) {
+        appendField(out, record.timestamp).append(',');
+        appendField(out, record.terminal).append(',');
+        appendField(out, record.receiver).append(',');
+        appendField(out, record.trailerNumber).append(',');
+        appendField(out, record.proNumberIncoming).append(',');
+        appendField(out, record.proPrefix).append(',');
+        appendField(out, record.proNumberErb).append(',');
+        appendField(out, record.freightType).append(',');
+        appendField(out, exportTemperature(record.temp1)).append(',');
+        appendField(out, exportTemperature(record.temp2)).append(',');
+        out.append(record.expectedPalletsPro).append(',');
+        out.append(record.palletSequence).append(',');
+        out.append(record.palletHeight).append(',');
+        appendField(out, record.condition).append(',');
+        appendField(out, record.osdReason).append(',');
+        if (record.osdQuantity != null) {
+            out.append(record.osdQuantity.intValue());
+        }
+        out.append(',');
+        appendField(out, record.osdQuantityType).append(',');
+        appendField(out, record.status).append('\n');
+    }
+
+    /**
+     * Format one record as a CSV row, including the trailing newline
+     */
+    public static String formatRow(DatabaseHelper.CubingRecord record) {
+        StringBuilder out = new StringBuilder(160);
+        appendRow(out, record);
+        return out.toString();
+    }
+
+    /**
+     * Write the header and every record
+     * @return Number of records written
+     */
+    public static long write(Writer writer, Iterable<DatabaseHelper.CubingRecord> records) throws IOException {
+        StringBuilder row = new StringBuilder(160);
+        writer.write(HEADER);
+        writer.write('\n');
+        long count = 0;
+        for (DatabaseHelper.CubingRecord record : records) {
+            row.setLength(0);
+            appendRow(row, record);
+            writer.append(row);
+            count++;
+        }
+        return count;
+    }
+
+    private static String exportTemperature(String temp) {
+        return temp == null ? null : ValidationHelper.formatTemperatureForExport(temp);
+    }
+
+    /**
+     * Append a field, quoting it only if it contains a comma, quote or line break
+     */
+    private static StringBuilder appendField(StringBuilder out, String value) {
+        if (value == null) {
+            return out;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            return out.append(value);
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        return out.append('"');
+    }
+}
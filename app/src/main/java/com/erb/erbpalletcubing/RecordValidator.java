@@ -0,0 +1,351 @@
+package com.erb.erbpalletcubing;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * RecordValidator - Whole-record validation for CubingData rows
+ * ValidationHelper checks single fields; these rules check how the fields
+ * of one pallet record relate to each other. A validator runs the rule set
+ * it was built with: defaultRules() unless the caller passes its own, which
+ * may extend the defaults or replace them.
+ */
+public class RecordValidator {
+
+    private static final String TAG = "RecordValidator";
+
+    // Freight type that carries a second temperature reading
+    public static final String FREIGHT_TYPE_DUAL = "DUAL";
+
+    // Rule identifiers (reported in Violation.ruleId)
+    public static final String RULE_RECORD_PRESENT = "RECORD_PRESENT";
+    public static final String RULE_TEMP2_MATCHES_FREIGHT = "TEMP2_MATCHES_FREIGHT";
+    public static final String RULE_OSD_REASON_WITH_QUANTITY = "OSD_REASON_WITH_QUANTITY";
+    public static final String RULE_SEQUENCE_WITHIN_EXPECTED = "SEQUENCE_WITHIN_EXPECTED";
+    public static final String RULE_PRO_PARTS_MATCH_INCOMING = "PRO_PARTS_MATCH_INCOMING";
+
+    // Below this many records a batch is validated on the calling thread
+    private static final int MIN_RECORDS_PER_THREAD = 1000;
+
+    /**
+     * Worker threads shared by every batch, created on first use
+     */
+    private static final class BatchExecutor {
+        static final ExecutorService INSTANCE = Executors.newFixedThreadPool(
+                Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+                new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "RecordValidator-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+    }
+
+    /**
+     * A single record-level rule
+     */
+    public interface Rule {
+        /**
+         * @return true if the record satisfies this rule
+         */
+        boolean isSatisfiedBy(DatabaseHelper.CubingRecord record);
+    }
+
+    /**
+     * A broken rule for one record
+     */
+    public static class Violation {
+        public final int recordIndex;
+        public final String ruleId;
+        public final String field;
+        public final String message;
+
+        public Violation(int recordIndex, String ruleId, String field, String message) {
+            this.recordIndex = recordIndex;
+            this.ruleId = ruleId;
+            this.field = field;
+            this.message = message;
+        }
+
+        @Override
+        public String toString() {
+            return "Record " + recordIndex + " [" + ruleId + "] " + field + ": " + message;
+        }
+    }
+
+    /**
+     * Rule definition: identifier, offending column and message, plus the check
+     */
+    public static final class RuleDefinition {
+        public final String ruleId;
+        public final String field;
+        public final String message;
+        public final Rule rule;
+
+        public RuleDefinition(String ruleId, String field, String message, Rule rule) {
+            if (ruleId == null || rule == null) {
+                throw new IllegalArgumentException("Rule needs an identifier and a check");
+            }
+            this.ruleId = ruleId;
+            this.field = field;
+            this.message = message;
+            this.rule = rule;
+        }
+    }
+
+    private static final RuleDefinition[] DEFAULT_RULES = {
+            new RuleDefinition(
+                    RULE_TEMP2_MATCHES_FREIGHT,
+                    DatabaseHelper.COLUMN_TEMP2,
+                    "Temp2 is required for " + FREIGHT_TYPE_DUAL + " freight and not allowed otherwise",
+                    new Rule() {
+                        @Override
+                        public boolean isSatisfiedBy(DatabaseHelper.CubingRecord record) {
+                            boolean dual = FREIGHT_TYPE_DUAL.equalsIgnoreCase(record.freightType);
+                            return dual == !isBlank(record.temp2);
+                        }
+                    }),
+            new RuleDefinition(
+                    RULE_OSD_REASON_WITH_QUANTITY,
+                    DatabaseHelper.COLUMN_OSD_QUANTITY,
+                    "OS&D reason and quantity must be entered together",
+                    new Rule() {
+                        @Override
+                        public boolean isSatisfiedBy(DatabaseHelper.CubingRecord record) {
+                            return isBlank(record.osdReason) == (record.osdQuantity == null);
+                        }
+                    }),
+            new RuleDefinition(
+                    RULE_SEQUENCE_WITHIN_EXPECTED,
+                    DatabaseHelper.COLUMN_PALLET_SEQUENCE,
+                    "Pallet sequence must be between 1 and the expected pallets for the PRO",
+                    new Rule() {
+                        @Override
+                        public boolean isSatisfiedBy(DatabaseHelper.CubingRecord record) {
+                            return record.palletSequence >= 1
+                                    && record.palletSequence <= record.expectedPalletsPro;
+                        }
+                    }),
+            new RuleDefinition(
+                    RULE_PRO_PARTS_MATCH_INCOMING,
+                    DatabaseHelper.COLUMN_PRO_NUMBER_INCOMING,
+                    "PRO prefix and Erb number must match the incoming PRO",
+                    new Rule() {
+                        @Override
+                        public boolean isSatisfiedBy(DatabaseHelper.CubingRecord record) {
+                            return proPartsMatch(record.proNumberIncoming, record.proPrefix, record.proNumberErb);
+                        }
+                    })
+    };
+
+    private final RuleDefinition[] rules;
+
+    /**
+     * Validator with defaultRules()
+     */
+    public RecordValidator() {
+        this.rules = DEFAULT_RULES;
+    }
+
+    /**
+     * Validator with the given rules, checked in list order
+     */
+    public RecordValidator(List<RuleDefinition> rules) {
+        if (rules == null) {
+            throw new IllegalArgumentException("Rules must not be null");
+        }
+        this.rules = rules.toArray(new RuleDefinition[0]);
+        for (RuleDefinition definition : this.rules) {
+            if (definition == null) {
+                throw new IllegalArgumentException("Rules must not contain null");
+            }
+        }
+    }
+
+    /**
+     * Get the built-in rules as a new list, to pass on as is or with rules added or removed
+     */
+    public static List<RuleDefinition> defaultRules() {
+        return new ArrayList<>(Arrays.asList(DEFAULT_RULES));
+    }
+
+    /**
+     * Get this validator's rules, in the order they are checked
+     */
+    public List<RuleDefinition> getRules() {
+        return Collections.unmodifiableList(Arrays.asList(rules));
+    }
+
+    /**
+     * Validate one record
+     * @param recordIndex Index reported back in each Violation
+     * @return Violations in rule order, empty if the record is valid
+     */
+    public List<Violation> validate(DatabaseHelper.CubingRecord record, int recordIndex) {
+        List<Violation> violations = new ArrayList<>();
+        validateInto(record, recordIndex, violations);
+        return violations;
+    }
+
+    /**
+     * Validate one record
+     * @return true if no rule is broken
+     */
+    public boolean isValid(DatabaseHelper.CubingRecord record) {
+        if (record == null) {
+            return false;
+        }
+
+        for (RuleDefinition definition : rules) {
+            if (!definition.rule.isSatisfiedBy(record)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Validate a record set using all available cores
+     * @return Violations ordered by record index
+     */
+    public List<Violation> validateBatch(List<DatabaseHelper.CubingRecord> records) {
+        return validateBatch(records, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Validate a record set split across up to threadCount threads
+     * Each thread takes one contiguous slice, so results need no sorting.
+     * Slices run on a shared pool of daemon workers plus the calling thread,
+     * so a batch doesn't pay for creating threads.
+     * @return Violations ordered by record index
+     */
+    public List<Violation> validateBatch(final List<DatabaseHelper.CubingRecord> records, int threadCount) {
+        if (records == null || records.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        int size = records.size();
+        int threads = Math.max(1, Math.min(threadCount, size / MIN_RECORDS_PER_THREAD));
+
+        if (threads == 1) {
+            return validateRange(records, 0, size);
+        }
+
+        List<Violation> violations = new ArrayList<>();
+        List<Future<List<Violation>>> slices = new ArrayList<>(threads - 1);
+        int sliceSize = (size + threads - 1) / threads;
+
+        try {
+            // The calling thread validates the last slice itself
+            for (int start = 0; start + sliceSize < size; start += sliceSize) {
+                final int from = start;
+                final int to = start + sliceSize;
+                slices.add(BatchExecutor.INSTANCE.submit(new Callable<List<Violation>>() {
+                    @Override
+                    public List<Violation> call() {
+                        return validateRange(records, from, to);
+                    }
+                }));
+            }
+            List<Violation> last = validateRange(records, slices.size() * sliceSize, size);
+
+            for (Future<List<Violation>> slice : slices) {
+                violations.addAll(slice.get());
+            }
+            violations.addAll(last);
+
+        } catch (Exception e) {
+            for (Future<List<Violation>> slice : slices) {
+                slice.cancel(true);
+            }
+            Log.e(TAG, "Error validating record batch: " + e.getMessage(), e);
+            throw new IllegalStateException("Batch validation failed", e);
+        }
+
+        return violations;
+    }
+
+    private List<Violation> validateRange(List<DatabaseHelper.CubingRecord> records, int from, int to) {
+        List<Violation> violations = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            validateInto(records.get(i), i, violations);
+        }
+        return violations;
+    }
+
+    private void validateInto(DatabaseHelper.CubingRecord record, int recordIndex, List<Violation> out) {
+        if (record == null) {
+            out.add(new Violation(recordIndex, RULE_RECORD_PRESENT, "", "Record is missing"));
+            return;
+        }
+
+        for (RuleDefinition definition : rules) {
+            if (!definition.rule.isSatisfiedBy(record)) {
+                out.add(new Violation(recordIndex, definition.ruleId, definition.field, definition.message));
+            }
+        }
+    }
+
+    /**
+     * Prefix and Erb must be the first 3 and remaining digits of the incoming PRO
+     * (length from ValidationLimits). Compared in place so a valid record allocates nothing
+     */
+    private static boolean proPartsMatch(String incoming, String prefix, String erb) {
+        if (incoming == null || prefix == null || erb == null) {
+            return false;
+        }
+
+        // Surrounding whitespace is tolerated; the stored parts must line up with the digits
+        int start = 0;
+        int end = incoming.length();
+        while (start < end && incoming.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && incoming.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        int erbLength = ValidationLimits.current().proLength - ProNumber.PREFIX_LENGTH;
+        if (end - start != ProNumber.PREFIX_LENGTH + erbLength) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            char c = incoming.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+
+        return prefix.length() == ProNumber.PREFIX_LENGTH
+                && erb.length() == erbLength
+                && incoming.regionMatches(start, prefix, 0, ProNumber.PREFIX_LENGTH)
+                && incoming.regionMatches(start + ProNumber.PREFIX_LENGTH, erb, 0, erbLength);
+    }
+
+    private static boolean isBlank(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
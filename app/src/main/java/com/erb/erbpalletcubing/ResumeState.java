@@ -0,0 +1,274 @@
+package com.erb.erbpalletcubing;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ResumeState - Typed, immutable resume point for crash recovery
+ * Records which screen to reopen and what was entered on it. SessionManager
+ * stores it as a single serialized value, so reading or clearing it never
+ * depends on how much else is in the session.
+ */
+public final class ResumeState {
+
+    // Screen identifiers
+    public static final String SCREEN_TRAILER = "trailer";
+    public static final String SCREEN_PRO_HEADER = "pro_header";
+    public static final String SCREEN_PALLET_DETAIL = "pallet_detail";
+
+    // Marks an unset numeric field
+    public static final int NONE = -1;
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private final String screen;
+    private final int palletHeight;
+    private final String condition;
+    private final String osdReason;
+    private final int osdQuantity;
+    private final String osdQuantityType;
+    private final Map<String, String> extras;
+
+    private ResumeState(Builder builder) {
+        this.screen = builder.screen;
+        this.palletHeight = builder.palletHeight;
+        this.condition = builder.condition;
+        this.osdReason = builder.osdReason;
+        this.osdQuantity = builder.osdQuantity;
+        this.osdQuantityType = builder.osdQuantityType;
+        this.extras = Collections.unmodifiableMap(new HashMap<>(builder.extras));
+    }
+
+    /**
+     * Start building a resume point for a screen
+     */
+    public static Builder builder(String screen) {
+        return new Builder(screen);
+    }
+
+    /**
+     * Start a builder pre-filled with this state
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder(screen);
+        builder.palletHeight = palletHeight;
+        builder.condition = condition;
+        builder.osdReason = osdReason;
+        builder.osdQuantity = osdQuantity;
+        builder.osdQuantityType = osdQuantityType;
+        builder.extras.putAll(extras);
+        return builder;
+    }
+
+    public String getScreen() {
+        return screen;
+    }
+
+    /**
+     * Get pallet height in inches, or NONE if not entered
+     */
+    public int getPalletHeight() {
+        return palletHeight;
+    }
+
+    public String getCondition() {
+        return condition;
+    }
+
+    public String getOsdReason() {
+        return osdReason;
+    }
+
+    /**
+     * Get OS&D quantity, or NONE if not entered
+     */
+    public int getOsdQuantity() {
+        return osdQuantity;
+    }
+
+    public String getOsdQuantityType() {
+        return osdQuantityType;
+    }
+
+    /**
+     * Get screen-specific values without a typed field (read-only)
+     */
+    public Map<String, String> getExtras() {
+        return extras;
+    }
+
+    // ==================== Serialization ====================
+
+    /**
+     * Serialize to a compact versioned form
+     */
+    public byte[] toBytes() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(FORMAT_VERSION);
+            out.writeUTF(screen);
+            out.writeInt(palletHeight);
+            writeNullable(out, condition);
+            writeNullable(out, osdReason);
+            out.writeInt(osdQuantity);
+            writeNullable(out, osdQuantityType);
+            out.writeInt(extras.size());
+            for (Map.Entry<String, String> entry : extras.entrySet()) {
+                out.writeUTF(entry.getKey());
+                writeNullable(out, entry.getValue());
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            // Only thrown for strings over 64 KB of UTF-8
+            throw new IllegalStateException("Resume state too large to serialize", e);
+        }
+    }
+
+    /**
+     * Parse the output of toBytes()
+     * @return ResumeState, or null if the data is missing or malformed
+     */
+    public static ResumeState fromBytes(byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            if (in.readByte() != FORMAT_VERSION) {
+                return null;
+            }
+
+            Builder builder = new Builder(in.readUTF());
+            builder.palletHeight = in.readInt();
+            builder.condition = readNullable(in);
+            builder.osdReason = readNullable(in);
+            builder.osdQuantity = in.readInt();
+            builder.osdQuantityType = readNullable(in);
+
+            int extraCount = in.readInt();
+            if (extraCount < 0 || extraCount > data.length) {
+                return null;
+            }
+            for (int i = 0; i < extraCount; i++) {
+                builder.extras.put(in.readUTF(), readNullable(in));
+            }
+
+            return in.available() == 0 ? builder.build() : null;
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof ResumeState)) {
+            return false;
+        }
+        ResumeState that = (ResumeState) other;
+        return screen.equals(that.screen)
+                && palletHeight == that.palletHeight
+                && equal(condition, that.condition)
+                && equal(osdReason, that.osdReason)
+                && osdQuantity == that.osdQuantity
+                && equal(osdQuantityType, that.osdQuantityType)
+                && extras.equals(that.extras);
+    }
+
+    @Override
+    public int hashCode() {
+        return screen.hashCode() * 31 + palletHeight;
+    }
+
+    @Override
+    public String toString() {
+        return "ResumeState{screen=" + screen + ", height=" + palletHeight + ", condition=" + condition
+                + ", osd=" + osdReason + "/" + osdQuantity + " " + osdQuantityType + ", extras=" + extras + "}";
+    }
+
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    /**
+     * Builder for ResumeState
+     */
+    public static class Builder {
+        private String screen;
+        private int palletHeight = NONE;
+        private String condition;
+        private String osdReason;
+        private int osdQuantity = NONE;
+        private String osdQuantityType;
+        private final Map<String, String> extras = new HashMap<>();
+
+        private Builder(String screen) {
+            screen(screen);
+        }
+
+        public Builder screen(String screen) {
+            if (screen == null || screen.isEmpty()) {
+                throw new IllegalArgumentException("Resume screen cannot be empty");
+            }
+            this.screen = screen;
+            return this;
+        }
+
+        public Builder palletHeight(int inches) {
+            this.palletHeight = inches;
+            return this;
+        }
+
+        public Builder condition(String condition) {
+            this.condition = condition;
+            return this;
+        }
+
+        public Builder osd(String reason, int quantity, String quantityType) {
+            this.osdReason = reason;
+            this.osdQuantity = quantity;
+            this.osdQuantityType = quantityType;
+            return this;
+        }
+
+        public Builder extra(String key, String value) {
+            extras.put(key, value);
+            return this;
+        }
+
+        public Builder removeExtra(String key) {
+            extras.remove(key);
+            return this;
+        }
+
+        public Builder extras(Map<String, String> values) {
+            if (values != null) {
+                extras.putAll(values);
+            }
+            return this;
+        }
+
+        public ResumeState build() {
+            return new ResumeState(this);
+        }
+    }
+}
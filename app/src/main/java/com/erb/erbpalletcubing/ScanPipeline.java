@@ -0,0 +1,280 @@
+package com.erb.erbpalletcubing;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ScanPipeline - Ingests barcode scans from the SCAN intent
+ * Scans are queued without blocking the caller, then a worker thread
+ * dedupes repeated reads, classifies them (PRO vs trailer) and hands
+ * them to the listener in batches
+ */
+public class ScanPipeline {
+
+    private static final String TAG = "ScanPipeline";
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    public static final long DEFAULT_DEDUPE_WINDOW_MS = 750;
+    private static final int MAX_BATCH_SIZE = 64;
+
+    // Dedupe history is only pruned once it grows past this many barcodes
+    private static final int DEDUPE_PRUNE_THRESHOLD = 256;
+
+    public enum ScanType {
+        PRO,
+        TRAILER,
+        INVALID
+    }
+
+    /**
+     * A classified scan
+     */
+    public static class ScanResult {
+        public final String data;
+        public final ScanType type;
+        public final long receivedAtNanos;
+
+        public ScanResult(String data, ScanType type, long receivedAtNanos) {
+            this.data = data;
+            this.type = type;
+            this.receivedAtNanos = receivedAtNanos;
+        }
+
+        @Override
+        public String toString() {
+            return type + ":" + data;
+        }
+    }
+
+    /**
+     * Receives classified scans, one batch at a time, on the delivery executor
+     */
+    public interface Listener {
+        void onScans(List<ScanResult> batch);
+    }
+
+    private static class RawScan {
+        final String data;
+        final long receivedAtNanos;
+
+        RawScan(String data, long receivedAtNanos) {
+            this.data = data;
+            this.receivedAtNanos = receivedAtNanos;
+        }
+    }
+
+    private final BlockingQueue<RawScan> queue;
+    private final long dedupeWindowNanos;
+    private final Executor deliveryExecutor;
+    private final Listener listener;
+
+    // Barcode -> time of its latest read, accepted or not; guarded by itself,
+    // only touched by the worker thread
+    private final Map<String, Long> lastSeenNanos = new HashMap<>();
+
+    private final AtomicLong receivedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong duplicateCount = new AtomicLong();
+    private final AtomicLong deliveredCount = new AtomicLong();
+
+    private volatile Thread worker;
+
+    /**
+     * @param deliveryExecutor Where listener batches run, e.g. a main-thread Handler
+     */
+    public ScanPipeline(Executor deliveryExecutor, Listener listener) {
+        this(DEFAULT_QUEUE_CAPACITY, DEFAULT_DEDUPE_WINDOW_MS, deliveryExecutor, listener);
+    }
+
+    public ScanPipeline(int queueCapacity, long dedupeWindowMs, Executor deliveryExecutor, Listener listener) {
+        if (deliveryExecutor == null || listener == null) {
+            throw new IllegalArgumentException("Delivery executor and listener cannot be null");
+        }
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.dedupeWindowNanos = TimeUnit.MILLISECONDS.toNanos(dedupeWindowMs);
+        this.deliveryExecutor = deliveryExecutor;
+        this.listener = listener;
+    }
+
+    // ==================== Lifecycle ====================
+
+    /**
+     * Start the worker thread (no-op if already running)
+     */
+    public synchronized void start() {
+        if (worker != null) {
+            return;
+        }
+
+        worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                processLoop();
+            }
+        }, TAG);
+        worker.setDaemon(true);
+        worker.start();
+        Log.d(TAG, "Scan pipeline started");
+    }
+
+    /**
+     * Stop the worker thread; queued scans are discarded
+     */
+    public synchronized void stop() {
+        if (worker == null) {
+            return;
+        }
+
+        worker.interrupt();
+        worker = null;
+        queue.clear();
+        Log.d(TAG, "Scan pipeline stopped");
+    }
+
+    // ==================== Ingestion ====================
+
+    /**
+     * Queue a scan; never blocks, safe to call from a BroadcastReceiver
+     * @return false if the queue was full and the scan was dropped
+     */
+    public boolean offer(String data) {
+        return offer(data, System.nanoTime());
+    }
+
+    /**
+     * Queue a scan with an explicit receive time (System.nanoTime() clock)
+     */
+    public boolean offer(String data, long receivedAtNanos) {
+        if (data == null) {
+            return false;
+        }
+
+        receivedCount.incrementAndGet();
+        if (!queue.offer(new RawScan(data, receivedAtNanos))) {
+            droppedCount.incrementAndGet();
+            Log.w(TAG, "Scan queue full, dropped scan");
+            return false;
+        }
+
+        return true;
+    }
+
+    // ==================== Statistics ====================
+
+    public long getReceivedCount() {
+        return receivedCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getDuplicateCount() {
+        return duplicateCount.get();
+    }
+
+    public long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    // ==================== Worker ====================
+
+    private void processLoop() {
+        List<RawScan> drained = new ArrayList<>(MAX_BATCH_SIZE);
+
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                drained.add(queue.take());
+                queue.drainTo(drained, MAX_BATCH_SIZE - 1);
+
+                List<ScanResult> batch = new ArrayList<>(drained.size());
+                // Uncontended except for the moment a restarted worker overlaps the old one
+                synchronized (lastSeenNanos) {
+                    for (RawScan scan : drained) {
+                        ScanResult result = process(scan);
+                        if (result != null) {
+                            batch.add(result);
+                        }
+                    }
+                }
+                drained.clear();
+
+                if (!batch.isEmpty()) {
+                    deliver(batch);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            Log.e(TAG, "Scan pipeline failed: " + e.getMessage(), e);
+        }
+    }
+
+    private ScanResult process(RawScan scan) {
+        String data = scan.data.trim();
+
+        // The window runs from the last read, so a trigger held on one label
+        // stays deduped until the label has been out of view for a whole window
+        Long lastSeen = lastSeenNanos.put(data, scan.receivedAtNanos);
+        if (lastSeen != null && scan.receivedAtNanos - lastSeen < dedupeWindowNanos) {
+            duplicateCount.incrementAndGet();
+            return null;
+        }
+
+        if (lastSeenNanos.size() >= DEDUPE_PRUNE_THRESHOLD) {
+            pruneDedupeHistory(scan.receivedAtNanos);
+        }
+
+        return new ScanResult(data, classify(data), scan.receivedAtNanos);
+    }
+
+    private void pruneDedupeHistory(long nowNanos) {
+        Iterator<Map.Entry<String, Long>> iterator = lastSeenNanos.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (nowNanos - iterator.next().getValue() >= dedupeWindowNanos) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void deliver(final List<ScanResult> batch) {
+        final List<ScanResult> readOnly = Collections.unmodifiableList(batch);
+        deliveryExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                listener.onScans(readOnly);
+                deliveredCount.addAndGet(readOnly.size());
+            }
+        });
+    }
+
+    /**
+     * Classify a scanned barcode
+     * A 10-digit number is a PRO (INVALID if its carrier or check digit is
+     * wrong); any other alphanumeric value is a trailer
+     */
+    public static ScanType classify(CharSequence data) {
+        int proCheck = ValidationHelper.checkProNumber(data);
+        if (proCheck == ValidationHelper.VALID) {
+            return ScanType.PRO;
+        }
+        if (proCheck == ValidationHelper.ERROR_UNKNOWN_CARRIER || proCheck == ValidationHelper.ERROR_CHECK_DIGIT) {
+            return ScanType.INVALID;
+        }
+        if (ValidationHelper.checkTrailerNumber(data) == ValidationHelper.VALID) {
+            return ScanType.TRAILER;
+        }
+        return ScanType.INVALID;
+    }
+}
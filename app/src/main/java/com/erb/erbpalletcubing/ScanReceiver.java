@@ -0,0 +1,82 @@
+package com.erb.erbpalletcubing;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Build;
+import android.util.Log;
+
+/**
+ * ScanReceiver - Forwards com.erb.erbpalletcubing.SCAN broadcasts to a ScanPipeline
+ * onReceive runs on the main thread, so it only copies the barcode onto the queue
+ */
+public class ScanReceiver extends BroadcastReceiver {
+
+    private static final String TAG = "ScanReceiver";
+
+    public static final String ACTION_SCAN = "com.erb.erbpalletcubing.SCAN";
+
+    // Barcode extra used by the CT50 intent output, plus the DataWedge key as a fallback
+    public static final String EXTRA_SCAN_DATA = "data";
+    public static final String EXTRA_DATAWEDGE_DATA = "com.symbol.datawedge.data_string";
+
+    private final ScanPipeline pipeline;
+
+    public ScanReceiver(ScanPipeline pipeline) {
+        if (pipeline == null) {
+            throw new IllegalArgumentException("Scan pipeline cannot be null");
+        }
+        this.pipeline = pipeline;
+    }
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        handleScanIntent(pipeline, intent);
+    }
+
+    /**
+     * Queue the barcode carried by a SCAN intent (broadcast or activity intent)
+     * @return true if the intent was a scan and it was queued
+     */
+    public static boolean handleScanIntent(ScanPipeline pipeline, Intent intent) {
+        if (intent == null || !ACTION_SCAN.equals(intent.getAction())) {
+            return false;
+        }
+
+        String data = intent.getStringExtra(EXTRA_SCAN_DATA);
+        if (data == null) {
+            data = intent.getStringExtra(EXTRA_DATAWEDGE_DATA);
+        }
+
+        if (data == null) {
+            Log.w(TAG, "SCAN intent without barcode data");
+            return false;
+        }
+
+        return pipeline.offer(data);
+    }
+
+    /**
+     * Register for scanner broadcasts (scanner apps are outside this package)
+     */
+    public void register(Context context) {
+        IntentFilter filter = new IntentFilter(ACTION_SCAN);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
+            context.registerReceiver(this, filter, Context.RECEIVER_EXPORTED);
+        } else {
+            context.registerReceiver(this, filter);
+        }
+    }
+
+    /**
+     * Unregister from scanner broadcasts
+     */
+    public void unregister(Context context) {
+        try {
+            context.unregisterReceiver(this);
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Scan receiver was not registered");
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.erb.erbpalletcubing;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SessionContexts - Named, isolated sessions for open trailers and shift handoff
+ * Each context is a SessionManager with its own journal file, so switching
+ * trailers or handing the device to the next receiver no longer needs logout().
+ * Contexts are opened lazily on first switch, the most recently used stay
+ * loaded (switching between them is a map lookup), and the oldest files are
+ * deleted once more than maxRetained exist.
+ * Don't keep a SessionManager across a switch; call current() instead, since
+ * contexts that fall out of the loaded set are flushed and closed.
+ */
+public final class SessionContexts {
+
+    private static final String TAG = "SessionContexts";
+
+    static final String DIRECTORY_NAME = "sessions";
+    static final String FILE_SUFFIX = ".journal";
+
+    public static final int DEFAULT_MAX_LOADED = 8;
+    public static final int DEFAULT_MAX_RETAINED = 64;
+
+    private final File directory;
+    private final int maxLoaded;
+    private final int maxRetained;
+    private final long writeDelayMs;
+
+    // Access-ordered, guarded by this; the eldest entry is the least recently used
+    private final LinkedHashMap<String, SessionManager> loaded;
+
+    private volatile String currentName;
+    private volatile SessionManager current;
+
+    public SessionContexts(File directory, int maxLoaded, int maxRetained, long writeDelayMs) {
+        if (maxLoaded < 1 || maxRetained < maxLoaded) {
+            throw new IllegalArgumentException("Need 1 <= maxLoaded <= maxRetained, got "
+                    + maxLoaded + " / " + maxRetained);
+        }
+        this.directory = directory;
+        this.maxLoaded = maxLoaded;
+        this.maxRetained = maxRetained;
+        this.writeDelayMs = writeDelayMs;
+        this.loaded = new LinkedHashMap<String, SessionManager>(maxLoaded * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SessionManager> eldest) {
+                if (size() <= SessionContexts.this.maxLoaded) {
+                    return false;
+                }
+                eldest.getValue().close();
+                Log.d(TAG, "Unloaded session context: " + eldest.getKey());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Contexts stored under the app's files directory
+     */
+    public static SessionContexts create(Context context) {
+        return new SessionContexts(new File(context.getFilesDir(), DIRECTORY_NAME),
+                DEFAULT_MAX_LOADED, DEFAULT_MAX_RETAINED, SessionManager.DEFAULT_WRITE_DELAY_MS);
+    }
+
+    // ==================== Context Names ====================
+
+    /**
+     * Name of a receiver's own context (login, between trailers)
+     */
+    public static String forReceiver(String receiverId) {
+        return "r" + requireId(receiverId);
+    }
+
+    /**
+     * Name of the context for one trailer worked by one receiver
+     */
+    public static String forTrailer(String receiverId, String trailerNumber) {
+        return "r" + requireId(receiverId) + "_t" + requireId(trailerNumber);
+    }
+
+    private static String requireId(String id) {
+        if (id == null || id.isEmpty()) {
+            throw new IllegalArgumentException("Session context ID cannot be empty");
+        }
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (!(c >= '0' && c <= '9') && !(c >= 'A' && c <= 'Z') && !(c >= 'a' && c <= 'z') && c != '-') {
+                throw new IllegalArgumentException("Invalid character in session context ID: " + id);
+            }
+        }
+        return id;
+    }
+
+    // ==================== Switching ====================
+
+    /**
+     * Make a context current, loading or creating it if needed
+     * @param name Name from forReceiver() or forTrailer()
+     * @return The context's session
+     */
+    public synchronized SessionManager switchTo(String name) {
+        if (name.equals(currentName)) {
+            return current;
+        }
+
+        SessionManager session = loaded.get(name);
+        if (session == null) {
+            File file = fileFor(name);
+            boolean created = !file.exists();
+            session = new SessionManager(SessionJournal.openOrEmpty(file), writeDelayMs);
+            loaded.put(name, session);
+            if (created) {
+                pruneRetained(name);
+            }
+            Log.d(TAG, (created ? "Created" : "Loaded") + " session context: " + name);
+        }
+
+        current = session;
+        currentName = name;
+        return session;
+    }
+
+    /**
+     * Get the current context's session, or null before the first switch
+     */
+    public SessionManager current() {
+        return current;
+    }
+
+    /**
+     * Get the current context's name, or null before the first switch
+     */
+    public String getCurrentName() {
+        return currentName;
+    }
+
+    /**
+     * Check if a context is loaded (switching to it touches no files)
+     */
+    public synchronized boolean isLoaded(String name) {
+        return loaded.containsKey(name);
+    }
+
+    public synchronized int getLoadedCount() {
+        return loaded.size();
+    }
+
+    /**
+     * Get names of every stored context, loaded or not
+     */
+    public synchronized List<String> listContexts() {
+        List<String> names = new ArrayList<>();
+        for (File file : storedFiles()) {
+            String fileName = file.getName();
+            names.add(fileName.substring(0, fileName.length() - FILE_SUFFIX.length()));
+        }
+        return names;
+    }
+
+    /**
+     * Delete a context (for example once its trailer is exported)
+     * The current context cannot be removed
+     */
+    public synchronized boolean remove(String name) {
+        if (name.equals(currentName)) {
+            return false;
+        }
+        SessionManager session = loaded.remove(name);
+        if (session != null) {
+            session.close();
+        }
+        return fileFor(name).delete();
+    }
+
+    /**
+     * Flush every loaded context; call from onPause
+     */
+    public synchronized void flushAll() {
+        for (SessionManager session : loaded.values()) {
+            session.flush();
+        }
+    }
+
+    /**
+     * Flush and close every loaded context
+     */
+    public synchronized void close() {
+        for (SessionManager session : loaded.values()) {
+            session.close();
+        }
+        loaded.clear();
+        current = null;
+        currentName = null;
+    }
+
+    // ==================== Retention ====================
+
+    /**
+     * Delete the least recently written contexts beyond maxRetained
+     * Loaded contexts are never deleted
+     */
+    private void pruneRetained(String keep) {
+        File[] files = storedFiles();
+        if (files.length <= maxRetained) {
+            return;
+        }
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                long difference = a.lastModified() - b.lastModified();
+                return difference < 0 ? -1 : (difference > 0 ? 1 : 0);
+            }
+        });
+
+        int excess = files.length - maxRetained;
+        for (int i = 0; i < files.length && excess > 0; i++) {
+            String fileName = files[i].getName();
+            String name = fileName.substring(0, fileName.length() - FILE_SUFFIX.length());
+            if (name.equals(keep) || loaded.containsKey(name)) {
+                continue;
+            }
+            if (files[i].delete()) {
+                excess--;
+                Log.d(TAG, "Dropped old session context: " + name);
+            }
+        }
+    }
+
+    private File[] storedFiles() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return new File[0];
+        }
+        List<File> journals = new ArrayList<>(files.length);
+        for (File file : files) {
+            if (file.getName().endsWith(FILE_SUFFIX)) {
+                journals.add(file);
+            }
+        }
+        return journals.toArray(new File[0]);
+    }
+
+    private File fileFor(String name) {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            Log.e(TAG, "Error creating session directory: " + directory);
+        }
+        return new File(directory, name + FILE_SUFFIX);
+    }
+}
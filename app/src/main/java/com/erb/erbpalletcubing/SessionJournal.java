@@ -0,0 +1,535 @@
+package com.erb.erbpalletcubing;
+
+import android.util.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * SessionJournal - Append-only, checksummed key/value store for session state
+ * Each committed batch is one record appended to the end of the file, so a
+ * state change costs a small sequential write instead of rewriting every key.
+ * On open the journal is replayed into memory; a torn or corrupt tail record
+ * (power loss mid-write) is dropped and truncated away. When the file grows
+ * well past the live data it is compacted into a new file and renamed over.
+ *
+ * File layout (big-endian):
+ *   Header: int magic, int version
+ *   Record: int payload length, int CRC32 of payload, payload
+ *   Payload: ops, each a byte opcode, then key and value
+ *   Strings are a short byte length followed by UTF-8 bytes
+ */
+public class SessionJournal {
+
+    private static final String TAG = "SessionJournal";
+
+    static final int MAGIC = 0x45525347;  // "ERSG"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int RECORD_HEADER_SIZE = 8;
+    static final int MAX_PAYLOAD_SIZE = 1 << 20;
+
+    // Compact once the file is past this size and mostly superseded records
+    private static final long COMPACT_MIN_BYTES = 64 * 1024;
+    private static final int COMPACT_RATIO = 4;
+
+    private static final byte OP_PUT_STRING = 1;
+    private static final byte OP_PUT_INT = 2;
+    private static final byte OP_PUT_BOOLEAN = 3;
+    private static final byte OP_REMOVE = 4;
+    private static final byte OP_CLEAR = 5;
+    private static final byte OP_PUT_BYTES = 6;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * An atomic group of changes; applied to memory and disk together or not at all
+     */
+    public static class Batch {
+        private final List<Object[]> ops = new ArrayList<>();
+
+        public Batch putString(String key, String value) {
+            if (value == null) {
+                return remove(key);
+            }
+            ops.add(new Object[]{OP_PUT_STRING, key, value});
+            return this;
+        }
+
+        public Batch putInt(String key, int value) {
+            ops.add(new Object[]{OP_PUT_INT, key, value});
+            return this;
+        }
+
+        public Batch putBoolean(String key, boolean value) {
+            ops.add(new Object[]{OP_PUT_BOOLEAN, key, value});
+            return this;
+        }
+
+        /**
+         * Store an opaque value such as a serialized object; the array is copied
+         */
+        public Batch putBytes(String key, byte[] value) {
+            if (value == null) {
+                return remove(key);
+            }
+            ops.add(new Object[]{OP_PUT_BYTES, key, value.clone()});
+            return this;
+        }
+
+        public Batch remove(String key) {
+            ops.add(new Object[]{OP_REMOVE, key, null});
+            return this;
+        }
+
+        /**
+         * Remove every key; later ops in the same batch still apply
+         */
+        public Batch clear() {
+            ops.add(new Object[]{OP_CLEAR, "", null});
+            return this;
+        }
+
+        public boolean isEmpty() {
+            return ops.isEmpty();
+        }
+
+        public int size() {
+            return ops.size();
+        }
+    }
+
+    private final File file;
+    private final Map<String, Object> values = new HashMap<>();
+
+    private RandomAccessFile raf;
+    private FileChannel channel;
+    private long fileSize;
+    private long liveBytes;
+    private int appendCount;
+    private int compactionCount;
+
+    private SessionJournal(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Open a journal, creating it if needed, and replay it into memory
+     */
+    public static SessionJournal open(File file) throws IOException {
+        SessionJournal journal = new SessionJournal(file);
+        journal.load();
+        return journal;
+    }
+
+    /**
+     * Open a journal; if the file cannot be opened at all, start empty in memory
+     * and retry the file on the next commit instead of failing the caller
+     */
+    public static SessionJournal openOrEmpty(File file) {
+        try {
+            return open(file);
+        } catch (IOException e) {
+            Log.e(TAG, "Error opening session journal: " + e.getMessage(), e);
+            SessionJournal journal = new SessionJournal(file);
+            journal.closeChannel();
+            return journal;
+        }
+    }
+
+    // ==================== Reads ====================
+
+    public synchronized String getString(String key, String defaultValue) {
+        Object value = values.get(key);
+        return value instanceof String ? (String) value : defaultValue;
+    }
+
+    public synchronized int getInt(String key, int defaultValue) {
+        Object value = values.get(key);
+        return value instanceof Integer ? (Integer) value : defaultValue;
+    }
+
+    public synchronized boolean getBoolean(String key, boolean defaultValue) {
+        Object value = values.get(key);
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+
+    /**
+     * @return A copy of a value stored with putBytes, or null
+     */
+    public synchronized byte[] getBytes(String key) {
+        Object value = values.get(key);
+        return value instanceof byte[] ? ((byte[]) value).clone() : null;
+    }
+
+    public synchronized boolean contains(String key) {
+        return values.containsKey(key);
+    }
+
+    /**
+     * Copy of every key and value (String, Integer, Boolean or byte[])
+     */
+    public synchronized Map<String, Object> getAll() {
+        return new HashMap<>(values);
+    }
+
+    public synchronized boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    // ==================== Writes ====================
+
+    /**
+     * Append a batch as one record
+     * @param sync true to force the record to storage before returning
+     *             (survives power loss); false leaves it in the OS page cache
+     *             (survives the app being killed)
+     */
+    public synchronized void commit(Batch batch, boolean sync) throws IOException {
+        if (batch == null || batch.isEmpty()) {
+            return;
+        }
+        ensureOpen();
+
+        byte[] payload = encode(batch.ops);
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length);
+        record.putInt(payload.length);
+        record.putInt((int) crc.getValue());
+        record.put(payload);
+        record.flip();
+
+        long position = fileSize;
+        while (record.hasRemaining()) {
+            position += channel.write(record, position);
+        }
+        if (sync) {
+            channel.force(false);
+        }
+
+        fileSize = position;
+        appendCount++;
+        applyOps(batch.ops);
+
+        if (fileSize > COMPACT_MIN_BYTES && fileSize > liveBytes * COMPACT_RATIO) {
+            compact();
+        }
+    }
+
+    /**
+     * Rewrite the journal as a single record holding the live data
+     * Written to a temp file and renamed, so a crash leaves the old or new file intact
+     */
+    public synchronized void compact() throws IOException {
+        ensureOpen();
+        Batch snapshot = new Batch();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            snapshot.ops.add(new Object[]{opFor(entry.getValue()), entry.getKey(), entry.getValue()});
+        }
+
+        File temp = new File(file.getPath() + ".tmp");
+        RandomAccessFile out = new RandomAccessFile(temp, "rw");
+        try {
+            out.setLength(0);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            if (!snapshot.isEmpty()) {
+                byte[] payload = encode(snapshot.ops);
+                CRC32 crc = new CRC32();
+                crc.update(payload, 0, payload.length);
+                out.writeInt(payload.length);
+                out.writeInt((int) crc.getValue());
+                out.write(payload);
+            }
+            out.getFD().sync();
+        } finally {
+            out.close();
+        }
+
+        closeChannel();
+        if (!temp.renameTo(file)) {
+            throw new IOException("Could not replace session journal: " + file);
+        }
+        openChannel();
+        fileSize = channel.size();
+        liveBytes = fileSize;
+        compactionCount++;
+        Log.d(TAG, "Session journal compacted to " + fileSize + " bytes");
+    }
+
+    /**
+     * Release the file; reads keep working, the next commit reopens it
+     */
+    public synchronized void close() {
+        closeChannel();
+    }
+
+    // ==================== Statistics ====================
+
+    public synchronized long getFileSize() {
+        return fileSize;
+    }
+
+    public synchronized int getAppendCount() {
+        return appendCount;
+    }
+
+    public synchronized int getCompactionCount() {
+        return compactionCount;
+    }
+
+    // ==================== Replay ====================
+
+    private void load() throws IOException {
+        openChannel();
+        long size = channel.size();
+
+        if (size < HEADER_SIZE) {
+            // New file, or a crash before the header reached disk
+            writeHeader();
+            return;
+        }
+
+        ByteBuffer data = ByteBuffer.allocate((int) Math.min(size, Integer.MAX_VALUE));
+        while (data.hasRemaining() && channel.read(data, data.position()) >= 0) {
+            // Keep reading until full
+        }
+        data.flip();
+
+        if (data.getInt() != MAGIC || data.getInt() != VERSION) {
+            Log.w(TAG, "Session journal header invalid, starting fresh: " + file);
+            writeHeader();
+            return;
+        }
+
+        int records = 0;
+        long goodEnd = HEADER_SIZE;
+        CRC32 crc = new CRC32();
+
+        while (data.remaining() >= RECORD_HEADER_SIZE) {
+            int length = data.getInt();
+            int checksum = data.getInt();
+            if (length <= 0 || length > MAX_PAYLOAD_SIZE || length > data.remaining()) {
+                break;
+            }
+
+            crc.reset();
+            crc.update(data.array(), data.position(), length);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            List<Object[]> ops = decode(data, length);
+            if (ops == null) {
+                break;
+            }
+            applyOps(ops);
+            records++;
+            goodEnd = data.position();
+        }
+
+        if (goodEnd < size) {
+            Log.w(TAG, "Dropping " + (size - goodEnd) + " bytes of torn journal tail");
+            channel.truncate(goodEnd);
+            channel.force(false);
+        }
+
+        fileSize = goodEnd;
+        liveBytes = Math.max(HEADER_SIZE, estimateLiveBytes());
+        Log.d(TAG, "Session journal replayed: " + records + " records, " + values.size() + " keys");
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.flip();
+        channel.truncate(0);
+        channel.write(header, 0);
+        channel.force(false);
+        fileSize = HEADER_SIZE;
+        liveBytes = HEADER_SIZE;
+    }
+
+    private void applyOps(List<Object[]> ops) {
+        for (Object[] op : ops) {
+            byte code = (Byte) op[0];
+            String key = (String) op[1];
+            if (code == OP_CLEAR) {
+                values.clear();
+            } else if (code == OP_REMOVE) {
+                values.remove(key);
+            } else {
+                values.put(key, op[2]);
+            }
+        }
+        liveBytes = estimateLiveBytes();
+    }
+
+    private long estimateLiveBytes() {
+        long bytes = HEADER_SIZE + RECORD_HEADER_SIZE;
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            Object value = entry.getValue();
+            int valueBytes = value instanceof byte[] ? 4 + ((byte[]) value).length : 2 + String.valueOf(value).length();
+            bytes += 3 + entry.getKey().length() + valueBytes;
+        }
+        return bytes;
+    }
+
+    // ==================== Encoding ====================
+
+    private static byte opFor(Object value) {
+        if (value instanceof Integer) {
+            return OP_PUT_INT;
+        }
+        if (value instanceof Boolean) {
+            return OP_PUT_BOOLEAN;
+        }
+        if (value instanceof byte[]) {
+            return OP_PUT_BYTES;
+        }
+        return OP_PUT_STRING;
+    }
+
+    private static byte[] encode(List<Object[]> ops) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (Object[] op : ops) {
+            byte code = (Byte) op[0];
+            out.writeByte(code);
+            writeString(out, (String) op[1]);
+            switch (code) {
+                case OP_PUT_STRING:
+                    writeString(out, (String) op[2]);
+                    break;
+                case OP_PUT_INT:
+                    out.writeInt((Integer) op[2]);
+                    break;
+                case OP_PUT_BOOLEAN:
+                    out.writeBoolean((Boolean) op[2]);
+                    break;
+                case OP_PUT_BYTES:
+                    byte[] bytesValue = (byte[]) op[2];
+                    out.writeInt(bytesValue.length);
+                    out.write(bytesValue);
+                    break;
+                default:
+                    break;
+            }
+        }
+        out.flush();
+        if (bytes.size() > MAX_PAYLOAD_SIZE) {
+            throw new IOException("Session batch too large: " + bytes.size() + " bytes");
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return Decoded ops, or null if the payload is malformed
+     */
+    private static List<Object[]> decode(ByteBuffer data, int length) {
+        int end = data.position() + length;
+        List<Object[]> ops = new ArrayList<>();
+        try {
+            while (data.position() < end) {
+                byte code = data.get();
+                String key = readString(data);
+                Object value;
+                switch (code) {
+                    case OP_PUT_STRING:
+                        value = readString(data);
+                        break;
+                    case OP_PUT_INT:
+                        value = data.getInt();
+                        break;
+                    case OP_PUT_BOOLEAN:
+                        value = data.get() != 0;
+                        break;
+                    case OP_PUT_BYTES:
+                        int valueLength = data.getInt();
+                        if (valueLength < 0 || valueLength > end - data.position()) {
+                            return null;
+                        }
+                        byte[] bytes = new byte[valueLength];
+                        data.get(bytes);
+                        value = bytes;
+                        break;
+                    case OP_REMOVE:
+                    case OP_CLEAR:
+                        value = null;
+                        break;
+                    default:
+                        return null;
+                }
+                ops.add(new Object[]{code, key, value});
+            }
+        } catch (RuntimeException e) {
+            return null;
+        }
+        return data.position() == end ? ops : null;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("Session value too long: " + bytes.length + " bytes");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer data) {
+        int length = data.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        data.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    // ==================== File Handling ====================
+
+    private void ensureOpen() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            openChannel();
+            fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                long live = liveBytes;
+                writeHeader();
+                liveBytes = live;
+            }
+        }
+    }
+
+    private void openChannel() throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Could not create directory for " + file);
+        }
+        raf = new RandomAccessFile(file, "rw");
+        channel = raf.getChannel();
+    }
+
+    private void closeChannel() {
+        try {
+            if (raf != null) {
+                raf.close();
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Error closing session journal: " + e.getMessage(), e);
+        }
+        raf = null;
+        channel = null;
+    }
+}
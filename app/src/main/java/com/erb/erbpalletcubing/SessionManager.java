@@ -4,27 +4,45 @@ import android.content.Context;
 import android.content.SharedPreferences;
 import android.util.Log;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
  * SessionManager - Manages user session and resume state
- * Handles login, logout, and crash recovery via SharedPreferences
+ * Handles login, logout, and crash recovery. An in-memory snapshot is the
+ * source of truth: getters read it without locking, and changes are
+ * coalesced and written behind to an append-only SessionJournal on a
+ * background thread. Call flush() from onPause so nothing is left pending.
+ * Related changes should go through edit() so they are applied together.
  */
 public class SessionManager {
 
     private static final String TAG = "SessionManager";
     private static final String PREF_NAME = "ErbCubingSession";
     private static final int PRIVATE_MODE = 0;
+    static final String JOURNAL_FILE_NAME = PREF_NAME + ".journal";
+
+    // Changes within this window are coalesced into one journal record
+    public static final long DEFAULT_WRITE_DELAY_MS = 250;
 
     // Session Keys
     private static final String KEY_IS_LOGGED_IN = "isLoggedIn";
     private static final String KEY_TERMINAL_ID = "terminalId";
     private static final String KEY_RECEIVER_ID = "receiverId";
 
-    // Resume State Keys
-    private static final String KEY_RESUME_SCREEN = "resumeScreen";
-    private static final String KEY_RESUME_DATA_PREFIX = "resumeData_";
+    // Resume state is one serialized ResumeState value
+    private static final String KEY_RESUME_STATE = "resumeState";
+
+    // Resume keys written by versions before ResumeState (read once, at migration)
+    private static final String LEGACY_KEY_RESUME_SCREEN = "resumeScreen";
+    private static final String LEGACY_KEY_RESUME_DATA_PREFIX = "resumeData_";
 
     // Current Work Context Keys
     private static final String KEY_CURRENT_TRAILER = "currentTrailer";
@@ -35,174 +53,535 @@ public class SessionManager {
     private static final String KEY_TEMP1 = "temp1";
     private static final String KEY_TEMP2 = "temp2";
 
-    private SharedPreferences prefs;
-    private SharedPreferences.Editor editor;
+    // Marks a key removed in a pending change set
+    private static final Object REMOVED = new Object();
+
+    // One writer thread shared by every session
+    private static final ScheduledExecutorService WRITER = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "SessionWriter");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    private final SessionJournal journal;
+    private final long writeDelayMs;
+
+    // Immutable once published; replaced as a whole on every change
+    private volatile Map<String, Object> state;
+
+    // Guarded by lock: changes not yet handed to the journal
+    private final Object lock = new Object();
+    private final Map<String, Object> pending = new LinkedHashMap<>();
+    private boolean pendingClear;
+    private boolean flushScheduled;
+    private boolean writing;  // Drained changes not yet in the journal
+
+    // Serializes journal writes so batches reach disk in order
+    private final Object flushLock = new Object();
+
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (lock) {
+                flushScheduled = false;
+            }
+            writePending(false);
+        }
+    };
 
     public SessionManager(Context context) {
+        this(openJournal(context), DEFAULT_WRITE_DELAY_MS);
+    }
+
+    /**
+     * Use an already open journal
+     * @param writeDelayMs How long changes wait to be coalesced before writing
+     */
+    public SessionManager(SessionJournal journal, long writeDelayMs) {
+        if (journal == null) {
+            throw new IllegalArgumentException("Journal cannot be null");
+        }
+        this.journal = journal;
+        this.writeDelayMs = writeDelayMs;
+        this.state = loadState(journal);
+    }
+
+    private static SessionJournal openJournal(Context context) {
         if (context == null) {
             throw new IllegalArgumentException("Context cannot be null");
         }
-        prefs = context.getSharedPreferences(PREF_NAME, PRIVATE_MODE);
-        editor = prefs.edit();
+        SessionJournal journal = SessionJournal.openOrEmpty(new File(context.getFilesDir(), JOURNAL_FILE_NAME));
+        if (journal.isEmpty()) {
+            migrateFromPreferences(context.getSharedPreferences(PREF_NAME, PRIVATE_MODE), journal);
+        }
+        return journal;
     }
 
-    // ==================== Login/Logout Methods ====================
+    private static Map<String, Object> loadState(SessionJournal journal) {
+        Map<String, Object> loaded = journal.getAll();
+        Object resume = loaded.get(KEY_RESUME_STATE);
+        if (resume instanceof byte[]) {
+            ResumeState decoded = ResumeState.fromBytes((byte[]) resume);
+            if (decoded != null) {
+                loaded.put(KEY_RESUME_STATE, decoded);
+            } else {
+                loaded.remove(KEY_RESUME_STATE);
+            }
+        }
+        return loaded;
+    }
 
     /**
-     * Log in user with Terminal ID and Receiver ID
+     * One-time move of a session saved by earlier versions in SharedPreferences
+     * The preferences are cleared only once the journal holds the data
      */
-    public void loginUser(String terminalId, String receiverId) {
+    static void migrateFromPreferences(SharedPreferences prefs, SessionJournal journal) {
         try {
-            editor.putBoolean(KEY_IS_LOGGED_IN, true);
-            editor.putString(KEY_TERMINAL_ID, terminalId);
-            editor.putString(KEY_RECEIVER_ID, receiverId);
-            editor.apply();
-            Log.d(TAG, "User logged in: Terminal=" + terminalId + ", Receiver=" + receiverId);
+            Map<String, ?> saved = prefs.getAll();
+            if (saved == null || saved.isEmpty()) {
+                return;
+            }
+
+            SessionJournal.Batch batch = new SessionJournal.Batch();
+            String legacyScreen = null;
+            HashMap<String, String> legacyResumeData = new HashMap<>();
+
+            for (Map.Entry<String, ?> entry : saved.entrySet()) {
+                Object value = entry.getValue();
+                if (entry.getKey().equals(LEGACY_KEY_RESUME_SCREEN)) {
+                    legacyScreen = value != null ? value.toString() : null;
+                } else if (entry.getKey().startsWith(LEGACY_KEY_RESUME_DATA_PREFIX)) {
+                    legacyResumeData.put(entry.getKey().substring(LEGACY_KEY_RESUME_DATA_PREFIX.length()),
+                            value != null ? value.toString() : null);
+                } else if (value instanceof Boolean) {
+                    batch.putBoolean(entry.getKey(), (Boolean) value);
+                } else if (value instanceof Integer) {
+                    batch.putInt(entry.getKey(), (Integer) value);
+                } else if (value != null) {
+                    batch.putString(entry.getKey(), value.toString());
+                }
+            }
+
+            if (legacyScreen != null && !legacyScreen.isEmpty()) {
+                ResumeState resume = ResumeState.builder(legacyScreen).extras(legacyResumeData).build();
+                batch.putBytes(KEY_RESUME_STATE, resume.toBytes());
+            }
+
+            journal.commit(batch, true);
+            prefs.edit().clear().apply();
+            Log.d(TAG, "Migrated " + saved.size() + " session values from SharedPreferences");
         } catch (Exception e) {
-            Log.e(TAG, "Error logging in user: " + e.getMessage(), e);
+            Log.e(TAG, "Error migrating session from SharedPreferences: " + e.getMessage(), e);
+        }
+    }
+
+    // ==================== Batched Edits ====================
+
+    /**
+     * Start a batch of session changes
+     * Example: session.edit().trailer(t).pro(p).expected(n).commitAsync();
+     * Nothing changes until commitAsync() or commit(); then every change is
+     * visible at once and written as part of one journal record
+     */
+    public Editor edit() {
+        return new Editor(this);
+    }
+
+    /**
+     * Fluent batch of session changes, applied atomically
+     * Not thread-safe; build and commit a batch on one thread
+     */
+    public static class Editor {
+
+        private final SessionManager session;
+        private final Map<String, Object> changes = new LinkedHashMap<>();
+        private boolean clear;
+
+        private Editor(SessionManager session) {
+            this.session = session;
+        }
+
+        public Editor login(String terminalId, String receiverId) {
+            changes.put(KEY_IS_LOGGED_IN, Boolean.TRUE);
+            put(KEY_TERMINAL_ID, terminalId);
+            return put(KEY_RECEIVER_ID, receiverId);
+        }
+
+        public Editor trailer(String trailerNumber) {
+            return put(KEY_CURRENT_TRAILER, trailerNumber);
+        }
+
+        public Editor pro(String proNumber) {
+            return put(KEY_CURRENT_PRO, proNumber);
+        }
+
+        public Editor palletIndex(int index) {
+            return put(KEY_CURRENT_PALLET_INDEX, index);
+        }
+
+        public Editor expected(int count) {
+            return put(KEY_EXPECTED_PALLETS, count);
+        }
+
+        public Editor freightType(String freightType) {
+            return put(KEY_FREIGHT_TYPE, freightType);
+        }
+
+        public Editor temp1(String temp) {
+            return put(KEY_TEMP1, temp);
+        }
+
+        /**
+         * Set temperature 2; null or blank removes it (non-DUAL freight)
+         */
+        public Editor temp2(String temp) {
+            return put(KEY_TEMP2, temp != null && !temp.trim().isEmpty() ? temp : null);
+        }
+
+        /**
+         * Replace the resume point; null clears it
+         */
+        public Editor resume(ResumeState state) {
+            return put(KEY_RESUME_STATE, state);
+        }
+
+        /**
+         * Get the number of changes in this batch
+         */
+        public int getChangeCount() {
+            return changes.size();
+        }
+
+        /**
+         * Apply the batch now and write it behind on the session writer thread
+         */
+        public void commitAsync() {
+            session.apply(changes, clear);
+        }
+
+        /**
+         * Apply the batch and wait until it (and anything pending) reaches storage
+         * @return true if the write succeeded
+         */
+        public boolean commit() {
+            session.apply(changes, clear);
+            return session.writePending(true);
+        }
+
+        private Editor clearAll() {
+            changes.clear();
+            clear = true;
+            return this;
+        }
+
+        private Editor put(String key, Object value) {
+            changes.put(key, value != null ? value : REMOVED);
+            return this;
+        }
+    }
+
+    // ==================== Write-behind ====================
+
+    /**
+     * Apply changes to the in-memory snapshot and queue them for the journal
+     */
+    private void apply(Map<String, Object> changes, boolean clear) {
+        if (changes.isEmpty() && !clear) {
+            return;
+        }
+
+        synchronized (lock) {
+            Map<String, Object> next = clear ? new HashMap<String, Object>() : new HashMap<>(state);
+            if (clear) {
+                pending.clear();
+                pendingClear = true;
+            }
+            for (Map.Entry<String, Object> change : changes.entrySet()) {
+                if (change.getValue() == REMOVED) {
+                    next.remove(change.getKey());
+                } else {
+                    next.put(change.getKey(), change.getValue());
+                }
+                pending.put(change.getKey(), change.getValue());
+            }
+            state = next;
+
+            if (!flushScheduled) {
+                flushScheduled = true;
+                WRITER.schedule(flushTask, writeDelayMs, TimeUnit.MILLISECONDS);
+            }
         }
     }
 
+    /**
+     * Write pending changes now and wait for them to reach storage
+     * Call from onPause (and before the process may be killed)
+     * @return true if everything was written
+     */
+    public boolean flush() {
+        return writePending(true);
+    }
+
+    /**
+     * Write pending changes and release the journal file
+     * The session stays readable; a later change reopens the journal
+     */
+    public void close() {
+        writePending(true);
+        journal.close();
+    }
+
+    /**
+     * Check if changes are waiting to be written or still being written
+     */
+    public boolean hasPendingWrites() {
+        synchronized (lock) {
+            return pendingClear || !pending.isEmpty() || writing;
+        }
+    }
+
+    private boolean writePending(boolean sync) {
+        synchronized (flushLock) {
+            boolean clear;
+            Map<String, Object> drained;
+            synchronized (lock) {
+                clear = pendingClear;
+                drained = new LinkedHashMap<>(pending);
+                pendingClear = false;
+                pending.clear();
+                writing = clear || !drained.isEmpty();
+            }
+            if (!clear && drained.isEmpty()) {
+                return true;
+            }
+
+            SessionJournal.Batch batch = new SessionJournal.Batch();
+            if (clear) {
+                batch.clear();
+            }
+            for (Map.Entry<String, Object> entry : drained.entrySet()) {
+                addToBatch(batch, entry.getKey(), entry.getValue());
+            }
+
+            try {
+                journal.commit(batch, sync);
+                return true;
+            } catch (IOException | RuntimeException e) {
+                Log.e(TAG, "Error writing session changes: " + e.getMessage(), e);
+                requeue(clear, drained);
+                return false;
+            } finally {
+                synchronized (lock) {
+                    writing = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Put a failed write back under anything changed since, to retry with the next write
+     */
+    private void requeue(boolean clear, Map<String, Object> failed) {
+        synchronized (lock) {
+            if (pendingClear) {
+                return;  // A later clear supersedes the failed changes
+            }
+            pendingClear = clear;
+            for (Map.Entry<String, Object> entry : failed.entrySet()) {
+                if (!pending.containsKey(entry.getKey())) {
+                    pending.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    private static void addToBatch(SessionJournal.Batch batch, String key, Object value) {
+        if (value == REMOVED) {
+            batch.remove(key);
+        } else if (value instanceof Boolean) {
+            batch.putBoolean(key, (Boolean) value);
+        } else if (value instanceof Integer) {
+            batch.putInt(key, (Integer) value);
+        } else if (value instanceof ResumeState) {
+            batch.putBytes(key, ((ResumeState) value).toBytes());
+        } else {
+            batch.putString(key, (String) value);
+        }
+    }
+
+    private String getString(String key) {
+        Object value = state.get(key);
+        return value instanceof String ? (String) value : null;
+    }
+
+    private static int getInt(Map<String, Object> snapshot, String key) {
+        Object value = snapshot.get(key);
+        return value instanceof Integer ? (Integer) value : 0;
+    }
+
+    // ==================== Snapshot Methods ====================
+
+    /**
+     * Capture the whole work context from one consistent state
+     */
+    public WorkContextSnapshot snapshot() {
+        Map<String, Object> snapshot = state;
+        Object resume = snapshot.get(KEY_RESUME_STATE);
+        return new WorkContextSnapshot(
+                Boolean.TRUE.equals(snapshot.get(KEY_IS_LOGGED_IN)),
+                (String) snapshot.get(KEY_TERMINAL_ID),
+                (String) snapshot.get(KEY_RECEIVER_ID),
+                (String) snapshot.get(KEY_CURRENT_TRAILER),
+                (String) snapshot.get(KEY_CURRENT_PRO),
+                getInt(snapshot, KEY_CURRENT_PALLET_INDEX),
+                getInt(snapshot, KEY_EXPECTED_PALLETS),
+                (String) snapshot.get(KEY_FREIGHT_TYPE),
+                (String) snapshot.get(KEY_TEMP1),
+                (String) snapshot.get(KEY_TEMP2),
+                resume instanceof ResumeState ? (ResumeState) resume : null);
+    }
+
+    /**
+     * Replace the whole session with a snapshot, as one change
+     * @return true if the change was written
+     */
+    public boolean restore(WorkContextSnapshot snapshot) {
+        Editor editor = edit().clearAll();
+        if (snapshot.loggedIn) {
+            editor.put(KEY_IS_LOGGED_IN, Boolean.TRUE);
+        }
+        editor.put(KEY_TERMINAL_ID, snapshot.terminalId)
+                .put(KEY_RECEIVER_ID, snapshot.receiverId)
+                .trailer(snapshot.trailer)
+                .pro(snapshot.proNumber)
+                .freightType(snapshot.freightType)
+                .temp1(snapshot.temp1)
+                .temp2(snapshot.temp2)
+                .resume(snapshot.resume);
+        if (snapshot.palletIndex != 0) {
+            editor.palletIndex(snapshot.palletIndex);
+        }
+        if (snapshot.expectedPallets != 0) {
+            editor.expected(snapshot.expectedPallets);
+        }
+        boolean written = editor.commit();
+        Log.d(TAG, "Work context restored: " + snapshot);
+        return written;
+    }
+
+    // ==================== Login/Logout Methods ====================
+
+    /**
+     * Log in user with Terminal ID and Receiver ID
+     */
+    public void loginUser(String terminalId, String receiverId) {
+        edit().login(terminalId, receiverId).commitAsync();
+        Log.d(TAG, "User logged in: Terminal=" + terminalId + ", Receiver=" + receiverId);
+    }
+
     /**
      * Check if user is logged in
      */
     public boolean isLoggedIn() {
-        try {
-            return prefs.getBoolean(KEY_IS_LOGGED_IN, false);
-        } catch (Exception e) {
-            Log.e(TAG, "Error checking login status: " + e.getMessage(), e);
-            return false;
-        }
+        return Boolean.TRUE.equals(state.get(KEY_IS_LOGGED_IN));
     }
 
     /**
      * Get Terminal ID
      */
     public String getTerminalId() {
-        try {
-            return prefs.getString(KEY_TERMINAL_ID, null);
-        } catch (Exception e) {
-            Log.e(TAG, "Error getting terminal ID: " + e.getMessage(), e);
-            return null;
-        }
+        return getString(KEY_TERMINAL_ID);
     }
 
     /**
      * Get Receiver ID
      */
     public String getReceiverId() {
-        try {
-            return prefs.getString(KEY_RECEIVER_ID, null);
-        } catch (Exception e) {
-            Log.e(TAG, "Error getting receiver ID: " + e.getMessage(), e);
-            return null;
-        }
+        return getString(KEY_RECEIVER_ID);
     }
 
     /**
      * Log out user and clear all session data
      */
     public void logout() {
-        try {
-            editor.clear();
-            editor.apply();
+        if (edit().clearAll().commit()) {
             Log.d(TAG, "User logged out, all session data cleared");
-        } catch (Exception e) {
-            Log.e(TAG, "Error logging out: " + e.getMessage(), e);
         }
     }
 
     // ==================== Resume State Methods ====================
 
+    /**
+     * Save a typed resume point, replacing any previous one
+     */
+    public void saveResumeState(ResumeState state) {
+        edit().resume(state).commitAsync();
+        Log.d(TAG, "Resume state saved: screen=" + (state != null ? state.getScreen() : null));
+    }
+
     /**
      * Save resume state with screen name and data
+     * Data is merged into the values already saved, as before
      * @param screen Screen identifier (e.g., "trailer", "pro_header", "pallet_detail")
      * @param data Key-value pairs of data to save
      */
     public void saveResumeState(String screen, HashMap<String, String> data) {
         try {
-            editor.putString(KEY_RESUME_SCREEN, screen);
-
-            if (data != null) {
-                for (Map.Entry<String, String> entry : data.entrySet()) {
-                    editor.putString(KEY_RESUME_DATA_PREFIX + entry.getKey(), entry.getValue());
-                }
+            synchronized (lock) {
+                ResumeState current = getResume();
+                ResumeState.Builder builder = current != null
+                        ? current.toBuilder().screen(screen)
+                        : ResumeState.builder(screen);
+                saveResumeState(builder.extras(data).build());
             }
-
-            editor.apply();
-            Log.d(TAG, "Resume state saved: screen=" + screen);
         } catch (Exception e) {
             Log.e(TAG, "Error saving resume state: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Get the typed resume point
+     * @return ResumeState, or null if there is nothing to resume
+     */
+    public ResumeState getResume() {
+        Object value = state.get(KEY_RESUME_STATE);
+        return value instanceof ResumeState ? (ResumeState) value : null;
+    }
+
     /**
      * Get resume screen identifier
      */
     public String getResumeScreen() {
-        try {
-            return prefs.getString(KEY_RESUME_SCREEN, null);
-        } catch (Exception e) {
-            Log.e(TAG, "Error getting resume screen: " + e.getMessage(), e);
-            return null;
-        }
+        ResumeState state = getResume();
+        return state != null ? state.getScreen() : null;
     }
 
     /**
-     * Get all resume state data
+     * Get resume state data saved without a typed field
      */
     public HashMap<String, String> getResumeState() {
-        HashMap<String, String> data = new HashMap<>();
-        
-        try {
-            Map<String, ?> allPrefs = prefs.getAll();
-            
-            for (Map.Entry<String, ?> entry : allPrefs.entrySet()) {
-                if (entry.getKey().startsWith(KEY_RESUME_DATA_PREFIX)) {
-                    String key = entry.getKey().substring(KEY_RESUME_DATA_PREFIX.length());
-                    String value = entry.getValue() != null ? entry.getValue().toString() : null;
-                    data.put(key, value);
-                }
-            }
-            
-            Log.d(TAG, "Retrieved resume state data: " + data.size() + " entries");
-        } catch (Exception e) {
-            Log.e(TAG, "Error getting resume state: " + e.getMessage(), e);
-        }
-        
-        return data;
+        ResumeState state = getResume();
+        return state != null ? new HashMap<>(state.getExtras()) : new HashMap<String, String>();
     }
 
     /**
      * Clear resume state (but keep login session)
      */
     public void clearResumeState() {
-        try {
-            // Remove resume screen
-            editor.remove(KEY_RESUME_SCREEN);
-
-            // Remove all resume data keys
-            Map<String, ?> allPrefs = prefs.getAll();
-            for (String key : allPrefs.keySet()) {
-                if (key.startsWith(KEY_RESUME_DATA_PREFIX)) {
-                    editor.remove(key);
-                }
-            }
-
-            // Clear current work context
-            editor.remove(KEY_CURRENT_TRAILER);
-            editor.remove(KEY_CURRENT_PRO);
-            editor.remove(KEY_CURRENT_PALLET_INDEX);
-            editor.remove(KEY_EXPECTED_PALLETS);
-            editor.remove(KEY_FREIGHT_TYPE);
-            editor.remove(KEY_TEMP1);
-            editor.remove(KEY_TEMP2);
-
-            editor.apply();
-            Log.d(TAG, "Resume state cleared");
-        } catch (Exception e) {
-            Log.e(TAG, "Error clearing resume state: " + e.getMessage(), e);
-        }
+        edit().resume(null)
+                .trailer(null)
+                .pro(null)
+                .put(KEY_CURRENT_PALLET_INDEX, null)
+                .put(KEY_EXPECTED_PALLETS, null)
+                .freightType(null)
+                .temp1(null)
+                .temp2(null)
+                .commitAsync();
+        Log.d(TAG, "Resume state cleared");
     }
 
     // ==================== Current Work Context Methods ====================
@@ -211,211 +590,133 @@ public class SessionManager {
      * Set current trailer number
      */
     public void setCurrentTrailer(String trailerNumber) {
-        try {
-            editor.putString(KEY_CURRENT_TRAILER, trailerNumber);
-            editor.apply();
-            Log.d(TAG, "Current trailer set: " + trailerNumber);
-        } catch (Exception e) {
-            Log.e(TAG, "Error setting current trailer: " + e.getMessage(), e);
-        }
+        edit().trailer(trailerNumber).commitAsync();
     }
 
     /**
      * Get current trailer number
      */
     public String getCurrentTrailer() {
-        try {
-            return prefs.getString(KEY_CURRENT_TRAILER, null);
-        } catch (Exception e) {
-            Log.e(TAG, "Error getting current trailer: " + e.getMessage(), e);
-            return null;
-        }
+        return getString(KEY_CURRENT_TRAILER);
     }
 
     /**
      * Set current PRO number
      */
     public void setCurrentPro(String proNumber) {
-        try {
-            editor.putString(KEY_CURRENT_PRO, proNumber);
-            editor.apply();
-            Log.d(TAG, "Current PRO set: " + proNumber);
-        } catch (Exception e) {
-            Log.e(TAG, "Error setting current PRO: " + e.getMessage(), e);
-        }
+        edit().pro(proNumber).commitAsync();
     }
 
     /**
      * Get current PRO number
      */
     public String getCurrentPro() {
-        try {
-            return prefs.getString(KEY_CURRENT_PRO, null);
-        } catch (Exception e) {
-            Log.e(TAG, "Error getting current PRO: " + e.getMessage(), e);
-            return null;
-        }
+        return getString(KEY_CURRENT_PRO);
     }
 
     /**
      * Set current pallet index (1-based)
      */
     public void setCurrentPalletIndex(int index) {
-        try {
-            editor.putInt(KEY_CURRENT_PALLET_INDEX, index);
-            editor.apply();
-            Log.d(TAG, "Current pallet index set: " + index);
-        } catch (Exception e) {
-            Log.e(TAG, "Error setting current pallet index: " + e.getMessage(), e);
-        }
+        edit().palletIndex(index).commitAsync();
     }
 
     /**
      * Get current pallet index (1-based, returns 0 if not set)
      */
     public int getCurrentPalletIndex() {
-        try {
-            return prefs.getInt(KEY_CURRENT_PALLET_INDEX, 0);
-        } catch (Exception e) {
-            Log.e(TAG, "Error getting current pallet index: " + e.getMessage(), e);
-            return 0;
-        }
+        return getInt(state, KEY_CURRENT_PALLET_INDEX);
     }
 
     /**
      * Set expected pallets count
      */
     public void setExpectedPallets(int count) {
-        try {
-            editor.putInt(KEY_EXPECTED_PALLETS, count);
-            editor.apply();
-            Log.d(TAG, "Expected pallets set: " + count);
-        } catch (Exception e) {
-            Log.e(TAG, "Error setting expected pallets: " + e.getMessage(), e);
-        }
+        edit().expected(count).commitAsync();
     }
 
     /**
      * Get expected pallets count
      */
     public int getExpectedPallets() {
-        try {
-            return prefs.getInt(KEY_EXPECTED_PALLETS, 0);
-        } catch (Exception e) {
-            Log.e(TAG, "Error getting expected pallets: " + e.getMessage(), e);
-            return 0;
-        }
+        return getInt(state, KEY_EXPECTED_PALLETS);
     }
 
     /**
      * Set freight type
      */
     public void setFreightType(String freightType) {
-        try {
-            editor.putString(KEY_FREIGHT_TYPE, freightType);
-            editor.apply();
-            Log.d(TAG, "Freight type set: " + freightType);
-        } catch (Exception e) {
-            Log.e(TAG, "Error setting freight type: " + e.getMessage(), e);
-        }
+        edit().freightType(freightType).commitAsync();
     }
 
     /**
      * Get freight type
      */
     public String getFreightType() {
-        try {
-            return prefs.getString(KEY_FREIGHT_TYPE, null);
-        } catch (Exception e) {
-            Log.e(TAG, "Error getting freight type: " + e.getMessage(), e);
-            return null;
-        }
+        return getString(KEY_FREIGHT_TYPE);
     }
 
     /**
      * Set temperature 1
      */
     public void setTemp1(String temp) {
-        try {
-            editor.putString(KEY_TEMP1, temp);
-            editor.apply();
-            Log.d(TAG, "Temp1 set: " + temp);
-        } catch (Exception e) {
-            Log.e(TAG, "Error setting temp1: " + e.getMessage(), e);
-        }
+        edit().temp1(temp).commitAsync();
     }
 
     /**
      * Get temperature 1
      */
     public String getTemp1() {
-        try {
-            return prefs.getString(KEY_TEMP1, null);
-        } catch (Exception e) {
-            Log.e(TAG, "Error getting temp1: " + e.getMessage(), e);
-            return null;
-        }
+        return getString(KEY_TEMP1);
     }
 
     /**
      * Set temperature 2 (nullable for DUAL freight type)
      */
     public void setTemp2(String temp) {
-        try {
-            if (temp != null && !temp.trim().isEmpty()) {
-                editor.putString(KEY_TEMP2, temp);
-            } else {
-                editor.remove(KEY_TEMP2);
-            }
-            editor.apply();
-            Log.d(TAG, "Temp2 set: " + temp);
-        } catch (Exception e) {
-            Log.e(TAG, "Error setting temp2: " + e.getMessage(), e);
-        }
+        edit().temp2(temp).commitAsync();
     }
 
     /**
      * Get temperature 2
      */
     public String getTemp2() {
-        try {
-            return prefs.getString(KEY_TEMP2, null);
-        } catch (Exception e) {
-            Log.e(TAG, "Error getting temp2: " + e.getMessage(), e);
-            return null;
-        }
+        return getString(KEY_TEMP2);
     }
 
     /**
      * Increment pallet index and return new value
+     * The read and the write happen under one lock, so concurrent callers never share a value.
+     * Saving pallets should go through PalletProgress, which also tracks the saved rows
      */
     public int incrementPalletIndex() {
-        int currentIndex = getCurrentPalletIndex();
-        int newIndex = currentIndex + 1;
-        setCurrentPalletIndex(newIndex);
-        return newIndex;
+        synchronized (lock) {
+            int newIndex = getCurrentPalletIndex() + 1;
+            setCurrentPalletIndex(newIndex);
+            return newIndex;
+        }
     }
 
     /**
      * Check if there are more pallets to process
      */
     public boolean hasMorePallets() {
-        int currentIndex = getCurrentPalletIndex();
-        int expectedPallets = getExpectedPallets();
-        return currentIndex < expectedPallets;
+        Map<String, Object> snapshot = state;
+        return getInt(snapshot, KEY_CURRENT_PALLET_INDEX) < getInt(snapshot, KEY_EXPECTED_PALLETS);
     }
 
     /**
      * Get user info string for display
      */
     public String getUserInfoString() {
-        String terminal = getTerminalId();
-        String receiver = getReceiverId();
-        
+        Map<String, Object> snapshot = state;
+        Object terminal = snapshot.get(KEY_TERMINAL_ID);
+        Object receiver = snapshot.get(KEY_RECEIVER_ID);
+
         if (terminal != null && receiver != null) {
             return "Terminal: " + terminal + " | Receiver: " + receiver;
         }
-        
+
         return "Not logged in";
     }
 }
@@ -0,0 +1,259 @@
+package com.erb.erbpalletcubing;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * StartupPipeline - Brings up storage-backed components off the main thread
+ * onCreate only constructs this and calls start(); config reload, the
+ * session journal, the database connection, pallet recovery and the draft
+ * all load on the startup thread, each as a StartupTrace phase, and the
+ * listener gets the ready components on the main executor. Until then the
+ * getters return null; if a phase fails the listener is told instead and
+ * they stay null. Later storage work (reloadConfig, close) goes through
+ * the same thread, so it always runs after startup finished.
+ */
+public class StartupPipeline {
+
+    private static final String TAG = "StartupPipeline";
+
+    // Phase names (StartupTrace)
+    public static final String PHASE_CONFIG = "config.reload";
+    public static final String PHASE_SESSION = "session.open";
+    public static final String PHASE_DATABASE = "db.open";
+    public static final String PHASE_PALLET_RECOVERY = "pallet.recover";
+    public static final String PHASE_DRAFT = "draft.restore";
+    public static final String PHASE_DELIVER = "startup.deliver";
+
+    /**
+     * Called on the main executor once every component is ready, or once a phase has failed
+     */
+    public interface Listener {
+        void onStartupComplete(StartupPipeline startup);
+
+        void onStartupFailed(StartupPipeline startup, Exception error);
+    }
+
+    private static final ExecutorService SHARED_EXECUTOR = Executors.newSingleThreadExecutor(
+            new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "Startup");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    // Replaced by tests to control when startup runs
+    private static volatile Executor executorOverride;
+
+    private final Context context;
+    private final Executor mainExecutor;
+    private final Executor background;
+    private final StartupTrace trace;
+
+    // Published by the startup thread before the listener runs
+    private volatile SessionManager sessionManager;
+    private volatile DatabaseHelper dbHelper;
+    private volatile PalletProgress palletProgress;
+    private volatile PalletDraftStore palletDraftStore;
+    private volatile Map<String, String> restoredDraft = Collections.emptyMap();
+    private volatile boolean ready;
+    private volatile Exception failure;
+
+    public StartupPipeline(Context context, Executor mainExecutor, StartupTrace trace) {
+        this.context = context.getApplicationContext() != null ? context.getApplicationContext() : context;
+        this.mainExecutor = mainExecutor;
+        this.trace = trace;
+        Executor override = executorOverride;
+        this.background = override != null ? override : SHARED_EXECUTOR;
+    }
+
+    /**
+     * Use a different executor for pipelines created from now on (null for the default)
+     */
+    static void setExecutorOverride(Executor executor) {
+        executorOverride = executor;
+    }
+
+    /**
+     * Load everything on the startup thread, then call the listener on the main executor
+     */
+    public void start(final Listener listener) {
+        background.execute(new Runnable() {
+            @Override
+            public void run() {
+                Exception error = null;
+                try {
+                    runPhases();
+                } catch (Exception e) {
+                    Log.e(TAG, "Error during startup: " + e.getMessage(), e);
+                    error = e;
+                }
+                final Exception startupError = error;
+                mainExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        long begin = trace.begin();
+                        if (startupError != null) {
+                            failure = startupError;
+                            listener.onStartupFailed(StartupPipeline.this, startupError);
+                        } else {
+                            ready = true;
+                            listener.onStartupComplete(StartupPipeline.this);
+                        }
+                        trace.end(PHASE_DELIVER, begin);
+                        Log.d(TAG, "Startup trace:\n" + trace.format());
+                        writeTrace();
+                    }
+                });
+            }
+        });
+    }
+
+    private void runPhases() {
+        long begin = trace.begin();
+        reloadConfigFiles();
+        trace.end(PHASE_CONFIG, begin);
+
+        begin = trace.begin();
+        SessionManager session = new SessionManager(context);
+        trace.end(PHASE_SESSION, begin);
+
+        // Opening the connection runs any schema upgrade now, not on the first save
+        begin = trace.begin();
+        DatabaseHelper db = new DatabaseHelper(context);
+        try {
+            db.getWritableDatabase();
+            trace.end(PHASE_DATABASE, begin);
+            runRecoveryPhases(session, db);
+        } catch (RuntimeException e) {
+            // Nothing is published, so close() would never reach this connection
+            db.close();
+            throw e;
+        }
+
+        sessionManager = session;
+        dbHelper = db;
+    }
+
+    private void runRecoveryPhases(SessionManager session, DatabaseHelper db) {
+        // Reconcile the pallet index with the rows actually saved before a restart
+        long begin = trace.begin();
+        PalletProgress progress = new PalletProgress(session);
+        String currentPro = session.getCurrentPro();
+        if (currentPro != null) {
+            db.recoverPalletProgress(progress, currentPro, session.getExpectedPallets());
+        }
+        trace.end(PHASE_PALLET_RECOVERY, begin);
+
+        // A pallet half-entered when the process was killed comes back field by field
+        begin = trace.begin();
+        PalletDraftStore draftStore = new PalletDraftStore(session);
+        Map<String, String> draft = draftStore.restore();
+        trace.end(PHASE_DRAFT, begin);
+
+        restoredDraft = draft;
+        palletProgress = progress;
+        palletDraftStore = draftStore;
+    }
+
+    private void reloadConfigFiles() {
+        File filesDir = context.getFilesDir();
+        // A single stat each when unchanged
+        ValidationLimits.reloadIfModified(new File(filesDir, ValidationLimits.CONFIG_FILE_NAME));
+        CarrierPrefixTable.reloadIfModified(new File(filesDir, CarrierPrefixTable.CONFIG_FILE_NAME));
+    }
+
+    private void writeTrace() {
+        background.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    trace.writeTo(new File(context.getFilesDir(), StartupTrace.FILE_NAME));
+                } catch (Exception e) {
+                    Log.e(TAG, "Error writing startup trace: " + e.getMessage(), e);
+                }
+            }
+        });
+    }
+
+    // ==================== After Startup ====================
+
+    /**
+     * Pick up config files dropped in since the last check, off the main thread
+     */
+    public void reloadConfig() {
+        background.execute(new Runnable() {
+            @Override
+            public void run() {
+                reloadConfigFiles();
+            }
+        });
+    }
+
+    /**
+     * Flush the session and close the database once startup (if still running) is done
+     */
+    public void close() {
+        background.execute(new Runnable() {
+            @Override
+            public void run() {
+                SessionManager session = sessionManager;
+                if (session != null) {
+                    session.flush();
+                }
+                DatabaseHelper db = dbHelper;
+                if (db != null) {
+                    db.close();
+                }
+            }
+        });
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Get the exception that stopped startup (null if it succeeded or is still running)
+     */
+    public Exception getFailure() {
+        return failure;
+    }
+
+    public StartupTrace getTrace() {
+        return trace;
+    }
+
+    public SessionManager getSessionManager() {
+        return sessionManager;
+    }
+
+    public DatabaseHelper getDatabaseHelper() {
+        return dbHelper;
+    }
+
+    public PalletProgress getPalletProgress() {
+        return palletProgress;
+    }
+
+    public PalletDraftStore getPalletDraftStore() {
+        return palletDraftStore;
+    }
+
+    /**
+     * Get the pallet draft fields restored at startup (empty if none)
+     */
+    public Map<String, String> getRestoredDraft() {
+        return restoredDraft;
+    }
+}
@@ -0,0 +1,125 @@
+package com.erb.erbpalletcubing;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * StartupTrace - Per-phase timings of one app launch
+ * Phases may be recorded from any thread; each keeps the thread it ran on,
+ * so the trace also shows what the main thread did before the first frame.
+ * Written to FILE_NAME (in the files dir) after startup, off the main thread.
+ */
+public final class StartupTrace {
+
+    public static final String FILE_NAME = "startup_trace.txt";
+
+    /**
+     * One finished phase
+     */
+    public static final class Phase {
+        public final String name;
+        public final String thread;
+        public final long startNanos;  // Since the trace was created
+        public final long durationNanos;
+
+        Phase(String name, String thread, long startNanos, long durationNanos) {
+            this.name = name;
+            this.thread = thread;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%-18s %-10s +%7.2f ms %7.2f ms",
+                    name, thread, startNanos / 1e6, durationNanos / 1e6);
+        }
+    }
+
+    private final long originNanos = System.nanoTime();
+    private final List<Phase> phases = new ArrayList<>();
+
+    /**
+     * Mark the start of a phase
+     * @return Token to pass to end()
+     */
+    public long begin() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Record a phase started with begin() on the current thread
+     */
+    public void end(String name, long beginNanos) {
+        long now = System.nanoTime();
+        Phase phase = new Phase(name, Thread.currentThread().getName(),
+                beginNanos - originNanos, now - beginNanos);
+        synchronized (phases) {
+            phases.add(phase);
+        }
+    }
+
+    /**
+     * Get the phases recorded so far, in the order they finished
+     */
+    public List<Phase> getPhases() {
+        synchronized (phases) {
+            return new ArrayList<>(phases);
+        }
+    }
+
+    /**
+     * Get a phase by name
+     * @return Phase, or null if it hasn't finished
+     */
+    public Phase find(String name) {
+        synchronized (phases) {
+            for (Phase phase : phases) {
+                if (phase.name.equals(name)) {
+                    return phase;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get total time from trace creation to the end of the last phase
+     */
+    public long getElapsedNanos() {
+        long end = 0;
+        synchronized (phases) {
+            for (Phase phase : phases) {
+                end = Math.max(end, phase.startNanos + phase.durationNanos);
+            }
+        }
+        return end;
+    }
+
+    public String format() {
+        StringBuilder text = new StringBuilder();
+        for (Phase phase : getPhases()) {
+            text.append(phase).append('\n');
+        }
+        text.append(String.format(Locale.US, "total %.2f ms%n", getElapsedNanos() / 1e6));
+        return text.toString();
+    }
+
+    /**
+     * Write the formatted trace, replacing the previous launch's
+     */
+    public void writeTo(File file) throws IOException {
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writer.write(format());
+        } finally {
+            writer.close();
+        }
+    }
+}
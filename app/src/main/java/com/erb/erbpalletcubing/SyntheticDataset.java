@@ -0,0 +1,363 @@
+package com.erb.erbpalletcubing;
+
+import java.text.SimpleDateFormat;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * SyntheticDataset - Deterministic, seedable CubingData rows for load and soak tests
+ * Rows come out the way a dock produces them: trailer by trailer, each trailer
+ * carrying several PROs whose pallets are entered in sequence. The same seed
+ * and settings always give the same rows. Records are generated one at a time
+ * as the iterator is read, so any row count streams through
+ * DatabaseHelper.insertRecords or RecordExporter.write in constant memory.
+ *
+ * Distributions:
+ *   ExpectedPalletsPRO  mostly 1-3 (LTL), a tail up to a full 26-pallet trailer
+ *   Freight type        45% FRESH, 30% FROZEN, 15% DRY, 10% DUAL (Temp2 frozen side)
+ *   Temperatures        normal around the freight type's set point, clamped to ValidationLimits
+ *   OS&D                osdRate of pallets (2% by default), with reason and quantity
+ *   Timestamps          rows spread evenly over the span; pallets of a trailer 30-120 s
+ *                       apart, closer when the span is too short for that
+ */
+public final class SyntheticDataset implements Iterable<DatabaseHelper.CubingRecord> {
+
+    public static final String FREIGHT_FRESH = "FRESH";
+    public static final String FREIGHT_FROZEN = "FROZEN";
+    public static final String FREIGHT_DRY = "DRY";
+    public static final String CONDITION_OK = "OK";
+    public static final String CONDITION_OSD = "OS&D";
+
+    static final String[] OSD_REASONS = {"Damaged", "Short", "Over", "Crushed", "Refused"};
+    static final String[] OSD_QUANTITY_TYPES = {"Cases", "Pieces"};
+
+    // 2026-01-01 00:00:00 UTC
+    public static final long DEFAULT_START_MILLIS = 1767225600000L;
+    public static final int DEFAULT_DAYS = 90;
+    public static final double DEFAULT_OSD_RATE = 0.02;
+    public static final int DEFAULT_TERMINALS = 12;
+    public static final int DEFAULT_RECEIVERS = 400;
+    public static final int DEFAULT_TRAILER_FLEET = 5000;
+    public static final int DEFAULT_CARRIERS = 25;
+
+    static final int MAX_PALLETS_PER_TRAILER = 26;
+    private static final int MIN_PALLETS_PER_TRAILER = 12;
+    private static final int MAX_PROS_PER_TRAILER = 12;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final int MIN_PALLET_GAP_MILLIS = 30000;
+    private static final int MAX_PALLET_GAP_MILLIS = 120000;
+    private static final int ERB_RANGE = 10000000;
+    private static final int ERB_MULTIPLIER = 7919 * 13;  // Coprime with 10^7, so Erb numbers don't repeat
+
+    // ExpectedPalletsPRO: cumulative weights (percent) for 1..6, then 7-12 and 13-26 uniform
+    private static final int[] EXPECTED_CUMULATIVE = {35, 55, 67, 75, 81, 85};
+    private static final int EXPECTED_MID_CUMULATIVE = 95;
+
+    // Freight mix (cumulative percent) and set points in tenths of a degree F
+    private static final String[] FREIGHT_TYPES = {FREIGHT_FRESH, FREIGHT_FROZEN, FREIGHT_DRY, RecordValidator.FREIGHT_TYPE_DUAL};
+    private static final int[] FREIGHT_CUMULATIVE = {45, 75, 90, 100};
+    private static final int[] SET_POINT_TENTHS = {335, -50, 300};
+    private static final int[] SPREAD_TENTHS = {10, 30, 25};
+
+    private final long seed;
+    private final long rows;
+    private long startMillis = DEFAULT_START_MILLIS;
+    private int days = DEFAULT_DAYS;
+    private double osdRate = DEFAULT_OSD_RATE;
+    private int terminals = DEFAULT_TERMINALS;
+    private int receivers = DEFAULT_RECEIVERS;
+    private int trailerFleet = DEFAULT_TRAILER_FLEET;
+    private int carriers = DEFAULT_CARRIERS;
+
+    /**
+     * @param seed Same seed and settings, same rows
+     * @param rows Number of pallet records to generate
+     */
+    public SyntheticDataset(long seed, long rows) {
+        if (rows < 0) {
+            throw new IllegalArgumentException("Row count must not be negative: " + rows);
+        }
+        this.seed = seed;
+        this.rows = rows;
+    }
+
+    /**
+     * First timestamp (UTC) and number of days the rows span
+     */
+    public SyntheticDataset span(long startMillis, int days) {
+        if (days < 1) {
+            throw new IllegalArgumentException("Span must be at least a day: " + days);
+        }
+        this.startMillis = startMillis;
+        this.days = days;
+        return this;
+    }
+
+    /**
+     * Fraction of pallets received with OS&D (0-1)
+     */
+    public SyntheticDataset osdRate(double osdRate) {
+        if (osdRate < 0 || osdRate > 1) {
+            throw new IllegalArgumentException("OS&D rate must be 0-1: " + osdRate);
+        }
+        this.osdRate = osdRate;
+        return this;
+    }
+
+    /**
+     * Number of distinct terminals, receivers, trailers and PRO prefixes to draw from
+     */
+    public SyntheticDataset population(int terminals, int receivers, int trailerFleet, int carriers) {
+        if (terminals < 1 || terminals > 999 || receivers < 1 || receivers > 90000
+                || trailerFleet < 1 || trailerFleet > 900000 || carriers < 1 || carriers > 900) {
+            throw new IllegalArgumentException("Population out of range");
+        }
+        this.terminals = terminals;
+        this.receivers = receivers;
+        this.trailerFleet = trailerFleet;
+        this.carriers = carriers;
+        return this;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Start generating from the first row; each iterator yields new record objects
+     */
+    @Override
+    public Iterator<DatabaseHelper.CubingRecord> iterator() {
+        return new Generator();
+    }
+
+    /**
+     * Draw ExpectedPalletsPRO
+     */
+    static int drawExpectedPallets(Random random) {
+        int roll = random.nextInt(100);
+        for (int i = 0; i < EXPECTED_CUMULATIVE.length; i++) {
+            if (roll < EXPECTED_CUMULATIVE[i]) {
+                return i + 1;
+            }
+        }
+        if (roll < EXPECTED_MID_CUMULATIVE) {
+            return 7 + random.nextInt(6);
+        }
+        return 13 + random.nextInt(MAX_PALLETS_PER_TRAILER - 12);
+    }
+
+    // ==================== Generator ====================
+
+    private final class Generator implements Iterator<DatabaseHelper.CubingRecord> {
+
+        private final Random random = new Random(seed);
+        private final SimpleDateFormat dayFormat = new SimpleDateFormat("yyyy-MM-dd ", Locale.US);
+        private final char[] timeOfDay = new char[8];
+        private final String[] terminalIds = new String[terminals];
+        private final String[] receiverIds = new String[receivers];
+        private final String[] trailerNumbers = new String[trailerFleet];
+        private final String[] prefixes = new String[carriers];
+        private final long rowGapMillis;
+
+        private long generated;
+        private long proCount;
+
+        // Current trailer
+        private String terminal;
+        private String receiver;
+        private String trailer;
+        private int trailerPalletsLeft;
+        private int trailerProsLeft;
+        private long clockMillis;
+
+        // Current PRO
+        private String pro;
+        private String proPrefix;
+        private String proErb;
+        private long proPacked;
+        private String freightType;
+        private int expected;
+        private int sequence;
+
+        // Cached "yyyy-MM-dd " of the current day
+        private long cachedDay = Long.MIN_VALUE;
+        private String cachedDayPrefix;
+
+        Generator() {
+            dayFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+            timeOfDay[2] = ':';
+            timeOfDay[5] = ':';
+            for (int i = 0; i < terminalIds.length; i++) {
+                terminalIds[i] = String.format(Locale.US, "%03d", i + 1);
+            }
+            // Distinct ids spread over their number range
+            for (int i = 0; i < receiverIds.length; i++) {
+                receiverIds[i] = String.valueOf(10000 + (long) i * 90000 / receivers);
+            }
+            for (int i = 0; i < trailerNumbers.length; i++) {
+                trailerNumbers[i] = String.valueOf(100000 + (long) i * 900000 / trailerFleet);
+            }
+            for (int i = 0; i < prefixes.length; i++) {
+                prefixes[i] = String.valueOf(100 + i * 900 / carriers);
+            }
+            rowGapMillis = Math.max(1, days * DAY_MILLIS / Math.max(1, rows));
+            clockMillis = startMillis;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return generated < rows;
+        }
+
+        @Override
+        public DatabaseHelper.CubingRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            // A trailer is closed between PROs, once it is full or its PROs are all unloaded
+            if (sequence == expected) {
+                if (trailerPalletsLeft <= 0 || trailerProsLeft == 0) {
+                    nextTrailer();
+                } else {
+                    nextPro();
+                }
+            }
+            sequence++;
+            trailerPalletsLeft--;
+            if (rowGapMillis >= MAX_PALLET_GAP_MILLIS) {
+                clockMillis += MIN_PALLET_GAP_MILLIS + random.nextInt(MAX_PALLET_GAP_MILLIS - MIN_PALLET_GAP_MILLIS);
+            } else {
+                clockMillis += random.nextInt((int) (2 * rowGapMillis) + 1);
+            }
+            generated++;
+
+            DatabaseHelper.CubingRecord record = new DatabaseHelper.CubingRecord();
+            record.timestamp = formatTimestamp(clockMillis);
+            record.terminal = terminal;
+            record.receiver = receiver;
+            record.trailerNumber = trailer;
+            record.proNumberIncoming = pro;
+            record.proPrefix = proPrefix;
+            record.proNumberErb = proErb;
+            record.proNumberPacked = proPacked;
+            record.freightType = freightType;
+            record.expectedPalletsPro = expected;
+            record.palletSequence = sequence;
+            record.palletHeight = drawPalletHeight();
+            record.status = "NEW";
+
+            switch (freightType) {
+                case FREIGHT_FRESH:
+                    record.temp1 = drawTemperature(0);
+                    break;
+                case FREIGHT_FROZEN:
+                    record.temp1 = drawTemperature(1);
+                    break;
+                case FREIGHT_DRY:
+                    record.temp1 = drawTemperature(2);
+                    break;
+                default:
+                    record.temp1 = drawTemperature(0);
+                    record.temp2 = drawTemperature(1);
+                    break;
+            }
+
+            if (random.nextDouble() < osdRate) {
+                record.condition = CONDITION_OSD;
+                record.osdReason = OSD_REASONS[random.nextInt(OSD_REASONS.length)];
+                record.osdQuantity = 1 + random.nextInt(20);
+                record.osdQuantityType = OSD_QUANTITY_TYPES[random.nextInt(OSD_QUANTITY_TYPES.length)];
+            } else {
+                record.condition = CONDITION_OK;
+            }
+            return record;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        private void nextTrailer() {
+            terminal = terminalIds[random.nextInt(terminalIds.length)];
+            receiver = receiverIds[random.nextInt(receiverIds.length)];
+            trailer = trailerNumbers[random.nextInt(trailerNumbers.length)];
+            trailerPalletsLeft = MIN_PALLETS_PER_TRAILER + random.nextInt(MAX_PALLETS_PER_TRAILER - MIN_PALLETS_PER_TRAILER + 1);
+            trailerProsLeft = 1 + random.nextInt(MAX_PROS_PER_TRAILER);
+            // Keeps the rows on schedule over the span; the clock never runs backwards
+            clockMillis = Math.max(clockMillis, startMillis + generated * rowGapMillis);
+            nextPro();
+        }
+
+        private void nextPro() {
+            proCount++;
+            trailerProsLeft--;
+            proPrefix = prefixes[random.nextInt(prefixes.length)];
+            proErb = formatErb((int) ((proCount * ERB_MULTIPLIER) % ERB_RANGE));
+            pro = proPrefix + proErb;
+            proPacked = ProNumber.parseValue(pro);
+            freightType = FREIGHT_TYPES[pick(FREIGHT_CUMULATIVE)];
+            expected = drawExpectedPallets(random);
+            sequence = 0;
+        }
+
+        private int pick(int[] cumulative) {
+            int roll = random.nextInt(100);
+            for (int i = 0; i < cumulative.length; i++) {
+                if (roll < cumulative[i]) {
+                    return i;
+                }
+            }
+            return cumulative.length - 1;
+        }
+
+        private String drawTemperature(int setPoint) {
+            ValidationLimits limits = ValidationLimits.current();
+            long tenths = SET_POINT_TENTHS[setPoint] + Math.round(random.nextGaussian() * SPREAD_TENTHS[setPoint]);
+            tenths = Math.max(limits.tempMinTenths, Math.min(limits.tempMaxTenths, tenths));
+            return Temperature.toPlainString((int) tenths);
+        }
+
+        private int drawPalletHeight() {
+            long height = 60 + Math.round(random.nextGaussian() * 12);
+            return (int) Math.max(24, Math.min(Math.min(96, ValidationLimits.current().maxPalletHeight), height));
+        }
+
+        private String formatErb(int value) {
+            char[] digits = new char[ProNumber.ERB_LENGTH];
+            for (int i = digits.length - 1; i >= 0; i--) {
+                digits[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+            return new String(digits);
+        }
+
+        /**
+         * "yyyy-MM-dd HH:mm:ss" (UTC); the date part is formatted once per day
+         */
+        private String formatTimestamp(long millis) {
+            long day = millis / DAY_MILLIS;
+            if (millis % DAY_MILLIS < 0) {
+                day--;
+            }
+            if (day != cachedDay) {
+                cachedDay = day;
+                cachedDayPrefix = dayFormat.format(day * DAY_MILLIS);
+            }
+            int seconds = (int) ((millis - day * DAY_MILLIS) / 1000);
+            putTwoDigits(0, seconds / 3600);
+            putTwoDigits(3, seconds / 60 % 60);
+            putTwoDigits(6, seconds % 60);
+            return cachedDayPrefix.concat(new String(timeOfDay));
+        }
+
+        private void putTwoDigits(int offset, int value) {
+            timeOfDay[offset] = (char) ('0' + value / 10);
+            timeOfDay[offset + 1] = (char) ('0' + value % 10);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.erb.erbpalletcubing;
+
+/**
+ * Temperature - Immutable fixed-point temperature in tenths of a degree Fahrenheit
+ * Parsing is a single allocation-free pass; display and export strings for
+ * every tenth from -40 to 120 are precomputed once. The valid range itself
+ * comes from ValidationLimits and can change at runtime.
+ */
+public final class Temperature {
+
+    // Returned by the parse methods for anything that is not a number
+    public static final int INVALID = Integer.MIN_VALUE;
+
+    // Precomputed string range in tenths; covers any configured dock limits
+    static final int CACHE_MIN_TENTHS = -400;
+    static final int CACHE_MAX_TENTHS = 1200;
+
+    private static final String DISPLAY_SUFFIX = "°F";
+    private static final String EXPORT_SUFFIX = "F";
+
+    // Longest integer part accepted, keeps tenths well inside int range
+    private static final int MAX_INTEGER_DIGITS = 6;
+
+    private static final String[] PLAIN_CACHE;
+    private static final String[] DISPLAY_CACHE;
+    private static final String[] EXPORT_CACHE;
+
+    static {
+        int size = CACHE_MAX_TENTHS - CACHE_MIN_TENTHS + 1;
+        PLAIN_CACHE = new String[size];
+        DISPLAY_CACHE = new String[size];
+        EXPORT_CACHE = new String[size];
+
+        for (int i = 0; i < size; i++) {
+            String plain = buildPlainString(CACHE_MIN_TENTHS + i);
+            PLAIN_CACHE[i] = plain;
+            DISPLAY_CACHE[i] = plain + DISPLAY_SUFFIX;
+            EXPORT_CACHE[i] = plain + EXPORT_SUFFIX;
+        }
+    }
+
+    private final int tenths;
+
+    private Temperature(int tenths) {
+        this.tenths = tenths;
+    }
+
+    /**
+     * Wrap a value in tenths of a degree
+     */
+    public static Temperature ofTenths(int tenths) {
+        if (tenths == INVALID) {
+            throw new IllegalArgumentException("Not a temperature: INVALID");
+        }
+        return new Temperature(tenths);
+    }
+
+    /**
+     * Parse a temperature
+     * @return Temperature, or null if input is not a number
+     */
+    public static Temperature parse(CharSequence input) {
+        int parsed = parseTenths(input);
+        return parsed == INVALID ? null : new Temperature(parsed);
+    }
+
+    /**
+     * Parse a plain number such as "35", "-10" or "34.5" into tenths of a degree
+     * Surrounding whitespace is ignored. Digits past the first decimal place
+     * must be zero, since tenths cannot hold them.
+     * @return Tenths of a degree (not range-checked), or INVALID
+     */
+    public static int parseTenths(CharSequence input) {
+        return parse(input, false);
+    }
+
+    /**
+     * Parse like parseTenths, also accepting a trailing "°F", "°" or "F" unit
+     * so already formatted values can be read back
+     */
+    public static int parseTenthsIgnoringUnit(CharSequence input) {
+        return parse(input, true);
+    }
+
+    /**
+     * Check if a value in tenths is within the current ValidationLimits range
+     */
+    public static boolean isInRange(int tenths) {
+        return isInRange(tenths, ValidationLimits.current());
+    }
+
+    /**
+     * Check if a value in tenths is within the range of a limits snapshot
+     */
+    public static boolean isInRange(int tenths, ValidationLimits limits) {
+        return tenths != INVALID && tenths >= limits.tempMinTenths && tenths <= limits.tempMaxTenths;
+    }
+
+    /**
+     * Format tenths as a plain number: 350 -> "35", -5 -> "-0.5"
+     */
+    public static String toPlainString(int tenths) {
+        if (tenths >= CACHE_MIN_TENTHS && tenths <= CACHE_MAX_TENTHS) {
+            return PLAIN_CACHE[tenths - CACHE_MIN_TENTHS];
+        }
+        return buildPlainString(tenths);
+    }
+
+    /**
+     * Format tenths for display: 350 -> "35°F"
+     */
+    public static String toDisplayString(int tenths) {
+        if (tenths >= CACHE_MIN_TENTHS && tenths <= CACHE_MAX_TENTHS) {
+            return DISPLAY_CACHE[tenths - CACHE_MIN_TENTHS];
+        }
+        return buildPlainString(tenths) + DISPLAY_SUFFIX;
+    }
+
+    /**
+     * Format tenths for CSV export: -100 -> "-10F"
+     */
+    public static String toExportString(int tenths) {
+        if (tenths >= CACHE_MIN_TENTHS && tenths <= CACHE_MAX_TENTHS) {
+            return EXPORT_CACHE[tenths - CACHE_MIN_TENTHS];
+        }
+        return buildPlainString(tenths) + EXPORT_SUFFIX;
+    }
+
+    /**
+     * Get the value in tenths of a degree
+     */
+    public int tenths() {
+        return tenths;
+    }
+
+    /**
+     * Check if this temperature is within the current ValidationLimits range
+     */
+    public boolean isInRange() {
+        return isInRange(tenths);
+    }
+
+    /**
+     * Get the display form, e.g. "34.5°F"
+     */
+    public String toDisplayString() {
+        return toDisplayString(tenths);
+    }
+
+    /**
+     * Get the export form, e.g. "34.5F"
+     */
+    public String toExportString() {
+        return toExportString(tenths);
+    }
+
+    @Override
+    public String toString() {
+        return toPlainString(tenths);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Temperature && ((Temperature) other).tenths == tenths;
+    }
+
+    @Override
+    public int hashCode() {
+        return tenths;
+    }
+
+    private static int parse(CharSequence input, boolean allowUnit) {
+        if (input == null) {
+            return INVALID;
+        }
+
+        int i = 0;
+        int end = input.length();
+        while (i < end && input.charAt(i) <= ' ') {
+            i++;
+        }
+        while (end > i && input.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        if (allowUnit) {
+            if (end > i && input.charAt(end - 1) == 'F') {
+                end--;
+            }
+            if (end > i && input.charAt(end - 1) == '°') {
+                end--;
+            }
+            while (end > i && input.charAt(end - 1) <= ' ') {
+                end--;
+            }
+        }
+
+        boolean negative = false;
+        if (i < end && (input.charAt(i) == '-' || input.charAt(i) == '+')) {
+            negative = input.charAt(i) == '-';
+            i++;
+        }
+
+        int whole = 0;
+        int integerDigits = 0;
+        while (i < end && isDigit(input.charAt(i))) {
+            if (++integerDigits > MAX_INTEGER_DIGITS) {
+                return INVALID;
+            }
+            whole = whole * 10 + (input.charAt(i) - '0');
+            i++;
+        }
+
+        int tenth = 0;
+        int fractionDigits = 0;
+        if (i < end && input.charAt(i) == '.') {
+            i++;
+            while (i < end && isDigit(input.charAt(i))) {
+                int digit = input.charAt(i) - '0';
+                if (fractionDigits == 0) {
+                    tenth = digit;
+                } else if (digit != 0) {
+                    return INVALID;  // Finer than a tenth
+                }
+                fractionDigits++;
+                i++;
+            }
+        }
+
+        if (i != end || (integerDigits == 0 && fractionDigits == 0)) {
+            return INVALID;
+        }
+
+        int result = whole * 10 + tenth;
+        return negative ? -result : result;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static String buildPlainString(int tenths) {
+        int magnitude = Math.abs(tenths);
+        String sign = tenths < 0 ? "-" : "";
+        int fraction = magnitude % 10;
+        if (fraction == 0) {
+            return sign + (magnitude / 10);
+        }
+        return sign + (magnitude / 10) + "." + fraction;
+    }
+}
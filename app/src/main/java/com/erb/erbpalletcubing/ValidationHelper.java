@@ -10,92 +10,226 @@ public class ValidationHelper {
 
     private static final String TAG = "ValidationHelper";
 
-    // Temperature constraints
-    private static final int TEMP_MIN = -15;  // Minimum temperature in Fahrenheit
-    private static final int TEMP_MAX = 35;   // Maximum temperature in Fahrenheit
+    // Temperature range, PRO length and the count/height/quantity caps come
+    // from ValidationLimits.current(), read once per call
 
     // PRO number constraints
-    private static final int PRO_LENGTH = 10;  // PRO numbers must be exactly 10 digits
     private static final int PRO_PREFIX_LENGTH = 3;  // First 3 digits
 
+    // Validation result codes (returned by the check* methods)
+    public static final int VALID = 0;
+    public static final int ERROR_EMPTY = 1;
+    public static final int ERROR_NOT_NUMERIC = 2;
+    public static final int ERROR_INVALID_CHARACTERS = 3;
+    public static final int ERROR_WRONG_LENGTH = 4;
+    public static final int ERROR_OUT_OF_RANGE = 5;
+    public static final int ERROR_UNKNOWN_CARRIER = 6;
+    public static final int ERROR_CHECK_DIGIT = 7;
+
     /**
      * Validate Terminal ID (numeric, non-empty)
      */
     public static boolean isValidTerminalId(String input) {
-        if (input == null || input.trim().isEmpty()) {
-            Log.w(TAG, "Terminal ID is empty");
-            return false;
+        return checkTerminalId(input) == VALID;
+    }
+
+    /**
+     * Validate Receiver ID (numeric, non-empty)
+     */
+    public static boolean isValidReceiverId(String input) {
+        return checkReceiverId(input) == VALID;
+    }
+
+    /**
+     * Validate Trailer Number (alphanumeric, non-empty)
+     */
+    public static boolean isValidTrailerNumber(String input) {
+        return checkTrailerNumber(input) == VALID;
+    }
+
+    /**
+     * Validate PRO Number (exactly the configured number of digits, 10 by default)
+     */
+    public static boolean isValidProNumber(String input) {
+        return checkProNumber(input) == VALID;
+    }
+
+    // ==================== Allocation-free Field Checks ====================
+    // Called on every keypress and scan: no trim(), no regex, no logging.
+
+    /**
+     * Check Terminal ID (numeric, non-empty)
+     * @return VALID, ERROR_EMPTY or ERROR_NOT_NUMERIC
+     */
+    public static int checkTerminalId(CharSequence input) {
+        return checkDigits(input);
+    }
+
+    /**
+     * Check Receiver ID (numeric, non-empty)
+     * @return VALID, ERROR_EMPTY or ERROR_NOT_NUMERIC
+     */
+    public static int checkReceiverId(CharSequence input) {
+        return checkDigits(input);
+    }
+
+    /**
+     * Check Trailer Number (alphanumeric, non-empty)
+     * @return VALID, ERROR_EMPTY or ERROR_INVALID_CHARACTERS
+     */
+    public static int checkTrailerNumber(CharSequence input) {
+        if (input == null) {
+            return ERROR_EMPTY;
         }
 
-        String trimmed = input.trim();
-        
-        // Check if numeric
-        if (!trimmed.matches("\\d+")) {
-            Log.w(TAG, "Terminal ID is not numeric: " + trimmed);
-            return false;
+        int start = trimStart(input);
+        int end = trimEnd(input, start);
+        if (start == end) {
+            return ERROR_EMPTY;
         }
 
-        return true;
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            if (!isAsciiDigit(c) && !((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z'))) {
+                return ERROR_INVALID_CHARACTERS;
+            }
+        }
+
+        return VALID;
     }
 
     /**
-     * Validate Receiver ID (numeric, non-empty)
+     * Check PRO Number (configured length, known carrier prefix, valid check digit)
+     * Carrier rules come from CarrierPrefixTable.current(); until a table is
+     * loaded every prefix is accepted
+     * @return VALID, ERROR_EMPTY, ERROR_WRONG_LENGTH, ERROR_NOT_NUMERIC,
+     *         ERROR_UNKNOWN_CARRIER or ERROR_CHECK_DIGIT
      */
-    public static boolean isValidReceiverId(String input) {
-        if (input == null || input.trim().isEmpty()) {
-            Log.w(TAG, "Receiver ID is empty");
-            return false;
+    public static int checkProNumber(CharSequence input) {
+        if (input == null) {
+            return ERROR_EMPTY;
         }
 
-        String trimmed = input.trim();
-        
-        // Check if numeric
-        if (!trimmed.matches("\\d+")) {
-            Log.w(TAG, "Receiver ID is not numeric: " + trimmed);
-            return false;
+        int start = trimStart(input);
+        int end = trimEnd(input, start);
+        if (start == end) {
+            return ERROR_EMPTY;
         }
 
-        return true;
+        if (end - start != ValidationLimits.current().proLength) {
+            return ERROR_WRONG_LENGTH;
+        }
+
+        int prefix = 0;
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            if (!isAsciiDigit(c)) {
+                return ERROR_NOT_NUMERIC;
+            }
+            if (i < start + PRO_PREFIX_LENGTH) {
+                prefix = prefix * 10 + (c - '0');
+            }
+        }
+
+        CarrierPrefixTable carriers = CarrierPrefixTable.current();
+        if (!carriers.isKnown(prefix)) {
+            return ERROR_UNKNOWN_CARRIER;
+        }
+        if (!carriers.isCheckDigitValid(prefix, input, start, end)) {
+            return ERROR_CHECK_DIGIT;
+        }
+
+        return VALID;
     }
 
     /**
-     * Validate Trailer Number (alphanumeric, non-empty)
+     * Check temperature (configured range, -15 to 35 Fahrenheit by default, tenths of a degree)
+     * @return VALID, ERROR_EMPTY, ERROR_NOT_NUMERIC or ERROR_OUT_OF_RANGE
      */
-    public static boolean isValidTrailerNumber(String input) {
-        if (input == null || input.trim().isEmpty()) {
-            Log.w(TAG, "Trailer number is empty");
-            return false;
+    public static int checkTemperature(CharSequence input) {
+        if (input == null || trimStart(input) == input.length()) {
+            return ERROR_EMPTY;
         }
 
-        String trimmed = input.trim();
-        
-        // Allow alphanumeric characters
-        if (!trimmed.matches("[a-zA-Z0-9]+")) {
-            Log.w(TAG, "Trailer number contains invalid characters: " + trimmed);
-            return false;
+        int tenths = Temperature.parseTenths(input);
+        if (tenths == Temperature.INVALID) {
+            return ERROR_NOT_NUMERIC;
         }
 
-        return true;
+        return Temperature.isInRange(tenths) ? VALID : ERROR_OUT_OF_RANGE;
     }
 
     /**
-     * Validate PRO Number (exactly 10 digits)
+     * Describe a check* result code (for logging/diagnostics, not the hot path)
      */
-    public static boolean isValidProNumber(String input) {
-        if (input == null || input.trim().isEmpty()) {
-            Log.w(TAG, "PRO number is empty");
-            return false;
+    public static String describeError(int code) {
+        switch (code) {
+            case VALID:
+                return "Valid";
+            case ERROR_EMPTY:
+                return "Value is empty";
+            case ERROR_NOT_NUMERIC:
+                return "Value is not numeric";
+            case ERROR_INVALID_CHARACTERS:
+                return "Value contains invalid characters";
+            case ERROR_WRONG_LENGTH:
+                return "Value has the wrong length";
+            case ERROR_OUT_OF_RANGE:
+                return "Value is out of range";
+            case ERROR_UNKNOWN_CARRIER:
+                return "Unknown carrier prefix";
+            case ERROR_CHECK_DIGIT:
+                return "Check digit does not match";
+            default:
+                return "Unknown validation error: " + code;
         }
+    }
 
-        String trimmed = input.trim();
-        
-        // Must be exactly 10 digits
-        if (!trimmed.matches("\\d{10}")) {
-            Log.w(TAG, "PRO number must be exactly 10 digits: " + trimmed);
-            return false;
+    private static int checkDigits(CharSequence input) {
+        if (input == null) {
+            return ERROR_EMPTY;
         }
 
-        return true;
+        int start = trimStart(input);
+        int end = trimEnd(input, start);
+        if (start == end) {
+            return ERROR_EMPTY;
+        }
+
+        for (int i = start; i < end; i++) {
+            if (!isAsciiDigit(input.charAt(i))) {
+                return ERROR_NOT_NUMERIC;
+            }
+        }
+
+        return VALID;
+    }
+
+    /**
+     * Index of the first character String.trim() would keep
+     */
+    private static int trimStart(CharSequence input) {
+        int start = 0;
+        int length = input.length();
+        while (start < length && input.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    /**
+     * Index after the last character String.trim() would keep
+     */
+    private static int trimEnd(CharSequence input, int start) {
+        int end = input.length();
+        while (end > start && input.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
     }
 
     /**
@@ -115,8 +249,9 @@ public class ValidationHelper {
                 return false;
             }
             
-            if (count > 999) {
-                Log.w(TAG, "Pallet count too large (max 999): " + count);
+            int max = ValidationLimits.current().maxPalletCount;
+            if (count > max) {
+                Log.w(TAG, "Pallet count too large (max " + max + "): " + count);
                 return false;
             }
 
@@ -129,31 +264,11 @@ public class ValidationHelper {
     }
 
     /**
-     * Validate temperature (range: -15 to 35 Fahrenheit)
-     * Accepts negative numbers and decimals
+     * Validate temperature (configured range, -15 to 35 Fahrenheit by default)
+     * Accepts negative numbers and decimals to one place
      */
     public static boolean isValidTemperature(String input) {
-        if (input == null || input.trim().isEmpty()) {
-            Log.w(TAG, "Temperature is empty");
-            return false;
-        }
-
-        try {
-            // Parse as double to handle decimals
-            double temp = Double.parseDouble(input.trim());
-            
-            if (temp < TEMP_MIN || temp > TEMP_MAX) {
-                Log.w(TAG, "Temperature out of range (" + TEMP_MIN + " to " + 
-                      TEMP_MAX + "): " + temp);
-                return false;
-            }
-
-            return true;
-            
-        } catch (NumberFormatException e) {
-            Log.w(TAG, "Temperature is not a valid number: " + input);
-            return false;
-        }
+        return checkTemperature(input) == VALID;
     }
 
     /**
@@ -173,8 +288,9 @@ public class ValidationHelper {
                 return false;
             }
             
-            if (height > 999) {
-                Log.w(TAG, "Pallet height too large (max 999): " + height);
+            int max = ValidationLimits.current().maxPalletHeight;
+            if (height > max) {
+                Log.w(TAG, "Pallet height too large (max " + max + "): " + height);
                 return false;
             }
 
@@ -203,8 +319,9 @@ public class ValidationHelper {
                 return false;
             }
             
-            if (quantity > 9999) {
-                Log.w(TAG, "Quantity too large (max 9999): " + quantity);
+            int max = ValidationLimits.current().maxQuantity;
+            if (quantity > max) {
+                Log.w(TAG, "Quantity too large (max " + max + "): " + quantity);
                 return false;
             }
 
@@ -225,12 +342,12 @@ public class ValidationHelper {
             return "";
         }
 
-        String trimmed = temp.trim();
-        
-        // Remove any existing degree symbols or F
-        trimmed = trimmed.replace("°F", "").replace("°", "").replace("F", "").trim();
-        
-        return trimmed + "°F";
+        int tenths = Temperature.parseTenthsIgnoringUnit(temp);
+        if (tenths != Temperature.INVALID) {
+            return Temperature.toDisplayString(tenths);
+        }
+
+        return stripTemperatureUnit(temp) + "°F";
     }
 
     /**
@@ -242,12 +359,19 @@ public class ValidationHelper {
             return "";
         }
 
-        String trimmed = temp.trim();
-        
-        // Remove any existing degree symbols or F
-        trimmed = trimmed.replace("°F", "").replace("°", "").replace("F", "").trim();
-        
-        return trimmed + "F";
+        int tenths = Temperature.parseTenthsIgnoringUnit(temp);
+        if (tenths != Temperature.INVALID) {
+            return Temperature.toExportString(tenths);
+        }
+
+        return stripTemperatureUnit(temp) + "F";
+    }
+
+    /**
+     * Remove any existing degree symbols or F (fallback for non-numeric input)
+     */
+    private static String stripTemperatureUnit(String temp) {
+        return temp.trim().replace("°F", "").replace("°", "").replace("F", "").trim();
     }
 
     /**
@@ -261,9 +385,10 @@ public class ValidationHelper {
         }
 
         String trimmed = proNumber.trim();
-        
-        if (trimmed.length() != PRO_LENGTH) {
-            Log.e(TAG, "PRO number must be exactly " + PRO_LENGTH + " digits: " + trimmed);
+        int proLength = ValidationLimits.current().proLength;
+
+        if (trimmed.length() != proLength) {
+            Log.e(TAG, "PRO number must be exactly " + proLength + " digits: " + trimmed);
             return "";
         }
 
@@ -271,19 +396,20 @@ public class ValidationHelper {
     }
 
     /**
-     * Extract PRO Erb (remaining 7 digits after prefix)
+     * Extract PRO Erb (remaining digits after prefix, 7 by default)
      * Example: "1234567890" -> "4567890"
      */
     public static String extractProErb(String proNumber) {
-        if (proNumber == null || proNumber.length() < PRO_LENGTH) {
+        int proLength = ValidationLimits.current().proLength;
+        if (proNumber == null || proNumber.length() < proLength) {
             Log.e(TAG, "Cannot extract PRO Erb from invalid PRO: " + proNumber);
             return "";
         }
 
         String trimmed = proNumber.trim();
-        
-        if (trimmed.length() != PRO_LENGTH) {
-            Log.e(TAG, "PRO number must be exactly " + PRO_LENGTH + " digits: " + trimmed);
+
+        if (trimmed.length() != proLength) {
+            Log.e(TAG, "PRO number must be exactly " + proLength + " digits: " + trimmed);
             return "";
         }
 
@@ -294,21 +420,23 @@ public class ValidationHelper {
      * Get temperature range string for display
      */
     public static String getTemperatureRangeString() {
-        return TEMP_MIN + "°F to " + TEMP_MAX + "°F";
+        ValidationLimits limits = ValidationLimits.current();
+        return Temperature.toDisplayString(limits.tempMinTenths) + " to "
+                + Temperature.toDisplayString(limits.tempMaxTenths);
     }
 
     /**
-     * Get minimum temperature
+     * Get minimum temperature (whole degrees, rounded toward zero)
      */
     public static int getMinTemperature() {
-        return TEMP_MIN;
+        return ValidationLimits.current().tempMinTenths / 10;
     }
 
     /**
-     * Get maximum temperature
+     * Get maximum temperature (whole degrees, rounded toward zero)
      */
     public static int getMaxTemperature() {
-        return TEMP_MAX;
+        return ValidationLimits.current().tempMaxTenths / 10;
     }
 
     /**
@@ -365,34 +493,36 @@ public class ValidationHelper {
      * Get validation error message for temperature
      */
     public static String getTemperatureErrorMessage() {
-        return "Temperature must be between " + TEMP_MIN + "°F and " + TEMP_MAX + "°F";
+        ValidationLimits limits = ValidationLimits.current();
+        return "Temperature must be between " + Temperature.toDisplayString(limits.tempMinTenths)
+                + " and " + Temperature.toDisplayString(limits.tempMaxTenths);
     }
 
     /**
      * Get validation error message for PRO number
      */
     public static String getProNumberErrorMessage() {
-        return "PRO number must be exactly " + PRO_LENGTH + " digits";
+        return "PRO number must be exactly " + ValidationLimits.current().proLength + " digits";
     }
 
     /**
      * Get validation error message for pallet count
      */
     public static String getPalletCountErrorMessage() {
-        return "Pallet count must be a positive number (1-999)";
+        return "Pallet count must be a positive number (1-" + ValidationLimits.current().maxPalletCount + ")";
     }
 
     /**
      * Get validation error message for pallet height
      */
     public static String getPalletHeightErrorMessage() {
-        return "Pallet height must be a positive number (1-999 inches)";
+        return "Pallet height must be a positive number (1-" + ValidationLimits.current().maxPalletHeight + " inches)";
     }
 
     /**
      * Get validation error message for quantity
      */
     public static String getQuantityErrorMessage() {
-        return "Quantity must be a positive number (1-9999)";
+        return "Quantity must be a positive number (1-" + ValidationLimits.current().maxQuantity + ")";
     }
 }
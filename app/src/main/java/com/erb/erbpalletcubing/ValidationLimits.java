@@ -0,0 +1,203 @@
+package com.erb.erbpalletcubing;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * ValidationLimits - Immutable snapshot of the per-terminal validation limits
+ * Freezer and cooler docks need different ranges, so limits come from a
+ * properties file instead of constants. Validators read current() once per
+ * call without locking; reload() parses a new snapshot and swaps the volatile
+ * reference, so a validation never sees a mix of old and new limits.
+ *
+ * File format (any key may be omitted to keep its default):
+ *   temp.min=-15
+ *   temp.max=35
+ *   pro.length=10
+ *   pallet.count.max=999
+ *   pallet.height.max=999
+ *   quantity.max=9999
+ *
+ * Only a pro.length of ProNumber.LENGTH packs into PRO_Number_Packed and the
+ * manifest index. With any other length that column stays NULL, so
+ * DatabaseHelper matches those PROs on PRO_Number_Incoming instead.
+ */
+public final class ValidationLimits {
+
+    private static final String TAG = "ValidationLimits";
+
+    public static final String CONFIG_FILE_NAME = "validation_limits.properties";
+
+    public static final String KEY_TEMP_MIN = "temp.min";
+    public static final String KEY_TEMP_MAX = "temp.max";
+    public static final String KEY_PRO_LENGTH = "pro.length";
+    public static final String KEY_PALLET_COUNT_MAX = "pallet.count.max";
+    public static final String KEY_PALLET_HEIGHT_MAX = "pallet.height.max";
+    public static final String KEY_QUANTITY_MAX = "quantity.max";
+
+    // A PRO must keep its 3-digit prefix plus at least one digit, and fit in a long
+    private static final int PRO_LENGTH_MIN = 4;
+    static final int PRO_LENGTH_MAX = 18;
+
+    /**
+     * Compiled-in limits, used until a config file is loaded
+     */
+    public static final ValidationLimits DEFAULTS = new ValidationLimits(-150, 350, 10, 999, 999, 9999);
+
+    private static volatile ValidationLimits current = DEFAULTS;
+    private static long loadedModified;
+
+    public final int tempMinTenths;  // Tenths of a degree F
+    public final int tempMaxTenths;
+    public final int proLength;
+    public final int maxPalletCount;
+    public final int maxPalletHeight;
+    public final int maxQuantity;
+
+    public ValidationLimits(int tempMinTenths, int tempMaxTenths, int proLength,
+                            int maxPalletCount, int maxPalletHeight, int maxQuantity) {
+        if (tempMinTenths > tempMaxTenths) {
+            throw new IllegalArgumentException("temp.min is above temp.max");
+        }
+        if (proLength < PRO_LENGTH_MIN || proLength > PRO_LENGTH_MAX) {
+            throw new IllegalArgumentException("pro.length must be " + PRO_LENGTH_MIN + "-" + PRO_LENGTH_MAX);
+        }
+        if (maxPalletCount < 1 || maxPalletHeight < 1 || maxQuantity < 1) {
+            throw new IllegalArgumentException("Maximums must be positive");
+        }
+        this.tempMinTenths = tempMinTenths;
+        this.tempMaxTenths = tempMaxTenths;
+        this.proLength = proLength;
+        this.maxPalletCount = maxPalletCount;
+        this.maxPalletHeight = maxPalletHeight;
+        this.maxQuantity = maxQuantity;
+    }
+
+    /**
+     * Whether PROs of this length fit ProNumber (the packed column and manifest index)
+     */
+    public boolean packsProNumbers() {
+        return proLength == ProNumber.LENGTH;
+    }
+
+    // ==================== Published Snapshot ====================
+
+    /**
+     * Get the limits validators currently use
+     */
+    public static ValidationLimits current() {
+        return current;
+    }
+
+    /**
+     * Publish a snapshot to validators
+     */
+    public static void setCurrent(ValidationLimits limits) {
+        current = limits != null ? limits : DEFAULTS;
+    }
+
+    /**
+     * Load a config file and publish it; on error the current limits are kept
+     * @return true if the new limits were published
+     */
+    public static boolean reload(File file) {
+        try {
+            long modified = file.lastModified();
+            ValidationLimits limits = load(file);
+            synchronized (ValidationLimits.class) {
+                current = limits;
+                loadedModified = modified;
+            }
+            Log.d(TAG, "Validation limits loaded from " + file + ": " + limits);
+            if (!limits.packsProNumbers()) {
+                Log.w(TAG, "PROs of " + limits.proLength + " digits don't pack; PRO lookups use the text column"
+                        + " and manifest entries for them are skipped");
+            }
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            Log.e(TAG, "Error loading validation limits: " + e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Reload only if the file changed since the last successful reload
+     */
+    public static boolean reloadIfModified(File file) {
+        synchronized (ValidationLimits.class) {
+            if (!file.exists() || file.lastModified() == loadedModified) {
+                return false;
+            }
+        }
+        return reload(file);
+    }
+
+    // ==================== Loading ====================
+
+    /**
+     * Parse a config file without publishing it
+     */
+    public static ValidationLimits load(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            return parse(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Parse config from a stream without publishing it
+     * @throws IllegalArgumentException if a value is malformed or inconsistent
+     */
+    public static ValidationLimits parse(InputStream in) throws IOException {
+        Properties properties = new Properties();
+        properties.load(in);
+
+        return new ValidationLimits(
+                readTenths(properties, KEY_TEMP_MIN, DEFAULTS.tempMinTenths),
+                readTenths(properties, KEY_TEMP_MAX, DEFAULTS.tempMaxTenths),
+                readInt(properties, KEY_PRO_LENGTH, DEFAULTS.proLength),
+                readInt(properties, KEY_PALLET_COUNT_MAX, DEFAULTS.maxPalletCount),
+                readInt(properties, KEY_PALLET_HEIGHT_MAX, DEFAULTS.maxPalletHeight),
+                readInt(properties, KEY_QUANTITY_MAX, DEFAULTS.maxQuantity));
+    }
+
+    private static int readTenths(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        int tenths = Temperature.parseTenths(value);
+        if (tenths == Temperature.INVALID) {
+            throw new IllegalArgumentException("Invalid " + key + ": " + value);
+        }
+        return tenths;
+    }
+
+    private static int readInt(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + key + ": " + value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "temp " + Temperature.toPlainString(tempMinTenths) + " to " + Temperature.toPlainString(tempMaxTenths)
+                + ", PRO length " + proLength
+                + ", max pallets " + maxPalletCount
+                + ", max height " + maxPalletHeight
+                + ", max quantity " + maxQuantity;
+    }
+}
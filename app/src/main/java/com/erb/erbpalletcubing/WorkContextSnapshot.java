@@ -0,0 +1,289 @@
+package com.erb.erbpalletcubing;
+
+import android.util.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.CRC32;
+
+/**
+ * WorkContextSnapshot - Complete work context captured at one instant
+ * Covers login, current trailer/PRO, pallet index, temperatures and the
+ * resume point (screen plus the in-progress pallet draft). The binary form is
+ * versioned and checksummed; files are written to a temp file and renamed, so
+ * a reader sees either the previous snapshot or the new one, and restored
+ * with a single read.
+ * Get one from SessionManager.snapshot() and apply it with SessionManager.restore().
+ */
+public final class WorkContextSnapshot {
+
+    private static final String TAG = "WorkContextSnapshot";
+
+    public static final String FILE_NAME = "work_context.snapshot";
+
+    private static final int MAGIC = 0x45525743;  // "ERWC"
+    private static final byte FORMAT_VERSION = 1;
+    private static final int CRC_SIZE = 4;
+
+    // Anything larger than this is not a snapshot we wrote
+    static final int MAX_SIZE = 256 * 1024;
+
+    private static final int FLAG_LOGGED_IN = 1;
+    private static final int FLAG_RESUME = 2;
+
+    final boolean loggedIn;
+    final String terminalId;
+    final String receiverId;
+    final String trailer;
+    final String proNumber;
+    final int palletIndex;
+    final int expectedPallets;
+    final String freightType;
+    final String temp1;
+    final String temp2;
+    final ResumeState resume;
+
+    WorkContextSnapshot(boolean loggedIn, String terminalId, String receiverId, String trailer,
+                        String proNumber, int palletIndex, int expectedPallets, String freightType,
+                        String temp1, String temp2, ResumeState resume) {
+        this.loggedIn = loggedIn;
+        this.terminalId = terminalId;
+        this.receiverId = receiverId;
+        this.trailer = trailer;
+        this.proNumber = proNumber;
+        this.palletIndex = palletIndex;
+        this.expectedPallets = expectedPallets;
+        this.freightType = freightType;
+        this.temp1 = temp1;
+        this.temp2 = temp2;
+        this.resume = resume;
+    }
+
+    public boolean isLoggedIn() {
+        return loggedIn;
+    }
+
+    public String getTrailer() {
+        return trailer;
+    }
+
+    public String getProNumber() {
+        return proNumber;
+    }
+
+    public int getPalletIndex() {
+        return palletIndex;
+    }
+
+    /**
+     * Get the resume point and pallet draft, or null if there is none
+     */
+    public ResumeState getResume() {
+        return resume;
+    }
+
+    // ==================== Serialization ====================
+
+    /**
+     * Serialize to the versioned binary form, ending in a CRC32 of everything before it
+     */
+    public byte[] toBytes() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            out.writeByte((loggedIn ? FLAG_LOGGED_IN : 0) | (resume != null ? FLAG_RESUME : 0));
+            writeNullable(out, terminalId);
+            writeNullable(out, receiverId);
+            writeNullable(out, trailer);
+            writeNullable(out, proNumber);
+            out.writeInt(palletIndex);
+            out.writeInt(expectedPallets);
+            writeNullable(out, freightType);
+            writeNullable(out, temp1);
+            writeNullable(out, temp2);
+            if (resume != null) {
+                byte[] resumeBytes = resume.toBytes();
+                out.writeInt(resumeBytes.length);
+                out.write(resumeBytes);
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeInt((int) crc.getValue());
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            // Only thrown for strings over 64 KB of UTF-8
+            throw new IllegalStateException("Work context too large to serialize", e);
+        }
+    }
+
+    /**
+     * Parse the output of toBytes()
+     * @return Snapshot, or null if the data is missing, corrupt or from another version
+     */
+    public static WorkContextSnapshot fromBytes(byte[] data) {
+        if (data == null || data.length < 6 + CRC_SIZE || data.length > MAX_SIZE) {
+            return null;
+        }
+
+        int bodyLength = data.length - CRC_SIZE;
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, bodyLength);
+        int storedCrc = ((data[bodyLength] & 0xFF) << 24) | ((data[bodyLength + 1] & 0xFF) << 16)
+                | ((data[bodyLength + 2] & 0xFF) << 8) | (data[bodyLength + 3] & 0xFF);
+        if ((int) crc.getValue() != storedCrc) {
+            return null;
+        }
+
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, 0, bodyLength));
+            if (in.readInt() != MAGIC || in.readByte() != FORMAT_VERSION) {
+                return null;
+            }
+
+            int flags = in.readUnsignedByte();
+            String terminalId = readNullable(in);
+            String receiverId = readNullable(in);
+            String trailer = readNullable(in);
+            String proNumber = readNullable(in);
+            int palletIndex = in.readInt();
+            int expectedPallets = in.readInt();
+            String freightType = readNullable(in);
+            String temp1 = readNullable(in);
+            String temp2 = readNullable(in);
+
+            ResumeState resume = null;
+            if ((flags & FLAG_RESUME) != 0) {
+                int length = in.readInt();
+                if (length <= 0 || length > in.available()) {
+                    return null;
+                }
+                byte[] resumeBytes = new byte[length];
+                in.readFully(resumeBytes);
+                resume = ResumeState.fromBytes(resumeBytes);
+                if (resume == null) {
+                    return null;
+                }
+            }
+
+            if (in.available() != 0) {
+                return null;
+            }
+
+            return new WorkContextSnapshot((flags & FLAG_LOGGED_IN) != 0, terminalId, receiverId,
+                    trailer, proNumber, palletIndex, expectedPallets, freightType, temp1, temp2, resume);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // ==================== Files ====================
+
+    /**
+     * Write atomically: temp file, sync, then rename over the previous snapshot
+     */
+    public void writeTo(File file) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        FileOutputStream out = new FileOutputStream(temp);
+        try {
+            out.write(toBytes());
+            out.getFD().sync();
+        } finally {
+            out.close();
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Failed to rename " + temp + " to " + file);
+        }
+    }
+
+    /**
+     * Read a snapshot with one read of the whole file
+     * @return Snapshot, or null if there is none or it can't be used
+     */
+    public static WorkContextSnapshot readFrom(File file) {
+        long length = file.length();
+        if (length == 0 || length > MAX_SIZE) {
+            return null;
+        }
+
+        try {
+            FileInputStream in = new FileInputStream(file);
+            try {
+                byte[] data = new byte[(int) length];
+                int read = 0;
+                while (read < data.length) {
+                    int count = in.read(data, read, data.length - read);
+                    if (count < 0) {
+                        return null;
+                    }
+                    read += count;
+                }
+                WorkContextSnapshot snapshot = fromBytes(data);
+                if (snapshot == null) {
+                    Log.e(TAG, "Ignoring corrupt work context snapshot: " + file);
+                }
+                return snapshot;
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Error reading work context snapshot: " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof WorkContextSnapshot)) {
+            return false;
+        }
+        WorkContextSnapshot that = (WorkContextSnapshot) other;
+        return loggedIn == that.loggedIn
+                && equal(terminalId, that.terminalId)
+                && equal(receiverId, that.receiverId)
+                && equal(trailer, that.trailer)
+                && equal(proNumber, that.proNumber)
+                && palletIndex == that.palletIndex
+                && expectedPallets == that.expectedPallets
+                && equal(freightType, that.freightType)
+                && equal(temp1, that.temp1)
+                && equal(temp2, that.temp2)
+                && (resume == null ? that.resume == null : resume.equals(that.resume));
+    }
+
+    @Override
+    public int hashCode() {
+        return (proNumber != null ? proNumber.hashCode() : 0) * 31 + palletIndex;
+    }
+
+    @Override
+    public String toString() {
+        return "WorkContextSnapshot{loggedIn=" + loggedIn + ", trailer=" + trailer + ", pro=" + proNumber
+                + ", pallet=" + palletIndex + "/" + expectedPallets + ", resume=" + resume + "}";
+    }
+
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
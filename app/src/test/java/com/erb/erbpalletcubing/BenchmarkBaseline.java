@@ -0,0 +1,142 @@
+package com.erb.erbpalletcubing;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BenchmarkBaseline - Stored benchmark results and the regression check against them
+ * Uses the PerfDiagnostics report format, so a report pulled from a device
+ * reads the same way. A workload regresses when its p50 or p95 is more than
+ * tolerance times the baseline and at least MIN_REGRESSION_US slower; the
+ * floor keeps timer noise on sub-millisecond workloads from failing a run.
+ * The "# key=value" header lines (jvm, os, cpus) name the machine the
+ * numbers were recorded on.
+ */
+final class BenchmarkBaseline {
+
+    static final double DEFAULT_TOLERANCE = 1.5;
+    static final double MIN_REGRESSION_US = 50;
+
+    private static final int COLUMN_P50 = 2;
+    private static final int COLUMN_P95 = 3;
+
+    private static final Pattern HEADER_LINE = Pattern.compile("#\\s*([A-Za-z_.]+)=(.*)");
+
+    // Workload -> {p50_us, p95_us}
+    private final Map<String, double[]> workloads = new LinkedHashMap<>();
+    private final Map<String, String> header = new LinkedHashMap<>();
+
+    private BenchmarkBaseline() {
+    }
+
+    static BenchmarkBaseline parse(String report) {
+        BenchmarkBaseline baseline = new BenchmarkBaseline();
+        for (String line : report.split("\n")) {
+            line = line.trim();
+            if (line.startsWith("#")) {
+                Matcher matcher = HEADER_LINE.matcher(line);
+                if (matcher.matches()) {
+                    baseline.header.put(matcher.group(1), matcher.group(2).trim());
+                }
+                continue;
+            }
+            if (line.isEmpty() || line.equals(PerfDiagnostics.CSV_HEADER)) {
+                continue;
+            }
+            String[] columns = line.split(",");
+            if (columns.length <= COLUMN_P95) {
+                throw new IllegalArgumentException("Bad baseline row: " + line);
+            }
+            baseline.workloads.put(columns[0], new double[]{
+                    Double.parseDouble(columns[COLUMN_P50]), Double.parseDouble(columns[COLUMN_P95])});
+        }
+        return baseline;
+    }
+
+    /**
+     * Read a stored baseline
+     * @return Baseline, or null if the file doesn't exist yet
+     */
+    static BenchmarkBaseline read(File file) throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+        return parse(new String(Files.readAllBytes(file.toPath()), "UTF-8"));
+    }
+
+    /**
+     * Store results as the new baseline, replacing the old one
+     */
+    static void write(File file, Map<String, String> header, List<PerfDiagnostics.Result> results) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writer.write(PerfDiagnostics.formatReport(header, results));
+        } finally {
+            writer.close();
+        }
+    }
+
+    boolean contains(String workload) {
+        return workloads.containsKey(workload);
+    }
+
+    /**
+     * Get a header value (e.g. "jvm"), null if the baseline doesn't have it
+     */
+    String getHeader(String key) {
+        return header.get(key);
+    }
+
+    /**
+     * @return Names of the results the baseline has no numbers for
+     */
+    List<String> findMissing(List<PerfDiagnostics.Result> results) {
+        List<String> missing = new ArrayList<>();
+        for (PerfDiagnostics.Result result : results) {
+            if (!workloads.containsKey(result.name)) {
+                missing.add(result.name);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Compare results with the baseline; workloads it doesn't have are skipped (see findMissing)
+     * @return One message per regressed percentile, empty if none
+     */
+    List<String> findRegressions(List<PerfDiagnostics.Result> results, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        for (PerfDiagnostics.Result result : results) {
+            double[] expected = workloads.get(result.name);
+            if (expected == null) {
+                continue;
+            }
+            check(regressions, result.name, "p50", expected[0], result.stats.percentileNanos(50) / 1000.0, tolerance);
+            check(regressions, result.name, "p95", expected[1], result.stats.percentileNanos(95) / 1000.0, tolerance);
+        }
+        return regressions;
+    }
+
+    private static void check(List<String> regressions, String workload, String percentile,
+                              double baselineUs, double actualUs, double tolerance) {
+        if (actualUs > baselineUs * tolerance && actualUs - baselineUs >= MIN_REGRESSION_US) {
+            regressions.add(String.format(Locale.US, "%s %s %.1f us, baseline %.1f us (x%.2f)",
+                    workload, percentile, actualUs, baselineUs, actualUs / baselineUs));
+        }
+    }
+}
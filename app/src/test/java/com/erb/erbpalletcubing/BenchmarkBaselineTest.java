@@ -0,0 +1,91 @@
+package com.erb.erbpalletcubing;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * BenchmarkBaselineTest - Local unit tests for the stored-baseline regression check
+ */
+public class BenchmarkBaselineTest {
+
+    private static PerfDiagnostics.Result result(String name, long micros) {
+        LatencyStats stats = new LatencyStats();
+        for (int i = 0; i < 20; i++) {
+            stats.add(micros * 1000);
+        }
+        return new PerfDiagnostics.Result(name, stats);
+    }
+
+    @Test
+    public void roundTrip_throughReportFormat() throws Exception {
+        File file = new File(Files.createTempDirectory("baseline").toFile(), "nested/database.csv");
+        List<PerfDiagnostics.Result> results = Arrays.asList(result("db.insert@10000", 200), result("db.count@10000", 80));
+
+        BenchmarkBaseline.write(file, Collections.singletonMap("rows", "10000"), results);
+        BenchmarkBaseline baseline = BenchmarkBaseline.read(file);
+
+        assertTrue(baseline.contains("db.insert@10000"));
+        assertTrue(baseline.contains("db.count@10000"));
+        assertTrue(baseline.findRegressions(results, BenchmarkBaseline.DEFAULT_TOLERANCE).isEmpty());
+        file.delete();
+    }
+
+    @Test
+    public void read_missingFile_returnsNull() throws Exception {
+        assertNull(BenchmarkBaseline.read(new File("/nonexistent/baseline.csv")));
+    }
+
+    @Test
+    public void regression_needsRatioAndAbsoluteSlowdown() {
+        BenchmarkBaseline baseline = BenchmarkBaseline.parse("# rows=10000\n" + PerfDiagnostics.CSV_HEADER + "\n"
+                + "db.insert,20,200.0,300.0,350.0,400.0,210.0,4700.0\n"
+                + "db.count,20,10.0,12.0,14.0,15.0,11.0,90000.0\n");
+
+        // 3x slower on a 10 us workload is still under the 50 us floor
+        List<String> regressions = baseline.findRegressions(Arrays.asList(
+                result("db.insert", 290), result("db.count", 30), result("db.unknown", 100000)),
+                BenchmarkBaseline.DEFAULT_TOLERANCE);
+        assertTrue(regressions.toString(), regressions.isEmpty());
+
+        regressions = baseline.findRegressions(Collections.singletonList(result("db.insert", 500)),
+                BenchmarkBaseline.DEFAULT_TOLERANCE);
+        assertEquals(2, regressions.size());
+        assertTrue(regressions.get(0), regressions.get(0).startsWith("db.insert p50 500.0 us, baseline 200.0 us"));
+        assertTrue(regressions.get(1), regressions.get(1).startsWith("db.insert p95"));
+    }
+
+    @Test
+    public void parse_readsMachineHeaderAndReportsMissingWorkloads() {
+        BenchmarkBaseline baseline = BenchmarkBaseline.parse("# Recorded with -PdbBenchmarkRecord=true\n"
+                + "# jvm=OpenJDK 64-Bit Server VM 17.0.9\n# cpus=8\n" + PerfDiagnostics.CSV_HEADER + "\n"
+                + "db.insert,20,200.0,300.0,350.0,400.0,210.0,4700.0\n");
+
+        assertEquals("OpenJDK 64-Bit Server VM 17.0.9", baseline.getHeader("jvm"));
+        assertEquals("8", baseline.getHeader("cpus"));
+        assertNull(baseline.getHeader("os"));
+        assertEquals(Collections.singletonList("db.count"),
+                baseline.findMissing(Arrays.asList(result("db.insert", 200), result("db.count", 10))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse_truncatedRow_throws() {
+        BenchmarkBaseline.parse("db.insert,20,200.0\n");
+    }
+
+    @Test
+    public void parse_skipsHeaderLines() {
+        Map<String, String> none = Collections.emptyMap();
+        BenchmarkBaseline baseline = BenchmarkBaseline.parse(PerfDiagnostics.formatReport(none,
+                Collections.singletonList(result("db.delete", 100))));
+        assertTrue(baseline.contains("db.delete"));
+        assertFalse(baseline.contains(PerfDiagnostics.CSV_HEADER.split(",")[0]));
+    }
+}
@@ -0,0 +1,136 @@
+package com.erb.erbpalletcubing;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * CarrierPrefixTableTest - Local unit tests for carrier prefix membership and check digits
+ */
+public class CarrierPrefixTableTest {
+
+    private static final String TABLE =
+            "# Known carriers\n"
+            + "123\n"
+            + "456,MOD7\n"
+            + "789, LUHN  # trailing comment\n"
+            + "007\n";
+
+    @After
+    public void tearDown() {
+        CarrierPrefixTable.setCurrent(CarrierPrefixTable.ALLOW_ALL);
+    }
+
+    @Test
+    public void defaultTable_acceptsAnyPrefix() {
+        assertTrue(CarrierPrefixTable.current().isKnown(0));
+        assertTrue(CarrierPrefixTable.current().isKnown(999));
+        assertEquals(ValidationHelper.VALID, ValidationHelper.checkProNumber("9990000000"));
+    }
+
+    @Test
+    public void parsedTable_knowsOnlyListedPrefixes() throws IOException {
+        CarrierPrefixTable table = parse(TABLE);
+        assertEquals(4, table.size());
+        for (int prefix = 0; prefix < 1000; prefix++) {
+            boolean listed = prefix == 123 || prefix == 456 || prefix == 789 || prefix == 7;
+            assertEquals(String.valueOf(prefix), listed, table.isKnown(prefix));
+        }
+        assertFalse(table.isKnown(-1));
+        assertFalse(table.isKnown(1000));
+    }
+
+    @Test
+    public void checkProNumber_appliesPublishedTable() throws IOException {
+        CarrierPrefixTable.setCurrent(parse(TABLE));
+
+        assertEquals(ValidationHelper.VALID, ValidationHelper.checkProNumber("1234567890"));
+        assertEquals(ValidationHelper.VALID, ValidationHelper.checkProNumber("0070000001"));
+        assertEquals(ValidationHelper.ERROR_UNKNOWN_CARRIER, ValidationHelper.checkProNumber("5554567890"));
+        assertFalse(ValidationHelper.isValidProNumber("5554567890"));
+
+        String mod7 = withMod7("456123456");
+        assertEquals(ValidationHelper.VALID, ValidationHelper.checkProNumber(mod7));
+        assertEquals(ValidationHelper.ERROR_CHECK_DIGIT, ValidationHelper.checkProNumber(withWrongLastDigit(mod7)));
+
+        String luhn = withLuhn("789000123");
+        assertEquals(ValidationHelper.VALID, ValidationHelper.checkProNumber(" " + luhn + " "));
+        assertEquals(ValidationHelper.ERROR_CHECK_DIGIT, ValidationHelper.checkProNumber(withWrongLastDigit(luhn)));
+    }
+
+    @Test
+    public void badLines_areRejected() {
+        String[] bad = {"12\n", "1234\n", "12a\n", "123,MOD97\n"};
+        for (String table : bad) {
+            try {
+                parse(table);
+                fail("Accepted " + table);
+            } catch (IOException expected) {
+                // Expected
+            }
+        }
+    }
+
+    @Test
+    public void reload_swapsTableAndKeepsOldOneOnError() throws IOException {
+        File file = File.createTempFile("carriers", ".txt");
+        try {
+            write(file, "123\n");
+            assertTrue(CarrierPrefixTable.reload(file));
+            assertEquals(1, CarrierPrefixTable.current().size());
+
+            write(file, "not a prefix\n");
+            assertFalse(CarrierPrefixTable.reload(file));
+            assertEquals(1, CarrierPrefixTable.current().size());
+            assertTrue(CarrierPrefixTable.current().isKnown(123));
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static CarrierPrefixTable parse(String table) throws IOException {
+        return CarrierPrefixTable.parse(new ByteArrayInputStream(table.getBytes("UTF-8")));
+    }
+
+    private static void write(File file, String content) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+
+    private static String withMod7(String base) {
+        return base + (Long.parseLong(base) % 7);
+    }
+
+    private static String withLuhn(String base) {
+        for (int check = 0; check < 10; check++) {
+            String candidate = base + check;
+            int sum = 0;
+            for (int i = 0; i < candidate.length(); i++) {
+                int digit = candidate.charAt(candidate.length() - 1 - i) - '0';
+                if (i % 2 == 1) {
+                    digit = digit * 2 > 9 ? digit * 2 - 9 : digit * 2;
+                }
+                sum += digit;
+            }
+            if (sum % 10 == 0) {
+                return candidate;
+            }
+        }
+        throw new AssertionError("No Luhn digit for " + base);
+    }
+
+    private static String withWrongLastDigit(String pro) {
+        char last = pro.charAt(pro.length() - 1);
+        return pro.substring(0, pro.length() - 1) + (last == '9' ? '8' : (char) (last + 1));
+    }
+}
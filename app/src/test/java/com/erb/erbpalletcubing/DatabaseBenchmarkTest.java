@@ -0,0 +1,237 @@
+package com.erb.erbpalletcubing;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * DatabaseBenchmarkTest - DatabaseHelper latency at 10k-1M rows on a plain JVM
+ * Only runs when row counts are passed in (see app/build.gradle):
+ *   ./gradlew :app:testDebugUnitTest --tests '*DatabaseBenchmarkTest' -PdbBenchmark=10000,100000,1000000
+ * Each size is seeded in batched transactions, then inserts, trailer queries,
+ * both count queries and the deletes are timed against it. Results and
+ * histograms go to build/reports/dbBenchmark; results are compared with the
+ * committed baseline and the test fails on a regression, or when the
+ * baseline is missing or has no numbers for a workload. Only
+ * -PdbBenchmarkRecord=true stores the run as the new baseline, with the
+ * JVM, OS and CPU count in its header. Timings are from host SQLite, so
+ * only compare them with a baseline recorded on the same machine.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)  // Real SQLite built for the host, not the legacy sqlite4java shim
+public class DatabaseBenchmarkTest {
+
+    private static final String DATABASE_NAME = "benchmark.db";
+    private static final int INSERT_OPS = 1000;
+    private static final int QUERY_OPS = 100;
+    private static final int WARMUP_OPS = 5;
+    private static final int SEED_BATCH = 10000;
+    private static final String RECORD_HINT =
+            "record one on the reference machine with -PdbBenchmarkRecord=true and commit it";
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+    }
+
+    @Test
+    public void dataLayer_staysWithinBaseline() throws Exception {
+        String rowCounts = System.getProperty("dbBenchmark.rows", "").trim();
+        assumeTrue("Pass -PdbBenchmark=<rows,...> to run", !rowCounts.isEmpty());
+
+        List<PerfDiagnostics.Result> results = new ArrayList<>();
+        for (String rows : rowCounts.split(",")) {
+            results.addAll(runAtSize(Integer.parseInt(rows.trim())));
+        }
+
+        Map<String, String> header = new LinkedHashMap<>();
+        header.put("rows", rowCounts);
+        header.put("jvm", System.getProperty("java.vm.name") + " " + System.getProperty("java.version"));
+        header.put("os", System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+        header.put("cpus", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        header.put("time", new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US).format(new Date()));
+        writeReports(header, results);
+
+        File baselineFile = new File(System.getProperty("dbBenchmark.baseline", "benchmark-baselines/database.csv"));
+        if (Boolean.getBoolean("dbBenchmark.record")) {
+            BenchmarkBaseline.write(baselineFile, header, results);
+            return;
+        }
+        BenchmarkBaseline baseline = BenchmarkBaseline.read(baselineFile);
+        assertNotNull("No baseline at " + baselineFile + "; " + RECORD_HINT, baseline);
+
+        List<String> missing = baseline.findMissing(results);
+        assertTrue("No baseline numbers in " + baselineFile + " for:\n" + join(missing) + RECORD_HINT,
+                missing.isEmpty());
+
+        String tolerance = System.getProperty("dbBenchmark.tolerance", "").trim();
+        List<String> regressions = baseline.findRegressions(results,
+                tolerance.isEmpty() ? BenchmarkBaseline.DEFAULT_TOLERANCE : Double.parseDouble(tolerance));
+        assertTrue("Slower than " + baselineFile + " (recorded on " + baseline.getHeader("jvm") + ", "
+                + baseline.getHeader("os") + ", " + baseline.getHeader("cpus") + " cpus):\n" + join(regressions),
+                regressions.isEmpty());
+    }
+
+    /**
+     * Seed rows pallets (PerfDiagnostics.PALLETS_PER_TRAILER per trailer and PRO), then time each workload
+     */
+    private List<PerfDiagnostics.Result> runAtSize(final int rows) throws Exception {
+        context.deleteDatabase(DATABASE_NAME);
+        final DatabaseHelper db = new DatabaseHelper(context, DATABASE_NAME);
+        try {
+            final int trailers = Math.max(1, rows / PerfDiagnostics.PALLETS_PER_TRAILER);
+            final String suffix = "@" + rows;
+            List<PerfDiagnostics.Result> results = new ArrayList<>();
+            results.add(PerfDiagnostics.measure("db.seed" + suffix, 0, 1, new PerfDiagnostics.Operation() {
+                @Override
+                public void run(int index) {
+                    seed(db, trailers);
+                }
+            }));
+
+            // Spread the timed trailers over the whole table
+            final int stride = Math.max(1, trailers / QUERY_OPS);
+
+            results.add(PerfDiagnostics.measure("db.insert" + suffix, 0, INSERT_OPS, new PerfDiagnostics.Operation() {
+                @Override
+                public void run(int index) throws IOException {
+                    if (insert(db, trailers + index / PerfDiagnostics.PALLETS_PER_TRAILER,
+                            index % PerfDiagnostics.PALLETS_PER_TRAILER + 1) == -1) {
+                        throw new IOException("Insert failed at " + index);
+                    }
+                }
+            }));
+
+            results.add(PerfDiagnostics.measure("db.queryTrailer" + suffix, WARMUP_OPS, QUERY_OPS, new PerfDiagnostics.Operation() {
+                @Override
+                public void run(int index) throws IOException {
+                    if (db.getRecordsByTrailer(PerfDiagnostics.trailerFor(index * stride % trailers)).isEmpty()) {
+                        throw new IOException("No records for trailer " + index * stride);
+                    }
+                }
+            }));
+
+            results.add(PerfDiagnostics.measure("db.countTrailer" + suffix, WARMUP_OPS, QUERY_OPS, new PerfDiagnostics.Operation() {
+                @Override
+                public void run(int index) {
+                    db.getRecordCountByTrailer(PerfDiagnostics.trailerFor(index * stride % trailers));
+                }
+            }));
+
+            results.add(PerfDiagnostics.measure("db.countPro" + suffix, WARMUP_OPS, QUERY_OPS, new PerfDiagnostics.Operation() {
+                @Override
+                public void run(int index) {
+                    db.getRecordCountByPro(PerfDiagnostics.proFor(index * stride % trailers));
+                }
+            }));
+
+            results.add(PerfDiagnostics.measure("db.countProPacked" + suffix, WARMUP_OPS, QUERY_OPS, new PerfDiagnostics.Operation() {
+                @Override
+                public void run(int index) {
+                    db.getRecordCountByPro(ProNumber.parse(PerfDiagnostics.proFor(index * stride % trailers)));
+                }
+            }));
+
+            results.add(PerfDiagnostics.measure("db.deleteTrailer" + suffix, 0, QUERY_OPS, new PerfDiagnostics.Operation() {
+                @Override
+                public void run(int index) throws IOException {
+                    if (db.deleteByTrailerNumber(PerfDiagnostics.trailerFor(index * stride % trailers)) < 0) {
+                        throw new IOException("Delete failed for trailer " + index * stride);
+                    }
+                }
+            }));
+
+            results.add(PerfDiagnostics.measure("db.deleteAll" + suffix, 0, 1, new PerfDiagnostics.Operation() {
+                @Override
+                public void run(int index) {
+                    db.deleteAllRecords();
+                }
+            }));
+            assertEquals(0, db.getRecordCountByTrailer(PerfDiagnostics.trailerFor(0)));
+            return results;
+        } finally {
+            db.close();
+            context.deleteDatabase(DATABASE_NAME);
+        }
+    }
+
+    private static void seed(DatabaseHelper db, int trailers) {
+        SQLiteDatabase database = db.getWritableDatabase();
+        int inBatch = 0;
+        database.beginTransaction();
+        try {
+            for (int trailer = 0; trailer < trailers; trailer++) {
+                for (int pallet = 1; pallet <= PerfDiagnostics.PALLETS_PER_TRAILER; pallet++) {
+                    assertNotEquals(-1, insert(db, trailer, pallet));
+                    if (++inBatch == SEED_BATCH) {
+                        database.setTransactionSuccessful();
+                        database.endTransaction();
+                        database.beginTransaction();
+                        inBatch = 0;
+                    }
+                }
+            }
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+    }
+
+    private static long insert(DatabaseHelper db, int trailer, int pallet) {
+        String pro = PerfDiagnostics.proFor(trailer);
+        return db.insertPalletRecord("001", "23146", PerfDiagnostics.trailerFor(trailer), pro,
+                ValidationHelper.extractProPrefix(pro), ValidationHelper.extractProErb(pro),
+                "Fresh", "35", null, PerfDiagnostics.PALLETS_PER_TRAILER, pallet, 72, "OK",
+                null, null, null);
+    }
+
+    private static void writeReports(Map<String, String> header, List<PerfDiagnostics.Result> results) throws IOException {
+        File directory = new File(System.getProperty("dbBenchmark.output", "build/reports/dbBenchmark"));
+        BenchmarkBaseline.write(new File(directory, "results.csv"), header, results);
+
+        StringBuilder text = new StringBuilder();
+        for (PerfDiagnostics.Result result : results) {
+            text.append(result).append('\n').append(result.stats.formatHistogram()).append('\n');
+        }
+        Writer writer = new OutputStreamWriter(new FileOutputStream(new File(directory, "histograms.txt")), "UTF-8");
+        try {
+            writer.write(text.toString());
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static String join(List<String> lines) {
+        StringBuilder text = new StringBuilder();
+        for (String line : lines) {
+            text.append("  ").append(line).append('\n');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,166 @@
+package com.erb.erbpalletcubing;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * DatabaseHelperTest - Robolectric checks for the bulk insert path
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class DatabaseHelperTest {
+
+    private static final String DATABASE_NAME = "bulk_test.db";
+
+    private Context context;
+    private DatabaseHelper db;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        context.deleteDatabase(DATABASE_NAME);
+        db = new DatabaseHelper(context, DATABASE_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+        context.deleteDatabase(DATABASE_NAME);
+    }
+
+    @Test
+    public void insertRecords_storesGeneratedRowsAsTheyReadBack() {
+        int rows = DatabaseHelper.BULK_BATCH_SIZE * 2 + 17;  // Spans several transactions
+        SyntheticDataset dataset = new SyntheticDataset(21, rows);
+
+        assertEquals(rows, db.insertRecords(dataset));
+
+        // Every row of the first trailer visit reads back field for field
+        List<DatabaseHelper.CubingRecord> expected = new ArrayList<>();
+        String trailer = null;
+        for (DatabaseHelper.CubingRecord record : dataset) {
+            if (trailer == null) {
+                trailer = record.trailerNumber;
+            }
+            if (record.trailerNumber.equals(trailer)) {
+                expected.add(record);
+            }
+        }
+        List<DatabaseHelper.CubingRecord> stored = db.getRecordsByTrailer(trailer);
+        assertEquals(expected.size(), stored.size());
+        assertEquals(expected.size(), db.getRecordCountByTrailer(trailer));
+
+        List<String> expectedRows = new ArrayList<>();
+        for (DatabaseHelper.CubingRecord record : expected) {
+            expectedRows.add(RecordExporter.formatRow(record));
+        }
+        for (DatabaseHelper.CubingRecord record : stored) {
+            assertTrue(RecordExporter.formatRow(record), expectedRows.contains(RecordExporter.formatRow(record)));
+            assertEquals(ProNumber.parseValue(record.proNumberIncoming), record.proNumberPacked);
+        }
+    }
+
+    @Test
+    public void insertRecords_stopsAtInvalidTemperature() {
+        List<DatabaseHelper.CubingRecord> records = new ArrayList<>();
+        for (DatabaseHelper.CubingRecord record : new SyntheticDataset(4, 3)) {
+            records.add(record);
+        }
+        records.get(2).temp1 = "warm";
+
+        assertEquals(2, db.insertRecords(records));
+        assertEquals(0, db.insertRecords(Arrays.asList(records.get(2), records.get(0))));
+        assertEquals(2, db.getRecordCountByTrailer(records.get(0).trailerNumber));
+    }
+
+    @Test
+    public void insertRecords_stopsAtMissingRequiredField() {
+        List<DatabaseHelper.CubingRecord> records = new ArrayList<>();
+        for (DatabaseHelper.CubingRecord record : new SyntheticDataset(5, 4)) {
+            records.add(record);
+        }
+        records.get(1).condition = null;
+        records.get(3).proPrefix = null;
+
+        // Stops at the bad record; the one before it isn't rolled back
+        assertEquals(1, db.insertRecords(records));
+        assertEquals(0, db.insertRecords(records.subList(3, 4)));
+        assertEquals(1, db.getRecordCountByTrailer(records.get(0).trailerNumber));
+    }
+
+    @Test
+    public void insertRecords_storesBlankTemp2AsNull() {
+        DatabaseHelper.CubingRecord record = new SyntheticDataset(6, 1).iterator().next();
+        record.temp2 = "  ";
+
+        assertEquals(1, db.insertRecords(Arrays.asList(record)));
+
+        List<DatabaseHelper.CubingRecord> stored = db.getRecordsByTrailer(record.trailerNumber);
+        assertEquals(1, stored.size());
+        assertNull(stored.get(0).temp2);
+    }
+
+    @Test
+    public void countByPro_readsThePackedIndex() {
+        List<DatabaseHelper.CubingRecord> records = new ArrayList<>();
+        for (DatabaseHelper.CubingRecord record : new SyntheticDataset(9, 200)) {
+            records.add(record);
+        }
+        assertEquals(records.size(), db.insertRecords(records));
+
+        String pro = records.get(0).proNumberIncoming;
+        int expected = 0;
+        for (DatabaseHelper.CubingRecord record : records) {
+            if (record.proNumberIncoming.equals(pro)) {
+                expected++;
+            }
+        }
+        assertEquals(expected, db.getRecordCountByPro(pro));
+        assertEquals(expected, db.getRecordCountByPro(ProNumber.parse(pro)));
+
+        // No full scan of the table for every pallet saved
+        Cursor plan = db.getReadableDatabase().rawQuery("EXPLAIN QUERY PLAN " + DatabaseHelper.SQL_COUNT_BY_PRO_PACKED,
+                new String[]{String.valueOf(ProNumber.parseValue(pro))});
+        try {
+            StringBuilder detail = new StringBuilder();
+            while (plan.moveToNext()) {
+                detail.append(plan.getString(plan.getColumnIndex("detail"))).append('\n');
+            }
+            assertTrue(detail.toString(), detail.toString().contains(DatabaseHelper.INDEX_PRO_NUMBER_PACKED));
+        } finally {
+            plan.close();
+        }
+    }
+
+    @Test
+    public void proThatDoesNotPack_isCountedOnTheTextColumn() {
+        // pro.length=11: the packed column is NULL for these rows
+        String pro = "12345678901";
+        for (int pallet = 1; pallet <= 2; pallet++) {
+            assertNotEquals(-1, db.insertPalletRecord("001", "23146", "401252", pro, "123", "45678901",
+                    "Fresh", "35", null, 2, pallet, 72, "OK", null, null, null));
+        }
+        assertNotEquals(-1, db.insertPalletRecord("001", "23146", "401252", "1234567890", "123", "4567890",
+                "Fresh", "35", null, 1, 1, 72, "OK", null, null, null));
+
+        assertEquals(2, db.getRecordCountByPro(pro));
+        assertEquals(1, db.getRecordCountByPro("1234567890"));
+        for (DatabaseHelper.CubingRecord record : db.getRecordsByTrailer("401252")) {
+            assertEquals(record.proNumberIncoming.equals(pro), record.proNumberPacked == ProNumber.INVALID);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.erb.erbpalletcubing;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * DatabaseUpgradeTest - Robolectric checks for onUpgrade from version 1 and 2 schemas
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class DatabaseUpgradeTest {
+
+    private static final String DATABASE_NAME = "upgrade_test.db";
+
+    // CubingData as shipped in version 1: temperatures stored as entered
+    private static final String SQL_CREATE_V1 =
+            "CREATE TABLE CubingData (Timestamp TEXT NOT NULL, Terminal TEXT NOT NULL, " +
+                    "Receiver TEXT NOT NULL, TrailerNumber TEXT NOT NULL, PRO_Number_Incoming TEXT NOT NULL, " +
+                    "PRO_Prefix TEXT NOT NULL, PRO_Number_Erb TEXT NOT NULL, FreightType TEXT NOT NULL, " +
+                    "Temp1 TEXT NOT NULL, Temp2 TEXT, ExpectedPalletsPRO INTEGER NOT NULL, " +
+                    "PalletSequence INTEGER NOT NULL, PalletHeight INTEGER NOT NULL, Condition TEXT NOT NULL, " +
+                    "OSD_Reason TEXT, OSD_Quantity INTEGER, OSD_QuantityType TEXT, Status TEXT NOT NULL)";
+
+    private static final String SQL_ADD_PACKED_V2 = "ALTER TABLE CubingData ADD COLUMN PRO_Number_Packed INTEGER";
+
+    private static final String SQL_INSERT_V1 =
+            "INSERT INTO CubingData (Timestamp, Terminal, Receiver, TrailerNumber, PRO_Number_Incoming, " +
+                    "PRO_Prefix, PRO_Number_Erb, FreightType, Temp1, Temp2, ExpectedPalletsPRO, PalletSequence, " +
+                    "PalletHeight, Condition, Status) " +
+                    "VALUES ('2026-10-18 06:30:00', '001', '23146', '401252', ?, '123', '4567890', 'Dual', " +
+                    "?, ?, 4, ?, 48, 'OK', 'NEW')";
+
+    private Context context;
+    private DatabaseHelper db;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        context.deleteDatabase(DATABASE_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        if (db != null) {
+            db.close();
+        }
+        context.deleteDatabase(DATABASE_NAME);
+    }
+
+    @Test
+    public void upgradeFromVersion1_packsProAndConvertsTemperatures() {
+        SQLiteDatabase old = createOldDatabase(1);
+        insertOld(old, "1234567890", "34.5", "-10", 1);
+        insertOld(old, "1234567890", " 35F ", null, 2);
+        old.close();
+
+        db = new DatabaseHelper(context, DATABASE_NAME);
+
+        List<DatabaseHelper.CubingRecord> records = db.getRecordsByTrailer("401252");
+        assertEquals(2, records.size());
+        assertEquals(2, db.getRecordCountByPro(ProNumber.parse("1234567890")));
+        for (DatabaseHelper.CubingRecord record : records) {
+            assertEquals(1234567890L, record.proNumberPacked);
+            if (record.palletSequence == 1) {
+                assertEquals(Temperature.toPlainString(345), record.temp1);
+                assertEquals(Temperature.toPlainString(-100), record.temp2);
+            } else {
+                assertEquals(Temperature.toPlainString(350), record.temp1);
+                assertNull(record.temp2);
+            }
+        }
+    }
+
+    @Test
+    public void upgradeFromVersion2_nullsUnreadableTemp2AndKeepsUnreadableTemp1Aside() {
+        SQLiteDatabase old = createOldDatabase(2);
+        insertOld(old, "1234567890", "34.5", "n/a", 1);
+        insertOld(old, "1234567890", "33", " ", 2);
+        insertOld(old, "1234567890", "", "20", 3);
+        insertOld(old, "1234567890", "warm", null, 4);
+        old.close();
+
+        db = new DatabaseHelper(context, DATABASE_NAME);
+
+        // Unreadable Temp2 values become NULL rather than 0 degrees
+        List<DatabaseHelper.CubingRecord> records = db.getRecordsByTrailer("401252");
+        assertEquals(2, records.size());
+        for (DatabaseHelper.CubingRecord record : records) {
+            assertTrue(record.palletSequence == 1 || record.palletSequence == 2);
+            assertNull(record.temp2);
+        }
+
+        // Rows without a readable Temp1 aren't copied, but aren't lost either
+        Cursor cursor = db.getReadableDatabase().rawQuery(
+                "SELECT Temp1 FROM " + DatabaseHelper.TABLE_CUBING_DATA_UNCONVERTED +
+                        " ORDER BY PalletSequence", null);
+        try {
+            assertEquals(2, cursor.getCount());
+            assertTrue(cursor.moveToFirst());
+            assertEquals("", cursor.getString(0));
+            assertTrue(cursor.moveToNext());
+            assertEquals("warm", cursor.getString(0));
+        } finally {
+            cursor.close();
+        }
+    }
+
+    @Test
+    public void failedUpgrade_rollsBackToTheOldSchema() {
+        SQLiteDatabase old = createOldDatabase(2);
+        insertOld(old, "1234567890", "34.5", null, 1);
+        // A leftover table with the rename target's name makes the version 3 step fail
+        old.execSQL("CREATE TABLE CubingData_v2 (x INTEGER)");
+        old.close();
+
+        db = new DatabaseHelper(context, DATABASE_NAME);
+        try {
+            db.getWritableDatabase();
+            fail("Upgrade should have failed");
+        } catch (RuntimeException expected) {
+            // Propagated from onUpgrade
+        }
+        db.close();
+
+        SQLiteDatabase reopened = SQLiteDatabase.openOrCreateDatabase(context.getDatabasePath(DATABASE_NAME), null);
+        try {
+            assertEquals(2, reopened.getVersion());
+            Cursor cursor = reopened.rawQuery("SELECT Temp1 FROM CubingData", null);
+            try {
+                assertTrue(cursor.moveToFirst());
+                assertEquals("34.5", cursor.getString(0));
+            } finally {
+                cursor.close();
+            }
+        } finally {
+            reopened.close();
+        }
+    }
+
+    private SQLiteDatabase createOldDatabase(int version) {
+        File path = context.getDatabasePath(DATABASE_NAME);
+        path.getParentFile().mkdirs();
+        SQLiteDatabase old = SQLiteDatabase.openOrCreateDatabase(path, null);
+        old.execSQL(SQL_CREATE_V1);
+        if (version >= 2) {
+            old.execSQL(SQL_ADD_PACKED_V2);
+        }
+        old.setVersion(version);
+        return old;
+    }
+
+    private static void insertOld(SQLiteDatabase old, String pro, String temp1, String temp2, int sequence) {
+        old.execSQL(SQL_INSERT_V1, new Object[]{pro, temp1, temp2, sequence});
+        if (old.getVersion() >= 2) {
+            old.execSQL("UPDATE CubingData SET PRO_Number_Packed = CAST(PRO_Number_Incoming AS INTEGER) " +
+                    "WHERE PalletSequence = " + sequence);
+        }
+    }
+}
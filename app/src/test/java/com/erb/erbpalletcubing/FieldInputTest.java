@@ -0,0 +1,305 @@
+package com.erb.erbpalletcubing;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * FieldInputTest - Local unit tests for the per-field keypad state machines
+ * Keys are driven through a KeypadBuffer exactly as NumericKeypadView does,
+ * and the machine's status is compared with ValidationHelper on the text
+ */
+public class FieldInputTest {
+
+    private static final char BACKSPACE = '\b';
+    private static final char CLEAR = 'C';
+    private static final String KEYS = "0123456789.-" + BACKSPACE + BACKSPACE + CLEAR;
+
+    @After
+    public void tearDown() {
+        ValidationLimits.setCurrent(ValidationLimits.DEFAULTS);
+        CarrierPrefixTable.setCurrent(CarrierPrefixTable.ALLOW_ALL);
+    }
+
+    // ==================== Temperature ====================
+
+    @Test
+    public void temperature_tracksValueAsTyped() {
+        Keypad keypad = new Keypad(FieldInput.temperature());
+
+        assertEquals(ValidationHelper.ERROR_EMPTY, keypad.input.getStatus());
+        keypad.type("-");
+        assertEquals(ValidationHelper.ERROR_NOT_NUMERIC, keypad.input.getStatus());
+        keypad.type("12.5");
+        assertEquals("-12.5", keypad.text());
+        assertTrue(keypad.input.isValid());
+        keypad.type("-");
+        assertEquals("12.5", keypad.text());
+        assertTrue(keypad.input.isValid());
+    }
+
+    @Test
+    public void temperature_refusesImpossibleKeys() {
+        Keypad keypad = new Keypad(FieldInput.temperature());
+
+        keypad.type("0");
+        assertFalse(keypad.press('5'));  // Leading zero
+        keypad.type(".5");
+        assertFalse(keypad.press('.'));  // Second decimal
+        assertFalse(keypad.press('1'));  // Tenths only
+        assertEquals("0.5", keypad.text());
+
+        keypad.clear();
+        keypad.type("35");
+        assertFalse(keypad.press('0'));  // 350 can never be in range
+        assertEquals("35", keypad.text());
+    }
+
+    @Test
+    public void temperature_decimalOnEmptyTypesLeadingZero() {
+        Keypad keypad = new Keypad(FieldInput.temperature());
+
+        keypad.type("-.");
+        assertEquals("-0.", keypad.text());
+        assertTrue(keypad.input.isValid());
+        keypad.backspace();
+        assertEquals("-0", keypad.text());
+        keypad.backspace();
+        keypad.backspace();
+        assertEquals("", keypad.text());
+        assertEquals(ValidationHelper.ERROR_EMPTY, keypad.input.getStatus());
+    }
+
+    @Test
+    public void temperature_refusesMinusWhenRangeHasNoNegatives() {
+        ValidationLimits.setCurrent(new ValidationLimits(0, 400, 10, 999, 999, 9999));
+        Keypad keypad = new Keypad(FieldInput.temperature());
+
+        assertFalse(keypad.press('-'));
+        keypad.type("40");
+        assertTrue(keypad.input.isValid());
+    }
+
+    @Test
+    public void temperature_matchesValidationHelperForRandomKeys() {
+        fuzz(FieldInput.TYPE_TEMPERATURE, new Reference() {
+            @Override
+            public int check(String text) {
+                return ValidationHelper.checkTemperature(text);
+            }
+        });
+    }
+
+    // ==================== PRO Number ====================
+
+    @Test
+    public void proNumber_refusesKeysPastLengthAndNonDigits() {
+        Keypad keypad = new Keypad(FieldInput.proNumber());
+
+        assertFalse(keypad.press('.'));
+        assertFalse(keypad.press('-'));
+        keypad.type("123456789");
+        assertEquals(ValidationHelper.ERROR_WRONG_LENGTH, keypad.input.getStatus());
+        keypad.type("0");
+        assertTrue(keypad.input.isValid());
+        assertFalse(keypad.press('1'));
+        assertEquals("1234567890", keypad.text());
+    }
+
+    @Test
+    public void proNumber_appliesCarrierTable() throws IOException {
+        CarrierPrefixTable.setCurrent(CarrierPrefixTable.parse(
+                new ByteArrayInputStream("123\n456,MOD7\n".getBytes("UTF-8"))));
+        Keypad keypad = new Keypad(FieldInput.proNumber());
+
+        keypad.type("5554567890");
+        assertEquals(ValidationHelper.ERROR_UNKNOWN_CARRIER, keypad.input.getStatus());
+
+        keypad.clear();
+        keypad.type("1234567890");
+        assertTrue(keypad.input.isValid());
+
+        // A table reload is picked up without retyping
+        CarrierPrefixTable.setCurrent(CarrierPrefixTable.parse(
+                new ByteArrayInputStream("456\n".getBytes("UTF-8"))));
+        assertEquals(ValidationHelper.ERROR_UNKNOWN_CARRIER, keypad.input.getStatus());
+    }
+
+    @Test
+    public void proNumber_matchesValidationHelperForRandomKeys() throws IOException {
+        // Half the prefixes known, a third of those with each check digit rule
+        StringBuilder table = new StringBuilder();
+        for (int prefix = 0; prefix < 1000; prefix += 2) {
+            table.append(String.format("%03d", prefix))
+                    .append(prefix % 3 == 1 ? ",MOD7" : prefix % 3 == 2 ? ",LUHN" : "")
+                    .append('\n');
+        }
+        CarrierPrefixTable.setCurrent(CarrierPrefixTable.parse(
+                new ByteArrayInputStream(table.toString().getBytes("UTF-8"))));
+        fuzz(FieldInput.TYPE_PRO_NUMBER, new Reference() {
+            @Override
+            public int check(String text) {
+                return ValidationHelper.checkProNumber(text);
+            }
+        });
+    }
+
+    // ==================== Pallet Height / Quantity ====================
+
+    @Test
+    public void palletHeight_refusesLeadingZeroAndOverMax() {
+        ValidationLimits.setCurrent(new ValidationLimits(-150, 350, 10, 999, 96, 500));
+        Keypad keypad = new Keypad(FieldInput.palletHeight());
+
+        assertFalse(keypad.press('0'));
+        keypad.type("9");
+        assertFalse(keypad.press('7'));
+        keypad.type("6");
+        assertEquals("96", keypad.text());
+        assertTrue(keypad.input.isValid());
+
+        // Lowering the limit after typing is reported, not hidden
+        ValidationLimits.setCurrent(new ValidationLimits(-150, 350, 10, 999, 72, 500));
+        assertEquals(ValidationHelper.ERROR_OUT_OF_RANGE, keypad.input.getStatus());
+    }
+
+    @Test
+    public void palletHeight_matchesValidationHelperForRandomKeys() {
+        ValidationLimits.setCurrent(new ValidationLimits(-150, 350, 10, 999, 96, 500));
+        fuzz(FieldInput.TYPE_PALLET_HEIGHT, new Reference() {
+            @Override
+            public int check(String text) {
+                return ValidationHelper.isValidPalletHeight(text) ? ValidationHelper.VALID : -1;
+            }
+        });
+    }
+
+    @Test
+    public void quantity_matchesValidationHelperForRandomKeys() {
+        fuzz(FieldInput.TYPE_QUANTITY, new Reference() {
+            @Override
+            public int check(String text) {
+                return ValidationHelper.isValidQuantity(text) ? ValidationHelper.VALID : -1;
+            }
+        });
+    }
+
+    // ==================== Load ====================
+
+    @Test
+    public void load_acceptsKeypadTextAndRefusesTheRest() {
+        FieldInput temperature = FieldInput.temperature();
+        assertTrue(temperature.load("-0.5"));
+        assertTrue(temperature.isValid());
+        assertFalse(temperature.load("1.25"));
+        assertEquals(ValidationHelper.ERROR_EMPTY, temperature.getStatus());
+
+        FieldInput quantity = FieldInput.quantity();
+        assertTrue(quantity.load("42"));
+        assertTrue(quantity.isValid());
+        assertFalse(quantity.load("042"));
+    }
+
+    @Test
+    public void forType_mapsFieldTypes() {
+        assertNull(FieldInput.forType(FieldInput.TYPE_NONE));
+        assertTrue(FieldInput.forType(FieldInput.TYPE_TEMPERATURE).allowsDecimal());
+        assertFalse(FieldInput.forType(FieldInput.TYPE_PRO_NUMBER).allowsDecimal());
+        assertFalse(FieldInput.forType(FieldInput.TYPE_QUANTITY).allowsNegative());
+    }
+
+    // ==================== Helpers ====================
+
+    private interface Reference {
+        /**
+         * @return ValidationHelper code, or -1 for any error (boolean validators)
+         */
+        int check(String text);
+    }
+
+    /**
+     * Random keys, backspaces and clears; after every step the keypad text
+     * and the machine must agree with the reference validator
+     */
+    private static void fuzz(int type, Reference reference) {
+        Random random = new Random(44);
+        FieldInput input = FieldInput.forType(type);
+        Keypad keypad = new Keypad(input);
+        for (int i = 0; i < 20000; i++) {
+            char key = KEYS.charAt(random.nextInt(KEYS.length()));
+            if (key == BACKSPACE) {
+                keypad.backspace();
+            } else if (key == CLEAR) {
+                if (random.nextInt(4) == 0) {
+                    keypad.clear();
+                }
+            } else {
+                keypad.press(key);
+            }
+
+            String text = keypad.text();
+            int expected = reference.check(text);
+            int actual = input.getStatus();
+            if (expected < 0) {
+                assertFalse("text \"" + text + "\"", actual == ValidationHelper.VALID);
+            } else {
+                assertEquals("text \"" + text + "\"", expected, actual);
+            }
+
+            // The machine never holds state the text doesn't show
+            FieldInput reloaded = FieldInput.forType(type);
+            assertTrue("text \"" + text + "\"", reloaded.load(text));
+            assertEquals(actual, reloaded.getStatus());
+        }
+    }
+
+    /**
+     * The key handling of NumericKeypadView without the views
+     */
+    private static final class Keypad {
+        final FieldInput input;
+        final KeypadBuffer buffer = new KeypadBuffer();
+
+        Keypad(FieldInput input) {
+            this.input = input;
+            buffer.setAllowNegative(input.allowsNegative());
+            buffer.setAllowDecimal(input.allowsDecimal());
+        }
+
+        boolean press(char key) {
+            if (!input.accept(key)) {
+                return false;
+            }
+            assertTrue("buffer refused " + key + " after \"" + buffer + "\"", buffer.press(key));
+            return true;
+        }
+
+        void type(String keys) {
+            for (int i = 0; i < keys.length(); i++) {
+                assertTrue("refused " + keys.charAt(i), press(keys.charAt(i)));
+            }
+        }
+
+        void backspace() {
+            if (buffer.backspace()) {
+                assertTrue(input.backspace());
+            } else {
+                assertFalse(input.backspace());
+            }
+        }
+
+        void clear() {
+            buffer.clear();
+            input.reset();
+        }
+
+        String text() {
+            return buffer.toString();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.erb.erbpalletcubing;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * KeyTypeAheadTest - Local unit tests for hardware / wedge key buffering
+ * Event times are simulated, so bursts replay at exact scanner speed
+ */
+public class KeyTypeAheadTest {
+
+    private static final long HUMAN_INTERVAL_MS = 120;
+    private static final long SCANNER_INTERVAL_MS = 5;  // 200 chars/s wedge
+    private static final int BURST_LENGTH = 100;
+    private static final int BURSTS = 2000;
+
+    private StringBuilder received;
+    private List<Integer> batchSizes;
+    private int singles;
+    private KeyTypeAhead typeAhead;
+
+    @Before
+    public void setUp() {
+        received = new StringBuilder();
+        batchSizes = new ArrayList<>();
+        typeAhead = new KeyTypeAhead(new KeyTypeAhead.Sink() {
+            @Override
+            public void onKeys(char[] keys, int count, boolean burst) {
+                received.append(keys, 0, count);
+                if (burst) {
+                    batchSizes.add(count);
+                } else {
+                    assertEquals(1, count);
+                    singles++;
+                }
+            }
+        });
+    }
+
+    @Test
+    public void humanKeys_areDeliveredImmediately() {
+        long time = 1000;
+        for (char key : "35.5".toCharArray()) {
+            assertFalse(typeAhead.offer(key, time));
+            time += HUMAN_INTERVAL_MS;
+        }
+        assertEquals("35.5", received.toString());
+        assertEquals(4, singles);
+        assertEquals(0, typeAhead.getBurstCount());
+    }
+
+    @Test
+    public void wedgeBurst_isDeliveredInOrderOnceQuiet() {
+        String scan = randomDigits(new Random(45), BURST_LENGTH);
+        long time = 1000;
+        for (int i = 0; i < scan.length(); i++) {
+            typeAhead.offer(scan.charAt(i), time);
+            time += SCANNER_INTERVAL_MS;
+        }
+        long lastKey = time - SCANNER_INTERVAL_MS;
+
+        // The lead key can't be told from a typed one; the rest wait for the gap
+        assertEquals(scan.substring(0, 1), received.toString());
+        assertFalse(typeAhead.flushIfIdle(lastKey + KeyTypeAhead.DEFAULT_BURST_GAP_MS - 1));
+        assertEquals(1, typeAhead.getFlushDelay(lastKey + KeyTypeAhead.DEFAULT_BURST_GAP_MS - 1));
+        assertTrue(typeAhead.flushIfIdle(lastKey + KeyTypeAhead.DEFAULT_BURST_GAP_MS));
+
+        assertEquals(scan, received.toString());
+        assertEquals(1, typeAhead.getBurstCount());
+        assertEquals(BURST_LENGTH - 1, (int) batchSizes.get(0));
+    }
+
+    @Test
+    public void doneKey_endsBurstWithoutWaiting() {
+        long time = 1000;
+        for (char key : "1234567890\n".toCharArray()) {
+            typeAhead.offer(key, time);
+            time += SCANNER_INTERVAL_MS;
+        }
+        assertEquals("1234567890\n", received.toString());
+        assertFalse(typeAhead.hasQueuedKeys());
+    }
+
+    @Test
+    public void fullQueue_flushesInOrder() {
+        typeAhead = new KeyTypeAhead(new KeyTypeAhead.Sink() {
+            @Override
+            public void onKeys(char[] keys, int count, boolean burst) {
+                received.append(keys, 0, count);
+            }
+        }, KeyTypeAhead.DEFAULT_BURST_GAP_MS, 16);
+        String scan = randomDigits(new Random(45), BURST_LENGTH);
+        long time = 1000;
+        for (int i = 0; i < scan.length(); i++) {
+            typeAhead.offer(scan.charAt(i), time);
+            time += SCANNER_INTERVAL_MS;
+        }
+        typeAhead.flush();
+        assertEquals(scan, received.toString());
+    }
+
+    @Test
+    public void touchKey_flushesQueuedHardwareKeysFirst() {
+        typeAhead.offer('1', 1000);
+        typeAhead.offer('2', 1005);
+        typeAhead.offer('3', 1010);
+
+        // What NumericKeypadView.onKeyPressed does before a touched key
+        typeAhead.flush();
+        received.append('9');
+
+        assertEquals("1239", received.toString());
+    }
+
+    @Test
+    public void replay_100CharBursts_atScannerSpeed() {
+        // Scans are 10-digit PROs ended by ENTER, cut into 100-char bursts
+        // with a pause between bursts, fed into the keypad model
+        final Random random = new Random(45);
+        final StringBuilder stream = new StringBuilder();
+        final List<String> expected = new ArrayList<>();
+        while (stream.length() < BURST_LENGTH * BURSTS) {
+            String pro = randomDigits(random, 10);
+            expected.add(pro);
+            stream.append(pro).append(NumericKeypadView.KEY_DONE);
+        }
+        stream.setLength(BURST_LENGTH * BURSTS);
+        if (stream.charAt(stream.length() - 1) != NumericKeypadView.KEY_DONE) {
+            expected.remove(expected.size() - 1);  // Cut off mid-scan
+        }
+
+        final FieldInput input = FieldInput.proNumber();
+        final KeypadBuffer buffer = new KeypadBuffer();
+        final List<String> scanned = new ArrayList<>(expected.size());
+        final int[] refused = new int[1];
+        final int[] deliveries = new int[1];
+        KeyTypeAhead replay = new KeyTypeAhead(new KeyTypeAhead.Sink() {
+            @Override
+            public void onKeys(char[] keys, int count, boolean burst) {
+                deliveries[0]++;
+                for (int i = 0; i < count; i++) {
+                    char key = keys[i];
+                    if (key == NumericKeypadView.KEY_DONE) {
+                        assertTrue(buffer.toString(), input.isValid());
+                        scanned.add(buffer.toString());
+                        buffer.clear();
+                        input.reset();
+                    } else if (input.accept(key)) {
+                        buffer.press(key);
+                    } else {
+                        refused[0]++;
+                    }
+                }
+            }
+        });
+
+        long time = 1000;
+        for (int burst = 0; burst < BURSTS; burst++) {
+            for (int i = 0; i < BURST_LENGTH; i++) {
+                replay.offer(stream.charAt(burst * BURST_LENGTH + i), time);
+                time += SCANNER_INTERVAL_MS;
+            }
+            time += 200;
+            assertTrue(replay.flushIfIdle(time));
+        }
+
+        assertEquals(0, refused[0]);
+        assertEquals(expected, scanned);
+        // Model updates, not keys: per burst the lead key, the rest of each
+        // scan at its DONE, and what is left once the input goes quiet
+        int doneKeys = 0;
+        for (int i = 0; i < stream.length(); i++) {
+            if (stream.charAt(i) == NumericKeypadView.KEY_DONE) {
+                doneKeys++;
+            }
+        }
+        assertTrue(deliveries[0] <= doneKeys + 2 * BURSTS);
+        assertTrue(deliveries[0] < stream.length() / 5);
+    }
+
+    private static String randomDigits(Random random, int length) {
+        char[] digits = new char[length];
+        for (int i = 0; i < length; i++) {
+            digits[i] = (char) ('0' + random.nextInt(10));
+        }
+        return new String(digits);
+    }
+}
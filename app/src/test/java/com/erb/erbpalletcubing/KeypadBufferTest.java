@@ -0,0 +1,194 @@
+package com.erb.erbpalletcubing;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * KeypadBufferTest - Local unit tests for the keypad text model and haptics
+ * A StringBuilder stands in for the EditText's Editable
+ */
+public class KeypadBufferTest {
+
+    private static final int GLOVE_KEYS = 45;
+    private static final long GLOVE_INTERVAL_MS = 1000 / 15;  // 15 keys/sec
+    private static final long BUZZ_MS = 25;
+
+    private KeypadBuffer buffer;
+    private StringBuilder shown;
+    private int edits;
+
+    @Before
+    public void setUp() {
+        buffer = new KeypadBuffer();
+        buffer.setAllowNegative(true);
+        buffer.setAllowDecimal(true);
+        shown = new StringBuilder();
+        buffer.setListener(new KeypadBuffer.Listener() {
+            @Override
+            public void onReplace(int start, int end, CharSequence text) {
+                shown.replace(start, end, text.toString());
+                edits++;
+            }
+        });
+    }
+
+    @Test
+    public void keys_applyAsSmallEdits() {
+        buffer.appendDigit(3);
+        buffer.appendDigit(5);
+        buffer.appendDecimal();
+        buffer.appendDigit(5);
+        buffer.toggleNegative();
+        assertEquals("-35.5", buffer.toString());
+        assertEquals("-35.5", shown.toString());
+        assertEquals(5, edits);
+
+        buffer.backspace();
+        buffer.backspace();
+        assertFalse(buffer.hasDecimal());
+        assertTrue(buffer.appendDecimal());
+        buffer.toggleNegative();
+        assertEquals("35.", shown.toString());
+    }
+
+    @Test
+    public void decimal_onlyOnceAndWithLeadingZero() {
+        assertTrue(buffer.appendDecimal());
+        assertFalse(buffer.appendDecimal());
+        assertEquals("0.", shown.toString());
+
+        buffer.clear();
+        buffer.toggleNegative();
+        buffer.appendDecimal();
+        assertEquals("-0.", shown.toString());
+    }
+
+    @Test
+    public void disallowedKeys_changeNothing() {
+        buffer.setAllowNegative(false);
+        buffer.setAllowDecimal(false);
+        assertFalse(buffer.toggleNegative());
+        assertFalse(buffer.appendDecimal());
+        assertFalse(buffer.backspace());
+        assertFalse(buffer.clear());
+        assertEquals(0, edits);
+    }
+
+    @Test
+    public void maxLength_isEnforced() {
+        for (int i = 0; i < KeypadBuffer.MAX_LENGTH + 5; i++) {
+            buffer.appendDigit(9);
+        }
+        assertEquals(KeypadBuffer.MAX_LENGTH, buffer.length());
+        assertFalse(buffer.toggleNegative());
+    }
+
+    @Test
+    public void setValue_dropsWhatTheKeypadCouldNotType() {
+        buffer.setValue("-12.5°F");
+        assertEquals("-12.5", buffer.toString());
+        assertTrue(buffer.isNegative());
+        assertTrue(buffer.hasDecimal());
+        assertEquals("setValue doesn't notify", 0, edits);
+    }
+
+    @Test
+    public void randomKeys_editsAlwaysReproduceTheBuffer() {
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(14);
+            if (key < 10) {
+                buffer.appendDigit(key);
+            } else if (key == 10) {
+                buffer.appendDecimal();
+            } else if (key == 11) {
+                buffer.toggleNegative();
+            } else if (key == 12) {
+                buffer.backspace();
+            } else if (random.nextInt(10) == 0) {
+                buffer.clear();
+            }
+            assertEquals("Step " + i, buffer.toString(), shown.toString());
+            assertEquals(buffer.toString().indexOf('.') >= 0, buffer.hasDecimal());
+            assertEquals(buffer.toString().startsWith("-"), buffer.isNegative());
+        }
+    }
+
+    @Test
+    public void haptics_coalesceWhileQueued() {
+        final int[] buzzes = new int[1];
+        final Runnable[] queued = new Runnable[1];
+        KeypadHaptics haptics = new KeypadHaptics(new Runnable() {
+            @Override
+            public void run() {
+                buzzes[0]++;
+            }
+        }, new java.util.concurrent.Executor() {
+            @Override
+            public void execute(Runnable command) {
+                queued[0] = command;
+            }
+        });
+
+        haptics.perform();
+        haptics.perform();
+        haptics.perform();
+        queued[0].run();
+        haptics.perform();
+        queued[0].run();
+
+        assertEquals(2, buzzes[0]);
+        assertEquals(2, haptics.getPerformedCount());
+        assertEquals(2, haptics.getCoalescedCount());
+    }
+
+    @Test
+    public void gloveTyping_keyLatencyExcludesVibration() {
+        // Simulated time: the haptics thread takes BUZZ_MS per buzz, keys
+        // arrive every GLOVE_INTERVAL_MS, and nothing sleeps
+        final int[] buzzes = new int[1];
+        final Runnable[] queued = new Runnable[1];
+        final long[] queuedAt = new long[1];
+        final long[] now = new long[1];
+        KeypadHaptics haptics = new KeypadHaptics(new Runnable() {
+            @Override
+            public void run() {
+                buzzes[0]++;  // A vibrate() binder call on a slow scanner
+            }
+        }, new java.util.concurrent.Executor() {
+            @Override
+            public void execute(Runnable command) {
+                queued[0] = command;
+                queuedAt[0] = now[0];
+            }
+        });
+
+        for (int i = 0; i < GLOVE_KEYS; i++) {
+            now[0] = i * GLOVE_INTERVAL_MS;
+            if (queued[0] != null && now[0] >= queuedAt[0] + BUZZ_MS) {
+                Runnable buzz = queued[0];
+                queued[0] = null;
+                buzz.run();
+            }
+
+            int buzzed = buzzes[0];
+            haptics.perform();
+            if (i % 9 == 8) {
+                buffer.backspace();
+            } else {
+                buffer.appendDigit(i % 10);
+            }
+            // Key press to text applied: the buzz only ran on the haptics thread
+            assertEquals(buzzed, buzzes[0]);
+            assertEquals(buffer.toString(), shown.toString());
+        }
+        queued[0].run();
+
+        assertEquals("Each buzz ends before the next key", GLOVE_KEYS, haptics.getPerformedCount());
+        assertEquals(0, haptics.getCoalescedCount());
+    }
+}
@@ -0,0 +1,97 @@
+package com.erb.erbpalletcubing;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * LatencyStatsTest - Local unit tests for the diagnostics percentile math
+ */
+public class LatencyStatsTest {
+
+    @Test
+    public void percentiles_useNearestRank() {
+        LatencyStats stats = new LatencyStats(4);  // Grows past the initial size
+        for (int i = 100; i >= 1; i--) {
+            stats.add(i * 1000L);
+        }
+
+        assertEquals(100, stats.getCount());
+        assertEquals(50000, stats.percentileNanos(50));
+        assertEquals(95000, stats.percentileNanos(95));
+        assertEquals(99000, stats.percentileNanos(99));
+        assertEquals(100000, stats.maxNanos());
+        assertEquals(1000, stats.percentileNanos(0));
+        assertEquals(50500, stats.meanNanos());
+    }
+
+    @Test
+    public void percentiles_areMeasuredValues() {
+        LatencyStats stats = new LatencyStats();
+        Random random = new Random(47);
+        long[] values = new long[37];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(1000000);
+            stats.add(values[i]);
+        }
+        Arrays.sort(values);
+        assertEquals(values[18], stats.percentileNanos(50));   // ceil(0.50 * 37) = 19th
+        assertEquals(values[35], stats.percentileNanos(95));   // ceil(0.95 * 37) = 36th
+        assertEquals(values[36], stats.percentileNanos(99));
+
+        // Adding after a percentile re-sorts
+        stats.add(2000000);
+        assertEquals(2000000, stats.maxNanos());
+    }
+
+    @Test
+    public void throughput_usesWallTimeWhenSet() {
+        LatencyStats stats = new LatencyStats();
+        for (int i = 0; i < 10; i++) {
+            stats.add(1000000);  // 1 ms each
+        }
+        assertEquals(1000, stats.opsPerSecond(), 0.001);
+
+        stats.setWallNanos(20000000);  // 20 ms including gaps between ops
+        assertEquals(500, stats.opsPerSecond(), 0.001);
+    }
+
+    @Test
+    public void histogram_bucketsByPowerOfTwoMicros() {
+        LatencyStats stats = new LatencyStats();
+        stats.add(500);        // < 1 us
+        stats.add(1500);       // 1 us -> < 2 us
+        stats.add(3000);       // < 4 us
+        stats.add(3999);       // < 4 us
+        stats.add(1000000);    // 1000 us -> < 1024 us
+        stats.add(10000000);   // 10000 us -> < 16384 us
+
+        int[] counts = stats.histogram(16);
+        assertEquals(1, counts[10]);
+        assertEquals(1, counts[14]);
+        // Slower than the last bucket counts in the last bucket
+        assertArrayEquals(new int[]{1, 1, 2, 0, 0, 0, 0, 2}, stats.histogram(8));
+
+        String text = stats.formatHistogram();
+        assertTrue(text, text.startsWith("  <         1 us        1 "));
+        assertTrue(text, text.contains("  <         4 us        2 ########################################\n"));
+        assertEquals(15, text.split("\n").length);  // < 1 us through < 16384 us
+    }
+
+    @Test
+    public void empty_reportsZero() {
+        LatencyStats stats = new LatencyStats();
+        assertEquals(0, stats.percentileNanos(99));
+        assertEquals(0, stats.meanNanos());
+        assertEquals(0, stats.opsPerSecond(), 0);
+        assertEquals("", stats.formatHistogram());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void percentile_outOfRange_throws() {
+        new LatencyStats().percentileNanos(101);
+    }
+}
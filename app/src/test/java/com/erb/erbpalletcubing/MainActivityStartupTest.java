@@ -0,0 +1,184 @@
+package com.erb.erbpalletcubing;
+
+import android.content.Context;
+import android.os.Looper;
+import android.os.StrictMode;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * MainActivityStartupTest - Robolectric checks that onCreate leaves storage to the startup thread
+ * The startup executor is held back, so anything that reached disk during
+ * onCreate must have done so on the main thread; create() also runs under a
+ * StrictMode policy that kills the test on any main-thread disk read or write.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class MainActivityStartupTest {
+
+    private static final List<String> STORAGE_PHASES = Arrays.asList(
+            StartupPipeline.PHASE_CONFIG, StartupPipeline.PHASE_SESSION, StartupPipeline.PHASE_DATABASE,
+            StartupPipeline.PHASE_PALLET_RECOVERY, StartupPipeline.PHASE_DRAFT);
+
+    private final HeldExecutor startupExecutor = new HeldExecutor();
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        StartupPipeline.setExecutorOverride(startupExecutor);
+    }
+
+    @After
+    public void tearDown() {
+        StartupPipeline.setExecutorOverride(null);
+    }
+
+    @Test
+    public void onCreate_doesNoDiskIoOnMainThread() {
+        File database = context.getDatabasePath(DatabaseHelper.DATABASE_NAME);
+        File journal = new File(context.getFilesDir(), SessionManager.JOURNAL_FILE_NAME);
+        File sessionPrefs = new File(context.getApplicationInfo().dataDir, "shared_prefs");
+        String[] prefsBefore = sessionPrefs.list();
+
+        ActivityController<MainActivity> controller = createUnderStrictMode();
+        MainActivity activity = controller.get();
+
+        assertFalse("Database opened on the main thread", database.exists());
+        assertFalse("Session journal opened on the main thread", journal.exists());
+        assertArrayEquals("Preferences read on the main thread", prefsBefore, sessionPrefs.list());
+        assertFalse(activity.getStartup().isReady());
+        assertEquals(1, startupExecutor.size());
+
+        StartupTrace trace = activity.getStartupTrace();
+        assertNotNull(trace.find(MainActivity.PHASE_ON_CREATE));
+        for (StartupTrace.Phase phase : trace.getPhases()) {
+            assertFalse(phase.name + " ran during onCreate", STORAGE_PHASES.contains(phase.name));
+        }
+    }
+
+    @Test
+    public void startup_loadsStorageOnStartupThreadThenDelivers() throws InterruptedException {
+        ActivityController<MainActivity> controller = createUnderStrictMode();
+        MainActivity activity = controller.get();
+
+        startupExecutor.runOnThread("Startup");
+        shadowOf(Looper.getMainLooper()).idle();
+
+        StartupPipeline startup = activity.getStartup();
+        assertTrue(startup.isReady());
+        assertNotNull(startup.getSessionManager());
+        assertNotNull(startup.getDatabaseHelper());
+        assertTrue(context.getDatabasePath(DatabaseHelper.DATABASE_NAME).exists());
+
+        StartupTrace trace = activity.getStartupTrace();
+        for (String name : STORAGE_PHASES) {
+            StartupTrace.Phase phase = trace.find(name);
+            assertNotNull(name, phase);
+            assertEquals(name, "Startup", phase.thread);
+        }
+        assertEquals(Thread.currentThread().getName(), trace.find(StartupPipeline.PHASE_DELIVER).thread);
+        assertTrue(trace.format().contains(StartupPipeline.PHASE_DELIVER));
+
+        // The trace file is written by the startup thread after delivery
+        startupExecutor.runOnThread("Startup");
+        assertTrue(new File(context.getFilesDir(), StartupTrace.FILE_NAME).exists());
+
+        controller.pause().destroy();
+        startupExecutor.runOnThread("Startup");
+    }
+
+    @Test
+    public void failedStartup_isReportedInsteadOfDeliveringNullComponents() throws InterruptedException {
+        // A directory where the database file should be makes the open fail
+        File database = context.getDatabasePath(DatabaseHelper.DATABASE_NAME);
+        assertTrue(database.mkdirs());
+        try {
+            ActivityController<MainActivity> controller = createUnderStrictMode();
+            MainActivity activity = controller.get();
+
+            startupExecutor.runOnThread("Startup");
+            shadowOf(Looper.getMainLooper()).idle();
+
+            StartupPipeline startup = activity.getStartup();
+            assertFalse(startup.isReady());
+            assertNotNull(startup.getFailure());
+            assertNull(startup.getDatabaseHelper());
+            assertNull(startup.getSessionManager());
+            assertNotNull(activity.getStartupTrace().find(StartupPipeline.PHASE_DELIVER));
+
+            controller.pause().destroy();
+            startupExecutor.runOnThread("Startup");
+        } finally {
+            assertTrue(database.delete());
+        }
+    }
+
+    /**
+     * Create the activity with main-thread disk reads and writes fatal
+     */
+    private static ActivityController<MainActivity> createUnderStrictMode() {
+        StrictMode.ThreadPolicy previous = StrictMode.getThreadPolicy();
+        StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
+                .detectDiskReads()
+                .detectDiskWrites()
+                .penaltyDeath()
+                .build());
+        try {
+            return Robolectric.buildActivity(MainActivity.class).create();
+        } finally {
+            StrictMode.setThreadPolicy(previous);
+        }
+    }
+
+    /**
+     * Holds tasks until the test runs them on a named thread
+     */
+    private static final class HeldExecutor implements Executor {
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public synchronized void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        synchronized int size() {
+            return tasks.size();
+        }
+
+        void runOnThread(String name) throws InterruptedException {
+            final List<Runnable> batch;
+            synchronized (this) {
+                batch = new ArrayList<>(tasks);
+                tasks.clear();
+            }
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (Runnable task : batch) {
+                        task.run();
+                    }
+                }
+            }, name);
+            thread.start();
+            thread.join();
+        }
+    }
+}
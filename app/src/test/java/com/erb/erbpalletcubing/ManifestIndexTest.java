@@ -0,0 +1,134 @@
+package com.erb.erbpalletcubing;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * ManifestIndexTest - Local unit tests for building and reading manifest indexes
+ */
+public class ManifestIndexTest {
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("manifest", ".idx");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void unsortedCsv_isSortedAndFullySearchable() throws IOException {
+        int rows = 20000;
+        long[] pros = new long[rows];
+        StringBuilder csv = new StringBuilder("PRO,ExpectedPallets,FreightType,Receiver\n");
+        Random random = new Random(7);
+
+        for (int i = 0; i < rows; i++) {
+            // Distinct PROs in shuffled order
+            pros[i] = 1000000000L + (i * 7919L) % 1000003L;
+            csv.append(ProNumber.of(pros[i])).append(',')
+                    .append(1 + i % 30).append(',')
+                    .append(i % 3 == 0 ? "DUAL" : "Fresh").append(',')
+                    .append(23000 + random.nextInt(100)).append('\n');
+        }
+
+        assertEquals(rows, ManifestIndexBuilder.build(toStream(csv), file));
+        ManifestIndex index = ManifestIndex.open(file);
+        assertEquals(rows, index.size());
+
+        for (int i = 1; i < index.size(); i++) {
+            assertTrue(index.proNumberAt(i - 1) < index.proNumberAt(i));
+        }
+
+        for (int i = 0; i < rows; i++) {
+            int found = index.indexOf(pros[i]);
+            assertTrue("missing " + pros[i], found != ManifestIndex.NOT_FOUND);
+            assertEquals(1 + i % 30, index.expectedPalletsAt(found));
+            assertEquals(i % 3 == 0 ? "DUAL" : "Fresh", index.freightTypeAt(found));
+        }
+
+        assertEquals(ManifestIndex.NOT_FOUND, index.indexOf(999L));
+        assertEquals(ManifestIndex.NOT_FOUND, index.indexOf(9999999999L));
+    }
+
+    @Test
+    public void lookup_returnsManifestFields() throws IOException {
+        String csv = "PRO,ExpectedPallets,FreightType,Receiver\n"
+                + "5550001234,12,Frozen,23146\n"
+                + "not-a-pro,1,Fresh,1\n"
+                + "1234567890,5,Fresh,42\n";
+
+        assertEquals(2, ManifestIndexBuilder.build(toStream(new StringBuilder(csv)), file));
+        ManifestIndex index = ManifestIndex.open(file);
+
+        ManifestIndex.Entry entry = index.lookup(ProNumber.parse("5550001234"));
+        assertNotNull(entry);
+        assertEquals(12, entry.expectedPallets);
+        assertEquals("Frozen", entry.freightType);
+        assertEquals(23146, entry.receiverId);
+        assertNull(index.lookup(ProNumber.parse("5550001235")));
+    }
+
+    @Test
+    public void repeatedRows_collapseToOneEntryPerPro() throws IOException {
+        // Mostly one key: a Lomuto partition would go quadratic here
+        int rows = 200000;
+        StringBuilder csv = new StringBuilder("PRO,ExpectedPallets,FreightType,Receiver\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append(i % 100 == 0 ? (i % 200 == 0 ? "1234567890,5,Fresh,42" : "5550001234,12,Frozen,23146")
+                    : "1111111111,3,DUAL,7").append('\n');
+        }
+
+        assertEquals(3, ManifestIndexBuilder.build(toStream(csv), file));
+        ManifestIndex index = ManifestIndex.open(file);
+        assertEquals(3, index.size());
+        assertEquals(1111111111L, index.proNumberAt(0));
+        assertEquals(1234567890L, index.proNumberAt(1));
+        assertEquals(5550001234L, index.proNumberAt(2));
+        assertEquals(3, index.lookup(ProNumber.parse("1111111111")).expectedPallets);
+        assertEquals("Frozen", index.lookup(ProNumber.parse("5550001234")).freightType);
+        assertTrue(file.length() < ManifestIndex.HEADER_SIZE + 4 * ManifestIndex.ENTRY_SIZE + 64);
+    }
+
+    @Test(expected = IOException.class)
+    public void conflictingRowsForOnePro_areRejected() throws IOException {
+        String csv = "PRO,ExpectedPallets,FreightType,Receiver\n"
+                + "5550001234,12,Frozen,23146\n"
+                + "1234567890,5,Fresh,42\n"
+                + "5550001234,14,Frozen,23146\n";
+        ManifestIndexBuilder.build(toStream(new StringBuilder(csv)), file);
+    }
+
+    @Test
+    public void emptyManifest_opensWithNoEntries() throws IOException {
+        assertEquals(0, ManifestIndexBuilder.build(toStream(new StringBuilder("PRO,ExpectedPallets,FreightType,Receiver\n")), file));
+        ManifestIndex index = ManifestIndex.open(file);
+        assertEquals(0, index.size());
+        assertEquals(ManifestIndex.NOT_FOUND, index.indexOf(1234567890L));
+    }
+
+    @Test(expected = IOException.class)
+    public void corruptFile_isRejected() throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.write(new byte[64]);
+        raf.close();
+        ManifestIndex.open(file);
+    }
+
+    private static ByteArrayInputStream toStream(StringBuilder csv) {
+        return new ByteArrayInputStream(csv.toString().getBytes(ManifestIndex.UTF_8));
+    }
+}
@@ -0,0 +1,249 @@
+package com.erb.erbpalletcubing;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.EditText;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.time.Duration;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * NumericKeypadViewTest - Robolectric comparison of the button and drawn keypads
+ * Construction and frame times go to build/reports/keypad/timings.txt; under
+ * Robolectric they are only comparable with each other, not with a device
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class NumericKeypadViewTest {
+
+    private static final int WIDTH_PX = 480;
+    private static final int INSTANCES = 50;
+    private static final int FRAMES = 100;
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+    }
+
+    @Test
+    public void bothModes_typeTheSameValue() {
+        assertEquals("-35.5", typeTemperature(NumericKeypadView.MODE_BUTTONS));
+        assertEquals("-35.5", typeTemperature(NumericKeypadView.MODE_DRAWN));
+    }
+
+    @Test
+    public void wedgeBurst_reachesTargetInOrderAsOneEdit() {
+        NumericKeypadView keypad = create(NumericKeypadView.MODE_BUTTONS);
+        keypad.setFieldInput(FieldInput.proNumber());
+        EditText target = new EditText(context);
+        keypad.setTargetEditText(target);
+        final StringBuilder done = new StringBuilder();
+        final int[] changes = new int[1];
+        keypad.setOnDoneListener(new NumericKeypadView.OnDoneListener() {
+            @Override
+            public void onDone(String value) {
+                done.append(value);
+            }
+        });
+        keypad.setOnValueChangeListener(new NumericKeypadView.OnValueChangeListener() {
+            @Override
+            public void onValueChanged(String value) {
+                changes[0]++;
+            }
+        });
+
+        // A wedge typing "1234567890" then ENTER, 5 ms per key, into the EditText
+        long time = SystemClock.uptimeMillis();
+        int[] codes = {KeyEvent.KEYCODE_1, KeyEvent.KEYCODE_2, KeyEvent.KEYCODE_3, KeyEvent.KEYCODE_4,
+                KeyEvent.KEYCODE_5, KeyEvent.KEYCODE_6, KeyEvent.KEYCODE_7, KeyEvent.KEYCODE_8,
+                KeyEvent.KEYCODE_9, KeyEvent.KEYCODE_0, KeyEvent.KEYCODE_ENTER};
+        for (int code : codes) {
+            assertTrue(target.dispatchKeyEvent(new KeyEvent(time, time, KeyEvent.ACTION_DOWN, code, 0)));
+            assertTrue(target.dispatchKeyEvent(new KeyEvent(time, time + 1, KeyEvent.ACTION_UP, code, 0)));
+            time += 5;
+        }
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofSeconds(1));
+
+        assertEquals("1234567890", target.getText().toString());
+        assertEquals("1234567890", done.toString());
+        assertEquals(ValidationHelper.VALID, keypad.getFieldStatus());
+        assertEquals(2, changes[0]);  // The lead key, then the rest of the burst at once
+    }
+
+    @Test
+    public void textSetByTheApp_isPickedUpBeforeTheNextKey() {
+        for (int mode = NumericKeypadView.MODE_BUTTONS; mode <= NumericKeypadView.MODE_DRAWN; mode++) {
+            NumericKeypadView keypad = create(mode);
+            EditText target = new EditText(context);
+            keypad.setTargetEditText(target);
+            layout(keypad);
+
+            press(keypad, '3');
+            target.setText("12");  // Same path as restoring a draft into the field
+            assertEquals("12", keypad.getValue());
+            press(keypad, '5');
+            assertEquals("125", target.getText().toString());
+
+            target.setText("987");  // Same length as the buffer
+            press(keypad, '6');
+            assertEquals("9876", target.getText().toString());
+            assertEquals("9876", keypad.getValue());
+        }
+    }
+
+    @Test
+    public void drawnMode_hitTestingMatchesTheButtonLayout() {
+        int height = 5 * 100;
+        assertEquals('1', KeypadCanvasView.KEYS[KeypadCanvasView.keyIndexAt(10, 10, WIDTH_PX, height)]);
+        assertEquals('0', KeypadCanvasView.KEYS[KeypadCanvasView.keyIndexAt(WIDTH_PX / 2, 350, WIDTH_PX, height)]);
+        assertEquals(NumericKeypadView.KEY_DONE,
+                KeypadCanvasView.KEYS[KeypadCanvasView.keyIndexAt(WIDTH_PX - 1, height - 1, WIDTH_PX, height)]);
+        assertEquals(-1, KeypadCanvasView.keyIndexAt(WIDTH_PX, 10, WIDTH_PX, height));
+    }
+
+    @Test
+    public void compare_constructionViewCountAndFrameTime() throws IOException {
+        StringBuilder report = new StringBuilder();
+        for (int mode = NumericKeypadView.MODE_BUTTONS; mode <= NumericKeypadView.MODE_DRAWN; mode++) {
+            create(mode);  // Warm up class loading
+            long start = System.nanoTime();
+            NumericKeypadView keypad = null;
+            for (int i = 0; i < INSTANCES; i++) {
+                keypad = create(mode);
+            }
+            long constructNanos = (System.nanoTime() - start) / INSTANCES;
+
+            Bitmap bitmap = Bitmap.createBitmap(WIDTH_PX, 800, Bitmap.Config.ARGB_8888);
+            Canvas canvas = new Canvas(bitmap);
+            start = System.nanoTime();
+            for (int i = 0; i < FRAMES; i++) {
+                keypad.requestLayout();
+                layout(keypad);
+                keypad.draw(canvas);
+            }
+            long frameNanos = (System.nanoTime() - start) / FRAMES;
+
+            boolean drawn = mode == NumericKeypadView.MODE_DRAWN;
+            assertEquals(1, keypad.getChildCount());
+            assertEquals(drawn ? 1 : 17, countViews(keypad));
+            assertEquals(drawn, keypad.getChildAt(0) instanceof KeypadCanvasView);
+            assertEquals(WIDTH_PX, keypad.getWidth());
+            assertTrue(keypad.getHeight() > 0);
+
+            report.append(drawn ? "drawn" : "buttons").append(": ").append(countViews(keypad))
+                    .append(" views, construct ").append(constructNanos / 1000)
+                    .append(" us, measure+layout+draw ").append(frameNanos / 1000).append(" us\n");
+        }
+        writeReport(report.toString());
+    }
+
+    private NumericKeypadView create(int mode) {
+        NumericKeypadView keypad = new NumericKeypadView(context, mode);
+        keypad.setAllowNegative(true);
+        keypad.setAllowDecimal(true);
+        return keypad;
+    }
+
+    private String typeTemperature(int mode) {
+        NumericKeypadView keypad = create(mode);
+        EditText target = new EditText(context);
+        keypad.setTargetEditText(target);
+        layout(keypad);
+
+        for (char key : new char[]{'3', '5', NumericKeypadView.KEY_DECIMAL, '5', NumericKeypadView.KEY_NEGATIVE}) {
+            press(keypad, key);
+        }
+        assertEquals(keypad.getValue(), target.getText().toString());
+        return keypad.getValue();
+    }
+
+    private static void layout(View view) {
+        view.measure(View.MeasureSpec.makeMeasureSpec(WIDTH_PX, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+    }
+
+    private static void press(NumericKeypadView keypad, char key) {
+        View child = keypad.getChildAt(0);
+        if (child instanceof KeypadCanvasView) {
+            int index = new String(KeypadCanvasView.KEYS).indexOf(key);
+            float x = (index % KeypadCanvasView.COLUMNS + 0.5f) * child.getWidth() / KeypadCanvasView.COLUMNS;
+            float y = (index / KeypadCanvasView.COLUMNS + 0.5f) * child.getHeight() / KeypadCanvasView.ROWS;
+            long now = SystemClock.uptimeMillis();
+            child.dispatchTouchEvent(MotionEvent.obtain(now, now, MotionEvent.ACTION_DOWN, x, y, 0));
+            child.dispatchTouchEvent(MotionEvent.obtain(now, now + 50, MotionEvent.ACTION_UP, x, y, 0));
+        } else {
+            Button button = findButton(keypad, String.valueOf(key));
+            assertNotNull("No button " + key, button);
+            button.performClick();
+        }
+    }
+
+    private static Button findButton(View view, String label) {
+        if (view instanceof Button && label.contentEquals(((Button) view).getText())) {
+            return (Button) view;
+        }
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                Button found = findButton(group.getChildAt(i), label);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void writeReport(String text) throws IOException {
+        File directory = new File(System.getProperty("keypadReport.output", "build/reports/keypad"));
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        Writer writer = new OutputStreamWriter(new FileOutputStream(new File(directory, "timings.txt")), "UTF-8");
+        try {
+            writer.write(text);
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Count views below the keypad itself
+     */
+    private static int countViews(ViewGroup group) {
+        int count = 0;
+        for (int i = 0; i < group.getChildCount(); i++) {
+            View child = group.getChildAt(i);
+            count++;
+            if (child instanceof ViewGroup) {
+                count += countViews((ViewGroup) child);
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,150 @@
+package com.erb.erbpalletcubing;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * PalletDraftStoreTest - Local unit tests for keystroke-level pallet drafts
+ * A process kill is simulated by abandoning the session without close() or
+ * flush() and reopening the journal file from scratch
+ */
+public class PalletDraftStoreTest {
+
+    private static final long WRITE_DELAY_MS = 20;
+    private static final int KEYSTROKES = 300;
+    private static final long KEY_INTERVAL_MS = 1;
+
+    private File journalFile;
+    private SessionJournal journal;
+
+    @Before
+    public void setUp() throws IOException {
+        journalFile = File.createTempFile("session", ".journal");
+        journal = SessionJournal.open(journalFile);
+    }
+
+    @After
+    public void tearDown() {
+        journal.close();
+        journalFile.delete();
+    }
+
+    @Test
+    public void rapidTyping_writesAreBoundedByTheWriteDelay() throws IOException {
+        // Simulated time, one key per KEY_INTERVAL_MS; flush() stands in for the
+        // writer firing once every WRITE_DELAY_MS while keys keep arriving
+        SessionManager session = new SessionManager(journal, 60000);
+        PalletDraftStore drafts = new PalletDraftStore(session);
+        int baseline = journal.getAppendCount();
+
+        StringBuilder typed = new StringBuilder();
+        long nextWrite = WRITE_DELAY_MS;
+        for (int i = 0; i < KEYSTROKES; i++) {
+            long now = i * KEY_INTERVAL_MS;
+            if (now >= nextWrite) {
+                drafts.flush();
+                nextWrite = now + WRITE_DELAY_MS;
+            }
+            // Type a height, then backspace it away again, over and over
+            if (typed.length() < 3) {
+                typed.append((char) ('0' + i % 10));
+            } else {
+                typed.setLength(0);
+            }
+            drafts.onFieldChanged(PalletDraftStore.FIELD_PALLET_HEIGHT, typed.toString());
+        }
+        drafts.flush();
+        int writes = journal.getAppendCount() - baseline;
+
+        long elapsedMs = KEYSTROKES * KEY_INTERVAL_MS;
+        assertEquals("One write per write delay, not per key", elapsedMs / WRITE_DELAY_MS, writes);
+        assertEquals(typed.length() > 0 ? typed.toString() : null,
+                drafts.getField(PalletDraftStore.FIELD_PALLET_HEIGHT));
+        assertEquals(drafts.getField(PalletDraftStore.FIELD_PALLET_HEIGHT),
+                relaunch().getField(PalletDraftStore.FIELD_PALLET_HEIGHT));
+    }
+
+    @Test
+    public void processKill_afterWriteDelay_recoversEveryField() throws Exception {
+        SessionManager session = new SessionManager(journal, WRITE_DELAY_MS);
+        PalletDraftStore drafts = new PalletDraftStore(session);
+        session.saveResumeState(ResumeState.builder(ResumeState.SCREEN_PALLET_DETAIL).condition("OSD").build());
+
+        type(drafts, PalletDraftStore.FIELD_PALLET_HEIGHT, "72");
+        type(drafts, PalletDraftStore.FIELD_OSD_QUANTITY, "14");
+        type(drafts, PalletDraftStore.FIELD_TEMP1, "-5.5");
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (session.hasPendingWrites() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        Map<String, String> restored = relaunch().restore();
+        assertEquals("72", restored.get(PalletDraftStore.FIELD_PALLET_HEIGHT));
+        assertEquals("14", restored.get(PalletDraftStore.FIELD_OSD_QUANTITY));
+        assertEquals("-5.5", restored.get(PalletDraftStore.FIELD_TEMP1));
+        assertEquals(3, restored.size());
+    }
+
+    @Test
+    public void processKill_afterOnPause_recoversEvenWithinTheWriteDelay() throws IOException {
+        SessionManager session = new SessionManager(journal, 60000);
+        PalletDraftStore drafts = new PalletDraftStore(session);
+
+        type(drafts, PalletDraftStore.FIELD_PALLET_HEIGHT, "60");
+        drafts.flush();  // onPause
+        type(drafts, PalletDraftStore.FIELD_OSD_QUANTITY, "3");  // Typed after onPause and never written
+
+        Map<String, String> restored = relaunch().restore();
+        assertEquals("60", restored.get(PalletDraftStore.FIELD_PALLET_HEIGHT));
+        assertNull(restored.get(PalletDraftStore.FIELD_OSD_QUANTITY));
+    }
+
+    @Test
+    public void emptiedField_isDroppedAndClearKeepsTheScreen() {
+        SessionManager session = new SessionManager(journal, 60000);
+        PalletDraftStore drafts = new PalletDraftStore(session);
+
+        type(drafts, PalletDraftStore.FIELD_PALLET_HEIGHT, "7");
+        drafts.onFieldChanged(PalletDraftStore.FIELD_PALLET_HEIGHT, "");
+        assertNull(drafts.getField(PalletDraftStore.FIELD_PALLET_HEIGHT));
+
+        type(drafts, PalletDraftStore.FIELD_TEMP2, "10");
+        drafts.clear();
+        assertTrue(drafts.restore().isEmpty());
+        assertEquals(ResumeState.SCREEN_PALLET_DETAIL, session.getResumeScreen());
+    }
+
+    @Test
+    public void unchangedValue_isNotRecordedAgain() {
+        SessionManager session = new SessionManager(journal, 60000);
+        PalletDraftStore drafts = new PalletDraftStore(session);
+
+        drafts.onFieldChanged(PalletDraftStore.FIELD_PALLET_HEIGHT, "72");
+        ResumeState first = session.getResume();
+        drafts.onFieldChanged(PalletDraftStore.FIELD_PALLET_HEIGHT, "72");
+        assertSame(first, session.getResume());
+    }
+
+    /**
+     * Feed a value one keystroke at a time, as the keypad does
+     */
+    private static void type(PalletDraftStore drafts, String field, String value) {
+        for (int i = 1; i <= value.length(); i++) {
+            drafts.onFieldChanged(field, value.substring(0, i));
+        }
+    }
+
+    private PalletDraftStore relaunch() throws IOException {
+        // No close(): whatever reached the file is all the next process sees
+        journal = SessionJournal.open(journalFile);
+        return new PalletDraftStore(new SessionManager(journal, 60000));
+    }
+}
@@ -0,0 +1,170 @@
+package com.erb.erbpalletcubing;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * PalletProgressTest - Local unit tests for the atomic pallet counter
+ * A list stands in for the CubingData rows of one PRO; its writer follows the
+ * same rule as DatabaseHelper.insertNextPalletRecord inside a transaction
+ */
+public class PalletProgressTest {
+
+    private static final String PRO = "1234567890";
+    private static final int THREADS = 8;
+    private static final int SAVES_PER_THREAD = 500;
+
+    private File journalFile;
+    private SessionJournal journal;
+    private SessionManager session;
+
+    @Before
+    public void setUp() throws IOException {
+        journalFile = File.createTempFile("session", ".journal");
+        journal = SessionJournal.open(journalFile);
+        session = new SessionManager(journal, 60000);
+    }
+
+    @After
+    public void tearDown() {
+        journal.close();
+        journalFile.delete();
+    }
+
+    @Test
+    public void concurrentSaves_neverLoseOrRepeatASequence() throws InterruptedException {
+        final FakeTable table = new FakeTable();
+        final PalletProgress progress = new PalletProgress(session);
+        progress.start(PRO, THREADS * SAVES_PER_THREAD, 0);
+
+        final CountDownLatch go = new CountDownLatch(1);
+        final List<Integer> returned = Collections.synchronizedList(new ArrayList<Integer>());
+        Thread[] workers = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        go.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < SAVES_PER_THREAD; i++) {
+                        int sequence = progress.saveNext(table);
+                        if (sequence != PalletProgress.FAILED) {
+                            returned.add(sequence);
+                        }
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        go.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        int saved = table.rows.size();
+        assertTrue("Some inserts should have rolled back", table.rollbacks > 0);
+        assertEquals(THREADS * SAVES_PER_THREAD - table.rollbacks, saved);
+        for (int i = 0; i < saved; i++) {
+            assertEquals("Row " + i, i + 1, (int) table.rows.get(i));
+        }
+
+        List<Integer> sorted = new ArrayList<>(returned);
+        Collections.sort(sorted);
+        assertEquals(table.rows, sorted);
+        assertEquals(saved, progress.getSavedCount());
+        assertEquals(saved, session.getCurrentPalletIndex());
+    }
+
+    @Test
+    public void failedInsert_doesNotAdvance() {
+        FakeTable table = new FakeTable();
+        table.failNext = true;
+        PalletProgress progress = new PalletProgress(session);
+        progress.start(PRO, 3, 0);
+
+        assertEquals(PalletProgress.FAILED, progress.saveNext(table));
+        assertEquals(0, progress.getSavedCount());
+        assertEquals(1, progress.saveNext(table));
+        assertEquals(1, session.getCurrentPalletIndex());
+    }
+
+    @Test
+    public void start_recoversFromSavedRowsNotSession() {
+        session.edit().pro(PRO).expected(5).palletIndex(2).commitAsync();
+
+        // Rows 3 and 4 were committed but the session write never made it
+        FakeTable table = new FakeTable();
+        for (int i = 1; i <= 4; i++) {
+            table.rows.add(i);
+        }
+        PalletProgress progress = new PalletProgress(session);
+        progress.start(session.getCurrentPro(), session.getExpectedPallets(), table.rows.size());
+
+        assertEquals(4, session.getCurrentPalletIndex());
+        assertTrue(progress.hasMorePallets());
+        assertEquals(5, progress.saveNext(table));
+        assertFalse(progress.hasMorePallets());
+        assertFalse(session.hasMorePallets());
+    }
+
+    @Test
+    public void tableAhead_counterFollowsTable() {
+        FakeTable table = new FakeTable();
+        PalletProgress progress = new PalletProgress(session);
+        progress.start(PRO, 10, 0);
+
+        table.rows.add(1);
+        table.rows.add(2);
+        assertEquals(3, progress.saveNext(table));
+        assertEquals(3, progress.getSavedCount());
+    }
+
+    @Test
+    public void saveNext_withoutStart_fails() {
+        PalletProgress progress = new PalletProgress(null);
+        assertEquals(PalletProgress.FAILED, progress.saveNext(new FakeTable()));
+        assertNull(progress.getProNumber());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void start_rejectsEmptyPro() {
+        new PalletProgress(null).start("", 1, 0);
+    }
+
+    /**
+     * Pallet sequences saved for one PRO; every seventh insert rolls back
+     */
+    private static class FakeTable implements PalletProgress.PalletWriter {
+        final List<Integer> rows = new ArrayList<>();
+        int attempts;
+        int rollbacks;
+        boolean failNext;
+
+        @Override
+        public int write(String proNumber, int sequence) {
+            // Not synchronized: PalletProgress must serialize writers itself
+            attempts++;
+            int palletSequence = Math.max(sequence, rows.size() + 1);
+            if (failNext || attempts % 7 == 0) {
+                failNext = false;
+                rollbacks++;
+                return PalletProgress.FAILED;
+            }
+            rows.add(palletSequence);
+            return palletSequence;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.erb.erbpalletcubing;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+/**
+ * PerfDiagnosticsDatabaseTest - Robolectric checks for the scratch copy of the live database
+ * The live connection stays open with uncheckpointed writes, as it does
+ * while the app is running.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class PerfDiagnosticsDatabaseTest {
+
+    private static final String LIVE_NAME = "diagnostics_live_test.db";
+    private static final int ROWS = 40;
+
+    private Context context;
+    private DatabaseHelper live;
+    private DatabaseHelper scratch;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        context.deleteDatabase(LIVE_NAME);
+        context.deleteDatabase(PerfDiagnostics.SCRATCH_DATABASE_NAME);
+        live = new DatabaseHelper(context, LIVE_NAME);
+        live.getWritableDatabase().enableWriteAheadLogging();
+        assertEquals(ROWS, live.insertRecords(new SyntheticDataset(3, ROWS)));
+    }
+
+    @After
+    public void tearDown() {
+        if (scratch != null) {
+            scratch.close();
+        }
+        live.close();
+        context.deleteDatabase(LIVE_NAME);
+        context.deleteDatabase(PerfDiagnostics.SCRATCH_DATABASE_NAME);
+    }
+
+    @Test
+    public void copyDatabase_snapshotsTheOpenLiveDatabase() throws Exception {
+        PerfDiagnostics.copyDatabase(context.getDatabasePath(LIVE_NAME),
+                context.getDatabasePath(PerfDiagnostics.SCRATCH_DATABASE_NAME));
+
+        assertCopied();
+    }
+
+    @Test
+    public void copyTables_rebuildsSchemaRowsAndVersion() {
+        File target = context.getDatabasePath(PerfDiagnostics.SCRATCH_DATABASE_NAME);
+
+        PerfDiagnostics.copyTables(context.getDatabasePath(LIVE_NAME), target);
+
+        SQLiteDatabase copy = SQLiteDatabase.openOrCreateDatabase(target, null);
+        try {
+            assertEquals(live.getReadableDatabase().getVersion(), copy.getVersion());
+            Cursor index = copy.rawQuery("SELECT name FROM sqlite_master WHERE type = 'index' AND name = ?",
+                    new String[]{DatabaseHelper.INDEX_PRO_NUMBER_PACKED});
+            try {
+                assertEquals(1, index.getCount());
+            } finally {
+                index.close();
+            }
+        } finally {
+            copy.close();
+        }
+        assertCopied();
+    }
+
+    private void assertCopied() {
+        DatabaseHelper.CubingRecord first = new SyntheticDataset(3, 1).iterator().next();
+        scratch = new DatabaseHelper(context, PerfDiagnostics.SCRATCH_DATABASE_NAME);
+        assertEquals(live.getRecordCountByTrailer(first.trailerNumber),
+                scratch.getRecordCountByTrailer(first.trailerNumber));
+        assertEquals(live.getRecordCountByPro(first.proNumberIncoming),
+                scratch.getRecordCountByPro(first.proNumberIncoming));
+
+        // The copy is scratch: writing to it leaves the live database alone
+        assertTrue(scratch.deleteByTrailerNumber(first.trailerNumber) > 0);
+        assertTrue(live.getRecordCountByTrailer(first.trailerNumber) > 0);
+    }
+}
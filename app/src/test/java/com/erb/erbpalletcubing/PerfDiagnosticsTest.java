@@ -0,0 +1,126 @@
+package com.erb.erbpalletcubing;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * PerfDiagnosticsTest - Local unit tests for the self-check workloads and report
+ * The database workloads need SQLite and run on the device
+ */
+public class PerfDiagnosticsTest {
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("diagnostics").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void measure_timesEveryOperationAfterWarmup() throws Exception {
+        final List<Integer> calls = new ArrayList<>();
+        PerfDiagnostics.Result result = PerfDiagnostics.measure("test", 3, 10, new PerfDiagnostics.Operation() {
+            @Override
+            public void run(int index) {
+                calls.add(index);
+            }
+        });
+
+        assertEquals(13, calls.size());
+        assertEquals(Arrays.asList(0, 1, 2), calls.subList(0, 3));
+        assertEquals(10, result.stats.getCount());
+        assertTrue(result.stats.getWallNanos() > 0);
+    }
+
+    @Test
+    public void sessionWorkload_commitsEveryWrite() throws Exception {
+        File journal = new File(dir, PerfDiagnostics.SCRATCH_JOURNAL_NAME);
+        List<PerfDiagnostics.Result> results = PerfDiagnostics.runSessionWorkloads(journal, 50);
+
+        assertEquals(1, results.size());
+        assertEquals(50, results.get(0).stats.getCount());
+        SessionManager reopened = new SessionManager(SessionJournal.open(journal), SessionManager.DEFAULT_WRITE_DELAY_MS);
+        assertEquals(PerfDiagnostics.proFor(49), reopened.getCurrentPro());
+        reopened.close();
+    }
+
+    @Test
+    public void validatorWorkload_checksGeneratedInput() throws Exception {
+        assertEquals(ValidationHelper.VALID, ValidationHelper.checkProNumber(PerfDiagnostics.proFor(123)));
+
+        List<PerfDiagnostics.Result> results = PerfDiagnostics.runValidatorWorkloads(20);
+        assertEquals(2, results.size());
+        for (PerfDiagnostics.Result result : results) {
+            assertEquals(20, result.stats.getCount());
+            assertTrue(result.stats.percentileNanos(50) <= result.stats.percentileNanos(99));
+        }
+    }
+
+    @Test
+    public void report_isCsvWithHeaderLines() throws Exception {
+        Map<String, String> header = new LinkedHashMap<>();
+        header.put("device", "Honeywell CT50");
+        header.put("app", "1.0 (1)");
+        LatencyStats stats = new LatencyStats();
+        for (int i = 1; i <= 100; i++) {
+            stats.add(i * 1000L);
+        }
+        stats.setWallNanos(100 * 50500L);
+        List<PerfDiagnostics.Result> results = new ArrayList<>();
+        results.add(new PerfDiagnostics.Result("db.insert", stats));
+
+        String[] lines = PerfDiagnostics.formatReport(header, results).split("\n");
+
+        assertEquals("# device=Honeywell CT50", lines[0]);
+        assertEquals("# app=1.0 (1)", lines[1]);
+        assertEquals(PerfDiagnostics.CSV_HEADER, lines[2]);
+        assertEquals("db.insert,100,50.0,95.0,99.0,100.0,50.5,19802.0", lines[3]);
+    }
+
+    @Test
+    public void copyDatabase_withoutLiveDatabase_clearsScratchCopy() throws Exception {
+        File live = new File(dir, "live.db");
+        File scratch = new File(dir, "scratch.db");
+        write(scratch, "old scratch");
+        write(new File(scratch.getPath() + "-journal"), "stale");
+
+        PerfDiagnostics.copyDatabase(live, scratch);
+
+        assertFalse(scratch.exists());
+        assertFalse(new File(scratch.getPath() + "-journal").exists());
+        assertFalse(live.exists());
+    }
+
+    private static void write(File file, String text) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(text.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.erb.erbpalletcubing;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * ProNumberTest - Local unit tests for the packed-long PRO number
+ */
+public class ProNumberTest {
+
+    @Test
+    public void parse_splitsPrefixAndErbArithmetically() {
+        ProNumber pro = ProNumber.parse("1234567890");
+        assertNotNull(pro);
+        assertEquals(1234567890L, pro.longValue());
+        assertEquals(123, pro.prefix());
+        assertEquals(4567890, pro.erb());
+        assertEquals("123", pro.prefixString());
+        assertEquals("4567890", pro.erbString());
+        assertEquals("1234567890", pro.toString());
+    }
+
+    @Test
+    public void leadingZeros_surviveRoundTrip() {
+        ProNumber pro = ProNumber.parse("0010004567");
+        assertEquals("0010004567", pro.toString());
+        assertEquals("001", pro.prefixString());
+        assertEquals("0004567", pro.erbString());
+        assertEquals(pro, ProNumber.of(pro.longValue()));
+    }
+
+    @Test
+    public void parse_agreesWithStringExtraction() {
+        String[] samples = {"1234567890", " 9876543210 ", "0000000000", "9999999999", "5550001234"};
+        for (String sample : samples) {
+            ProNumber pro = ProNumber.parse(sample);
+            assertEquals(ValidationHelper.extractProPrefix(sample.trim()), pro.prefixString());
+            assertEquals(ValidationHelper.extractProErb(sample.trim()), pro.erbString());
+        }
+    }
+
+    @Test
+    public void parse_rejectsWhatValidationHelperRejects() {
+        String[] samples = {null, "", "   ", "123456789", "12345678901", "12345X7890", "-123456789", "+123456789"};
+        for (String sample : samples) {
+            assertFalse(ValidationHelper.isValidProNumber(sample));
+            assertEquals(ProNumber.INVALID, ProNumber.parseValue(sample));
+            assertNull(ProNumber.parse(sample));
+        }
+    }
+
+    @Test
+    public void equalProNumbers_workAsMapKeys() {
+        Map<ProNumber, String> map = new HashMap<>();
+        map.put(ProNumber.parse("1234567890"), "first");
+        assertEquals("first", map.get(ProNumber.parse(" 1234567890")));
+        assertEquals(ProNumber.parse("1234567890").hashCode(), ProNumber.of(1234567890L).hashCode());
+        assertNotEquals(ProNumber.parse("1234567890"), ProNumber.parse("1234567891"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void of_rejectsOutOfRangeValue() {
+        ProNumber.of(10000000000L);
+    }
+}
@@ -0,0 +1,70 @@
+package com.erb.erbpalletcubing;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * RecordExporterTest - Local unit tests for CSV export rows
+ */
+public class RecordExporterTest {
+
+    private static DatabaseHelper.CubingRecord record() {
+        DatabaseHelper.CubingRecord record = new DatabaseHelper.CubingRecord();
+        record.timestamp = "2026-10-18 06:30:00";
+        record.terminal = "001";
+        record.receiver = "23146";
+        record.trailerNumber = "401252";
+        record.proNumberIncoming = "1234567890";
+        record.proPrefix = "123";
+        record.proNumberErb = "4567890";
+        record.freightType = "Dual";
+        record.temp1 = "34.5";
+        record.temp2 = "-10";
+        record.expectedPalletsPro = 4;
+        record.palletSequence = 2;
+        record.palletHeight = 48;
+        record.condition = "OK";
+        record.status = "NEW";
+        return record;
+    }
+
+    @Test
+    public void row_matchesHeaderColumnsWithExportTemperatures() {
+        String row = RecordExporter.formatRow(record());
+
+        assertEquals("2026-10-18 06:30:00,001,23146,401252,1234567890,123,4567890,Dual,34.5F,-10F,4,2,48,OK,,,,NEW\n",
+                row);
+        assertEquals(RecordExporter.HEADER.split(",").length, row.trim().split(",", -1).length);
+    }
+
+    @Test
+    public void row_quotesFieldsWithSeparators() {
+        DatabaseHelper.CubingRecord record = record();
+        record.temp2 = null;
+        record.condition = "OS&D";
+        record.osdReason = "Crushed, \"top\" layer";
+        record.osdQuantity = 3;
+        record.osdQuantityType = "Cases";
+
+        String row = RecordExporter.formatRow(record);
+
+        assertTrue(row, row.endsWith(",34.5F,,4,2,48,OS&D,\"Crushed, \"\"top\"\" layer\",3,Cases,NEW\n"));
+    }
+
+    @Test
+    public void write_emitsHeaderThenOneLinePerRecord() throws Exception {
+        StringWriter out = new StringWriter();
+
+        long count = RecordExporter.write(out, Arrays.asList(record(), record()));
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(2, count);
+        assertEquals(3, lines.length);
+        assertEquals(RecordExporter.HEADER, lines[0]);
+        assertEquals(lines[1], lines[2]);
+    }
+}
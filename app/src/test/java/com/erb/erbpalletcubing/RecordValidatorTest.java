@@ -0,0 +1,187 @@
+package com.erb.erbpalletcubing;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * RecordValidatorTest - Local unit tests for whole-record validation rules
+ */
+public class RecordValidatorTest {
+
+    private final RecordValidator validator = new RecordValidator();
+
+    private static DatabaseHelper.CubingRecord validRecord() {
+        DatabaseHelper.CubingRecord record = new DatabaseHelper.CubingRecord();
+        record.terminal = "001";
+        record.receiver = "23146";
+        record.trailerNumber = "401252";
+        record.proNumberIncoming = "1234567890";
+        record.proPrefix = "123";
+        record.proNumberErb = "4567890";
+        record.freightType = "Fresh";
+        record.temp1 = "35";
+        record.expectedPalletsPro = 5;
+        record.palletSequence = 1;
+        record.palletHeight = 72;
+        record.condition = "OK";
+        record.status = "NEW";
+        return record;
+    }
+
+    @Test
+    public void validRecord_hasNoViolations() {
+        assertTrue(validator.validate(validRecord(), 0).isEmpty());
+        assertTrue(validator.isValid(validRecord()));
+    }
+
+    @Test
+    public void dualFreight_requiresTemp2() {
+        DatabaseHelper.CubingRecord record = validRecord();
+        record.freightType = RecordValidator.FREIGHT_TYPE_DUAL;
+        assertSingleViolation(record, RecordValidator.RULE_TEMP2_MATCHES_FREIGHT);
+
+        record.temp2 = "-5";
+        assertTrue(validator.isValid(record));
+
+        record.freightType = "Fresh";
+        assertSingleViolation(record, RecordValidator.RULE_TEMP2_MATCHES_FREIGHT);
+    }
+
+    @Test
+    public void osdReasonAndQuantity_mustBePresentTogether() {
+        DatabaseHelper.CubingRecord record = validRecord();
+        record.osdReason = "Damaged";
+        assertSingleViolation(record, RecordValidator.RULE_OSD_REASON_WITH_QUANTITY);
+
+        record.osdQuantity = 3;
+        assertTrue(validator.isValid(record));
+
+        record.osdReason = "  ";
+        assertSingleViolation(record, RecordValidator.RULE_OSD_REASON_WITH_QUANTITY);
+    }
+
+    @Test
+    public void palletSequence_mustNotExceedExpected() {
+        DatabaseHelper.CubingRecord record = validRecord();
+        record.palletSequence = 5;
+        assertTrue(validator.isValid(record));
+
+        record.palletSequence = 6;
+        assertSingleViolation(record, RecordValidator.RULE_SEQUENCE_WITHIN_EXPECTED);
+
+        record.palletSequence = 0;
+        assertSingleViolation(record, RecordValidator.RULE_SEQUENCE_WITHIN_EXPECTED);
+    }
+
+    @Test
+    public void proParts_mustMatchIncomingPro() {
+        DatabaseHelper.CubingRecord record = validRecord();
+        record.proPrefix = "124";
+        assertSingleViolation(record, RecordValidator.RULE_PRO_PARTS_MATCH_INCOMING);
+
+        record = validRecord();
+        record.proNumberErb = "456789";
+        assertSingleViolation(record, RecordValidator.RULE_PRO_PARTS_MATCH_INCOMING);
+
+        record = validRecord();
+        record.proNumberIncoming = "123456789";
+        assertSingleViolation(record, RecordValidator.RULE_PRO_PARTS_MATCH_INCOMING);
+    }
+
+    @Test
+    public void batch_reportsSameViolationsInOrderForAnyThreadCount() {
+        List<DatabaseHelper.CubingRecord> records = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            DatabaseHelper.CubingRecord record = validRecord();
+            if (i % 7 == 0) {
+                record.palletSequence = 99;
+            }
+            if (i % 11 == 0) {
+                record.osdReason = "Short";
+            }
+            records.add(record);
+        }
+
+        List<RecordValidator.Violation> single = validator.validateBatch(records, 1);
+        List<RecordValidator.Violation> parallel = validator.validateBatch(records, 4);
+
+        assertEquals(1429 + 910, single.size());
+        assertEquals(single.size(), parallel.size());
+        for (int i = 0; i < single.size(); i++) {
+            assertEquals(single.get(i).recordIndex, parallel.get(i).recordIndex);
+            assertEquals(single.get(i).ruleId, parallel.get(i).ruleId);
+        }
+    }
+
+    @Test
+    public void batches_reuseTheSharedWorkers() {
+        List<DatabaseHelper.CubingRecord> records = new ArrayList<>();
+        for (int i = 0; i < 4000; i++) {
+            records.add(validRecord());
+        }
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(validator.validateBatch(records, 4).isEmpty());
+        }
+
+        int workers = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("RecordValidator-")) {
+                assertTrue(thread.isDaemon());
+                workers++;
+            }
+        }
+        assertTrue("Workers: " + workers, workers >= 1 && workers <= Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    @Test
+    public void pluggedInRules_runAfterTheDefaultsInListOrder() {
+        List<RecordValidator.RuleDefinition> rules = RecordValidator.defaultRules();
+        assertEquals(4, rules.size());
+        rules.add(new RecordValidator.RuleDefinition("HEIGHT_LIMIT", DatabaseHelper.COLUMN_PALLET_HEIGHT,
+                "Pallet too tall for the dock door", new RecordValidator.Rule() {
+                    @Override
+                    public boolean isSatisfiedBy(DatabaseHelper.CubingRecord record) {
+                        return record.palletHeight <= 96;
+                    }
+                }));
+        RecordValidator extended = new RecordValidator(rules);
+
+        DatabaseHelper.CubingRecord record = validRecord();
+        record.palletHeight = 100;
+        record.palletSequence = 6;
+        assertTrue(validator.isValid(validRecord()));
+        assertEquals(1, validator.validate(record, 0).size());
+
+        List<RecordValidator.Violation> violations = extended.validate(record, 3);
+        assertEquals(2, violations.size());
+        assertEquals(RecordValidator.RULE_SEQUENCE_WITHIN_EXPECTED, violations.get(0).ruleId);
+        assertEquals("HEIGHT_LIMIT", violations.get(1).ruleId);
+        assertEquals(3, violations.get(1).recordIndex);
+        assertEquals(5, extended.getRules().size());
+
+        // The default set is unchanged by what a caller did with its copy
+        assertEquals(4, RecordValidator.defaultRules().size());
+    }
+
+    @Test
+    public void replacedRules_dropTheDefaults() {
+        RecordValidator none = new RecordValidator(new ArrayList<RecordValidator.RuleDefinition>());
+        DatabaseHelper.CubingRecord record = validRecord();
+        record.palletSequence = 99;
+
+        assertTrue(none.isValid(record));
+        assertFalse(none.isValid(null));
+        assertEquals(RecordValidator.RULE_RECORD_PRESENT, none.validate(null, 0).get(0).ruleId);
+    }
+
+    private void assertSingleViolation(DatabaseHelper.CubingRecord record, String ruleId) {
+        List<RecordValidator.Violation> violations = validator.validate(record, 0);
+        assertEquals(violations.toString(), 1, violations.size());
+        assertEquals(ruleId, violations.get(0).ruleId);
+    }
+}
@@ -0,0 +1,71 @@
+package com.erb.erbpalletcubing;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * ResumeStateTest - Local unit tests for the typed resume point
+ */
+public class ResumeStateTest {
+
+    @Test
+    public void bytes_roundTripEveryField() {
+        ResumeState state = ResumeState.builder(ResumeState.SCREEN_PALLET_DETAIL)
+                .palletHeight(84)
+                .condition("OSD")
+                .osd("Crushed", 2, "Pallets")
+                .extra("note", "shrink wrap torn")
+                .extra("empty", null)
+                .build();
+
+        ResumeState restored = ResumeState.fromBytes(state.toBytes());
+        assertEquals(state, restored);
+        assertEquals(84, restored.getPalletHeight());
+        assertEquals("Crushed", restored.getOsdReason());
+        assertNull(restored.getExtras().get("empty"));
+        assertTrue(restored.getExtras().containsKey("empty"));
+    }
+
+    @Test
+    public void unsetFields_defaultToNone() {
+        ResumeState state = ResumeState.fromBytes(ResumeState.builder(ResumeState.SCREEN_TRAILER).build().toBytes());
+        assertEquals(ResumeState.SCREEN_TRAILER, state.getScreen());
+        assertEquals(ResumeState.NONE, state.getPalletHeight());
+        assertEquals(ResumeState.NONE, state.getOsdQuantity());
+        assertNull(state.getCondition());
+        assertTrue(state.getExtras().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void builder_requiresScreen() {
+        ResumeState.builder("");
+    }
+
+    @Test
+    public void fromBytes_rejectsMissingTruncatedOrTrailingData() {
+        byte[] valid = ResumeState.builder(ResumeState.SCREEN_PRO_HEADER).extra("expected", "5").build().toBytes();
+
+        assertNull(ResumeState.fromBytes(null));
+        assertNull(ResumeState.fromBytes(new byte[0]));
+        for (int length = 1; length < valid.length; length++) {
+            assertNull("length " + length, ResumeState.fromBytes(Arrays.copyOf(valid, length)));
+        }
+        assertNull(ResumeState.fromBytes(Arrays.copyOf(valid, valid.length + 1)));
+
+        byte[] wrongVersion = valid.clone();
+        wrongVersion[0] = 99;
+        assertNull(ResumeState.fromBytes(wrongVersion));
+
+        // Random corruption must never throw
+        Random random = new Random(36);
+        for (int i = 0; i < 10000; i++) {
+            byte[] corrupt = valid.clone();
+            corrupt[random.nextInt(corrupt.length)] = (byte) random.nextInt(256);
+            ResumeState.fromBytes(corrupt);
+        }
+    }
+}
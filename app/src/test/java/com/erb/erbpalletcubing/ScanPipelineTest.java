@@ -0,0 +1,167 @@
+package com.erb.erbpalletcubing;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * ScanPipelineTest - Local unit tests for scan ingestion
+ * Replays a recorded-style burst of 1,000 scanner reads through the pipeline;
+ * delivery latency is measured by ScanPipelineBenchmark
+ */
+public class ScanPipelineTest {
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private ScanPipeline pipeline;
+
+    @After
+    public void tearDown() {
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    public void burstOf1000Scans_deliversEveryUniqueScanInOrder() throws Exception {
+        // Recorded burst: PROs and trailers, about one in four read twice by the scanner
+        List<String> reads = new ArrayList<>();
+        List<String> unique = new ArrayList<>();
+        Random random = new Random(1234);
+        while (reads.size() < 1000) {
+            String barcode = random.nextInt(3) == 0
+                    ? "T" + (100000 + unique.size())
+                    : String.valueOf(1000000000L + unique.size());
+            unique.add(barcode);
+            reads.add(barcode);
+            if (random.nextInt(4) == 0 && reads.size() < 1000) {
+                reads.add(barcode);
+            }
+        }
+
+        final List<ScanPipeline.ScanResult> received = Collections.synchronizedList(new ArrayList<ScanPipeline.ScanResult>());
+        final CountDownLatch done = new CountDownLatch(unique.size());
+
+        pipeline = new ScanPipeline(DIRECT, new ScanPipeline.Listener() {
+            @Override
+            public void onScans(List<ScanPipeline.ScanResult> batch) {
+                for (ScanPipeline.ScanResult scan : batch) {
+                    received.add(scan);
+                    done.countDown();
+                }
+            }
+        });
+        pipeline.start();
+
+        for (String read : reads) {
+            assertTrue(pipeline.offer(read));
+        }
+
+        assertTrue("Timed out waiting for scans", done.await(5, TimeUnit.SECONDS));
+
+        assertEquals(0, pipeline.getDroppedCount());
+        assertEquals(1000, pipeline.getReceivedCount());
+        assertEquals(reads.size() - unique.size(), pipeline.getDuplicateCount());
+        assertEquals(unique.size(), received.size());
+        for (int i = 0; i < unique.size(); i++) {
+            ScanPipeline.ScanResult scan = received.get(i);
+            assertEquals(unique.get(i), scan.data);
+            assertEquals(scan.data.startsWith("T") ? ScanPipeline.ScanType.TRAILER : ScanPipeline.ScanType.PRO,
+                    scan.type);
+        }
+    }
+
+    @Test
+    public void repeatedRead_isDedupedOnlyWithinWindow() throws Exception {
+        final List<ScanPipeline.ScanResult> received = Collections.synchronizedList(new ArrayList<ScanPipeline.ScanResult>());
+        final CountDownLatch done = new CountDownLatch(2);
+        pipeline = new ScanPipeline(16, 500, DIRECT, new ScanPipeline.Listener() {
+            @Override
+            public void onScans(List<ScanPipeline.ScanResult> batch) {
+                for (ScanPipeline.ScanResult scan : batch) {
+                    received.add(scan);
+                    done.countDown();
+                }
+            }
+        });
+
+        long start = 0;
+        pipeline.offer("1234567890", start);
+        pipeline.offer("1234567890 ", start + TimeUnit.MILLISECONDS.toNanos(100));
+        pipeline.offer("1234567890", start + TimeUnit.MILLISECONDS.toNanos(700));
+        pipeline.start();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, received.size());
+        assertEquals(1, pipeline.getDuplicateCount());
+    }
+
+    @Test
+    public void heldTrigger_staysDedupedUntilTheLabelIsOutOfViewForAWindow() throws Exception {
+        final List<ScanPipeline.ScanResult> received = Collections.synchronizedList(new ArrayList<ScanPipeline.ScanResult>());
+        final CountDownLatch done = new CountDownLatch(2);
+        pipeline = new ScanPipeline(64, 500, DIRECT, new ScanPipeline.Listener() {
+            @Override
+            public void onScans(List<ScanPipeline.ScanResult> batch) {
+                for (ScanPipeline.ScanResult scan : batch) {
+                    received.add(scan);
+                    done.countDown();
+                }
+            }
+        });
+
+        // Re-read every 100 ms for 3 s, six windows long
+        long last = 0;
+        for (long ms = 0; ms <= 3000; ms += 100) {
+            last = TimeUnit.MILLISECONDS.toNanos(ms);
+            assertTrue(pipeline.offer("1234567890", last));
+        }
+        // Read again once the label has been away a full window
+        assertTrue(pipeline.offer("1234567890", last + TimeUnit.MILLISECONDS.toNanos(500)));
+        pipeline.start();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, received.size());
+        assertEquals(0, received.get(0).receivedAtNanos);
+        assertEquals(last + TimeUnit.MILLISECONDS.toNanos(500), received.get(1).receivedAtNanos);
+        assertEquals(30, pipeline.getDuplicateCount());
+    }
+
+    @Test
+    public void fullQueue_dropsWithoutBlocking() {
+        pipeline = new ScanPipeline(4, 500, DIRECT, new ScanPipeline.Listener() {
+            @Override
+            public void onScans(List<ScanPipeline.ScanResult> batch) {
+            }
+        });
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(pipeline.offer("T" + i));
+        }
+        assertFalse(pipeline.offer("T4"));
+        assertEquals(1, pipeline.getDroppedCount());
+    }
+
+    @Test
+    public void classify_usesValidationHelperRules() {
+        assertEquals(ScanPipeline.ScanType.PRO, ScanPipeline.classify("1234567890"));
+        assertEquals(ScanPipeline.ScanType.TRAILER, ScanPipeline.classify("401252"));
+        assertEquals(ScanPipeline.ScanType.TRAILER, ScanPipeline.classify("ABC123"));
+        assertEquals(ScanPipeline.ScanType.INVALID, ScanPipeline.classify("ABC-123"));
+        assertEquals(ScanPipeline.ScanType.INVALID, ScanPipeline.classify(""));
+    }
+}
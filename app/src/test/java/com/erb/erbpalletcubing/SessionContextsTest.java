@@ -0,0 +1,154 @@
+package com.erb.erbpalletcubing;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * SessionContextsTest - Local unit tests for named session contexts
+ */
+public class SessionContextsTest {
+
+    private static final int OPEN_CONTEXTS = 50;
+    private static final int SWITCH_ROUNDS = 200;
+
+    private File directory;
+    private SessionContexts contexts;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = File.createTempFile("sessions", "");
+        directory.delete();
+        directory.mkdirs();
+    }
+
+    @After
+    public void tearDown() {
+        if (contexts != null) {
+            contexts.close();
+        }
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void contexts_areIsolated() {
+        contexts = new SessionContexts(directory, 4, 16, 60000);
+
+        SessionManager first = contexts.switchTo(SessionContexts.forTrailer("23146", "401252"));
+        first.edit().trailer("401252").pro("1234567890").palletIndex(3).commitAsync();
+
+        SessionManager second = contexts.switchTo(SessionContexts.forTrailer("23146", "401300"));
+        assertNull(second.getCurrentTrailer());
+        second.edit().trailer("401300").palletIndex(1).commitAsync();
+
+        assertSame(first, contexts.switchTo(SessionContexts.forTrailer("23146", "401252")));
+        assertEquals("1234567890", contexts.current().getCurrentPro());
+        assertEquals(3, contexts.current().getCurrentPalletIndex());
+    }
+
+    @Test
+    public void shiftHandoff_keepsPreviousReceiversWork() {
+        contexts = new SessionContexts(directory, 4, 16, 60000);
+
+        contexts.switchTo(SessionContexts.forReceiver("23146")).loginUser("001", "23146");
+        contexts.switchTo(SessionContexts.forTrailer("23146", "401252")).setCurrentTrailer("401252");
+
+        SessionManager next = contexts.switchTo(SessionContexts.forReceiver("30001"));
+        assertFalse(next.isLoggedIn());
+        next.loginUser("001", "30001");
+
+        contexts.flushAll();
+        contexts.close();
+        contexts = new SessionContexts(directory, 4, 16, 60000);
+
+        assertTrue(contexts.switchTo(SessionContexts.forReceiver("23146")).isLoggedIn());
+        assertEquals("401252", contexts.switchTo(SessionContexts.forTrailer("23146", "401252")).getCurrentTrailer());
+        assertEquals("30001", contexts.switchTo(SessionContexts.forReceiver("30001")).getReceiverId());
+    }
+
+    @Test
+    public void leastRecentlyUsed_isUnloadedButKept() {
+        contexts = new SessionContexts(directory, 2, 16, 60000);
+
+        contexts.switchTo("a").setCurrentTrailer("100001");
+        contexts.switchTo("b");
+        contexts.switchTo("c");
+
+        assertEquals(2, contexts.getLoadedCount());
+        assertFalse(contexts.isLoaded("a"));
+        assertEquals("Unloading flushed the context", "100001", contexts.switchTo("a").getCurrentTrailer());
+        assertFalse(contexts.isLoaded("b"));
+    }
+
+    @Test
+    public void retention_dropsOldestStoredContexts() {
+        contexts = new SessionContexts(directory, 2, 4, 60000);
+
+        for (int i = 0; i < 8; i++) {
+            SessionManager session = contexts.switchTo("t" + i);
+            session.edit().trailer(String.valueOf(100000 + i)).commit();
+            new File(directory, "t" + i + SessionContexts.FILE_SUFFIX).setLastModified(1000000L * (i + 1));
+        }
+
+        String[] stored = contexts.listContexts().toArray(new String[0]);
+        Arrays.sort(stored);
+        assertTrue("Kept " + Arrays.toString(stored), stored.length <= 5);
+        assertTrue(Arrays.asList(stored).contains("t7"));
+        assertFalse(Arrays.asList(stored).contains("t0"));
+    }
+
+    @Test
+    public void remove_refusesCurrentContext() {
+        contexts = new SessionContexts(directory, 2, 4, 60000);
+        contexts.switchTo("a").edit().trailer("1").commit();
+        contexts.switchTo("b");
+
+        assertFalse(contexts.remove("b"));
+        assertTrue(contexts.remove("a"));
+        assertNull(contexts.switchTo("a").getCurrentTrailer());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void contextNames_rejectPathCharacters() {
+        SessionContexts.forTrailer("23146", "../401252");
+    }
+
+    @Test
+    public void switching_across50OpenContexts_keepsEachIsolated() {
+        checkSwitches(new SessionContexts(directory, OPEN_CONTEXTS, OPEN_CONTEXTS * 2, 60000));
+        checkSwitches(new SessionContexts(directory, 8, OPEN_CONTEXTS * 2, 60000));  // Lazy reopen
+    }
+
+    /**
+     * Switch round-robin between the contexts, checking each is isolated
+     */
+    private void checkSwitches(SessionContexts checked) {
+        contexts = checked;
+        for (int i = 0; i < OPEN_CONTEXTS; i++) {
+            contexts.switchTo(SessionContexts.forTrailer("23146", String.valueOf(400000 + i)))
+                    .edit().trailer(String.valueOf(400000 + i)).palletIndex(i).commitAsync();
+        }
+
+        for (int round = 0; round < SWITCH_ROUNDS; round++) {
+            int i = (round * 7) % OPEN_CONTEXTS;
+            String name = SessionContexts.forTrailer("23146", String.valueOf(400000 + i));
+            SessionManager session = contexts.switchTo(name);
+            assertEquals(i, session.getCurrentPalletIndex());
+        }
+
+        contexts.close();
+        contexts = null;
+    }
+}
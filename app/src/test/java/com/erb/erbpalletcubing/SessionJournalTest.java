@@ -0,0 +1,214 @@
+package com.erb.erbpalletcubing;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * SessionJournalTest - Local unit tests for the append-only session journal
+ * Torn writes are simulated by cutting or corrupting the file after a commit
+ */
+public class SessionJournalTest {
+
+    private static final int REPEATED_WRITES = 500;
+
+    private File file;
+    private SessionJournal journal;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("journal", ".bin");
+        journal = SessionJournal.open(file);
+    }
+
+    @After
+    public void tearDown() {
+        journal.close();
+        file.delete();
+        new File(file.getPath() + ".tmp").delete();
+    }
+
+    @Test
+    public void commits_replayAfterReopen() throws IOException {
+        journal.commit(new SessionJournal.Batch().putBoolean("isLoggedIn", true).putString("terminalId", "001"), true);
+        journal.commit(new SessionJournal.Batch().putInt("currentPalletIndex", 3).putString("temp1", "-10°F"), false);
+        journal.commit(new SessionJournal.Batch().remove("terminalId").putInt("currentPalletIndex", 4), false);
+
+        SessionJournal reopened = reopen();
+        assertTrue(reopened.getBoolean("isLoggedIn", false));
+        assertNull(reopened.getString("terminalId", null));
+        assertEquals(4, reopened.getInt("currentPalletIndex", 0));
+        assertEquals("-10°F", reopened.getString("temp1", null));
+    }
+
+    @Test
+    public void bytesValues_roundTripAsCopies() throws IOException {
+        byte[] value = {1, 2, 3, 0, (byte) 0xFF};
+        journal.commit(new SessionJournal.Batch().putBytes("blob", value), false);
+        value[0] = 9;
+
+        assertArrayEquals(new byte[]{1, 2, 3, 0, (byte) 0xFF}, journal.getBytes("blob"));
+        journal.getBytes("blob")[1] = 9;
+        assertArrayEquals(new byte[]{1, 2, 3, 0, (byte) 0xFF}, reopen().getBytes("blob"));
+        assertNull(journal.getBytes("missing"));
+    }
+
+    @Test
+    public void clear_removesEarlierKeysOnly() throws IOException {
+        journal.commit(new SessionJournal.Batch().putString("a", "1").putString("b", "2"), false);
+        journal.commit(new SessionJournal.Batch().clear().putString("c", "3"), false);
+
+        Map<String, Object> all = reopen().getAll();
+        assertEquals(1, all.size());
+        assertEquals("3", all.get("c"));
+    }
+
+    @Test
+    public void tornLastRecord_isDroppedAtEveryCutPoint() throws IOException {
+        journal.commit(new SessionJournal.Batch().putString("currentTrailer", "401252").putInt("expectedPallets", 5), true);
+        long committedSize = journal.getFileSize();
+        journal.commit(new SessionJournal.Batch().putString("currentTrailer", "999999").putInt("expectedPallets", 9), true);
+        long fullSize = journal.getFileSize();
+        journal.close();
+        byte[] full = readFile();
+
+        for (long cut = committedSize; cut < fullSize; cut++) {
+            writeFile(Arrays.copyOf(full, (int) cut));
+            SessionJournal recovered = SessionJournal.open(file);
+            assertEquals("cut at " + cut, "401252", recovered.getString("currentTrailer", null));
+            assertEquals("cut at " + cut, 5, recovered.getInt("expectedPallets", 0));
+            assertEquals("cut at " + cut, committedSize, file.length());
+            recovered.close();
+        }
+    }
+
+    @Test
+    public void corruptRecord_andEverythingAfterIt_isDropped() throws IOException {
+        journal.commit(new SessionJournal.Batch().putString("currentPro", "1234567890"), true);
+        long firstEnd = journal.getFileSize();
+        journal.commit(new SessionJournal.Batch().putString("currentPro", "5550001234"), true);
+        journal.commit(new SessionJournal.Batch().putString("temp1", "35"), true);
+        journal.close();
+
+        byte[] data = readFile();
+        data[(int) firstEnd + SessionJournal.RECORD_HEADER_SIZE + 3] ^= 0x40;  // Flip a payload bit
+        writeFile(data);
+
+        SessionJournal recovered = SessionJournal.open(file);
+        assertEquals("1234567890", recovered.getString("currentPro", null));
+        assertNull(recovered.getString("temp1", null));
+        recovered.close();
+    }
+
+    @Test
+    public void zeroFilledTail_isTruncatedAndAppendsContinue() throws IOException {
+        journal.commit(new SessionJournal.Batch().putString("currentTrailer", "401252"), true);
+        long goodSize = journal.getFileSize();
+        journal.close();
+
+        // Power loss can leave allocated but unwritten blocks as zeros
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.setLength(goodSize + 4096);
+        raf.close();
+
+        SessionJournal recovered = SessionJournal.open(file);
+        assertEquals(goodSize, file.length());
+        recovered.commit(new SessionJournal.Batch().putInt("currentPalletIndex", 2), true);
+        recovered.close();
+
+        SessionJournal again = SessionJournal.open(file);
+        assertEquals("401252", again.getString("currentTrailer", null));
+        assertEquals(2, again.getInt("currentPalletIndex", 0));
+        again.close();
+    }
+
+    @Test
+    public void badHeader_startsFresh() throws IOException {
+        journal.close();
+        writeFile(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+
+        SessionJournal fresh = SessionJournal.open(file);
+        assertTrue(fresh.isEmpty());
+        fresh.commit(new SessionJournal.Batch().putString("a", "b"), true);
+        fresh.close();
+        assertEquals("b", SessionJournal.open(file).getString("a", null));
+    }
+
+    @Test
+    public void compaction_boundsFileSizeAndKeepsLatestValues() throws IOException {
+        for (int i = 0; i < 20000; i++) {
+            journal.commit(new SessionJournal.Batch()
+                    .putInt("currentPalletIndex", i)
+                    .putString("currentPro", String.valueOf(1234500000L + i)), false);
+        }
+
+        assertTrue(journal.getCompactionCount() > 0);
+        assertTrue("File grew to " + journal.getFileSize(), journal.getFileSize() < 128 * 1024);
+
+        SessionJournal reopened = reopen();
+        assertEquals(19999, reopened.getInt("currentPalletIndex", 0));
+        assertEquals("1234519999", reopened.getString("currentPro", null));
+    }
+
+    @Test
+    public void repeatedWrites_endOnTheSameValueAsSharedPreferences() throws IOException {
+        File prefsFile = File.createTempFile("prefs", ".xml");
+        try {
+            FakeSharedPreferences prefs = new FakeSharedPreferences(prefsFile);
+            SessionJournal.Batch seed = new SessionJournal.Batch();
+            for (int i = 0; i < 20; i++) {
+                prefs.edit().putString("resumeData_field" + i, "value" + i).apply();
+                seed.putString("resumeData_field" + i, "value" + i);
+            }
+            journal.commit(seed, false);
+
+            for (int i = 0; i < REPEATED_WRITES; i++) {
+                prefs.edit().putInt("currentPalletIndex", i).apply();
+            }
+            for (int i = 0; i < REPEATED_WRITES; i++) {
+                journal.commit(new SessionJournal.Batch().putInt("currentPalletIndex", i), false);
+            }
+
+            assertEquals(prefs.getInt("currentPalletIndex", -1), journal.getInt("currentPalletIndex", -2));
+            assertEquals("value19", reopen().getString("resumeData_field19", null));
+            assertEquals(REPEATED_WRITES - 1, journal.getInt("currentPalletIndex", -1));
+        } finally {
+            prefsFile.delete();
+        }
+    }
+
+    private SessionJournal reopen() throws IOException {
+        journal.close();
+        journal = SessionJournal.open(file);
+        return journal;
+    }
+
+    private byte[] readFile() throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            byte[] data = new byte[(int) raf.length()];
+            raf.readFully(data);
+            return data;
+        } finally {
+            raf.close();
+        }
+    }
+
+    private void writeFile(byte[] data) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(0);
+            raf.write(data);
+        } finally {
+            raf.close();
+        }
+    }
+}
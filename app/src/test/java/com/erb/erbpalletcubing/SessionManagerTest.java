@@ -0,0 +1,354 @@
+package com.erb.erbpalletcubing;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * SessionManagerTest - Local unit tests for session state and batched edits
+ * Each journal append is one disk write. Sessions use a long write delay so
+ * tests decide when writes happen by calling flush().
+ */
+public class SessionManagerTest {
+
+    private static final int PRO_STARTS = 200;
+    private static final int PALLETS = 100;
+    private static final long MANUAL_FLUSH_ONLY = 60000;
+
+    private File journalFile;
+    private SessionJournal journal;
+
+    @Before
+    public void setUp() throws IOException {
+        journalFile = File.createTempFile("session", ".journal");
+        journal = SessionJournal.open(journalFile);
+    }
+
+    @After
+    public void tearDown() {
+        journal.close();
+        journalFile.delete();
+    }
+
+    @Test
+    public void edit_appliesEveryFieldInOneWrite() {
+        SessionManager session = newSession();
+
+        SessionManager.Editor batch = session.edit()
+                .trailer("401252")
+                .pro("1234567890")
+                .palletIndex(1)
+                .expected(5)
+                .freightType("DUAL")
+                .temp1("35")
+                .temp2("-10");
+        assertEquals(7, batch.getChangeCount());
+        assertNull("Nothing is visible before commit", session.getCurrentTrailer());
+
+        batch.commitAsync();
+
+        assertEquals("401252", session.getCurrentTrailer());
+        assertTrue(session.flush());
+        assertEquals(1, journal.getAppendCount());
+        assertEquals("1234567890", session.getCurrentPro());
+        assertEquals(1, session.getCurrentPalletIndex());
+        assertEquals(5, session.getExpectedPallets());
+        assertEquals("DUAL", session.getFreightType());
+        assertEquals("35", session.getTemp1());
+        assertEquals("-10", session.getTemp2());
+    }
+
+    @Test
+    public void edit_blankTemp2RemovesIt() {
+        SessionManager session = newSession();
+        session.edit().temp2("20").commitAsync();
+        assertEquals("20", session.getTemp2());
+
+        assertTrue(session.edit().temp2("  ").commit());
+        assertNull(session.getTemp2());
+    }
+
+    @Test
+    public void setters_stillWorkOneAtATime() {
+        SessionManager session = newSession();
+
+        session.loginUser("001", "23146");
+        session.setCurrentTrailer("401252");
+        session.setExpectedPallets(3);
+
+        assertTrue(session.isLoggedIn());
+        assertEquals("Terminal: 001 | Receiver: 23146", session.getUserInfoString());
+        assertEquals("401252", session.getCurrentTrailer());
+        assertEquals(0, journal.getAppendCount());
+        assertTrue(session.hasPendingWrites());
+        session.flush();
+        assertEquals("Three setters coalesce into one write", 1, journal.getAppendCount());
+        assertFalse(session.hasPendingWrites());
+        assertEquals(1, session.incrementPalletIndex());
+        assertTrue(session.hasMorePallets());
+    }
+
+    @Test
+    public void resumeState_savedInOneWriteAndClearedWithWorkContext() {
+        SessionManager session = newSession();
+        session.loginUser("001", "23146");
+        session.edit().trailer("401252").pro("1234567890").commitAsync();
+
+        HashMap<String, String> data = new HashMap<>();
+        data.put("height", "72");
+        data.put("osd", "OK");
+        session.flush();
+        int writesBefore = journal.getAppendCount();
+        session.saveResumeState("pallet_detail", data);
+        session.flush();
+        assertEquals(writesBefore + 1, journal.getAppendCount());
+        assertEquals("pallet_detail", session.getResumeScreen());
+        assertEquals(data, session.getResumeState());
+
+        session.clearResumeState();
+        assertNull(session.getResumeScreen());
+        assertTrue(session.getResumeState().isEmpty());
+        assertNull(session.getCurrentTrailer());
+        assertTrue("Login survives clearResumeState", session.isLoggedIn());
+    }
+
+    @Test
+    public void typedResumeState_roundTripsAndMergesLegacyData() {
+        SessionManager session = newSession();
+
+        ResumeState state = ResumeState.builder(ResumeState.SCREEN_PALLET_DETAIL)
+                .palletHeight(72)
+                .condition("OSD")
+                .osd("Damaged", 3, "Cases")
+                .build();
+        session.saveResumeState(state);
+
+        assertEquals(state, session.getResume());
+        assertEquals(ResumeState.SCREEN_PALLET_DETAIL, session.getResumeScreen());
+
+        HashMap<String, String> data = new HashMap<>();
+        data.put("note", "wrapped");
+        session.saveResumeState("pallet_detail", data);
+        ResumeState merged = session.getResume();
+        assertEquals(72, merged.getPalletHeight());
+        assertEquals("wrapped", merged.getExtras().get("note"));
+
+        session.flush();
+        int writesBefore = journal.getAppendCount();
+        session.clearResumeState();
+        assertNull(session.getResume());
+        session.flush();
+        assertEquals(writesBefore + 1, journal.getAppendCount());
+        assertNull(new SessionManager(journal, MANUAL_FLUSH_ONLY).getResume());
+    }
+
+    @Test
+    public void migrateFromPreferences_convertsLegacyResumeKeys() {
+        FakeSharedPreferences prefs = new FakeSharedPreferences();
+        prefs.edit()
+                .putString("resumeScreen", "pro_header")
+                .putString("resumeData_expected", "5")
+                .putString("resumeData_freight", "DUAL")
+                .apply();
+
+        SessionManager.migrateFromPreferences(prefs, journal);
+        SessionManager session = newSession();
+
+        assertEquals("pro_header", session.getResumeScreen());
+        assertEquals("5", session.getResumeState().get("expected"));
+        assertEquals("DUAL", session.getResumeState().get("freight"));
+        assertFalse(journal.contains("resumeScreen"));
+        assertFalse(journal.contains("resumeData_expected"));
+    }
+
+    @Test
+    public void sessionSurvivesReopen() throws IOException {
+        SessionManager session = newSession();
+        session.loginUser("001", "23146");
+        session.edit().trailer("401252").pro("1234567890").expected(5).palletIndex(2).commit();
+        journal.close();
+
+        SessionManager reopened = new SessionManager(SessionJournal.open(journalFile), MANUAL_FLUSH_ONLY);
+        assertTrue(reopened.isLoggedIn());
+        assertEquals("401252", reopened.getCurrentTrailer());
+        assertEquals(2, reopened.getCurrentPalletIndex());
+
+        reopened.logout();
+        assertFalse(new SessionManager(SessionJournal.open(journalFile), MANUAL_FLUSH_ONLY).isLoggedIn());
+    }
+
+    @Test
+    public void migrateFromPreferences_movesOldSessionOnce() {
+        FakeSharedPreferences prefs = new FakeSharedPreferences();
+        prefs.edit()
+                .putBoolean("isLoggedIn", true)
+                .putString("terminalId", "001")
+                .putString("currentTrailer", "401252")
+                .putInt("currentPalletIndex", 4)
+                .apply();
+
+        SessionManager.migrateFromPreferences(prefs, journal);
+        SessionManager session = newSession();
+
+        assertTrue(session.isLoggedIn());
+        assertEquals("001", session.getTerminalId());
+        assertEquals("401252", session.getCurrentTrailer());
+        assertEquals(4, session.getCurrentPalletIndex());
+        assertTrue(prefs.getAll().isEmpty());
+    }
+
+    @Test
+    public void proStart_perSetterWritesSevenTimesBatchedEditOnce() {
+        // Before batching: every setter was its own write. Write-behind is
+        // disabled (delay 0) and each setter is flushed, as the old apply() did
+        SessionManager unbatched = new SessionManager(journal, 0);
+        unbatched.loginUser("001", "23146");
+        unbatched.flush();
+        int baseline = journal.getAppendCount();
+
+        for (int i = 0; i < PRO_STARTS; i++) {
+            unbatched.setCurrentTrailer("401252");
+            unbatched.flush();
+            unbatched.setCurrentPro(String.valueOf(1234500000L + i));
+            unbatched.flush();
+            unbatched.setCurrentPalletIndex(1);
+            unbatched.flush();
+            unbatched.setExpectedPallets(5);
+            unbatched.flush();
+            unbatched.setFreightType("DUAL");
+            unbatched.flush();
+            unbatched.setTemp1("35");
+            unbatched.flush();
+            unbatched.setTemp2("-10");
+            unbatched.flush();
+        }
+        int unbatchedWrites = journal.getAppendCount() - baseline;
+        String unbatchedPro = unbatched.getCurrentPro();
+
+        SessionManager batched = newSession();
+        baseline = journal.getAppendCount();
+
+        for (int i = 0; i < PRO_STARTS; i++) {
+            batched.edit()
+                    .trailer("401252")
+                    .pro(String.valueOf(1234500000L + i))
+                    .palletIndex(1)
+                    .expected(5)
+                    .freightType("DUAL")
+                    .temp1("35")
+                    .temp2("-10")
+                    .commitAsync();
+            batched.flush();
+        }
+        int batchedWrites = journal.getAppendCount() - baseline;
+
+        assertEquals(7 * PRO_STARTS, unbatchedWrites);
+        assertEquals(PRO_STARTS, batchedWrites);
+        assertEquals(unbatchedPro, batched.getCurrentPro());
+        assertEquals("-10", batched.getTemp2());
+    }
+
+    @Test
+    public void writeBehind_persistsWithoutFlushAfterDelay() throws Exception {
+        SessionManager session = new SessionManager(journal, 10);
+        session.setCurrentTrailer("401252");
+        session.setCurrentPro("1234567890");
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (session.hasPendingWrites() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertFalse(session.hasPendingWrites());
+        assertEquals("1234567890", journal.getString("currentPro", null));
+        assertTrue(journal.getAppendCount() <= 2);
+    }
+
+    @Test
+    public void incrementPalletIndex_isAtomicAcrossThreads() throws Exception {
+        final SessionManager session = newSession();
+        final int threads = 4;
+        final int perThread = 2500;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < perThread; i++) {
+                        session.incrementPalletIndex();
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(threads * perThread, session.getCurrentPalletIndex());
+        session.flush();
+        assertEquals(threads * perThread, journal.getInt("currentPalletIndex", 0));
+    }
+
+    @Test
+    public void palletWorkflow_writesPer100Pallets() {
+        // Write-through: every change reaches the journal on its own, as before write-behind
+        SessionManager writeThrough = newSession();
+        writeThrough.edit().trailer("401252").pro("1234567890").expected(PALLETS).commit();
+        int baseline = journal.getAppendCount();
+        for (int pallet = 0; pallet < PALLETS; pallet++) {
+            saveOnePallet(writeThrough, true);
+        }
+        int writeThroughWrites = journal.getAppendCount() - baseline;
+
+        // Write-behind: an operator takes longer than the write delay per pallet,
+        // so the writer fires once between pallets; flush() stands in for it here
+        SessionManager writeBehind = newSession();
+        writeBehind.edit().palletIndex(0).commit();
+        baseline = journal.getAppendCount();
+        for (int pallet = 0; pallet < PALLETS; pallet++) {
+            saveOnePallet(writeBehind, false);
+            writeBehind.flush();
+        }
+        int writeBehindWrites = journal.getAppendCount() - baseline;
+
+        assertEquals(6 * PALLETS, writeThroughWrites);
+        assertEquals(PALLETS, writeBehindWrites);
+        assertEquals(PALLETS, journal.getInt("currentPalletIndex", 0));
+        assertEquals(PALLETS, new SessionManager(journal, MANUAL_FLUSH_ONLY).getCurrentPalletIndex());
+    }
+
+    /**
+     * The session changes PalletDetailActivity makes for one saved pallet
+     */
+    private static void saveOnePallet(SessionManager session, boolean writeThrough) {
+        session.saveResumeState(ResumeState.builder(ResumeState.SCREEN_PALLET_DETAIL).palletHeight(60).build());
+        step(session, writeThrough);
+        session.saveResumeState(ResumeState.builder(ResumeState.SCREEN_PALLET_DETAIL)
+                .palletHeight(60).condition("OK").build());
+        step(session, writeThrough);
+        session.setTemp1("35");
+        step(session, writeThrough);
+        session.setTemp2("-10");
+        step(session, writeThrough);
+        session.incrementPalletIndex();
+        step(session, writeThrough);
+        session.saveResumeState(ResumeState.builder(ResumeState.SCREEN_PALLET_DETAIL).build());
+        step(session, writeThrough);
+    }
+
+    private static void step(SessionManager session, boolean writeThrough) {
+        if (writeThrough) {
+            session.flush();
+        }
+    }
+
+    private SessionManager newSession() {
+        return new SessionManager(journal, MANUAL_FLUSH_ONLY);
+    }
+}
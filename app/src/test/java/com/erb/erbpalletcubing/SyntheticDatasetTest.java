@@ -0,0 +1,147 @@
+package com.erb.erbpalletcubing;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * SyntheticDatasetTest - Local unit tests for the load-test data generator
+ */
+public class SyntheticDatasetTest {
+
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    @Test
+    public void sameSeed_generatesSameRows() {
+        Iterator<DatabaseHelper.CubingRecord> first = new SyntheticDataset(7, 5000).iterator();
+        Iterator<DatabaseHelper.CubingRecord> second = new SyntheticDataset(7, 5000).iterator();
+        Iterator<DatabaseHelper.CubingRecord> other = new SyntheticDataset(8, 5000).iterator();
+        int differences = 0;
+        int rows = 0;
+        while (first.hasNext()) {
+            String row = RecordExporter.formatRow(first.next());
+            assertEquals(row, RecordExporter.formatRow(second.next()));
+            if (!row.equals(RecordExporter.formatRow(other.next()))) {
+                differences++;
+            }
+            rows++;
+        }
+        assertEquals(5000, rows);
+        assertFalse(second.hasNext());
+        assertTrue(differences > 4900);
+    }
+
+    @Test
+    public void rows_passRecordValidationAndFieldLimits() {
+        ValidationLimits limits = ValidationLimits.current();
+        RecordValidator validator = new RecordValidator();
+        int index = 0;
+        for (DatabaseHelper.CubingRecord record : new SyntheticDataset(1, 50000)) {
+            assertTrue(validator.validate(record, index).toString(), validator.validate(record, index).isEmpty());
+            assertEquals(ValidationHelper.VALID, ValidationHelper.checkTerminalId(record.terminal));
+            assertEquals(ValidationHelper.VALID, ValidationHelper.checkReceiverId(record.receiver));
+            assertEquals(ValidationHelper.VALID, ValidationHelper.checkTrailerNumber(record.trailerNumber));
+            assertEquals(record.proNumberIncoming, ProNumber.of(record.proNumberPacked).toString());
+            int temp1 = Temperature.parseTenths(record.temp1);
+            assertTrue(record.temp1, temp1 >= limits.tempMinTenths && temp1 <= limits.tempMaxTenths);
+            assertTrue(record.palletHeight >= 24 && record.palletHeight <= 96);
+            assertEquals(SyntheticDataset.CONDITION_OSD.equals(record.condition), record.osdReason != null);
+            index++;
+        }
+    }
+
+    @Test
+    public void pallets_areEnteredInSequencePerPro() {
+        DatabaseHelper.CubingRecord previous = null;
+        int pros = 0;
+        int smallPros = 0;
+        for (DatabaseHelper.CubingRecord record : new SyntheticDataset(3, 200000)) {
+            if (previous != null && previous.proNumberIncoming.equals(record.proNumberIncoming)) {
+                assertEquals(previous.palletSequence + 1, record.palletSequence);
+                assertEquals(previous.trailerNumber, record.trailerNumber);
+            } else {
+                assertEquals(1, record.palletSequence);
+                if (previous != null) {
+                    assertEquals("PRO closed early", previous.expectedPalletsPro, previous.palletSequence);
+                }
+                pros++;
+                if (record.expectedPalletsPro <= 3) {
+                    smallPros++;
+                }
+            }
+            assertTrue(record.expectedPalletsPro >= 1 && record.expectedPalletsPro <= SyntheticDataset.MAX_PALLETS_PER_TRAILER);
+            previous = record;
+        }
+        // 67% of PROs carry 1-3 pallets
+        assertEquals(0.67, smallPros / (double) pros, 0.02);
+    }
+
+    @Test
+    public void osdRate_andFreightMix_followSettings() {
+        int rows = 100000;
+        int osd = 0;
+        int dual = 0;
+        for (DatabaseHelper.CubingRecord record : new SyntheticDataset(5, rows).osdRate(0.05)) {
+            if (SyntheticDataset.CONDITION_OSD.equals(record.condition)) {
+                osd++;
+                assertNotNull(record.osdQuantity);
+            }
+            if (RecordValidator.FREIGHT_TYPE_DUAL.equals(record.freightType)) {
+                dual++;
+                assertTrue(Temperature.parseTenths(record.temp2) < Temperature.parseTenths(record.temp1));
+            }
+        }
+        assertEquals(0.05, osd / (double) rows, 0.005);
+        assertEquals(0.10, dual / (double) rows, 0.03);  // Per PRO, so rows vary more
+    }
+
+    @Test
+    public void timestamps_increaseAcrossTheSpan() throws Exception {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        long start = SyntheticDataset.DEFAULT_START_MILLIS;
+        long end = start + 120 * DAY_MILLIS;
+
+        for (int rows : new int[]{500, 100000}) {
+            String previous = "";
+            String first = null;
+            for (DatabaseHelper.CubingRecord record : new SyntheticDataset(9, rows).span(start, 120)) {
+                assertTrue(record.timestamp, record.timestamp.compareTo(previous) >= 0);
+                previous = record.timestamp;
+                if (first == null) {
+                    first = record.timestamp;
+                }
+            }
+            long firstMillis = format.parse(first).getTime();
+            long lastMillis = format.parse(previous).getTime();
+            assertTrue(first, firstMillis >= start && firstMillis < start + DAY_MILLIS);
+            assertTrue(previous, lastMillis > end - 5 * DAY_MILLIS && lastMillis <= end + DAY_MILLIS);
+        }
+    }
+
+    @Test
+    public void streamsMillionsOfRowsToExport() {
+        int rows = 1000000;
+        StringBuilder buffer = new StringBuilder(1 << 16);
+        long bytes = 0;
+        for (DatabaseHelper.CubingRecord record : new SyntheticDataset(11, rows)) {
+            RecordExporter.appendRow(buffer, record);
+            if (buffer.length() > 60000) {
+                bytes += buffer.length();
+                buffer.setLength(0);
+            }
+        }
+        bytes += buffer.length();
+        assertTrue(bytes > rows * 80L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeRows_throws() {
+        new SyntheticDataset(1, -1);
+    }
+}
@@ -0,0 +1,91 @@
+package com.erb.erbpalletcubing;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * TemperatureTest - Local unit tests for the fixed-point temperature type
+ * Round trips cover every tenth of a degree in the valid range
+ */
+public class TemperatureTest {
+
+    @Test
+    public void everyTenthInRange_roundTripsThroughAllFormats() {
+        ValidationLimits limits = ValidationLimits.current();
+        for (int tenths = limits.tempMinTenths; tenths <= limits.tempMaxTenths; tenths++) {
+            String plain = Temperature.toPlainString(tenths);
+            String display = Temperature.toDisplayString(tenths);
+            String export = Temperature.toExportString(tenths);
+
+            assertEquals(plain, tenths, Temperature.parseTenths(plain));
+            assertEquals(display, tenths, Temperature.parseTenthsIgnoringUnit(display));
+            assertEquals(export, tenths, Temperature.parseTenthsIgnoringUnit(export));
+            assertEquals(plain + "°F", display);
+            assertEquals(plain + "F", export);
+            assertTrue(plain, ValidationHelper.isValidTemperature(plain));
+            assertEquals(plain, tenths / 10.0, Double.parseDouble(plain), 1e-9);
+        }
+    }
+
+    @Test
+    public void everyTenthAroundRange_agreesWithDoubleParsing() {
+        ValidationLimits limits = ValidationLimits.current();
+        for (int tenths = limits.tempMinTenths - 100; tenths <= limits.tempMaxTenths + 100; tenths++) {
+            String plain = Temperature.toPlainString(tenths);
+            double parsed = Double.parseDouble(plain);
+            boolean expected = parsed >= ValidationHelper.getMinTemperature()
+                    && parsed <= ValidationHelper.getMaxTemperature();
+            assertEquals(plain, expected, ValidationHelper.isValidTemperature(plain));
+        }
+    }
+
+    @Test
+    public void parseTenths_acceptsKeypadForms() {
+        assertEquals(350, Temperature.parseTenths("35"));
+        assertEquals(-150, Temperature.parseTenths("-15"));
+        assertEquals(345, Temperature.parseTenths(" 34.5 "));
+        assertEquals(5, Temperature.parseTenths("0.5"));
+        assertEquals(5, Temperature.parseTenths(".5"));
+        assertEquals(340, Temperature.parseTenths("34."));
+        assertEquals(-5, Temperature.parseTenths("-0.5"));
+        assertEquals(345, Temperature.parseTenths("34.50"));
+        assertEquals(120, Temperature.parseTenths("+12"));
+    }
+
+    @Test
+    public void parseTenths_rejectsNonNumbersAndExtraPrecision() {
+        String[] samples = {null, "", " ", "-", ".", "-.", "abc", "3a", "1.2.3", "--5", "34.55", "35°F", "1234567"};
+        for (String sample : samples) {
+            assertEquals(String.valueOf(sample), Temperature.INVALID, Temperature.parseTenths(sample));
+        }
+    }
+
+    @Test
+    public void checkTemperature_reportsRangeSeparately() {
+        assertEquals(ValidationHelper.VALID, ValidationHelper.checkTemperature("-15"));
+        assertEquals(ValidationHelper.VALID, ValidationHelper.checkTemperature("35.0"));
+        assertEquals(ValidationHelper.ERROR_OUT_OF_RANGE, ValidationHelper.checkTemperature("35.1"));
+        assertEquals(ValidationHelper.ERROR_OUT_OF_RANGE, ValidationHelper.checkTemperature("-20"));
+        assertEquals(ValidationHelper.ERROR_NOT_NUMERIC, ValidationHelper.checkTemperature("warm"));
+        assertEquals(ValidationHelper.ERROR_EMPTY, ValidationHelper.checkTemperature("  "));
+    }
+
+    @Test
+    public void formatting_matchesExistingExamples() {
+        assertEquals("35°F", ValidationHelper.formatTemperatureForDisplay("35"));
+        assertEquals("-10°F", ValidationHelper.formatTemperatureForDisplay("-10"));
+        assertEquals("35F", ValidationHelper.formatTemperatureForExport("35"));
+        assertEquals("-10F", ValidationHelper.formatTemperatureForExport("-10"));
+        assertEquals("35°F", ValidationHelper.formatTemperatureForDisplay("35°F"));
+        assertEquals("35F", ValidationHelper.formatTemperatureForExport(" 35 °F "));
+        assertEquals("50°F", ValidationHelper.formatTemperatureForDisplay("50"));
+        assertEquals("", ValidationHelper.formatTemperatureForDisplay(" "));
+    }
+
+    @Test
+    public void cachedFormatting_returnsSameInstance() {
+        assertSame(Temperature.toDisplayString(345), Temperature.toDisplayString(345));
+        assertSame(Temperature.toExportString(-150), Temperature.toExportString(-150));
+    }
+}
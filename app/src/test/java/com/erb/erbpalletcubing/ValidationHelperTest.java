@@ -0,0 +1,62 @@
+package com.erb.erbpalletcubing;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * ValidationHelperTest - Local unit tests for the allocation-free field checks
+ * The check* methods must accept exactly what the old trim() + regex versions did
+ */
+public class ValidationHelperTest {
+
+    private static final String[] SAMPLES = {
+            null, "", " ", "\t\n", "0", "001", "23146", " 42 ", "ABC", "abc123", "ABC-123",
+            "12a", "1234567890", " 1234567890\t", "123456789", "12345678901", "12345X7890",
+            "T 55", "٣٤٥", "ＡＢＣ", "-15", "12.5"
+    };
+
+    @Test
+    public void terminalAndReceiverIds_matchDigitRegex() {
+        for (String input : SAMPLES) {
+            boolean expected = input != null && !input.trim().isEmpty() && input.trim().matches("\\d+");
+            assertEquals("terminal '" + input + "'", expected, ValidationHelper.isValidTerminalId(input));
+            assertEquals("receiver '" + input + "'", expected, ValidationHelper.isValidReceiverId(input));
+        }
+    }
+
+    @Test
+    public void trailerNumber_matchesAlphanumericRegex() {
+        for (String input : SAMPLES) {
+            boolean expected = input != null && !input.trim().isEmpty()
+                    && input.trim().matches("[a-zA-Z0-9]+");
+            assertEquals("trailer '" + input + "'", expected, ValidationHelper.isValidTrailerNumber(input));
+        }
+    }
+
+    @Test
+    public void proNumber_matchesTenDigitRegex() {
+        for (String input : SAMPLES) {
+            boolean expected = input != null && !input.trim().isEmpty() && input.trim().matches("\\d{10}");
+            assertEquals("PRO '" + input + "'", expected, ValidationHelper.isValidProNumber(input));
+        }
+    }
+
+    @Test
+    public void checks_returnSpecificErrorCodes() {
+        assertEquals(ValidationHelper.ERROR_EMPTY, ValidationHelper.checkProNumber("  "));
+        assertEquals(ValidationHelper.ERROR_WRONG_LENGTH, ValidationHelper.checkProNumber("123"));
+        assertEquals(ValidationHelper.ERROR_NOT_NUMERIC, ValidationHelper.checkProNumber("12345X7890"));
+        assertEquals(ValidationHelper.ERROR_INVALID_CHARACTERS, ValidationHelper.checkTrailerNumber("ABC-123"));
+        assertEquals(ValidationHelper.ERROR_NOT_NUMERIC, ValidationHelper.checkTerminalId("ABC"));
+        assertEquals(ValidationHelper.VALID, ValidationHelper.checkReceiverId("23146"));
+    }
+
+    @Test
+    public void checks_acceptCharSequenceWithoutCopy() {
+        StringBuilder typed = new StringBuilder("123456789");
+        assertEquals(ValidationHelper.ERROR_WRONG_LENGTH, ValidationHelper.checkProNumber(typed));
+        typed.append('0');
+        assertEquals(ValidationHelper.VALID, ValidationHelper.checkProNumber(typed));
+    }
+}
@@ -0,0 +1,222 @@
+package com.erb.erbpalletcubing;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * ValidationLimitsTest - Local unit tests for externalized, hot-reloadable limits
+ */
+public class ValidationLimitsTest {
+
+    // Cooler dock: defaults
+    private static final String COOLER =
+            "temp.min=-15\n"
+            + "temp.max=35\n";
+
+    // Freezer dock: colder range, 11-digit PROs, tighter caps
+    private static final String FREEZER =
+            "temp.min=-30.5\n"
+            + "temp.max=10\n"
+            + "pro.length=11\n"
+            + "pallet.count.max=50\n"
+            + "pallet.height.max=96\n"
+            + "quantity.max=500\n";
+
+    @After
+    public void tearDown() {
+        ValidationLimits.setCurrent(ValidationLimits.DEFAULTS);
+    }
+
+    @Test
+    public void defaults_matchPreviousConstants() {
+        ValidationLimits limits = ValidationLimits.current();
+        assertEquals(-150, limits.tempMinTenths);
+        assertEquals(350, limits.tempMaxTenths);
+        assertEquals(10, limits.proLength);
+        assertEquals(999, limits.maxPalletCount);
+        assertEquals(999, limits.maxPalletHeight);
+        assertEquals(9999, limits.maxQuantity);
+        assertEquals(-15, ValidationHelper.getMinTemperature());
+        assertEquals(35, ValidationHelper.getMaxTemperature());
+    }
+
+    @Test
+    public void parse_readsEveryKeyAndDefaultsTheRest() throws IOException {
+        ValidationLimits freezer = parse(FREEZER);
+        assertEquals(-305, freezer.tempMinTenths);
+        assertEquals(100, freezer.tempMaxTenths);
+        assertEquals(11, freezer.proLength);
+        assertEquals(50, freezer.maxPalletCount);
+        assertEquals(96, freezer.maxPalletHeight);
+        assertEquals(500, freezer.maxQuantity);
+
+        ValidationLimits partial = parse("quantity.max=20\n");
+        assertEquals(ValidationLimits.DEFAULTS.tempMinTenths, partial.tempMinTenths);
+        assertEquals(ValidationLimits.DEFAULTS.proLength, partial.proLength);
+        assertEquals(20, partial.maxQuantity);
+    }
+
+    @Test
+    public void parse_rejectsMalformedOrInconsistentLimits() throws IOException {
+        String[] configs = {"temp.min=cold\n", "temp.min=40\ntemp.max=30\n", "pro.length=3\n",
+                "pro.length=19\n", "quantity.max=0\n", "pallet.count.max=many\n"};
+        for (String config : configs) {
+            try {
+                parse(config);
+                fail("Expected rejection: " + config);
+            } catch (IllegalArgumentException expected) {
+                // Expected
+            }
+        }
+    }
+
+    @Test
+    public void publishedLimits_driveValidators() throws IOException {
+        ValidationLimits.setCurrent(parse(FREEZER));
+
+        assertTrue(ValidationHelper.isValidTemperature("-30.5"));
+        assertFalse(ValidationHelper.isValidTemperature("20"));
+        assertTrue(ValidationHelper.isValidProNumber("12345678901"));
+        assertFalse(ValidationHelper.isValidProNumber("1234567890"));
+        assertEquals("45678901", ValidationHelper.extractProErb("12345678901"));
+        assertTrue(ValidationHelper.isValidPalletCount("50"));
+        assertFalse(ValidationHelper.isValidPalletCount("51"));
+        assertFalse(ValidationHelper.isValidPalletHeight("97"));
+        assertFalse(ValidationHelper.isValidQuantity("501"));
+        assertEquals("Temperature must be between -30.5°F and 10°F", ValidationHelper.getTemperatureErrorMessage());
+        assertEquals("PRO number must be exactly 11 digits", ValidationHelper.getProNumberErrorMessage());
+
+        ValidationLimits.setCurrent(ValidationLimits.DEFAULTS);
+        assertTrue(ValidationHelper.isValidTemperature("20"));
+        assertTrue(ValidationHelper.isValidProNumber("1234567890"));
+        assertTrue(ValidationHelper.isValidQuantity("9999"));
+    }
+
+    @Test
+    public void reload_keepsCurrentLimitsOnBadFile() throws IOException {
+        File good = writeConfig("good", FREEZER);
+        File bad = writeConfig("bad", "temp.min=warm\n");
+        try {
+            assertTrue(ValidationLimits.reload(good));
+            assertFalse(ValidationLimits.reload(bad));
+            assertEquals(-305, ValidationLimits.current().tempMinTenths);
+            assertFalse(ValidationLimits.reload(new File(good.getPath() + ".missing")));
+            assertEquals(11, ValidationLimits.current().proLength);
+            assertFalse(ValidationLimits.current().packsProNumbers());
+            assertTrue(ValidationLimits.DEFAULTS.packsProNumbers());
+            assertFalse(ValidationLimits.reloadIfModified(good));
+        } finally {
+            good.delete();
+            bad.delete();
+        }
+    }
+
+    @Test
+    public void validatorsSeeWholeSnapshots_across1000Reloads() throws Exception {
+        final File cooler = writeConfig("cooler", COOLER);
+        final File freezer = writeConfig("freezer", FREEZER);
+        final ValidationLimits coolerLimits = ValidationLimits.load(cooler);
+        final ValidationLimits freezerLimits = ValidationLimits.load(freezer);
+
+        final int validatorCount = 4;
+        final int reloadCount = 1000;
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicLong validations = new AtomicLong();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final CountDownLatch started = new CountDownLatch(validatorCount);
+        final CountDownLatch done = new CountDownLatch(validatorCount);
+
+        for (int t = 0; t < validatorCount; t++) {
+            Thread validator = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        started.countDown();
+                        do {
+                            // Every field of one snapshot must come from the same file
+                            ValidationLimits limits = ValidationLimits.current();
+                            boolean isCooler = limits.tempMinTenths == coolerLimits.tempMinTenths;
+                            ValidationLimits expected = isCooler ? coolerLimits : freezerLimits;
+                            if (limits.tempMaxTenths != expected.tempMaxTenths
+                                    || limits.proLength != expected.proLength
+                                    || limits.maxPalletCount != expected.maxPalletCount
+                                    || limits.maxPalletHeight != expected.maxPalletHeight
+                                    || limits.maxQuantity != expected.maxQuantity) {
+                                throw new AssertionError("Torn limits: " + limits);
+                            }
+
+                            // Validators must keep working whichever snapshot they land on
+                            int temp = ValidationHelper.checkTemperature("20");
+                            if (temp != ValidationHelper.VALID && temp != ValidationHelper.ERROR_OUT_OF_RANGE) {
+                                throw new AssertionError("Unexpected temperature result " + temp);
+                            }
+                            int pro = ValidationHelper.checkProNumber("1234567890");
+                            if (pro != ValidationHelper.VALID && pro != ValidationHelper.ERROR_WRONG_LENGTH) {
+                                throw new AssertionError("Unexpected PRO result " + pro);
+                            }
+                            ValidationHelper.isValidQuantity("500");
+                            validations.incrementAndGet();
+                        } while (running.get());
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            });
+            validator.setDaemon(true);
+            validator.start();
+        }
+
+        // Reload as fast as possible once every validator is running; timing lives in ValidationLimitsBenchmark
+        int reloads = 0;
+        try {
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            while (reloads < reloadCount && failure.get() == null) {
+                assertTrue(ValidationLimits.reload(reloads % 2 == 0 ? freezer : cooler));
+                reloads++;
+            }
+        } finally {
+            running.set(false);
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            cooler.delete();
+            freezer.delete();
+        }
+
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        // No reload is lost: the last file loaded is the one in force
+        assertEquals(reloadCount, reloads);
+        assertEquals(coolerLimits.tempMinTenths, ValidationLimits.current().tempMinTenths);
+        assertEquals(coolerLimits.proLength, ValidationLimits.current().proLength);
+        assertTrue(validations.get() > 0);
+    }
+
+    private static ValidationLimits parse(String config) throws IOException {
+        return ValidationLimits.parse(new ByteArrayInputStream(config.getBytes("UTF-8")));
+    }
+
+    private static File writeConfig(String name, String config) throws IOException {
+        File file = File.createTempFile("limits-" + name, ".properties");
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(config.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+}
@@ -0,0 +1,189 @@
+package com.erb.erbpalletcubing;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.*;
+
+/**
+ * WorkContextSnapshotTest - Local unit tests for work context snapshots
+ * Fuzzing uses a fixed seed so failures reproduce
+ */
+public class WorkContextSnapshotTest {
+
+    private static final int FUZZ_ROUNDS = 20000;
+
+    private File journalFile;
+    private File snapshotFile;
+    private SessionJournal journal;
+    private SessionManager session;
+
+    @Before
+    public void setUp() throws IOException {
+        journalFile = File.createTempFile("session", ".journal");
+        snapshotFile = File.createTempFile("work", ".snapshot");
+        journal = SessionJournal.open(journalFile);
+        session = new SessionManager(journal, 60000);
+    }
+
+    @After
+    public void tearDown() {
+        journal.close();
+        journalFile.delete();
+        snapshotFile.delete();
+        new File(snapshotFile.getPath() + ".tmp").delete();
+    }
+
+    @Test
+    public void snapshot_restoresIntoAnotherSession() throws IOException {
+        WorkContextSnapshot snapshot = fullContext();
+
+        File otherFile = File.createTempFile("other", ".journal");
+        SessionJournal otherJournal = SessionJournal.open(otherFile);
+        try {
+            SessionManager other = new SessionManager(otherJournal, 60000);
+            other.edit().trailer("999999").temp2("5").commitAsync();
+
+            assertTrue(other.restore(snapshot));
+            assertEquals(snapshot, other.snapshot());
+            assertEquals("Restore replaces everything", "401252", other.getCurrentTrailer());
+            assertEquals("-10", other.getTemp2());
+            assertEquals(72, other.getResume().getPalletHeight());
+            assertEquals("Restore is written", 3, otherJournal.getInt("currentPalletIndex", 0));
+        } finally {
+            otherJournal.close();
+            otherFile.delete();
+        }
+    }
+
+    @Test
+    public void emptySession_roundTrips() {
+        WorkContextSnapshot empty = session.snapshot();
+        assertFalse(empty.isLoggedIn());
+        assertNull(empty.getResume());
+        assertEquals(empty, WorkContextSnapshot.fromBytes(empty.toBytes()));
+    }
+
+    @Test
+    public void file_writeAndRestoreInOneRead() throws IOException {
+        WorkContextSnapshot snapshot = fullContext();
+        snapshot.writeTo(snapshotFile);
+        assertFalse(new File(snapshotFile.getPath() + ".tmp").exists());
+
+        assertEquals(snapshot, WorkContextSnapshot.readFrom(snapshotFile));
+        assertEquals(snapshot.toBytes().length, snapshotFile.length());
+    }
+
+    @Test
+    public void interruptedWrite_keepsPreviousSnapshot() throws IOException {
+        WorkContextSnapshot first = fullContext();
+        first.writeTo(snapshotFile);
+
+        // A crash before the rename leaves a partial temp file behind
+        byte[] partial = Arrays.copyOf(first.toBytes(), 20);
+        FileOutputStream out = new FileOutputStream(snapshotFile.getPath() + ".tmp");
+        out.write(partial);
+        out.close();
+
+        assertEquals(first, WorkContextSnapshot.readFrom(snapshotFile));
+
+        session.setCurrentPalletIndex(4);
+        session.snapshot().writeTo(snapshotFile);
+        assertEquals(4, WorkContextSnapshot.readFrom(snapshotFile).getPalletIndex());
+    }
+
+    @Test
+    public void missingFile_isNull() {
+        snapshotFile.delete();
+        assertNull(WorkContextSnapshot.readFrom(snapshotFile));
+    }
+
+    @Test
+    public void fuzz_truncationAtEveryLength_isRejected() {
+        byte[] data = fullContext().toBytes();
+        for (int length = 0; length < data.length; length++) {
+            assertNull("length " + length, WorkContextSnapshot.fromBytes(Arrays.copyOf(data, length)));
+        }
+        assertNull(WorkContextSnapshot.fromBytes(Arrays.copyOf(data, data.length + 1)));
+    }
+
+    @Test
+    public void fuzz_corruptedBytes_areRejected() {
+        byte[] data = fullContext().toBytes();
+        Random random = new Random(40);
+        for (int round = 0; round < FUZZ_ROUNDS; round++) {
+            byte[] corrupt = data.clone();
+            int position = random.nextInt(corrupt.length);
+            corrupt[position] ^= (byte) (1 + random.nextInt(255));
+            assertNull("Round " + round + " at " + position, WorkContextSnapshot.fromBytes(corrupt));
+        }
+    }
+
+    @Test
+    public void fuzz_corruptBodyWithValidChecksum_neverThrows() {
+        byte[] data = fullContext().toBytes();
+        Random random = new Random(41);
+        int parsed = 0;
+        for (int round = 0; round < FUZZ_ROUNDS; round++) {
+            byte[] corrupt = Arrays.copyOf(data, data.length - 4);
+            int flips = 1 + random.nextInt(4);
+            for (int i = 0; i < flips; i++) {
+                corrupt[random.nextInt(corrupt.length)] = (byte) random.nextInt(256);
+            }
+            if (WorkContextSnapshot.fromBytes(withCrc(corrupt)) != null) {
+                parsed++;
+            }
+        }
+        assertTrue("Most structural damage is caught", parsed < FUZZ_ROUNDS);
+    }
+
+    @Test
+    public void fuzz_randomGarbage_isRejected() {
+        Random random = new Random(42);
+        for (int round = 0; round < FUZZ_ROUNDS; round++) {
+            byte[] garbage = new byte[random.nextInt(200)];
+            random.nextBytes(garbage);
+            assertNull(WorkContextSnapshot.fromBytes(garbage));
+        }
+    }
+
+    private WorkContextSnapshot fullContext() {
+        session.loginUser("001", "23146");
+        session.edit()
+                .trailer("401252")
+                .pro("1234567890")
+                .palletIndex(3)
+                .expected(5)
+                .freightType("DUAL")
+                .temp1("35")
+                .temp2("-10")
+                .resume(ResumeState.builder(ResumeState.SCREEN_PALLET_DETAIL)
+                        .palletHeight(72)
+                        .condition("OSD")
+                        .osd("Damaged", 2, "Cases")
+                        .extra("note", "wrapped")
+                        .build())
+                .commitAsync();
+        return session.snapshot();
+    }
+
+    private static byte[] withCrc(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        byte[] data = Arrays.copyOf(body, body.length + 4);
+        int value = (int) crc.getValue();
+        data[body.length] = (byte) (value >>> 24);
+        data[body.length + 1] = (byte) (value >>> 16);
+        data[body.length + 2] = (byte) (value >>> 8);
+        data[body.length + 3] = (byte) value;
+        return data;
+    }
+}
@@ -0,0 +1,149 @@
+package com.erb.erbpalletcubing.benchmark;
+
+import com.erb.erbpalletcubing.DatabaseHelper;
+import com.erb.erbpalletcubing.ProNumber;
+import com.erb.erbpalletcubing.RecordExporter;
+import com.erb.erbpalletcubing.Temperature;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CubingRecordBenchmark - Record construction, column mapping and CSV export
+ * Rows are held in their stored form (temperatures in tenths, PRO packed) and
+ * mapped the way insertPalletRecord and cursorToRecord do, without a Cursor.
+ * One op handles the whole row set; rows/sec = ops/sec * rowCount
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CubingRecordBenchmark {
+
+    private static final String[] FREIGHT_TYPES = {"Fresh", "Frozen", "Dry", "Dual"};
+
+    @Param({"1000"})
+    public int rowCount;
+
+    // Stored columns
+    private String[] pros;
+    private long[] packedPros;
+    private int[] temp1Tenths;
+    private int[] temp2Tenths;  // Temperature.INVALID when NULL
+    private int[] sequences;
+
+    private DatabaseHelper.CubingRecord[] records;
+    private DatabaseHelper.CubingRecord[] unpackedRecords;
+    private final StringBuilder exportBuffer = new StringBuilder(256 * 1024);
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        pros = new String[rowCount];
+        packedPros = new long[rowCount];
+        temp1Tenths = new int[rowCount];
+        temp2Tenths = new int[rowCount];
+        sequences = new int[rowCount];
+
+        for (int i = 0; i < rowCount; i++) {
+            pros[i] = String.valueOf(1000000000L + random.nextInt(900000000));
+            packedPros[i] = ProNumber.parseValue(pros[i]);
+            temp1Tenths[i] = -150 + random.nextInt(500);
+            temp2Tenths[i] = random.nextInt(4) == 0 ? -150 + random.nextInt(500) : Temperature.INVALID;
+            sequences[i] = 1 + random.nextInt(20);
+        }
+
+        records = new DatabaseHelper.CubingRecord[rowCount];
+        unpackedRecords = new DatabaseHelper.CubingRecord[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            records[i] = fromColumns(i);
+            unpackedRecords[i] = fromColumns(i);
+            unpackedRecords[i].proNumberPacked = ProNumber.INVALID;
+        }
+        // Some rows need quoting on export
+        for (int i = 0; i < rowCount; i += 10) {
+            records[i].condition = "OS&D";
+            records[i].osdReason = "Crushed, \"top\" layer";
+            records[i].osdQuantity = 3;
+            records[i].osdQuantityType = "Cases";
+        }
+    }
+
+    private DatabaseHelper.CubingRecord fromColumns(int row) {
+        DatabaseHelper.CubingRecord record = new DatabaseHelper.CubingRecord();
+        record.timestamp = "2026-10-18 06:30:00";
+        record.terminal = "001";
+        record.receiver = "23146";
+        record.trailerNumber = "401252";
+        record.proNumberIncoming = pros[row];
+        record.proPrefix = pros[row].substring(0, ProNumber.PREFIX_LENGTH);
+        record.proNumberErb = pros[row].substring(ProNumber.PREFIX_LENGTH);
+        record.freightType = FREIGHT_TYPES[row & 3];
+        record.temp1 = Temperature.toPlainString(temp1Tenths[row]);
+        record.temp2 = temp2Tenths[row] == Temperature.INVALID ? null : Temperature.toPlainString(temp2Tenths[row]);
+        record.expectedPalletsPro = 20;
+        record.palletSequence = sequences[row];
+        record.palletHeight = 48;
+        record.condition = "OK";
+        record.status = "NEW";
+        record.proNumberPacked = packedPros[row];
+        return record;
+    }
+
+    /**
+     * Row to record, as cursorToRecord does per row
+     */
+    @Benchmark
+    public void mapFromColumns(Blackhole bh) {
+        for (int i = 0; i < rowCount; i++) {
+            bh.consume(fromColumns(i));
+        }
+    }
+
+    /**
+     * Record fields to stored columns, as insertPalletRecord does
+     */
+    @Benchmark
+    public void mapToColumns(Blackhole bh) {
+        for (DatabaseHelper.CubingRecord record : records) {
+            bh.consume(Temperature.parseTenthsIgnoringUnit(record.temp1));
+            bh.consume(record.temp2 == null ? Temperature.INVALID : Temperature.parseTenthsIgnoringUnit(record.temp2));
+            bh.consume(ProNumber.parseValue(record.proNumberIncoming));
+        }
+    }
+
+    @Benchmark
+    public void getProNumberPacked(Blackhole bh) {
+        for (DatabaseHelper.CubingRecord record : records) {
+            bh.consume(record.getProNumber());
+        }
+    }
+
+    /**
+     * Rows written before the packed column existed fall back to parsing
+     */
+    @Benchmark
+    public void getProNumberUnpacked(Blackhole bh) {
+        for (DatabaseHelper.CubingRecord record : unpackedRecords) {
+            bh.consume(record.getProNumber());
+        }
+    }
+
+    @Benchmark
+    public int exportRows() {
+        exportBuffer.setLength(0);
+        for (DatabaseHelper.CubingRecord record : records) {
+            RecordExporter.appendRow(exportBuffer, record);
+        }
+        return exportBuffer.length();
+    }
+}
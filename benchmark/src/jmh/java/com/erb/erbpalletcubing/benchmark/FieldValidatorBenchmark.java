@@ -0,0 +1,85 @@
+package com.erb.erbpalletcubing.benchmark;
+
+import com.erb.erbpalletcubing.ValidationHelper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FieldValidatorBenchmark - Regex-based field validators vs allocation-free checks
+ * Each invocation validates a mixed batch of valid and invalid inputs, the way
+ * the keypad and scanner feed them. Run with the gc profiler to compare
+ * gc.alloc.rate.norm (bytes/op) between the two paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FieldValidatorBenchmark {
+
+    private final String[] ids = {"001", "23146", " 42 ", "ABC", "", "12a"};
+    private final String[] trailers = {"401252", "ABC123", "ABC-123", " T55 ", ""};
+    private final String[] pros = {"1234567890", "123456789", "12345678901", " 1234567890 ", "12345X7890"};
+
+    @Benchmark
+    public void legacyTerminalId(Blackhole bh) {
+        for (String input : ids) {
+            bh.consume(LegacyValidators.isValidTerminalId(input));
+        }
+    }
+
+    @Benchmark
+    public void checkTerminalId(Blackhole bh) {
+        for (String input : ids) {
+            bh.consume(ValidationHelper.checkTerminalId(input));
+        }
+    }
+
+    @Benchmark
+    public void legacyReceiverId(Blackhole bh) {
+        for (String input : ids) {
+            bh.consume(LegacyValidators.isValidReceiverId(input));
+        }
+    }
+
+    @Benchmark
+    public void checkReceiverId(Blackhole bh) {
+        for (String input : ids) {
+            bh.consume(ValidationHelper.checkReceiverId(input));
+        }
+    }
+
+    @Benchmark
+    public void legacyTrailerNumber(Blackhole bh) {
+        for (String input : trailers) {
+            bh.consume(LegacyValidators.isValidTrailerNumber(input));
+        }
+    }
+
+    @Benchmark
+    public void checkTrailerNumber(Blackhole bh) {
+        for (String input : trailers) {
+            bh.consume(ValidationHelper.checkTrailerNumber(input));
+        }
+    }
+
+    @Benchmark
+    public void legacyProNumber(Blackhole bh) {
+        for (String input : pros) {
+            bh.consume(LegacyValidators.isValidProNumber(input));
+        }
+    }
+
+    @Benchmark
+    public void checkProNumber(Blackhole bh) {
+        for (String input : pros) {
+            bh.consume(ValidationHelper.checkProNumber(input));
+        }
+    }
+}
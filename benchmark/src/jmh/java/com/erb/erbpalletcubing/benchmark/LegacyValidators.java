@@ -0,0 +1,74 @@
+package com.erb.erbpalletcubing.benchmark;
+
+/**
+ * LegacyValidators - The original trim() + String.matches() / parseDouble validators
+ * Kept verbatim (minus Log calls, which the shim makes free anyway) as the
+ * baseline the allocation-free ValidationHelper checks are measured against
+ */
+final class LegacyValidators {
+
+    private LegacyValidators() {
+    }
+
+    static boolean isValidTerminalId(String input) {
+        if (input == null || input.trim().isEmpty()) {
+            return false;
+        }
+        String trimmed = input.trim();
+        return trimmed.matches("\\d+");
+    }
+
+    static boolean isValidReceiverId(String input) {
+        if (input == null || input.trim().isEmpty()) {
+            return false;
+        }
+        String trimmed = input.trim();
+        return trimmed.matches("\\d+");
+    }
+
+    static boolean isValidTrailerNumber(String input) {
+        if (input == null || input.trim().isEmpty()) {
+            return false;
+        }
+        String trimmed = input.trim();
+        return trimmed.matches("[a-zA-Z0-9]+");
+    }
+
+    static boolean isValidProNumber(String input) {
+        if (input == null || input.trim().isEmpty()) {
+            return false;
+        }
+        String trimmed = input.trim();
+        return trimmed.matches("\\d{10}");
+    }
+
+    static boolean isValidTemperature(String input) {
+        if (input == null || input.trim().isEmpty()) {
+            return false;
+        }
+        try {
+            double temp = Double.parseDouble(input.trim());
+            return temp >= -15 && temp <= 35;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    static String formatTemperatureForDisplay(String temp) {
+        if (temp == null || temp.trim().isEmpty()) {
+            return "";
+        }
+        String trimmed = temp.trim();
+        trimmed = trimmed.replace("°F", "").replace("°", "").replace("F", "").trim();
+        return trimmed + "°F";
+    }
+
+    static String formatTemperatureForExport(String temp) {
+        if (temp == null || temp.trim().isEmpty()) {
+            return "";
+        }
+        String trimmed = temp.trim();
+        trimmed = trimmed.replace("°F", "").replace("°", "").replace("F", "").trim();
+        return trimmed + "F";
+    }
+}
@@ -0,0 +1,101 @@
+package com.erb.erbpalletcubing.benchmark;
+
+import com.erb.erbpalletcubing.ManifestIndex;
+import com.erb.erbpalletcubing.ManifestIndexBuilder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ManifestIndexBenchmark - PRO lookup latency in a memory-mapped manifest
+ * Builds a manifest of entryCount PROs from CSV once per trial, then samples
+ * single-lookup latency for hits and misses (see the p0.99 / p0.999 rows)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ManifestIndexBenchmark {
+
+    private static final int QUERY_COUNT = 1 << 16;
+
+    @Param({"5000000"})
+    public int entryCount;
+
+    private File csvFile;
+    private File indexFile;
+    private ManifestIndex index;
+    private long[] hits;
+    private long[] misses;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        csvFile = File.createTempFile("manifest", ".csv");
+        indexFile = File.createTempFile("manifest", ".idx");
+
+        // Even PROs are in the manifest, odd ones are misses
+        Random random = new Random(42);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(csvFile), "UTF-8"), 1 << 16);
+        try {
+            writer.write("PRO,ExpectedPallets,FreightType,Receiver\n");
+            for (int i = 0; i < entryCount; i++) {
+                long pro = 1000000000L + 2L * ((i * 2654435761L) % entryCount);
+                writer.write(pro + "," + (1 + random.nextInt(30)) + ","
+                        + (random.nextInt(4) == 0 ? "DUAL" : "Fresh") + "," + (23000 + random.nextInt(500)) + "\n");
+            }
+        } finally {
+            writer.close();
+        }
+
+        InputStream csv = new FileInputStream(csvFile);
+        try {
+            ManifestIndexBuilder.build(csv, indexFile);
+        } finally {
+            csv.close();
+        }
+        index = ManifestIndex.open(indexFile);
+
+        hits = new long[QUERY_COUNT];
+        misses = new long[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            hits[i] = 1000000000L + 2L * random.nextInt(entryCount);
+            misses[i] = hits[i] + 1;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        csvFile.delete();
+        indexFile.delete();
+    }
+
+    @Benchmark
+    public int lookupHit() {
+        int found = index.indexOf(hits[cursor++ & (QUERY_COUNT - 1)]);
+        return found == ManifestIndex.NOT_FOUND ? -1 : index.expectedPalletsAt(found);
+    }
+
+    @Benchmark
+    public int lookupMiss() {
+        return index.indexOf(misses[cursor++ & (QUERY_COUNT - 1)]);
+    }
+}
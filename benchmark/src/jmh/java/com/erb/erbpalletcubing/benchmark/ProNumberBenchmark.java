@@ -0,0 +1,91 @@
+package com.erb.erbpalletcubing.benchmark;
+
+import com.erb.erbpalletcubing.ProNumber;
+import com.erb.erbpalletcubing.ValidationHelper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProNumberBenchmark - String PRO handling vs the packed-long ProNumber
+ * Covers prefix/Erb extraction and use as a HashMap key
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ProNumberBenchmark {
+
+    private static final int PRO_COUNT = 1024;
+
+    private String[] proStrings;
+    private ProNumber[] proNumbers;
+    private Map<String, Integer> stringKeyed;
+    private Map<ProNumber, Integer> packedKeyed;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        proStrings = new String[PRO_COUNT];
+        proNumbers = new ProNumber[PRO_COUNT];
+        stringKeyed = new HashMap<>();
+        packedKeyed = new HashMap<>();
+
+        for (int i = 0; i < PRO_COUNT; i++) {
+            // New String instances so lookups cannot short-circuit on identity
+            proStrings[i] = new String(String.valueOf(1000000000L + random.nextInt(900000000)));
+            proNumbers[i] = ProNumber.parse(proStrings[i]);
+            stringKeyed.put(new String(proStrings[i]), i);
+            packedKeyed.put(ProNumber.parse(proStrings[i]), i);
+        }
+    }
+
+    @Benchmark
+    public void stringPrefixAndErb(Blackhole bh) {
+        for (String pro : proStrings) {
+            bh.consume(ValidationHelper.extractProPrefix(pro));
+            bh.consume(ValidationHelper.extractProErb(pro));
+        }
+    }
+
+    @Benchmark
+    public void packedParsePrefixAndErb(Blackhole bh) {
+        for (String pro : proStrings) {
+            long value = ProNumber.parseValue(pro);
+            bh.consume(ProNumber.prefixOf(value));
+            bh.consume(ProNumber.erbOf(value));
+        }
+    }
+
+    @Benchmark
+    public void packedPrefixAndErb(Blackhole bh) {
+        for (ProNumber pro : proNumbers) {
+            bh.consume(pro.prefix());
+            bh.consume(pro.erb());
+        }
+    }
+
+    @Benchmark
+    public void stringMapLookup(Blackhole bh) {
+        for (String pro : proStrings) {
+            bh.consume(stringKeyed.get(pro));
+        }
+    }
+
+    @Benchmark
+    public void packedMapLookup(Blackhole bh) {
+        for (ProNumber pro : proNumbers) {
+            bh.consume(packedKeyed.get(pro));
+        }
+    }
+}
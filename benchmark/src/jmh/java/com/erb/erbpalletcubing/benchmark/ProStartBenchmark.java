@@ -0,0 +1,87 @@
+package com.erb.erbpalletcubing.benchmark;
+
+import com.erb.erbpalletcubing.SessionJournal;
+import com.erb.erbpalletcubing.SessionManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProStartBenchmark - Wall time to persist the seven work-context fields of one PRO start
+ * perSetter is the path before batched edits: write-behind disabled (delay 0)
+ * and every setter written on its own. batchedEdit sets the same fields in one
+ * edit().commitAsync() and one write. Both wait for the data to reach disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProStartBenchmark {
+
+    private File file;
+    private SessionJournal journal;
+    private SessionManager perSetter;
+    private SessionManager batched;
+    private long pro;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = File.createTempFile("prostart-bench", ".journal");
+        journal = SessionJournal.open(file);
+        perSetter = new SessionManager(journal, 0);
+        batched = new SessionManager(journal, SessionManager.DEFAULT_WRITE_DELAY_MS);
+        perSetter.loginUser("001", "23146");
+        perSetter.flush();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        perSetter.flush();
+        batched.flush();
+        journal.close();
+        file.delete();
+        new File(file.getPath() + ".tmp").delete();
+    }
+
+    @Benchmark
+    public boolean perSetter() {
+        perSetter.setCurrentTrailer("401252");
+        perSetter.flush();
+        perSetter.setCurrentPro(String.valueOf(1234500000L + ++pro));
+        perSetter.flush();
+        perSetter.setCurrentPalletIndex(1);
+        perSetter.flush();
+        perSetter.setExpectedPallets(5);
+        perSetter.flush();
+        perSetter.setFreightType("DUAL");
+        perSetter.flush();
+        perSetter.setTemp1("35");
+        perSetter.flush();
+        perSetter.setTemp2("-10");
+        return perSetter.flush();
+    }
+
+    @Benchmark
+    public boolean batchedEdit() {
+        batched.edit()
+                .trailer("401252")
+                .pro(String.valueOf(1234500000L + ++pro))
+                .palletIndex(1)
+                .expected(5)
+                .freightType("DUAL")
+                .temp1("35")
+                .temp2("-10")
+                .commitAsync();
+        return batched.flush();
+    }
+}
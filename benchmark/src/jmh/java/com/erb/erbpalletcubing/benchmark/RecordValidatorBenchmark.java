@@ -0,0 +1,71 @@
+package com.erb.erbpalletcubing.benchmark;
+
+import com.erb.erbpalletcubing.DatabaseHelper;
+import com.erb.erbpalletcubing.RecordValidator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RecordValidatorBenchmark - Batch record validation throughput at 1, 2 and 4 threads
+ * One op validates the whole record set; records/sec = ops/sec * recordCount
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RecordValidatorBenchmark {
+
+    @Param({"1", "2", "4"})
+    public int threads;
+
+    @Param({"100000"})
+    public int recordCount;
+
+    private final RecordValidator validator = new RecordValidator();
+    private List<DatabaseHelper.CubingRecord> records;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        records = new ArrayList<>(recordCount);
+
+        for (int i = 0; i < recordCount; i++) {
+            DatabaseHelper.CubingRecord record = new DatabaseHelper.CubingRecord();
+            String pro = String.valueOf(1000000000L + random.nextInt(900000000));
+            record.terminal = "001";
+            record.receiver = "23146";
+            record.trailerNumber = "401252";
+            record.proNumberIncoming = pro;
+            record.proPrefix = pro.substring(0, 3);
+            record.proNumberErb = pro.substring(3);
+            record.freightType = random.nextInt(4) == 0 ? RecordValidator.FREIGHT_TYPE_DUAL : "Fresh";
+            record.temp1 = "34";
+            record.temp2 = RecordValidator.FREIGHT_TYPE_DUAL.equals(record.freightType) ? "-5" : null;
+            record.expectedPalletsPro = 1 + random.nextInt(20);
+            // Roughly 1 in 50 records breaks the sequence rule
+            record.palletSequence = random.nextInt(50) == 0
+                    ? record.expectedPalletsPro + 1
+                    : 1 + random.nextInt(record.expectedPalletsPro);
+            record.palletHeight = 40 + random.nextInt(60);
+            record.condition = "OK";
+            record.status = "NEW";
+            records.add(record);
+        }
+    }
+
+    @Benchmark
+    public List<RecordValidator.Violation> validateBatch() {
+        return validator.validateBatch(records, threads);
+    }
+}
@@ -0,0 +1,87 @@
+package com.erb.erbpalletcubing.benchmark;
+
+import com.erb.erbpalletcubing.ScanPipeline;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ScanPipelineBenchmark - Time from offering a 1,000-read scanner burst to the
+ * last unique scan reaching the listener (see the p0.99 row)
+ * About one read in four is a repeat that the pipeline dedupes. Every burst uses
+ * fresh barcodes so the dedupe window never spans invocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ScanPipelineBenchmark {
+
+    private static final int BURST_READS = 1000;
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private final AtomicLong delivered = new AtomicLong();
+    private ScanPipeline pipeline;
+    private boolean[] repeats;
+    private long nextBarcode = 1000000000L;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(1234);
+        repeats = new boolean[BURST_READS];
+        for (int i = 0; i < BURST_READS; i++) {
+            repeats[i] = random.nextInt(4) == 0;
+        }
+        pipeline = new ScanPipeline(DIRECT, new ScanPipeline.Listener() {
+            @Override
+            public void onScans(List<ScanPipeline.ScanResult> batch) {
+                delivered.addAndGet(batch.size());
+            }
+        });
+        pipeline.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pipeline.stop();
+    }
+
+    @Benchmark
+    public long burst() {
+        long target = delivered.get();
+        int reads = 0;
+        for (int i = 0; reads < BURST_READS; i++) {
+            String barcode = String.valueOf(nextBarcode++);
+            pipeline.offer(barcode);
+            reads++;
+            target++;
+            if (repeats[i] && reads < BURST_READS) {
+                pipeline.offer(barcode);
+                reads++;
+            }
+        }
+        while (delivered.get() < target) {
+            LockSupport.parkNanos(1000);
+        }
+        return target;
+    }
+}
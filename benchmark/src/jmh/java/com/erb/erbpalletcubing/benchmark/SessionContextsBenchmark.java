@@ -0,0 +1,104 @@
+package com.erb.erbpalletcubing.benchmark;
+
+import com.erb.erbpalletcubing.SessionContexts;
+import com.erb.erbpalletcubing.SessionJournal;
+import com.erb.erbpalletcubing.SessionManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SessionContextsBenchmark - Per-switch latency across 50 open trailer contexts
+ * switchContext cycles through every context in turn. With maxLoaded = 50
+ * each switch is a map lookup; with the default 8 every switch unloads the
+ * least recently used context and replays another journal from disk, the
+ * worst case. rewriteSingleSession is what a trailer change cost before
+ * contexts: one session overwriting the work context and waiting for disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SessionContextsBenchmark {
+
+    private static final int CONTEXTS = 50;
+
+    @Param({"8", "50"})
+    public int maxLoaded;
+
+    private File directory;
+    private SessionContexts contexts;
+    private String[] names;
+    private int next;
+
+    private File singleFile;
+    private SessionJournal singleJournal;
+    private SessionManager single;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = File.createTempFile("contexts-bench", "");
+        directory.delete();
+        contexts = new SessionContexts(directory, maxLoaded, SessionContexts.DEFAULT_MAX_RETAINED,
+                SessionManager.DEFAULT_WRITE_DELAY_MS);
+        names = new String[CONTEXTS];
+        for (int i = 0; i < CONTEXTS; i++) {
+            names[i] = SessionContexts.forTrailer("23146", trailer(i));
+            contexts.switchTo(names[i]).edit().login("001", "23146").trailer(trailer(i))
+                    .pro(String.valueOf(1234500000L + i)).expected(12).palletIndex(i % 12)
+                    .freightType("DUAL").temp1("35").temp2("-10").commit();
+        }
+
+        singleFile = File.createTempFile("contexts-bench", ".journal");
+        singleJournal = SessionJournal.open(singleFile);
+        single = new SessionManager(singleJournal, SessionManager.DEFAULT_WRITE_DELAY_MS);
+        single.loginUser("001", "23146");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexts.close();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+
+        single.flush();
+        singleJournal.close();
+        singleFile.delete();
+        new File(singleFile.getPath() + ".tmp").delete();
+    }
+
+    @Benchmark
+    public SessionManager switchContext() {
+        String name = names[next];
+        next = (next + 1) % CONTEXTS;
+        return contexts.switchTo(name);
+    }
+
+    @Benchmark
+    public boolean rewriteSingleSession() {
+        int i = next;
+        next = (next + 1) % CONTEXTS;
+        return single.edit().trailer(trailer(i)).pro(String.valueOf(1234500000L + i)).expected(12)
+                .palletIndex(i % 12).freightType("DUAL").temp1("35").temp2("-10").commit();
+    }
+
+    private static String trailer(int i) {
+        return String.valueOf(401200 + i);
+    }
+}
@@ -0,0 +1,85 @@
+package com.erb.erbpalletcubing.benchmark;
+
+import com.erb.erbpalletcubing.SessionJournal;
+import com.erb.erbpalletcubing.SessionManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SessionManagerBenchmark - In-memory session getters/setters with write-behind
+ * Setters only update memory and queue a write; the journal append happens on
+ * the session writer thread, so these numbers exclude disk time by design.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SessionManagerBenchmark {
+
+    private File file;
+    private SessionJournal journal;
+    private SessionManager session;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = File.createTempFile("session-bench", ".journal");
+        journal = SessionJournal.open(file);
+        session = new SessionManager(journal, SessionManager.DEFAULT_WRITE_DELAY_MS);
+        session.loginUser("001", "23146");
+        session.edit().trailer("401252").pro("1234567890").expected(12).palletIndex(1)
+                .freightType("DUAL").temp1("35").temp2("-10").commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        session.flush();
+        journal.close();
+        file.delete();
+        new File(file.getPath() + ".tmp").delete();
+    }
+
+    @Benchmark
+    public void getters(Blackhole bh) {
+        bh.consume(session.getCurrentTrailer());
+        bh.consume(session.getCurrentPro());
+        bh.consume(session.getCurrentPalletIndex());
+        bh.consume(session.hasMorePallets());
+        bh.consume(session.getTemp1());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void gettersContended(Blackhole bh) {
+        bh.consume(session.getCurrentPro());
+        bh.consume(session.getCurrentPalletIndex());
+    }
+
+    @Benchmark
+    public void setter() {
+        session.setCurrentPalletIndex(++counter);
+    }
+
+    @Benchmark
+    public void palletSave() {
+        session.edit().palletIndex(++counter).temp1("35").commitAsync();
+    }
+
+    @Benchmark
+    public int incrementPalletIndex() {
+        return session.incrementPalletIndex();
+    }
+}
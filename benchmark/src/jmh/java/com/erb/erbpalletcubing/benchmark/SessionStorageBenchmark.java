@@ -0,0 +1,87 @@
+package com.erb.erbpalletcubing.benchmark;
+
+import android.content.SharedPreferences;
+
+import com.erb.erbpalletcubing.SessionJournal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SessionStorageBenchmark - One pallet save persisted by SessionJournal vs SharedPreferences
+ * Each operation stores the pallet index and Temp1, as a pallet save does.
+ * The journal appends one small record; XmlPreferences rewrites every key
+ * (keys = how many the store holds) the way SharedPreferences commit() does.
+ * apply() does the same rewrite and fsync on another thread, so the disk
+ * cost per change is the commit number. journalAppend skips the fsync, as
+ * the session writer does for write-behind batches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SessionStorageBenchmark {
+
+    // A logged-in session with a work context and resume state holds 11 keys
+    @Param({"11", "64"})
+    public int keys;
+
+    private File journalFile;
+    private File prefsFile;
+    private SessionJournal journal;
+    private SharedPreferences prefs;
+    private int palletIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        journalFile = File.createTempFile("storage-bench", ".journal");
+        prefsFile = File.createTempFile("storage-bench", ".xml");
+        journal = SessionJournal.open(journalFile);
+        prefs = new XmlPreferences(prefsFile);
+
+        SessionJournal.Batch initial = new SessionJournal.Batch();
+        SharedPreferences.Editor editor = prefs.edit();
+        for (int i = 0; i < keys; i++) {
+            String value = "value-" + i + "-1234567890";
+            initial.putString("key" + i, value);
+            editor.putString("key" + i, value);
+        }
+        journal.commit(initial, true);
+        editor.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        journal.close();
+        journalFile.delete();
+        new File(journalFile.getPath() + ".tmp").delete();
+        prefsFile.delete();
+        new File(prefsFile.getPath() + ".bak").delete();
+    }
+
+    @Benchmark
+    public void journalAppendSync() throws IOException {
+        journal.commit(new SessionJournal.Batch().putInt("currentPalletIndex", ++palletIndex).putString("temp1", "35"), true);
+    }
+
+    @Benchmark
+    public void journalAppend() throws IOException {
+        journal.commit(new SessionJournal.Batch().putInt("currentPalletIndex", ++palletIndex).putString("temp1", "35"), false);
+    }
+
+    @Benchmark
+    public boolean prefsCommit() {
+        return prefs.edit().putInt("currentPalletIndex", ++palletIndex).putString("temp1", "35").commit();
+    }
+}
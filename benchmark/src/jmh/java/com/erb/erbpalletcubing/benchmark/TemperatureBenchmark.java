@@ -0,0 +1,64 @@
+package com.erb.erbpalletcubing.benchmark;
+
+import com.erb.erbpalletcubing.Temperature;
+import com.erb.erbpalletcubing.ValidationHelper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TemperatureBenchmark - parseDouble/replace-chain temperatures vs fixed-point tenths
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TemperatureBenchmark {
+
+    private final String[] inputs = {"35", "-15", "34.5", " 0 ", "-0.5", "50", "abc", "12.0"};
+    private final int[] tenths = {350, -150, 345, 0, -5, 120, -100, 1};
+
+    @Benchmark
+    public void legacyValidate(Blackhole bh) {
+        for (String input : inputs) {
+            bh.consume(LegacyValidators.isValidTemperature(input));
+        }
+    }
+
+    @Benchmark
+    public void fixedPointValidate(Blackhole bh) {
+        for (String input : inputs) {
+            bh.consume(ValidationHelper.checkTemperature(input));
+        }
+    }
+
+    @Benchmark
+    public void legacyFormat(Blackhole bh) {
+        for (String input : inputs) {
+            bh.consume(LegacyValidators.formatTemperatureForDisplay(input));
+            bh.consume(LegacyValidators.formatTemperatureForExport(input));
+        }
+    }
+
+    @Benchmark
+    public void fixedPointFormatFromString(Blackhole bh) {
+        for (String input : inputs) {
+            bh.consume(ValidationHelper.formatTemperatureForDisplay(input));
+            bh.consume(ValidationHelper.formatTemperatureForExport(input));
+        }
+    }
+
+    @Benchmark
+    public void fixedPointFormatFromTenths(Blackhole bh) {
+        for (int value : tenths) {
+            bh.consume(Temperature.toDisplayString(value));
+            bh.consume(Temperature.toExportString(value));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.erb.erbpalletcubing.benchmark;
+
+import com.erb.erbpalletcubing.ValidationHelper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ValidationHelperBenchmark - The validators not covered by FieldValidatorBenchmark
+ * Pallet fields, custom reasons, PRO extraction, temperature formatting and
+ * the numeric helpers, each over a mixed batch of valid and invalid inputs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ValidationHelperBenchmark {
+
+    private final String[] counts = {"1", "12", "999", "0", "1000", " 7 ", "", "x2"};
+    private final String[] temperatures = {"35", "-15", "34.5", " 0 ", "-0.5", "50", "abc", "36°F"};
+    private final String[] heights = {"48", "96", "1", "0", "1000", "", "4 8"};
+    private final String[] quantities = {"1", "24", "9999", "0", "10000", "", "-3"};
+    private final String[] reasons = {"Crushed corner", "Wrong product", "", "   ", "x"};
+    private final String[] pros = {"1234567890", "9990001234", " 1234567890 ", "12345", "", null};
+    private final String[] numbers = {"42", " 42 ", "-7", "", "4x2", null};
+
+    @Benchmark
+    public void isValidPalletCount(Blackhole bh) {
+        for (String input : counts) {
+            bh.consume(ValidationHelper.isValidPalletCount(input));
+        }
+    }
+
+    @Benchmark
+    public void isValidTemperature(Blackhole bh) {
+        for (String input : temperatures) {
+            bh.consume(ValidationHelper.isValidTemperature(input));
+        }
+    }
+
+    @Benchmark
+    public void isValidPalletHeight(Blackhole bh) {
+        for (String input : heights) {
+            bh.consume(ValidationHelper.isValidPalletHeight(input));
+        }
+    }
+
+    @Benchmark
+    public void isValidQuantity(Blackhole bh) {
+        for (String input : quantities) {
+            bh.consume(ValidationHelper.isValidQuantity(input));
+        }
+    }
+
+    @Benchmark
+    public void isValidCustomReason(Blackhole bh) {
+        for (String input : reasons) {
+            bh.consume(ValidationHelper.isValidCustomReason(input));
+        }
+    }
+
+    @Benchmark
+    public void extractPro(Blackhole bh) {
+        for (String input : pros) {
+            bh.consume(ValidationHelper.extractProPrefix(input));
+            bh.consume(ValidationHelper.extractProErb(input));
+        }
+    }
+
+    @Benchmark
+    public void formatTemperatureForDisplay(Blackhole bh) {
+        for (String input : temperatures) {
+            bh.consume(ValidationHelper.formatTemperatureForDisplay(input));
+        }
+    }
+
+    @Benchmark
+    public void formatTemperatureForExport(Blackhole bh) {
+        for (String input : temperatures) {
+            bh.consume(ValidationHelper.formatTemperatureForExport(input));
+        }
+    }
+
+    @Benchmark
+    public void parseIntSafely(Blackhole bh) {
+        for (String input : numbers) {
+            bh.consume(ValidationHelper.parseIntSafely(input, -1));
+        }
+    }
+
+    @Benchmark
+    public void cleanNumericInput(Blackhole bh) {
+        for (String input : numbers) {
+            bh.consume(ValidationHelper.cleanNumericInput(input));
+        }
+    }
+}
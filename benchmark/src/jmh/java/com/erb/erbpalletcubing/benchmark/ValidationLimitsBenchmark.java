@@ -0,0 +1,79 @@
+package com.erb.erbpalletcubing.benchmark;
+
+import com.erb.erbpalletcubing.ValidationHelper;
+import com.erb.erbpalletcubing.ValidationLimits;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ValidationLimitsBenchmark - Hot reload of validation_limits.properties
+ * reload alone, and reload racing three validator threads; the validator
+ * rows show what a reload storm costs the hot validation path.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ValidationLimitsBenchmark {
+
+    private File cooler;
+    private File freezer;
+    private int reloads;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        cooler = writeConfig("cooler", "temp.min=-15\ntemp.max=35\n");
+        freezer = writeConfig("freezer", "temp.min=-30.5\ntemp.max=10\npro.length=11\n");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ValidationLimits.setCurrent(ValidationLimits.DEFAULTS);
+        cooler.delete();
+        freezer.delete();
+    }
+
+    @Benchmark
+    public boolean reload() {
+        return ValidationLimits.reload(++reloads % 2 == 0 ? freezer : cooler);
+    }
+
+    @Benchmark
+    @Group("underLoad")
+    @GroupThreads(1)
+    public boolean reloader() {
+        return ValidationLimits.reload(++reloads % 2 == 0 ? freezer : cooler);
+    }
+
+    @Benchmark
+    @Group("underLoad")
+    @GroupThreads(3)
+    public int validator() {
+        return ValidationHelper.checkTemperature("20") + ValidationHelper.checkProNumber("1234567890");
+    }
+
+    private static File writeConfig(String name, String config) throws IOException {
+        File file = File.createTempFile("limits-" + name, ".properties");
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(config.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+}
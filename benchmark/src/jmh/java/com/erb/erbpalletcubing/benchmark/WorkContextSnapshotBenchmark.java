@@ -0,0 +1,118 @@
+package com.erb.erbpalletcubing.benchmark;
+
+import com.erb.erbpalletcubing.ResumeState;
+import com.erb.erbpalletcubing.SessionJournal;
+import com.erb.erbpalletcubing.SessionManager;
+import com.erb.erbpalletcubing.WorkContextSnapshot;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WorkContextSnapshotBenchmark - Restoring a work context from its snapshot vs replaying the journal
+ * The session holds a trailer 40 pallets in with an OSD pallet draft open.
+ * readSnapshot is the single read WorkContextSnapshot.readFrom() does;
+ * replayJournal opens the session journal that got there and loads a
+ * SessionManager from it. Snapshot and journal sizes are written to
+ * snapshot-size.txt in the reports directory (see build.gradle).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WorkContextSnapshotBenchmark {
+
+    private static final int PALLETS = 40;
+
+    private File journalFile;
+    private File snapshotFile;
+    private byte[] snapshotBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        journalFile = File.createTempFile("snapshot-bench", ".journal");
+        snapshotFile = File.createTempFile("snapshot-bench", ".snapshot");
+
+        SessionJournal journal = SessionJournal.open(journalFile);
+        SessionManager session = new SessionManager(journal, SessionManager.DEFAULT_WRITE_DELAY_MS);
+        session.loginUser("001", "23146");
+        session.edit().trailer("401252").pro("1234567890").expected(PALLETS + 1)
+                .freightType("DUAL").commit();
+        for (int pallet = 0; pallet < PALLETS; pallet++) {
+            session.saveResumeState(ResumeState.builder(ResumeState.SCREEN_PALLET_DETAIL).palletHeight(60).build());
+            session.edit().temp1("35").temp2("-10").commitAsync();
+            session.incrementPalletIndex();
+            session.flush();
+        }
+        session.saveResumeState(ResumeState.builder(ResumeState.SCREEN_PALLET_DETAIL)
+                .palletHeight(72)
+                .condition("OSD")
+                .osd("Damaged", 2, "Cases")
+                .extra("note", "wrapped")
+                .build());
+        session.flush();
+
+        WorkContextSnapshot snapshot = session.snapshot();
+        snapshot.writeTo(snapshotFile);
+        snapshotBytes = snapshot.toBytes();
+        journal.close();
+
+        writeSizes(snapshotFile.length(), journalFile.length());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        journalFile.delete();
+        new File(journalFile.getPath() + ".tmp").delete();
+        snapshotFile.delete();
+        new File(snapshotFile.getPath() + ".tmp").delete();
+    }
+
+    @Benchmark
+    public WorkContextSnapshot readSnapshot() {
+        return WorkContextSnapshot.readFrom(snapshotFile);
+    }
+
+    @Benchmark
+    public WorkContextSnapshot decodeSnapshot() {
+        return WorkContextSnapshot.fromBytes(snapshotBytes);
+    }
+
+    @Benchmark
+    public WorkContextSnapshot replayJournal() throws IOException {
+        SessionJournal journal = SessionJournal.open(journalFile);
+        try {
+            return new SessionManager(journal, SessionManager.DEFAULT_WRITE_DELAY_MS).snapshot();
+        } finally {
+            journal.close();
+        }
+    }
+
+    private static void writeSizes(long snapshotSize, long journalSize) throws IOException {
+        File directory = new File(System.getProperty("benchmark.reports", "build/reports/jmh"));
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        Writer writer = new OutputStreamWriter(new FileOutputStream(new File(directory, "snapshot-size.txt")), "UTF-8");
+        try {
+            writer.write("Work context after " + PALLETS + " pallets with an OSD draft open\n");
+            writer.write("snapshot_bytes=" + snapshotSize + "\n");
+            writer.write("journal_bytes=" + journalSize + "\n");
+        } finally {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.erb.erbpalletcubing.benchmark;
+
+import android.content.SharedPreferences;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * XmlPreferences - The write path of Android's SharedPreferencesImpl on a plain JVM
+ * Every commit() or apply() rewrites the whole map as XML, the way the
+ * platform does: the old file is renamed to a backup, the new file written
+ * and fsynced, then the backup deleted. commit() does it on the calling
+ * thread; apply() on a single background thread (QueuedWork on a device).
+ * The baseline SessionJournal appends are measured against.
+ */
+final class XmlPreferences implements SharedPreferences {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(
+            new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "XmlPreferencesWriter");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    private final File file;
+    private final File backup;
+    private final Object lock = new Object();
+    private Map<String, Object> values = new HashMap<>();
+
+    XmlPreferences(File file) {
+        this.file = file;
+        this.backup = new File(file.getPath() + ".bak");
+    }
+
+    @Override
+    public Map<String, ?> getAll() {
+        synchronized (lock) {
+            return new HashMap<>(values);
+        }
+    }
+
+    @Override
+    public String getString(String key, String defValue) {
+        Object value = get(key);
+        return value instanceof String ? (String) value : defValue;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<String> getStringSet(String key, Set<String> defValues) {
+        Object value = get(key);
+        return value instanceof Set ? (Set<String>) value : defValues;
+    }
+
+    @Override
+    public int getInt(String key, int defValue) {
+        Object value = get(key);
+        return value instanceof Integer ? (Integer) value : defValue;
+    }
+
+    @Override
+    public long getLong(String key, long defValue) {
+        Object value = get(key);
+        return value instanceof Long ? (Long) value : defValue;
+    }
+
+    @Override
+    public float getFloat(String key, float defValue) {
+        Object value = get(key);
+        return value instanceof Float ? (Float) value : defValue;
+    }
+
+    @Override
+    public boolean getBoolean(String key, boolean defValue) {
+        Object value = get(key);
+        return value instanceof Boolean ? (Boolean) value : defValue;
+    }
+
+    @Override
+    public boolean contains(String key) {
+        synchronized (lock) {
+            return values.containsKey(key);
+        }
+    }
+
+    @Override
+    public SharedPreferences.Editor edit() {
+        return new Editor();
+    }
+
+    private Object get(String key) {
+        synchronized (lock) {
+            return values.get(key);
+        }
+    }
+
+    /**
+     * Apply the changes in memory and return the full map to write
+     */
+    private Map<String, Object> applyInMemory(Map<String, Object> changes, boolean clear) {
+        synchronized (lock) {
+            Map<String, Object> next = clear ? new HashMap<String, Object>() : new HashMap<>(values);
+            for (Map.Entry<String, Object> change : changes.entrySet()) {
+                if (change.getValue() == null) {
+                    next.remove(change.getKey());
+                } else {
+                    next.put(change.getKey(), change.getValue());
+                }
+            }
+            values = next;
+            return next;
+        }
+    }
+
+    private synchronized boolean writeToFile(Map<String, Object> snapshot) {
+        if (file.exists() && !backup.exists() && !file.renameTo(backup)) {
+            return false;
+        }
+        try {
+            FileOutputStream out = new FileOutputStream(file);
+            try {
+                Writer writer = new OutputStreamWriter(out, UTF_8);
+                writer.write(toXml(snapshot));
+                writer.flush();
+                out.getFD().sync();
+            } finally {
+                out.close();
+            }
+            backup.delete();
+            return true;
+        } catch (IOException e) {
+            file.delete();
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String toXml(Map<String, Object> snapshot) {
+        StringBuilder xml = new StringBuilder(64 + snapshot.size() * 48);
+        xml.append("<?xml version='1.0' encoding='utf-8' standalone='yes' ?>\n<map>\n");
+        for (Map.Entry<String, Object> entry : snapshot.entrySet()) {
+            Object value = entry.getValue();
+            xml.append("    ");
+            if (value instanceof String) {
+                xml.append("<string name=\"");
+                escape(xml, entry.getKey());
+                xml.append("\">");
+                escape(xml, (String) value);
+                xml.append("</string>\n");
+            } else if (value instanceof Set) {
+                xml.append("<set name=\"");
+                escape(xml, entry.getKey());
+                xml.append("\">\n");
+                for (String item : (Set<String>) value) {
+                    xml.append("        <string>");
+                    escape(xml, item);
+                    xml.append("</string>\n");
+                }
+                xml.append("    </set>\n");
+            } else {
+                String tag = value instanceof Integer ? "int"
+                        : value instanceof Long ? "long"
+                        : value instanceof Float ? "float"
+                        : "boolean";
+                xml.append('<').append(tag).append(" name=\"");
+                escape(xml, entry.getKey());
+                xml.append("\" value=\"").append(value).append("\" />\n");
+            }
+        }
+        return xml.append("</map>\n").toString();
+    }
+
+    private static void escape(StringBuilder xml, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&':
+                    xml.append("&amp;");
+                    break;
+                case '<':
+                    xml.append("&lt;");
+                    break;
+                case '>':
+                    xml.append("&gt;");
+                    break;
+                case '"':
+                    xml.append("&quot;");
+                    break;
+                default:
+                    xml.append(c);
+            }
+        }
+    }
+
+    private final class Editor implements SharedPreferences.Editor {
+
+        private final Map<String, Object> changes = new HashMap<>();
+        private boolean clear;
+
+        @Override
+        public SharedPreferences.Editor putString(String key, String value) {
+            changes.put(key, value);
+            return this;
+        }
+
+        @Override
+        public SharedPreferences.Editor putStringSet(String key, Set<String> values) {
+            changes.put(key, values != null ? new HashSet<>(values) : null);
+            return this;
+        }
+
+        @Override
+        public SharedPreferences.Editor putInt(String key, int value) {
+            changes.put(key, value);
+            return this;
+        }
+
+        @Override
+        public SharedPreferences.Editor putLong(String key, long value) {
+            changes.put(key, value);
+            return this;
+        }
+
+        @Override
+        public SharedPreferences.Editor putFloat(String key, float value) {
+            changes.put(key, value);
+            return this;
+        }
+
+        @Override
+        public SharedPreferences.Editor putBoolean(String key, boolean value) {
+            changes.put(key, value);
+            return this;
+        }
+
+        @Override
+        public SharedPreferences.Editor remove(String key) {
+            changes.put(key, null);
+            return this;
+        }
+
+        @Override
+        public SharedPreferences.Editor clear() {
+            clear = true;
+            return this;
+        }
+
+        @Override
+        public boolean commit() {
+            return writeToFile(applyInMemory(changes, clear));
+        }
+
+        @Override
+        public void apply() {
+            final Map<String, Object> snapshot = applyInMemory(changes, clear);
+            WRITER.execute(new Runnable() {
+                @Override
+                public void run() {
+                    writeToFile(snapshot);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package android.content;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ContentValues - Stand-in for android.content.ContentValues on a plain JVM
+ * A plain column -> value map. Only used by the benchmark module, never
+ * packaged into the app
+ */
+public final class ContentValues {
+
+    private final Map<String, Object> values = new HashMap<>();
+
+    public void put(String key, String value) {
+        values.put(key, value);
+    }
+
+    public void put(String key, Integer value) {
+        values.put(key, value);
+    }
+
+    public void put(String key, Long value) {
+        values.put(key, value);
+    }
+
+    public void putNull(String key) {
+        values.put(key, null);
+    }
+
+    public Object get(String key) {
+        return values.get(key);
+    }
+
+    public int size() {
+        return values.size();
+    }
+}
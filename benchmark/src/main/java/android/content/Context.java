@@ -0,0 +1,18 @@
+package android.content;
+
+import java.io.File;
+
+/**
+ * Context - Compile-time stand-in for android.content.Context on a plain JVM
+ * Only the methods the benchmarked app sources reference; benchmarks never
+ * pass a Context, so none of them is expected to run. Only used by the
+ * benchmark module, never packaged into the app
+ */
+public abstract class Context {
+
+    public static final int MODE_PRIVATE = 0;
+
+    public abstract File getFilesDir();
+
+    public abstract SharedPreferences getSharedPreferences(String name, int mode);
+}
@@ -0,0 +1,53 @@
+package android.content;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SharedPreferences - Stand-in for the android.content.SharedPreferences interface on a plain JVM
+ * Same methods minus the change listeners, so the benchmarks can implement
+ * it. Only used by the benchmark module, never packaged into the app
+ */
+public interface SharedPreferences {
+
+    Map<String, ?> getAll();
+
+    String getString(String key, String defValue);
+
+    Set<String> getStringSet(String key, Set<String> defValues);
+
+    int getInt(String key, int defValue);
+
+    long getLong(String key, long defValue);
+
+    float getFloat(String key, float defValue);
+
+    boolean getBoolean(String key, boolean defValue);
+
+    boolean contains(String key);
+
+    Editor edit();
+
+    interface Editor {
+
+        Editor putString(String key, String value);
+
+        Editor putStringSet(String key, Set<String> values);
+
+        Editor putInt(String key, int value);
+
+        Editor putLong(String key, long value);
+
+        Editor putFloat(String key, float value);
+
+        Editor putBoolean(String key, boolean value);
+
+        Editor remove(String key);
+
+        Editor clear();
+
+        boolean commit();
+
+        void apply();
+    }
+}
@@ -0,0 +1,29 @@
+package android.database;
+
+import java.io.Closeable;
+
+/**
+ * Cursor - Compile-time stand-in for android.database.Cursor on a plain JVM
+ * Only used by the benchmark module, never packaged into the app
+ */
+public interface Cursor extends Closeable {
+
+    int getCount();
+
+    boolean moveToFirst();
+
+    boolean moveToNext();
+
+    int getColumnIndexOrThrow(String columnName);
+
+    String getString(int columnIndex);
+
+    int getInt(int columnIndex);
+
+    long getLong(int columnIndex);
+
+    boolean isNull(int columnIndex);
+
+    @Override
+    void close();
+}
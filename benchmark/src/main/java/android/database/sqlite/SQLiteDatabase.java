@@ -0,0 +1,41 @@
+package android.database.sqlite;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+
+/**
+ * SQLiteDatabase - Compile-time stand-in for android.database.sqlite.SQLiteDatabase on a plain JVM
+ * SQLiteOpenHelper never hands one out. Only used by the benchmark module,
+ * never packaged into the app
+ */
+public abstract class SQLiteDatabase {
+
+    static final String NO_SQLITE = "No SQLite on the benchmark JVM; use DatabaseBenchmarkTest";
+
+    /**
+     * Stand-in for SQLiteDatabase.CursorFactory
+     */
+    public interface CursorFactory {
+    }
+
+    public abstract void execSQL(String sql);
+
+    public abstract void execSQL(String sql, Object[] bindArgs);
+
+    public abstract Cursor rawQuery(String sql, String[] selectionArgs);
+
+    public abstract Cursor query(String table, String[] columns, String selection, String[] selectionArgs,
+                                 String groupBy, String having, String orderBy);
+
+    public abstract long insert(String table, String nullColumnHack, ContentValues values);
+
+    public abstract int delete(String table, String whereClause, String[] whereArgs);
+
+    public abstract SQLiteStatement compileStatement(String sql);
+
+    public abstract void beginTransaction();
+
+    public abstract void setTransactionSuccessful();
+
+    public abstract void endTransaction();
+}
@@ -0,0 +1,34 @@
+package android.database.sqlite;
+
+import android.content.Context;
+
+/**
+ * SQLiteOpenHelper - Compile-time stand-in for android.database.sqlite.SQLiteOpenHelper on a plain JVM
+ * There is no SQLite here: opening a database throws. DatabaseHelper is only
+ * compiled for its CubingRecord and column names. Only used by the benchmark
+ * module, never packaged into the app
+ */
+public abstract class SQLiteOpenHelper {
+
+    protected SQLiteOpenHelper(Context context, String name, SQLiteDatabase.CursorFactory factory, int version) {
+    }
+
+    public abstract void onCreate(SQLiteDatabase db);
+
+    public abstract void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion);
+
+    public void onDowngrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        throw new UnsupportedOperationException("Downgrade from " + oldVersion + " to " + newVersion);
+    }
+
+    public SQLiteDatabase getWritableDatabase() {
+        throw new UnsupportedOperationException(SQLiteDatabase.NO_SQLITE);
+    }
+
+    public SQLiteDatabase getReadableDatabase() {
+        throw new UnsupportedOperationException(SQLiteDatabase.NO_SQLITE);
+    }
+
+    public void close() {
+    }
+}
@@ -0,0 +1,20 @@
+package android.database.sqlite;
+
+/**
+ * SQLiteStatement - Compile-time stand-in for android.database.sqlite.SQLiteStatement on a plain JVM
+ * Only used by the benchmark module, never packaged into the app
+ */
+public abstract class SQLiteStatement {
+
+    public abstract void bindString(int index, String value);
+
+    public abstract void bindLong(int index, long value);
+
+    public abstract void bindNull(int index);
+
+    public abstract void clearBindings();
+
+    public abstract long executeInsert();
+
+    public abstract void close();
+}
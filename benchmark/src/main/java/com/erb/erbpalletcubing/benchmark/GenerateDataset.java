@@ -0,0 +1,67 @@
+package com.erb.erbpalletcubing.benchmark;
+
+import com.erb.erbpalletcubing.RecordExporter;
+import com.erb.erbpalletcubing.SyntheticDataset;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * GenerateDataset - Writes a SyntheticDataset as an export CSV on a plain JVM
+ *   ./gradlew :benchmark:generateDataset -Prows=10000000 -Pseed=1 -Pdays=90 -Pout=build/datasets/cubing.csv.gz
+ * Rows are streamed, so memory use doesn't grow with the row count; an
+ * output name ending in .gz is compressed.
+ */
+public final class GenerateDataset {
+
+    private GenerateDataset() {
+    }
+
+    /**
+     * @param args rows seed days osdRate outputFile
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 5) {
+            System.err.println("Usage: GenerateDataset <rows> <seed> <days> <osdRate> <outputFile>");
+            System.exit(2);
+        }
+        long rows = Long.parseLong(args[0]);
+        long seed = Long.parseLong(args[1]);
+        int days = Integer.parseInt(args[2]);
+        double osdRate = Double.parseDouble(args[3]);
+        File output = new File(args[4]);
+
+        File parent = output.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+
+        SyntheticDataset dataset = new SyntheticDataset(seed, rows)
+                .span(SyntheticDataset.DEFAULT_START_MILLIS, days)
+                .osdRate(osdRate);
+
+        long start = System.nanoTime();
+        OutputStream out = new FileOutputStream(output);
+        if (output.getName().endsWith(".gz")) {
+            out = new GZIPOutputStream(out, 1 << 16);
+        }
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"), 1 << 16);
+        long written;
+        try {
+            written = RecordExporter.write(writer, dataset);
+        } finally {
+            writer.close();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf(Locale.US, "Wrote %d rows (seed %d, %d days) to %s in %.1f s, %.0f rows/s%n",
+                written, seed, days, output, seconds, written / seconds);
+    }
+}